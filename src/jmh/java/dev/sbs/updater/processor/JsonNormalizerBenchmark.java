@@ -0,0 +1,65 @@
+package dev.sbs.updater.processor;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceItemsResponse;
+import dev.sbs.api.collection.concurrent.Concurrent;
+import dev.sbs.updater.processor.resource.ItemFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts the json columns of an item into plain lists and maps, through a Gson round-trip and through {@link JsonNormalizer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonNormalizerBenchmark {
+
+    private static final TypeToken<List<Object>> LIST = new TypeToken<>() { };
+
+    private Gson gson;
+    private ResourceItemsResponse.Item item;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.gson = SimplifiedApi.getGson();
+        this.item = ItemFixtures.items(1, 0).get(0); // Item 0 has every json column
+    }
+
+    @Benchmark
+    public void gsonRoundTrip(Blackhole blackhole) {
+        blackhole.consume(Concurrent.newList(this.gson.fromJson(this.gson.toJson(this.item.getRequirements()), LIST)));
+        blackhole.consume(Concurrent.newList(this.gson.fromJson(this.gson.toJson(this.item.getCatacombsRequirements()), LIST)));
+        blackhole.consume(Concurrent.newList(this.gson.fromJson(this.gson.toJson(this.item.getUpgradeCosts()), LIST)));
+        blackhole.consume(Concurrent.newList(this.gson.fromJson(this.gson.toJson(this.item.getGemstoneSlots()), LIST)));
+        blackhole.consume(Concurrent.newList(this.gson.fromJson(this.gson.toJson(this.item.getSalvages()), LIST)));
+    }
+
+    @Benchmark
+    public void normalizer(Blackhole blackhole) {
+        blackhole.consume(JsonNormalizer.toList(this.item.getRequirements()));
+        blackhole.consume(JsonNormalizer.toList(this.item.getCatacombsRequirements()));
+        blackhole.consume(JsonNormalizer.toList(this.item.getUpgradeCosts()));
+        blackhole.consume(JsonNormalizer.toList(this.item.getGemstoneSlots()));
+        blackhole.consume(JsonNormalizer.toList(this.item.getSalvages()));
+    }
+
+}
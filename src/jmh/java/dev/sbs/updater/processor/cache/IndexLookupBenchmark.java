@@ -0,0 +1,77 @@
+package dev.sbs.updater.processor.cache;
+
+import dev.sbs.api.collection.concurrent.Concurrent;
+import dev.sbs.api.collection.concurrent.ConcurrentList;
+import dev.sbs.api.data.model.skyblock.items.ItemSqlModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Looks up an item by id through a linear scan of the cached table and through its hash index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexLookupBenchmark {
+
+    private static final int KEYS = 1_024;
+
+    @Param({ "5000", "20000", "100000" })
+    private int items;
+
+    private ConcurrentList<ItemSqlModel> list;
+    private IndexedCache.Index<String, ItemSqlModel> index;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<ItemSqlModel> models = IntStream.range(0, this.items)
+            .mapToObj(number -> {
+                ItemSqlModel item = new ItemSqlModel();
+                item.setItemId("ITEM_" + number);
+                return item;
+            })
+            .toList();
+
+        Random random = new Random(this.items);
+        this.list = Concurrent.newList(models);
+        this.index = new IndexedCache<>(models).index("item_id", ItemSqlModel::getItemId);
+        this.keys = IntStream.range(0, KEYS)
+            .mapToObj(__ -> "ITEM_" + random.nextInt(this.items))
+            .toArray(String[]::new);
+    }
+
+    @Benchmark
+    public ItemSqlModel linearScan() {
+        return this.list.findFirstOrNull(ItemSqlModel::getItemId, this.nextKey());
+    }
+
+    @Benchmark
+    public ItemSqlModel indexLookup() {
+        return this.index.get(this.nextKey());
+    }
+
+    private String nextKey() {
+        return this.keys[this.next++ & (KEYS - 1)];
+    }
+
+}
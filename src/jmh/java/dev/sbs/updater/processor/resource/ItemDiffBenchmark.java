@@ -0,0 +1,93 @@
+package dev.sbs.updater.processor.resource;
+
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceItemsResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diffs a single item against its cached row.
+ * <ul>
+ *     <li>{@code unchanged} compares every field and writes nothing.</li>
+ *     <li>{@code changed} alternates between two variants, so every item is rewritten.</li>
+ *     <li>{@code fingerprinted} skips the comparison as the item fingerprint matches the last run.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemDiffBenchmark {
+
+    private static final int ITEMS = 1_000;
+
+    private ResourceItemsProcessor processor;
+    private List<ResourceItemsResponse.Item> items;
+    private List<ResourceItemsResponse.Item> changedItems;
+    private int variant;
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkParams params) {
+        ItemFixtures.seed();
+        this.items = ItemFixtures.items(ITEMS, 0);
+        this.changedItems = ItemFixtures.items(ITEMS, 1);
+        this.processor = new ResourceItemsProcessor(ItemFixtures.response(0, 0));
+        this.processor.getFingerprints().clear();
+        this.items.forEach(this.processor::updateRarity);
+        this.items.forEach(this.processor::updateItemType);
+        this.items.forEach(this.processor::updateItem);
+        this.processor.getWriteBehind().flush();
+
+        if (params.getBenchmark().endsWith("fingerprinted"))
+            this.processor.getFingerprints().save();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.processor.getFingerprints().clear();
+        this.processor.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void unchanged(Blackhole blackhole) {
+        for (ResourceItemsResponse.Item item : this.items)
+            blackhole.consume(this.processor.updateItem(item));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void changed(Blackhole blackhole) {
+        List<ResourceItemsResponse.Item> items = (this.variant++ & 1) == 0 ? this.changedItems : this.items;
+
+        for (ResourceItemsResponse.Item item : items)
+            blackhole.consume(this.processor.updateItem(item));
+
+        this.processor.getWriteBehind().flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void fingerprinted(Blackhole blackhole) {
+        for (ResourceItemsResponse.Item item : this.items)
+            blackhole.consume(this.processor.updateItem(item));
+    }
+
+}
@@ -0,0 +1,169 @@
+package dev.sbs.updater.processor.resource;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceItemsResponse;
+import dev.sbs.api.data.model.skyblock.accessory_data.accessories.AccessorySqlModel;
+import dev.sbs.api.data.model.skyblock.item_types.ItemTypeSqlModel;
+import dev.sbs.api.data.model.skyblock.items.ItemSqlModel;
+import dev.sbs.api.data.model.skyblock.minion_data.minion_tiers.MinionTierSqlModel;
+import dev.sbs.api.data.model.skyblock.minion_data.minions.MinionSqlModel;
+import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
+import dev.sbs.updater.processor.WriteBehind;
+import dev.sbs.updater.processor.cache.ModelCache;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Synthetic items resources in the format of the Hypixel resources api, used to run processors without a database.
+ */
+public final class ItemFixtures {
+
+    public static final List<String> RARITIES = List.of("COMMON", "UNCOMMON", "RARE", "EPIC", "LEGENDARY", "MYTHIC", "SPECIAL", "UNOBTAINABLE");
+    public static final List<String> ITEM_TYPES = List.of("SWORD", "BOW", "HELMET", "CHESTPLATE", "ACCESSORY");
+    private static final int MINION_TIERS = 11;
+    private static final int MINION_SPACING = 50;
+
+    private ItemFixtures() { }
+
+    /**
+     * Replaces the cached items tables with only the known rarities and item types, and discards every write.
+     */
+    public static void seed() {
+        WriteBehind.setTarget((tables, batchSize, transactionSize) -> { });
+
+        ModelCache.register(RaritySqlModel.class, IntStream.range(0, RARITIES.size())
+            .mapToObj(ordinal -> {
+                RaritySqlModel rarity = new RaritySqlModel();
+                rarity.setKey(RARITIES.get(ordinal));
+                rarity.setName(RARITIES.get(ordinal));
+                rarity.setOrdinal(ordinal);
+                return rarity;
+            })
+            .toList()
+        );
+
+        ModelCache.register(ItemTypeSqlModel.class, ITEM_TYPES.stream()
+            .map(key -> {
+                ItemTypeSqlModel itemType = new ItemTypeSqlModel();
+                itemType.setKey(key);
+                itemType.setName(key);
+                return itemType;
+            })
+            .toList()
+        );
+
+        ModelCache.register(ItemSqlModel.class, Collections.emptyList());
+        ModelCache.register(AccessorySqlModel.class, Collections.emptyList());
+        ModelCache.register(MinionSqlModel.class, Collections.emptyList());
+        ModelCache.register(MinionTierSqlModel.class, Collections.emptyList());
+    }
+
+    /**
+     * Builds an items resource.
+     *
+     * @param count the number of items
+     * @param variant items with a different variant differ in name, price and stats
+     */
+    public static @NotNull ResourceItemsResponse response(int count, int variant) {
+        JsonArray items = new JsonArray();
+        IntStream.range(0, count).forEach(index -> items.add(json(index, variant)));
+
+        JsonObject response = new JsonObject();
+        response.addProperty("success", true);
+        response.addProperty("lastUpdated", variant);
+        response.add("items", items);
+        return SimplifiedApi.getGson().fromJson(response, ResourceItemsResponse.class);
+    }
+
+    /**
+     * Builds the items of an items resource.
+     *
+     * @param count the number of items
+     * @param variant items with a different variant differ in name, price and stats
+     */
+    public static @NotNull List<ResourceItemsResponse.Item> items(int count, int variant) {
+        return new ArrayList<>(response(count, variant).getItems());
+    }
+
+    /**
+     * Builds a single item as served by the resources api.
+     *
+     * @param index the item number
+     * @param variant items with a different variant differ in name, price and stats
+     */
+    public static @NotNull JsonObject json(int index, int variant) {
+        JsonObject item = new JsonObject();
+        item.addProperty("id", "ITEM_" + index);
+        item.addProperty("material", "STONE");
+        item.addProperty("name", "Item " + index + (variant == 0 ? "" : " " + variant));
+        item.addProperty("tier", RARITIES.get(index % RARITIES.size()));
+        item.addProperty("npc_sell_price", index + variant);
+
+        if (index % 3 != 0)
+            item.addProperty("category", ITEM_TYPES.get(index % ITEM_TYPES.size()));
+
+        JsonObject stats = new JsonObject();
+        stats.addProperty("DAMAGE", index % 200 + variant);
+        stats.addProperty("STRENGTH", index % 50);
+        stats.addProperty("CRITICAL_DAMAGE", index % 25);
+        item.add("stats", stats);
+
+        JsonArray requirements = new JsonArray();
+        JsonObject requirement = new JsonObject();
+        requirement.addProperty("type", "SKILL");
+        requirement.addProperty("skill", "COMBAT");
+        requirement.addProperty("level", index % 50);
+        requirements.add(requirement);
+        item.add("requirements", requirements);
+
+        if (index % 4 == 0) {
+            JsonArray upgradeCosts = new JsonArray();
+            JsonArray tier = new JsonArray();
+            tier.add(cost("ESSENCE", "essence_type", "WITHER", index % 500));
+            tier.add(cost("ITEM", "item_id", "ENCHANTED_DIAMOND", 8));
+            upgradeCosts.add(tier);
+            item.add("upgrade_costs", upgradeCosts);
+
+            JsonArray gemstoneSlots = new JsonArray();
+            JsonObject gemstoneSlot = new JsonObject();
+            gemstoneSlot.addProperty("slot_type", "JASPER");
+            JsonArray costs = new JsonArray();
+            costs.add(cost("COINS", "coins", null, 250_000));
+            gemstoneSlot.add("costs", costs);
+            gemstoneSlots.add(gemstoneSlot);
+            item.add("gemstone_slots", gemstoneSlots);
+
+            JsonArray salvages = new JsonArray();
+            salvages.add(cost("ESSENCE", "essence_type", "WITHER", 10));
+            item.add("salvages", salvages);
+        }
+
+        if (index % MINION_SPACING == 0) {
+            int minion = index / MINION_SPACING;
+            item.addProperty("generator", "GENERATOR_" + (minion / MINION_TIERS));
+            item.addProperty("generator_tier", minion % MINION_TIERS + 1);
+        }
+
+        return item;
+    }
+
+    private static @NotNull JsonObject cost(@NotNull String type, @NotNull String field, String value, int amount) {
+        JsonObject cost = new JsonObject();
+        cost.addProperty("type", type);
+
+        if (value != null) {
+            cost.addProperty(field, value);
+            cost.addProperty("amount", amount);
+        } else
+            cost.addProperty(field, amount);
+
+        return cost;
+    }
+
+}
@@ -0,0 +1,80 @@
+package dev.sbs.updater.processor.resource;
+
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceItemsResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes a whole items resource end to end, writing to a discarding target instead of the database.
+ * <ul>
+ *     <li>{@code cold} starts every run with empty item, accessory and minion tables.</li>
+ *     <li>{@code warm} re-processes the same resource against the tables of the previous run.</li>
+ * </ul>
+ * Item fingerprints are cleared before every run, so both scenarios diff every item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ItemsProcessorBenchmark {
+
+    @Param({ "5000", "20000", "100000" })
+    private int items;
+
+    @Param({ "cold", "warm" })
+    private String scenario;
+
+    @Param({ "1", "4" })
+    private int parallelism;
+
+    private ResourceItemsResponse response;
+    private ResourceItemsProcessor processor;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        ItemFixtures.seed();
+        this.response = ItemFixtures.response(this.items, 0);
+        this.newProcessor().process();
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        if (this.scenario.equals("cold"))
+            ItemFixtures.seed();
+
+        this.processor = this.newProcessor();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+        this.processor.close();
+    }
+
+    @Benchmark
+    public ResourceItemsProcessor process() {
+        this.processor.process();
+        return this.processor;
+    }
+
+    private ResourceItemsProcessor newProcessor() {
+        ResourceItemsProcessor processor = new ResourceItemsProcessor(ResourceItemsSource.of(this.response), this.parallelism, Integer.MAX_VALUE);
+        processor.getFingerprints().clear();
+        return processor;
+    }
+
+}
@@ -0,0 +1,75 @@
+package dev.sbs.updater.processor.stat;
+
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceItemsResponse;
+import dev.sbs.updater.processor.resource.ItemFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the stats of every item to a stored copy, as separate maps and as shared {@link StatBlock stat blocks}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatBlockBenchmark {
+
+    private static final int ITEMS = 20_000;
+
+    private List<Map<String, Double>> stats;
+    private List<Map<String, Double>> storedStats;
+    private List<Map<String, Double>> blocks;
+    private List<Map<String, Double>> storedBlocks;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<ResourceItemsResponse.Item> items = ItemFixtures.items(ITEMS, 0);
+        this.stats = items.stream().map(ResourceItemsResponse.Item::getStats).toList();
+        this.storedStats = this.stats.stream().<Map<String, Double>>map(LinkedHashMap::new).toList();
+        this.blocks = this.stats.stream().map(StatBlock::of).toList();
+        this.storedBlocks = this.storedStats.stream().map(StatBlock::of).toList();
+    }
+
+    @Benchmark
+    public int mapEquals() {
+        return equalCount(this.stats, this.storedStats);
+    }
+
+    @Benchmark
+    public int blockEquals() {
+        return equalCount(this.blocks, this.storedBlocks);
+    }
+
+    @Benchmark
+    public int compact() {
+        return this.stats.stream().map(StatBlock::of).mapToInt(Map::size).sum();
+    }
+
+    private static int equalCount(List<Map<String, Double>> stats, List<Map<String, Double>> storedStats) {
+        int equal = 0;
+
+        for (int i = 0; i < stats.size(); i++) {
+            if (stats.get(i).equals(storedStats.get(i)))
+                equal++;
+        }
+
+        return equal;
+    }
+
+}
@@ -0,0 +1,136 @@
+package dev.sbs.updater.loadtest;
+
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.data.sql.SqlConfig;
+import dev.sbs.updater.coordination.Lease;
+import dev.sbs.updater.coordination.Shard;
+import dev.sbs.updater.coordination.SqlCoordinator;
+import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs several {@link SqlCoordinator coordinators} against the database of {@link SqlConfig#defaultSql()},
+ * as separate updater instances sharing one database would.
+ * <ul>
+ *     <li>Every instance repeatedly takes the same lease, which must never be held by two instances at once.</li>
+ *     <li>Every instance then takes its shard, which together must own every key exactly once.</li>
+ * </ul>
+ * Options.
+ * <ul>
+ *     <li>{@code --instances=<count>} the number of instances, 4 by default.</li>
+ *     <li>{@code --seconds=<seconds>} the time spent contending for the lease, 20 by default.</li>
+ *     <li>{@code --lease=<seconds>} the lease duration, 3 by default.</li>
+ * </ul>
+ */
+@Log4j2
+public final class CoordinationTest {
+
+    private static final String LEASE = "coordination-test";
+    private static final int KEYS = 100_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        Configurator.setLevel(log, Level.INFO);
+        int instanceCount = 4;
+        Duration contention = Duration.ofSeconds(20);
+        Duration leaseDuration = Duration.ofSeconds(3);
+
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            String value = parts.length == 2 ? parts[1] : "";
+
+            switch (parts[0]) {
+                case "--instances" -> instanceCount = Integer.parseInt(value);
+                case "--seconds" -> contention = Duration.ofSeconds(Long.parseLong(value));
+                case "--lease" -> leaseDuration = Duration.ofSeconds(Long.parseLong(value));
+                default -> throw new IllegalArgumentException(String.format("Unknown option '%s'", arg));
+            }
+        }
+
+        SimplifiedApi.getSessionManager().connect(SqlConfig.defaultSql());
+        List<SqlCoordinator> coordinators = new ArrayList<>();
+
+        for (int i = 0; i < instanceCount; i++)
+            coordinators.add(new SqlCoordinator("coordination-test-" + i, leaseDuration, true));
+
+        int violations = contend(coordinators, contention) + partition(coordinators);
+        coordinators.forEach(SqlCoordinator::close);
+        log.info(violations == 0 ? "Coordination held" : "Coordination violated {} times", violations);
+        System.exit(violations == 0 ? 0 : 1);
+    }
+
+    /**
+     * Contends for a single lease from every instance, counting the times it was held by two instances at once.
+     */
+    private static int contend(@NotNull List<SqlCoordinator> coordinators, @NotNull Duration contention) throws InterruptedException {
+        AtomicReference<String> holder = new AtomicReference<>();
+        AtomicInteger violations = new AtomicInteger();
+        LongAdder acquisitions = new LongAdder();
+        long deadline = System.nanoTime() + contention.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(coordinators.size());
+
+        for (SqlCoordinator coordinator : coordinators) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    try (Lease lease = coordinator.tryAcquire(LEASE)) {
+                        if (lease != null) {
+                            acquisitions.increment();
+
+                            if (!holder.compareAndSet(null, coordinator.getInstance())) {
+                                violations.incrementAndGet();
+                                log.error("{} acquired {} held by {}", coordinator.getInstance(), LEASE, holder.get());
+                            }
+
+                            Thread.sleep(ThreadLocalRandom.current().nextLong(50));
+                            lease.verify();
+                            holder.compareAndSet(coordinator.getInstance(), null);
+                        }
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(contention.toMillis() * 2, TimeUnit.MILLISECONDS);
+        log.info("{} acquisitions of {} by {} instances, {} overlapping", acquisitions.sum(), LEASE, coordinators.size(), violations.get());
+        return violations.get();
+    }
+
+    /**
+     * Counts the keys not owned by exactly one shard.
+     */
+    private static int partition(@NotNull List<SqlCoordinator> coordinators) {
+        List<Shard> shards = coordinators.stream().map(SqlCoordinator::getShard).toList();
+        int[] owners = new int[KEYS];
+        int violations = 0;
+
+        for (int key = 0; key < KEYS; key++) {
+            for (Shard shard : shards) {
+                if (shard.owns("ITEM_" + key))
+                    owners[key]++;
+            }
+
+            if (owners[key] != 1)
+                violations++;
+        }
+
+        log.info("Shards {} own {} keys, {} not owned exactly once", shards, KEYS, violations);
+        return violations;
+    }
+
+}
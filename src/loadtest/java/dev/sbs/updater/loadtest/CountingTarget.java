@@ -0,0 +1,165 @@
+package dev.sbs.updater.loadtest;
+
+import dev.sbs.updater.processor.WriteBehind;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write target counting the rows of every flush, either standing in for the database or in front of it.
+ * <p>
+ * Standing in, nothing is written and every batch can be delayed by a fixed latency, simulating the round trips of a remote database.
+ * In front of a target, rows are counted once written, along with the time spent writing them.
+ * <p>
+ * Batches and transactions are estimates, they are never observed. They follow the session writer: the rows of every table
+ * are written in batches of the batch size, one after another for inserts, updates, retired and restored rows, and a transaction
+ * is committed every transaction size rows.
+ */
+public final class CountingTarget implements WriteBehind.Target {
+
+    private final @NotNull Map<Class<?>, TableCounts> tables = new LinkedHashMap<>();
+    private final @Nullable WriteBehind.Target delegate;
+    private final long batchLatency;
+    private long transactions;
+    private long writeNanos;
+
+    /**
+     * @param batchLatency the simulated latency of every batch, in milliseconds
+     */
+    public CountingTarget(long batchLatency) {
+        this(null, batchLatency);
+    }
+
+    /**
+     * @param delegate the target rows are written to
+     */
+    public CountingTarget(@NotNull WriteBehind.Target delegate) {
+        this(delegate, 0);
+    }
+
+    private CountingTarget(@Nullable WriteBehind.Target delegate, long batchLatency) {
+        this.delegate = delegate;
+        this.batchLatency = batchLatency;
+    }
+
+    /**
+     * Checks if rows are written to another target, instead of being discarded once counted.
+     */
+    public boolean isWriting() {
+        return this.delegate != null;
+    }
+
+    @Override
+    public void write(@NotNull List<WriteBehind.Table> tables, int batchSize, int transactionSize) {
+        Map<Class<?>, TableCounts> counts = count(tables, batchSize); // Before Inserted Rows Get Their Id
+
+        if (this.delegate != null) {
+            long start = System.nanoTime();
+            this.delegate.write(tables, batchSize, transactionSize);
+            this.add(counts, transactionSize, System.nanoTime() - start);
+            return;
+        }
+
+        this.add(counts, transactionSize, 0);
+
+        if (this.batchLatency > 0) {
+            try {
+                Thread.sleep(counts.values().stream().mapToLong(TableCounts::getBatches).sum() * this.batchLatency);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Counts the rows of every table as the session writer writes them, queued inserts that already have an id are updates
+     * and retired or restored rows without an id are never written.
+     */
+    private static @NotNull Map<Class<?>, TableCounts> count(@NotNull List<WriteBehind.Table> tables, int batchSize) {
+        Map<Class<?>, TableCounts> counts = new LinkedHashMap<>();
+
+        for (WriteBehind.Table table : tables) {
+            long committed = table.inserts().stream().filter(model -> model.getId() != null).count();
+            long inserts = table.inserts().size() - committed;
+            long updates = table.updates().size() + committed;
+            long retired = table.retired().stream().filter(model -> model.getId() != null).count();
+            long restored = table.restored().stream().filter(model -> model.getId() != null).count();
+            TableCounts tableCounts = counts.computeIfAbsent(table.modelClass(), __ -> new TableCounts());
+            tableCounts.inserts += inserts;
+            tableCounts.updates += updates;
+            tableCounts.retired += retired;
+            tableCounts.restored += restored;
+            tableCounts.batches += divideUp(inserts, batchSize) + divideUp(updates, batchSize)
+                + divideUp(retired, batchSize) + divideUp(restored, batchSize);
+        }
+
+        return counts;
+    }
+
+    private synchronized void add(@NotNull Map<Class<?>, TableCounts> counts, int transactionSize, long nanos) {
+        counts.forEach((modelClass, tableCounts) -> {
+            TableCounts total = this.tables.computeIfAbsent(modelClass, __ -> new TableCounts());
+            total.inserts += tableCounts.inserts;
+            total.updates += tableCounts.updates;
+            total.retired += tableCounts.retired;
+            total.restored += tableCounts.restored;
+            total.batches += tableCounts.batches;
+        });
+
+        this.transactions += divideUp(counts.values().stream().mapToLong(TableCounts::getRows).sum(), transactionSize);
+        this.writeNanos += nanos;
+    }
+
+    /**
+     * Returns the counts since the last drain and resets them.
+     */
+    public synchronized @NotNull Counts drain() {
+        Counts counts = new Counts(new LinkedHashMap<>(this.tables), this.transactions, this.writeNanos / 1_000_000);
+        this.tables.clear();
+        this.transactions = 0;
+        this.writeNanos = 0;
+        return counts;
+    }
+
+    private static long divideUp(long value, long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    /**
+     * The rows flushed to a single table, batches are estimated.
+     */
+    @Getter
+    public static final class TableCounts {
+
+        private long inserts;
+        private long updates;
+        private long retired;
+        private long restored;
+        private long batches;
+
+        public long getRows() {
+            return this.getInserts() + this.getUpdates() + this.getRetired() + this.getRestored();
+        }
+
+    }
+
+    /**
+     * The rows flushed to every table.
+     *
+     * @param tables the counts per model class
+     * @param transactions the estimated number of transactions
+     * @param writeMillis the time spent writing to the delegate target, 0 without one
+     */
+    public record Counts(@NotNull Map<Class<?>, TableCounts> tables, long transactions, long writeMillis) {
+
+        public long rows() {
+            return this.tables().values().stream().mapToLong(TableCounts::getRows).sum();
+        }
+
+    }
+
+}
@@ -0,0 +1,260 @@
+package dev.sbs.updater.loadtest;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The items, skills and collections resources served by the {@link ResourceStandIn}, in the format of the Hypixel resources api.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Fixtures {
+
+    private static final List<String> RARITIES = List.of("COMMON", "UNCOMMON", "RARE", "EPIC", "LEGENDARY", "MYTHIC", "SPECIAL");
+    private static final List<String> ITEM_TYPES = List.of("SWORD", "BOW", "HELMET", "CHESTPLATE", "ACCESSORY");
+    private static final List<String> SKILLS = List.of("FARMING", "MINING", "COMBAT", "FORAGING", "FISHING", "ENCHANTING", "ALCHEMY", "TAMING", "CARPENTRY", "RUNECRAFTING", "SOCIAL");
+    private static final List<String> COLLECTIONS = List.of("FARMING", "MINING", "COMBAT", "FORAGING", "FISHING");
+    private static final int SKILL_LEVELS = 60;
+    private static final int COLLECTION_TIERS = 11;
+    private static final int MINION_TIERS = 11;
+
+    private final @NotNull JsonObject items;
+    private final @NotNull JsonObject skills;
+    private final @NotNull JsonObject collections;
+
+    /**
+     * Reads recorded resources from {@code items.json}, {@code skills.json} and {@code collections.json}.
+     *
+     * @param directory the directory containing the recorded resources
+     */
+    public static @NotNull Fixtures load(@NotNull Path directory) {
+        return new Fixtures(
+            read(directory.resolve("items.json")),
+            read(directory.resolve("skills.json")),
+            read(directory.resolve("collections.json"))
+        );
+    }
+
+    /**
+     * Builds synthetic resources, one percent of the items are collection items and two percent are minions.
+     *
+     * @param itemCount the number of items
+     */
+    public static @NotNull Fixtures synthetic(int itemCount) {
+        JsonArray items = new JsonArray();
+
+        for (int index = 0; index < itemCount; index++) {
+            JsonObject item = new JsonObject();
+            item.addProperty("id", "ITEM_" + index);
+            item.addProperty("material", "STONE");
+            item.addProperty("name", "Item " + index);
+            item.addProperty("tier", RARITIES.get(index % RARITIES.size()));
+            item.addProperty("category", ITEM_TYPES.get(index % ITEM_TYPES.size()));
+            item.addProperty("npc_sell_price", index);
+
+            JsonObject stats = new JsonObject();
+            stats.addProperty("DAMAGE", index % 200);
+            stats.addProperty("STRENGTH", index % 50);
+            item.add("stats", stats);
+
+            JsonArray requirements = new JsonArray();
+            JsonObject requirement = new JsonObject();
+            requirement.addProperty("type", "SKILL");
+            requirement.addProperty("skill", SKILLS.get(index % SKILLS.size()));
+            requirement.addProperty("level", index % SKILL_LEVELS);
+            requirements.add(requirement);
+            item.add("requirements", requirements);
+
+            if (index % 50 == 0) {
+                int minion = index / 50;
+                item.addProperty("generator", "GENERATOR_" + (minion / MINION_TIERS));
+                item.addProperty("generator_tier", minion % MINION_TIERS + 1);
+            }
+
+            items.add(item);
+        }
+
+        JsonObject skills = new JsonObject();
+
+        for (String key : SKILLS) {
+            JsonArray levels = new JsonArray();
+
+            for (int level = 1; level <= SKILL_LEVELS; level++) {
+                JsonObject skillLevel = new JsonObject();
+                skillLevel.addProperty("level", level);
+                skillLevel.addProperty("totalExpRequired", 50.0 * level * level);
+                JsonArray unlocks = new JsonArray();
+                unlocks.add(key + " Level " + level);
+                skillLevel.add("unlocks", unlocks);
+                levels.add(skillLevel);
+            }
+
+            JsonObject skill = new JsonObject();
+            skill.addProperty("name", key);
+            skill.addProperty("description", key);
+            skill.addProperty("maxLevel", SKILL_LEVELS);
+            skill.add("levels", levels);
+            skills.add(key, skill);
+        }
+
+        JsonObject collections = new JsonObject();
+
+        for (int index = 0; index < COLLECTIONS.size(); index++) {
+            JsonObject collectionItems = new JsonObject();
+
+            for (int itemIndex = index; itemIndex < itemCount; itemIndex += 100 * COLLECTIONS.size()) {
+                JsonArray tiers = new JsonArray();
+
+                for (int tier = 1; tier <= COLLECTION_TIERS; tier++) {
+                    JsonObject collectionTier = new JsonObject();
+                    collectionTier.addProperty("tier", tier);
+                    collectionTier.addProperty("amountRequired", 50 * tier * tier);
+                    JsonArray unlocks = new JsonArray();
+                    unlocks.add("Tier " + tier);
+                    collectionTier.add("unlocks", unlocks);
+                    tiers.add(collectionTier);
+                }
+
+                JsonObject collectionItem = new JsonObject();
+                collectionItem.addProperty("name", "Item " + itemIndex);
+                collectionItem.addProperty("maxTiers", COLLECTION_TIERS);
+                collectionItem.add("tiers", tiers);
+                collectionItems.add("ITEM_" + itemIndex, collectionItem);
+            }
+
+            JsonObject collection = new JsonObject();
+            collection.addProperty("name", COLLECTIONS.get(index));
+            collection.add("items", collectionItems);
+            collections.add(COLLECTIONS.get(index), collection);
+        }
+
+        return new Fixtures(
+            resource("items", items),
+            resource("skills", skills),
+            resource("collections", collections)
+        );
+    }
+
+    /**
+     * Copies these resources with a fraction of every item, skill level and collection tier changed.
+     *
+     * @param fraction the fraction of changed entries
+     * @param generation distinguishes the changes of successive calls
+     */
+    public @NotNull Fixtures churn(double fraction, int generation) {
+        int every = Math.max(1, (int) Math.round(1 / fraction));
+        Fixtures churned = new Fixtures(this.getItems().deepCopy(), this.getSkills().deepCopy(), this.getCollections().deepCopy());
+        int counter = 0;
+
+        for (JsonElement item : churned.getItems().getAsJsonArray("items")) {
+            if (counter++ % every == 0) {
+                JsonObject itemObject = item.getAsJsonObject();
+                itemObject.addProperty("name", itemObject.get("name").getAsString() + " #" + generation);
+            }
+        }
+
+        for (Map.Entry<String, JsonElement> skill : churned.getSkills().getAsJsonObject("skills").entrySet()) {
+            for (JsonElement level : skill.getValue().getAsJsonObject().getAsJsonArray("levels")) {
+                if (counter++ % every == 0)
+                    level.getAsJsonObject().getAsJsonArray("unlocks").add("Churn #" + generation);
+            }
+        }
+
+        for (Map.Entry<String, JsonElement> collection : churned.getCollections().getAsJsonObject("collections").entrySet()) {
+            for (Map.Entry<String, JsonElement> collectionItem : collection.getValue().getAsJsonObject().getAsJsonObject("items").entrySet()) {
+                for (JsonElement tier : collectionItem.getValue().getAsJsonObject().getAsJsonArray("tiers")) {
+                    if (counter++ % every == 0) {
+                        JsonObject tierObject = tier.getAsJsonObject();
+                        tierObject.addProperty("amountRequired", tierObject.get("amountRequired").getAsInt() + generation);
+                    }
+                }
+            }
+        }
+
+        churned.getItems().addProperty("lastUpdated", System.currentTimeMillis());
+        churned.getSkills().addProperty("lastUpdated", System.currentTimeMillis());
+        churned.getCollections().addProperty("lastUpdated", System.currentTimeMillis());
+        return churned;
+    }
+
+    /**
+     * Copies these resources with a fraction of every item, skill level and collection tier removed.
+     *
+     * @param fraction the fraction of removed entries
+     */
+    public @NotNull Fixtures remove(double fraction) {
+        int every = Math.max(1, (int) Math.round(1 / fraction));
+        Fixtures removed = new Fixtures(this.getItems().deepCopy(), this.getSkills().deepCopy(), this.getCollections().deepCopy());
+        int[] counter = { 0 };
+
+        removed.getItems().getAsJsonArray("items").asList().removeIf(item -> counter[0]++ % every == 0);
+
+        for (Map.Entry<String, JsonElement> skill : removed.getSkills().getAsJsonObject("skills").entrySet())
+            skill.getValue().getAsJsonObject().getAsJsonArray("levels").asList().removeIf(level -> counter[0]++ % every == 0);
+
+        for (Map.Entry<String, JsonElement> collection : removed.getCollections().getAsJsonObject("collections").entrySet()) {
+            for (Map.Entry<String, JsonElement> collectionItem : collection.getValue().getAsJsonObject().getAsJsonObject("items").entrySet())
+                collectionItem.getValue().getAsJsonObject().getAsJsonArray("tiers").asList().removeIf(tier -> counter[0]++ % every == 0);
+        }
+
+        removed.getItems().addProperty("lastUpdated", System.currentTimeMillis());
+        removed.getSkills().addProperty("lastUpdated", System.currentTimeMillis());
+        removed.getCollections().addProperty("lastUpdated", System.currentTimeMillis());
+        return removed;
+    }
+
+    public int getItemCount() {
+        return this.getItems().getAsJsonArray("items").size();
+    }
+
+    public int getSkillLevelCount() {
+        return this.getSkills()
+            .getAsJsonObject("skills")
+            .entrySet()
+            .stream()
+            .mapToInt(skill -> skill.getValue().getAsJsonObject().getAsJsonArray("levels").size())
+            .sum();
+    }
+
+    public int getCollectionTierCount() {
+        return this.getCollections()
+            .getAsJsonObject("collections")
+            .entrySet()
+            .stream()
+            .flatMap(collection -> collection.getValue().getAsJsonObject().getAsJsonObject("items").entrySet().stream())
+            .mapToInt(collectionItem -> collectionItem.getValue().getAsJsonObject().getAsJsonArray("tiers").size())
+            .sum();
+    }
+
+    private static @NotNull JsonObject resource(@NotNull String name, @NotNull JsonElement value) {
+        JsonObject resource = new JsonObject();
+        resource.addProperty("success", true);
+        resource.addProperty("lastUpdated", System.currentTimeMillis());
+        resource.addProperty("version", "0.0.0");
+        resource.add(name, value);
+        return resource;
+    }
+
+    private static @NotNull JsonObject read(@NotNull Path path) {
+        try (Reader reader = Files.newBufferedReader(path)) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+}
@@ -0,0 +1,300 @@
+package dev.sbs.updater.loadtest;
+
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceCollectionsResponse;
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceItemsResponse;
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceSkillsResponse;
+import dev.sbs.api.collection.concurrent.ConcurrentList;
+import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
+import dev.sbs.api.data.sql.SqlConfig;
+import dev.sbs.updater.StartupPipeline;
+import dev.sbs.updater.UpdaterOptions;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import dev.sbs.updater.processor.Processor;
+import dev.sbs.updater.processor.ProcessorScheduler;
+import dev.sbs.updater.processor.WriteBehind;
+import dev.sbs.updater.processor.cache.ModelCache;
+import dev.sbs.updater.processor.resource.ResourceCollectionsProcessor;
+import dev.sbs.updater.processor.resource.ResourceItemsProcessor;
+import dev.sbs.updater.processor.resource.ResourceItemsSource;
+import dev.sbs.updater.processor.resource.ResourceItemsStream;
+import dev.sbs.updater.processor.resource.ResourceSkillsProcessor;
+import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Runs the processors end to end against the {@link ResourceStandIn}, counting their rows with a {@link CountingTarget}.
+ * <p>
+ * By default nothing is written, the reported rows are only queued, processor timings exclude database writes and the batches
+ * and transactions are estimates following the session writer, never a measured database throughput.
+ * With {@code --database} the rows are written to the database of {@link SqlConfig#defaultSql()}, and the time spent writing them is measured.
+ * The scenarios start from the rows already in that database, which must hold the rarities, and overwrite them, so it must be a disposable one.
+ * <p>
+ * Four scenarios run in order, sharing their caches and fingerprints as consecutive updater runs would.
+ * <ul>
+ *     <li>{@code cold} processes every resource into empty tables, except for the {@code COMMON} rarity items fall back to.</li>
+ *     <li>{@code warm-no-change} processes the same resources again.</li>
+ *     <li>{@code churn} processes the resources with a fraction of every item, skill level and collection tier changed.</li>
+ *     <li>{@code removal} processes the churned resources with two percent of their entries removed, which are retired.</li>
+ * </ul>
+ * Options, any other option is passed to {@link UpdaterOptions}.
+ * <ul>
+ *     <li>{@code --items=<count>} the number of synthetic items, 20,000 by default.</li>
+ *     <li>{@code --fixtures=<directory>} serves recorded {@code items.json}, {@code skills.json} and {@code collections.json} instead.</li>
+ *     <li>{@code --churn=<fraction>} the fraction of changed entries in the churn scenario, 0.1 by default.</li>
+ *     <li>{@code --latency=<millis>} the simulated database latency of every batch, none by default.</li>
+ *     <li>{@code --database} writes to the database instead of counting only.</li>
+ * </ul>
+ */
+@Log4j2
+public final class LoadTest {
+
+    private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
+
+    public static void main(String[] args) {
+        Configurator.setLevel(log, Level.INFO);
+        int itemCount = 20_000;
+        Path fixturesDirectory = null;
+        double churn = 0.1;
+        double removal = 0.02;
+        long latency = 0;
+        boolean database = false;
+        List<String> updaterArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            String value = parts.length == 2 ? parts[1] : "";
+
+            switch (parts[0]) {
+                case "--items" -> itemCount = Integer.parseInt(value);
+                case "--fixtures" -> fixturesDirectory = Path.of(value);
+                case "--churn" -> churn = Double.parseDouble(value);
+                case "--latency" -> latency = Long.parseLong(value);
+                case "--database" -> database = true;
+                default -> updaterArgs.add(arg);
+            }
+        }
+
+        UpdaterOptions options = UpdaterOptions.parse(updaterArgs.toArray(String[]::new));
+        Processor.setPipelineDepth(options.getPipelineDepth());
+        clearFingerprints(); // Before the processors load their fingerprints
+        CountingTarget target;
+
+        if (database) {
+            SimplifiedApi.getSessionManager().connect(SqlConfig.defaultSql());
+            target = new CountingTarget(WriteBehind.getTarget()); // Caches Loaded From The Database
+        } else {
+            target = new CountingTarget(latency);
+            StartupPipeline.CACHED_MODELS.forEach(modelClass -> ModelCache.register(modelClass, List.of()));
+            RaritySqlModel common = new RaritySqlModel();
+            common.setKey("COMMON");
+            common.setName("Common");
+            ModelCache.register(RaritySqlModel.class, List.of(common));
+        }
+
+        WriteBehind.setTarget(target);
+
+        Fixtures fixtures = fixturesDirectory != null ? Fixtures.load(fixturesDirectory) : Fixtures.synthetic(itemCount);
+        log.info("Serving {} items, {} skill levels and {} collection tiers", fixtures.getItemCount(), fixtures.getSkillLevelCount(), fixtures.getCollectionTierCount());
+
+        try (ResourceStandIn standIn = ResourceStandIn.start()) {
+            Fixtures churned = fixtures.churn(churn, 1);
+            List<Report> reports = List.of(
+                run("cold", fixtures, options, standIn, target),
+                run("warm-no-change", fixtures, options, standIn, target),
+                run("churn", churned, options, standIn, target),
+                run("removal", churned.remove(removal), options, standIn, target)
+            );
+
+            reports.forEach(report -> report.log(target.isWriting()));
+        }
+
+        UpdaterMetrics.writePrometheus(options.getMetricsFile());
+        log.info("Metrics written to {}", options.getMetricsFile());
+    }
+
+    private static @NotNull Report run(@NotNull String scenario, @NotNull Fixtures fixtures, @NotNull UpdaterOptions options, @NotNull ResourceStandIn standIn, @NotNull CountingTarget target) {
+        log.info("Running {}", scenario);
+        standIn.serve(fixtures);
+        long bytesServed = standIn.getBytesServed().get();
+        long start = System.currentTimeMillis();
+
+        StartupPipeline startup = StartupPipeline.start(
+            () -> options.isStreaming() ?
+                ResourceItemsStream.open(standIn.getUri("items")) :
+                ResourceItemsSource.of(fetch(standIn.getUri("items"), ResourceItemsResponse.class)),
+            () -> fetch(standIn.getUri("skills"), ResourceSkillsResponse.class),
+            () -> fetch(standIn.getUri("collections"), ResourceCollectionsResponse.class)
+        );
+        startup.loadCaches();
+        startup.await();
+        long startupTime = System.currentTimeMillis() - start;
+
+        ConcurrentList<ProcessorScheduler.Result> results = new ProcessorScheduler(
+            options.isForce(),
+            new ResourceItemsProcessor(startup.getItems().join(), options.getParallelism(), options.getChunkSize()),
+            new ResourceSkillsProcessor(startup.getSkills().join()),
+            new ResourceCollectionsProcessor(startup.getCollections().join())
+        ).run();
+
+        return new Report(
+            scenario,
+            System.currentTimeMillis() - start,
+            startupTime,
+            standIn.getBytesServed().get() - bytesServed,
+            results,
+            Map.of(
+                ResourceItemsProcessor.class, fixtures.getItemCount(),
+                ResourceSkillsProcessor.class, fixtures.getSkillLevelCount(),
+                ResourceCollectionsProcessor.class, fixtures.getCollectionTierCount()
+            ),
+            target.drain()
+        );
+    }
+
+    private static <T> @NotNull T fetch(@NotNull URI uri, @NotNull Class<T> type) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .header("Accept-Encoding", "gzip")
+            .GET()
+            .build();
+
+        try {
+            HttpResponse<InputStream> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+            try (Reader reader = new InputStreamReader(new GZIPInputStream(response.body()), StandardCharsets.UTF_8)) {
+                return SimplifiedApi.getGson().fromJson(reader, type);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Deletes the fingerprints of previous runs, so the first scenario runs cold.
+     */
+    private static void clearFingerprints() {
+        if (System.getProperty("updater.data.dir") == null) {
+            try {
+                System.setProperty("updater.data.dir", Files.createTempDirectory("updater-loadtest").toString());
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        Path directory = Path.of(System.getProperty("updater.data.dir"));
+
+        if (!Files.isDirectory(directory))
+            return;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".fingerprints")).toList())
+                Files.delete(file);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * The outcome of a single scenario.
+     *
+     * @param scenario the scenario name
+     * @param duration the wall time of the whole run, in milliseconds
+     * @param startupDuration the wall time spent fetching resources and loading caches, in milliseconds
+     * @param bytesServed the compressed resource bytes fetched from the stand-in
+     * @param results the result of every processor
+     * @param entities the number of resource entries handled by each processor
+     * @param counts the rows queued or written
+     */
+    private record Report(
+        @NotNull String scenario,
+        long duration,
+        long startupDuration,
+        long bytesServed,
+        @NotNull List<ProcessorScheduler.Result> results,
+        @NotNull Map<Class<?>, Integer> entities,
+        @NotNull CountingTarget.Counts counts
+    ) {
+
+        private void log(boolean written) {
+            if (written) {
+                log.info(
+                    "[{}] {}ms wall, {}ms startup, {} KiB fetched, {} rows written in {}ms, {} rows/s written",
+                    this.scenario(),
+                    this.duration(),
+                    this.startupDuration(),
+                    this.bytesServed() / 1024,
+                    this.counts().rows(),
+                    this.counts().writeMillis(),
+                    perSecond(this.counts().rows(), this.counts().writeMillis())
+                );
+            } else {
+                log.info(
+                    "[{}] {}ms wall, {}ms startup, {} KiB fetched, {} rows queued and not written, ~{} transactions estimated",
+                    this.scenario(),
+                    this.duration(),
+                    this.startupDuration(),
+                    this.bytesServed() / 1024,
+                    this.counts().rows(),
+                    this.counts().transactions()
+                );
+            }
+
+            this.results().forEach(result -> {
+                if (result.getStatus() == ProcessorScheduler.Status.FAILED)
+                    log.atError().withThrowable(result.getException()).log("[{}]   {} failed", this.scenario(), result.getName());
+
+                int entities = this.entities().getOrDefault(result.getProcessor().getClass(), 0);
+                log.info(
+                    "[{}]   {} {} in {}ms, {} entries, {} entries/s{}",
+                    this.scenario(),
+                    result.getName(),
+                    result.getStatus(),
+                    result.getDuration(),
+                    entities,
+                    perSecond(entities, result.getDuration()),
+                    written ? "" : " excluding database writes"
+                );
+            });
+
+            this.counts().tables().forEach((modelClass, table) -> log.info(
+                "[{}]   {} {} inserts, {} updates, {} retired, {} restored, ~{} batches estimated",
+                this.scenario(),
+                modelClass.getSimpleName(),
+                table.getInserts(),
+                table.getUpdates(),
+                table.getRetired(),
+                table.getRestored(),
+                table.getBatches()
+            ));
+        }
+
+        private static long perSecond(long count, long millis) {
+            return count * 1000 / Math.max(1, millis);
+        }
+
+    }
+
+}
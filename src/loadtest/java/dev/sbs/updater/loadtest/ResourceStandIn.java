@@ -0,0 +1,127 @@
+package dev.sbs.updater.loadtest;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the Hypixel resources api, serving the current {@link Fixtures} over loopback.
+ * <p>
+ * Resources are served at {@code /v2/resources/skyblock/<resource>}, gzip compressed when accepted by the client.
+ */
+public final class ResourceStandIn implements AutoCloseable {
+
+    private static final String PATH = "/v2/resources/skyblock/";
+
+    private final @NotNull HttpServer server;
+    @Getter
+    private final @NotNull AtomicLong bytesServed = new AtomicLong();
+    private volatile @NotNull Map<String, Resource> resources = Map.of();
+
+    private ResourceStandIn(@NotNull HttpServer server) {
+        this.server = server;
+    }
+
+    public static @NotNull ResourceStandIn start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            ResourceStandIn standIn = new ResourceStandIn(server);
+            server.createContext(PATH, standIn::handle);
+            server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "resource-stand-in");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            return standIn;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Replaces the served resources.
+     *
+     * @param fixtures the resources to serve
+     */
+    public void serve(@NotNull Fixtures fixtures) {
+        this.resources = Map.of(
+            "items", Resource.of(fixtures.getItems()),
+            "skills", Resource.of(fixtures.getSkills()),
+            "collections", Resource.of(fixtures.getCollections())
+        );
+    }
+
+    public @NotNull URI getUri(@NotNull String resource) {
+        return URI.create(String.format("http://%s:%d%s%s", this.server.getAddress().getHostString(), this.server.getAddress().getPort(), PATH, resource));
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+    }
+
+    private void handle(@NotNull HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Resource resource = this.resources.get(exchange.getRequestURI().getPath().substring(PATH.length()));
+
+            if (resource == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            boolean gzip = exchange.getRequestHeaders()
+                .getOrDefault("Accept-Encoding", List.of())
+                .stream()
+                .anyMatch(value -> value.contains("gzip"));
+            byte[] body = gzip ? resource.compressed() : resource.plain();
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+
+            if (gzip)
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+
+            exchange.sendResponseHeaders(200, body.length);
+
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+
+            this.bytesServed.addAndGet(body.length);
+        }
+    }
+
+    private record Resource(byte[] plain, byte[] compressed) {
+
+        private static @NotNull Resource of(@NotNull JsonObject json) {
+            byte[] plain = json.toString().getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(plain.length / 4);
+
+            try (GZIPOutputStream outputStream = new GZIPOutputStream(compressed)) {
+                outputStream.write(plain);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+
+            return new Resource(plain, compressed.toByteArray());
+        }
+
+    }
+
+}
@@ -2,16 +2,41 @@ package dev.sbs.updater;
 
 import dev.sbs.api.SimplifiedApi;
 import dev.sbs.api.client.impl.hypixel.request.HypixelRequest;
+import dev.sbs.api.collection.concurrent.Concurrent;
+import dev.sbs.api.collection.concurrent.ConcurrentList;
 import dev.sbs.api.data.sql.SqlConfig;
 import dev.sbs.api.util.StringUtil;
 import dev.sbs.api.util.SystemUtil;
+import dev.sbs.updater.coordination.Coordinator;
+import dev.sbs.updater.coordination.SqlCoordinator;
+import dev.sbs.updater.journal.ChangeJournal;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import dev.sbs.updater.processor.Processor;
+import dev.sbs.updater.processor.ProcessorScheduler;
+import dev.sbs.updater.processor.cache.ChangeFeed;
+import dev.sbs.updater.processor.cache.ModelCache;
 import dev.sbs.updater.processor.resource.ResourceCollectionsProcessor;
 import dev.sbs.updater.processor.resource.ResourceItemsProcessor;
 import dev.sbs.updater.processor.resource.ResourceSkillsProcessor;
+import dev.sbs.updater.proxy.MojangProfileServer;
+import dev.sbs.updater.proxy.ProfileUpstream;
+import dev.sbs.updater.snapshot.Snapshot;
+import dev.sbs.updater.snapshot.SnapshotServer;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.config.Configurator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 @Getter
 @Log4j2
@@ -19,61 +44,211 @@ public class DatabaseUpdater {
 
     private static final HypixelRequest HYPIXEL_RESOURCE_REQUEST = SimplifiedApi.getApiRequest(HypixelRequest.class);
 
-    public DatabaseUpdater() {
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofMinutes(5);
+    private static final Duration PROFILE_TTL = Duration.ofMinutes(5);
+    private static final int PROFILE_CAPACITY = 50_000;
+
+    private final UpdaterOptions options;
+    private final SnapshotServer snapshotServer = new SnapshotServer();
+    private final ConcurrentList<DisposableServer> servers = Concurrent.newList();
+    private @NotNull Coordinator coordinator = Coordinator.LOCAL;
+    private @Nullable ChangeFeed changeFeed;
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> new Thread(runnable, "updater-daemon"));
+
+    public DatabaseUpdater(UpdaterOptions options) {
+        this.options = options;
         SystemUtil.getEnv("HYPIXEL_API_KEY")
             .map(StringUtil::toUUID)
             .ifPresent(value -> SimplifiedApi.getKeyManager().add("HYPIXEL_API_KEY", value));
 
-        /*HttpServer.create()
-            .host("0.0.0.0")
-            .port(8000)
-            .compress(true)
-            .option(ChannelOption.SO_KEEPALIVE, true)
-            .route(routes -> routes
-                .get(
-                    "/mojang/user/{user}",
-                    (request, response) -> Mono.fromCallable(() -> {
-                            MojangProxy mojangProxy = SimplifiedApi.getMojangProxy();
-                            String user = request.param("user"); // Check not null
-                            MojangProfileResponse mojangProfileResponse = StringUtil.isUUID(user) ?
-                                mojangProxy.getMojangProfile(StringUtil.toUUID(user)) :
-                                mojangProxy.getMojangProfile(user);
-                            return SimplifiedApi.getGson().toJson(mojangProfileResponse);
-                        })
-                        .map(Mono::just)
-                        .flatMap(json -> response.status(200).sendString(json).then()))
-            )
-            .bindUntilJavaShutdown(Duration.ofSeconds(30), facade -> System.out.println("Server started"));*/
-
         Configurator.setLevel(log, Level.INFO);
-        log.info("Connecting to Database");
-        SimplifiedApi.getSessionManager().connect(SqlConfig.defaultSql());
-        log.info("Database Initialized in {}ms", SimplifiedApi.getSessionManager().getSession().getInitialization());
-        log.info("Database Cached in {}ms", SimplifiedApi.getSessionManager().getSession().getStartup());
+        log.info("Starting Up");
+        UpdaterMetrics.registerMBean();
+        Processor.setPipelineDepth(this.getOptions().getPipelineDepth());
 
-        log.info("Loading Processors");
-        ResourceItemsProcessor itemsProcessor = new ResourceItemsProcessor(HYPIXEL_RESOURCE_REQUEST.getItems());
-        ResourceSkillsProcessor skillsProcessor = new ResourceSkillsProcessor(HYPIXEL_RESOURCE_REQUEST.getSkills());
-        ResourceCollectionsProcessor collectionsProcessor = new ResourceCollectionsProcessor(HYPIXEL_RESOURCE_REQUEST.getCollections());
+        if (this.getOptions().isProxy()) {
+            MojangProfileServer profileServer = new MojangProfileServer(ProfileUpstream.of(SimplifiedApi.getMojangProxy()), PROFILE_TTL, PROFILE_CAPACITY);
+            DisposableServer server = profileServer.bind("0.0.0.0", this.getOptions().getProxyPort());
+            this.servers.add(server);
+            log.info("Serving Mojang Profiles on {}", server.port());
+        }
+
+        if (this.getOptions().isServing()) {
+            DisposableServer server = this.snapshotServer.bind("0.0.0.0", this.getOptions().getServePort());
+            this.servers.add(server);
+            log.info("Serving SkyBlock Data on {}", server.port());
+        }
+
+        StartupPipeline startup = StartupPipeline.start(HYPIXEL_RESOURCE_REQUEST, this.getOptions().isStreaming());
+        long connectedAt = System.currentTimeMillis();
+        startup.connect(SqlConfig.defaultSql());
+
+        if (this.getOptions().isCoordinated()) {
+            this.coordinator = new SqlCoordinator(this.getOptions().getInstance(), this.getOptions().getLeaseDuration(), this.getOptions().isSharded());
+            this.changeFeed = ChangeFeed.open(this.getOptions().getInstance(), connectedAt);
+            log.info("Coordinating as {}{}", this.getOptions().getInstance(), this.getOptions().isSharded() ? ", sharded" : "");
+        }
+
+        startup.await();
+        boolean succeeded = this.process(startup, this.getOptions().isForce());
+
+        if (!this.getOptions().isDaemon() && this.servers.isEmpty()) {
+            this.closeCoordinator();
+            ChangeJournal.getInstance().close();
+            System.exit(succeeded ? 0 : 1);
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "updater-shutdown"));
+
+        if (this.getOptions().isDaemon()) {
+            log.info("Running as Daemon every {}s", this.getOptions().getInterval().toSeconds());
+            this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            this.scheduleNext();
+        } else
+            Mono.when(this.servers.stream().map(DisposableServer::onDispose).toList()).block(); // Event loop threads do not keep the process alive
+    }
+
+    /**
+     * Fetches every resource again and processes it against the warm caches.
+     */
+    private void poll() {
+        long start = System.currentTimeMillis();
 
         try {
-            log.info("Processing Items");
-            itemsProcessor.process();
-            log.info("Processing Skills");
-            skillsProcessor.process();
-            log.info("Processing Collections");
-            collectionsProcessor.process();
+            StartupPipeline startup = StartupPipeline.start(HYPIXEL_RESOURCE_REQUEST, this.getOptions().isStreaming());
+            startup.loadCaches();
+
+            // Other instances may have written since the last poll
+            if (this.changeFeed != null)
+                this.changeFeed.refresh();
+
+            startup.await();
+            this.process(startup, false);
         } catch (Exception exception) {
             log.atError()
                 .withThrowable(exception)
-                .log("An error occurred while processing the resource API.");
+                .log("Poll failed after {}ms", System.currentTimeMillis() - start);
+        } finally {
+            this.scheduleNext();
+        }
+    }
+
+    /**
+     * Schedules the next poll once the previous one has completed, so polls never overlap.
+     */
+    private void scheduleNext() {
+        long interval = this.getOptions().getInterval().toMillis();
+        long jitter = this.getOptions().getJitter().toMillis();
+        long delay = Math.max(0, interval + (jitter > 0 ? ThreadLocalRandom.current().nextLong(-jitter, jitter + 1) : 0));
+
+        try {
+            this.scheduler.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+            log.info("Next Poll in {}s", TimeUnit.MILLISECONDS.toSeconds(delay));
+        } catch (RejectedExecutionException ignore) {
+            // Shutting Down
         }
+    }
 
-        System.exit(0);
+    /**
+     * Cancels the next poll and waits for a running poll to complete.
+     */
+    private void shutdown() {
+        log.info("Shutting Down");
+        this.scheduler.shutdown();
+
+        try {
+            if (!this.scheduler.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS))
+                log.warn("Running Poll did not complete within {}s", SHUTDOWN_TIMEOUT.toSeconds());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.servers.forEach(server -> server.disposeNow(SHUTDOWN_TIMEOUT));
+        this.closeCoordinator();
+        ChangeJournal.getInstance().close();
+
+        this.writeMetrics();
+        log.info("Shut Down");
+    }
+
+    /**
+     * Runs every processor against the fetched resources.
+     *
+     * @return true if no processor failed
+     */
+    private boolean process(@NotNull StartupPipeline startup, boolean force) {
+        log.info("Loading Processors");
+        ResourceItemsProcessor itemsProcessor = new ResourceItemsProcessor(startup.getItems().join(), this.getOptions().getParallelism(), this.getOptions().getChunkSize());
+        ResourceSkillsProcessor skillsProcessor = new ResourceSkillsProcessor(startup.getSkills().join());
+        ResourceCollectionsProcessor collectionsProcessor = new ResourceCollectionsProcessor(startup.getCollections().join());
+
+        log.info("Processing Resources");
+        long start = System.currentTimeMillis();
+        ConcurrentList<ProcessorScheduler.Result> results = new ProcessorScheduler(this.coordinator, force, itemsProcessor, skillsProcessor, collectionsProcessor).run();
+
+        results.forEach(result -> {
+            if (result.getStatus() == ProcessorScheduler.Status.FAILED) {
+                log.atError()
+                    .withThrowable(result.getException())
+                    .log("{} failed after {}ms", result.getName(), result.getDuration());
+            } else
+                log.info("{} {} in {}ms", result.getName(), result.getStatus(), result.getDuration());
+        });
+
+        log.info("Resources Processed in {}ms", System.currentTimeMillis() - start);
+
+        boolean failed = results.stream().anyMatch(result -> result.getStatus() == ProcessorScheduler.Status.FAILED);
+
+        // Failed writes leave cached rows that were never committed
+        if (this.getOptions().isDaemon() && failed) {
+            log.info("Reloading Caches");
+            ModelCache.reload();
+        }
+
+        if (this.getOptions().isServing())
+            this.publishSnapshot();
+
+        this.writeMetrics();
+        return !failed;
+    }
+
+    /**
+     * Captures the caches once processing has completed, before the next poll can modify them.
+     */
+    private void publishSnapshot() {
+        long start = System.currentTimeMillis();
+
+        try {
+            Snapshot snapshot = Snapshot.capture();
+            this.snapshotServer.publish(snapshot);
+            log.info("Snapshot of {} Entries Published in {}ms", snapshot.getEntryCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException exception) {
+            log.atError()
+                .withThrowable(exception)
+                .log("Unable to capture snapshot, still serving the previous one");
+        }
+    }
+
+    /**
+     * Releases every lease of this instance, rather than leaving other instances to wait for them to expire.
+     */
+    private void closeCoordinator() {
+        if (this.coordinator instanceof SqlCoordinator sqlCoordinator)
+            sqlCoordinator.close();
+    }
+
+    private void writeMetrics() {
+        try {
+            UpdaterMetrics.writePrometheus(this.getOptions().getMetricsFile());
+        } catch (UncheckedIOException exception) {
+            log.atError()
+                .withThrowable(exception)
+                .log("Unable to write metrics to {}", this.getOptions().getMetricsFile());
+        }
     }
 
     public static void main(String[] args) {
-        new DatabaseUpdater();
+        new DatabaseUpdater(UpdaterOptions.parse(args));
     }
 
 }
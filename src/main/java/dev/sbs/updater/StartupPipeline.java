@@ -0,0 +1,180 @@
+package dev.sbs.updater;
+
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.client.impl.hypixel.request.HypixelRequest;
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceCollectionsResponse;
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceSkillsResponse;
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.api.data.model.skyblock.accessory_data.accessories.AccessorySqlModel;
+import dev.sbs.api.data.model.skyblock.collection_data.collection_item_tiers.CollectionItemTierSqlModel;
+import dev.sbs.api.data.model.skyblock.collection_data.collection_items.CollectionItemSqlModel;
+import dev.sbs.api.data.model.skyblock.collection_data.collections.CollectionSqlModel;
+import dev.sbs.api.data.model.skyblock.item_types.ItemTypeSqlModel;
+import dev.sbs.api.data.model.skyblock.items.ItemSqlModel;
+import dev.sbs.api.data.model.skyblock.minion_data.minion_tiers.MinionTierSqlModel;
+import dev.sbs.api.data.model.skyblock.minion_data.minions.MinionSqlModel;
+import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
+import dev.sbs.api.data.model.skyblock.skill_levels.SkillLevelSqlModel;
+import dev.sbs.api.data.model.skyblock.skills.SkillSqlModel;
+import dev.sbs.api.data.sql.SqlConfig;
+import dev.sbs.updater.metrics.Phase;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import dev.sbs.updater.processor.Processor;
+import dev.sbs.updater.processor.cache.ModelCache;
+import dev.sbs.updater.processor.resource.ResourceCollectionsProcessor;
+import dev.sbs.updater.processor.resource.ResourceItemsProcessor;
+import dev.sbs.updater.processor.resource.ResourceItemsSource;
+import dev.sbs.updater.processor.resource.ResourceItemsStream;
+import dev.sbs.updater.processor.resource.ResourceSkillsProcessor;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Overlaps the startup stages of the {@link DatabaseUpdater}.
+ * <p>
+ * The three resources are fetched concurrently as soon as the pipeline starts, while the
+ * session connects, after which every processor cache is loaded in parallel. Streamed items
+ * are only opened, they are read while being processed.
+ */
+@Log4j2
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class StartupPipeline {
+
+    public static final List<Class<? extends SqlModel>> CACHED_MODELS = List.of(
+        RaritySqlModel.class,
+        ItemTypeSqlModel.class,
+        ItemSqlModel.class,
+        AccessorySqlModel.class,
+        MinionSqlModel.class,
+        MinionTierSqlModel.class,
+        SkillSqlModel.class,
+        SkillLevelSqlModel.class,
+        CollectionSqlModel.class,
+        CollectionItemSqlModel.class,
+        CollectionItemTierSqlModel.class
+    );
+
+    private final @NotNull ExecutorService executor;
+
+    @Getter
+    private final @NotNull CompletableFuture<ResourceItemsSource> items;
+    @Getter
+    private final @NotNull CompletableFuture<ResourceSkillsResponse> skills;
+    @Getter
+    private final @NotNull CompletableFuture<ResourceCollectionsResponse> collections;
+
+    /**
+     * Starts fetching the items, skills and collections resources.
+     *
+     * @param request the hypixel request used to fetch the resources
+     * @param streamItems true to stream the items resource instead of fetching it
+     */
+    public static @NotNull StartupPipeline start(@NotNull HypixelRequest request, boolean streamItems) {
+        return start(
+            () -> streamItems ?
+                timed("Items Opened", () -> openStream(request)) :
+                timed("Items Fetched", () -> ResourceItemsSource.of(request.getItems())),
+            () -> timed("Skills Fetched", request::getSkills),
+            () -> timed("Collections Fetched", request::getCollections)
+        );
+    }
+
+    /**
+     * Starts fetching the items, skills and collections resources from the given sources.
+     *
+     * @param items the items resource
+     * @param skills the skills resource
+     * @param collections the collections resource
+     */
+    public static @NotNull StartupPipeline start(
+        @NotNull Supplier<ResourceItemsSource> items,
+        @NotNull Supplier<ResourceSkillsResponse> skills,
+        @NotNull Supplier<ResourceCollectionsResponse> collections
+    ) {
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "startup");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        return new StartupPipeline(
+            executor,
+            CompletableFuture.supplyAsync(() -> fetch(ResourceItemsProcessor.class, items), executor),
+            CompletableFuture.supplyAsync(() -> fetch(ResourceSkillsProcessor.class, skills), executor),
+            CompletableFuture.supplyAsync(() -> fetch(ResourceCollectionsProcessor.class, collections), executor)
+        );
+    }
+
+    /**
+     * Connects the session on the calling thread and loads every processor cache in parallel.
+     *
+     * @param sqlConfig the database to connect to
+     */
+    public void connect(@NotNull SqlConfig sqlConfig) {
+        log.info("Connecting to Database");
+        SimplifiedApi.getSessionManager().connect(sqlConfig);
+        log.info("Database Initialized in {}ms", SimplifiedApi.getSessionManager().getSession().getInitialization());
+        log.info("Database Cached in {}ms", SimplifiedApi.getSessionManager().getSession().getStartup());
+        this.loadCaches();
+    }
+
+    /**
+     * Loads every processor cache in parallel, caches already loaded or registered are kept.
+     */
+    public void loadCaches() {
+        timed("Caches Loaded", () -> CompletableFuture.allOf(
+            CACHED_MODELS.stream()
+                .map(modelClass -> CompletableFuture.runAsync(() -> ModelCache.of(modelClass), this.executor))
+                .toArray(CompletableFuture[]::new)
+        ).join());
+    }
+
+    /**
+     * Waits for every resource to be fetched and releases the startup threads.
+     */
+    public void await() {
+        try {
+            CompletableFuture.allOf(this.getItems(), this.getSkills(), this.getCollections()).join();
+        } finally {
+            this.executor.shutdown();
+        }
+    }
+
+    /**
+     * Opens the items stream, fetching the items through the request if it cannot be opened.
+     */
+    private static @NotNull ResourceItemsSource openStream(@NotNull HypixelRequest request) {
+        try {
+            return ResourceItemsStream.open();
+        } catch (RuntimeException exception) {
+            log.atWarn()
+                .withThrowable(exception)
+                .log("Unable to stream the items resource, fetching it instead");
+            return ResourceItemsSource.of(request.getItems());
+        }
+    }
+
+    private static <T> T fetch(@NotNull Class<? extends Processor<?>> processor, @NotNull Supplier<T> resource) {
+        long start = System.nanoTime();
+        T value = resource.get();
+        UpdaterMetrics.of(processor.getSimpleName()).record(Phase.FETCH, System.nanoTime() - start);
+        return value;
+    }
+
+    private static <T> T timed(@NotNull String stage, @NotNull Supplier<T> supplier) {
+        long start = System.currentTimeMillis();
+        T value = supplier.get();
+        log.info("{} in {}ms", stage, System.currentTimeMillis() - start);
+        return value;
+    }
+
+}
@@ -0,0 +1,147 @@
+package dev.sbs.updater;
+
+import dev.sbs.api.util.SystemUtil;
+import dev.sbs.updater.processor.Processor;
+import dev.sbs.updater.processor.resource.ResourceItemsProcessor;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Command line options of the {@link DatabaseUpdater}.
+ * <ul>
+ *     <li>{@code --parallel} diffs items on every available core.</li>
+ *     <li>{@code --parallelism=<threads>} diffs items on the given number of threads.</li>
+ *     <li>{@code --force} processes every resource and entry, even if unchanged since the last run.</li>
+ *     <li>{@code --stream[=<items>]} streams the items resource, processing and committing 500 or the given number of items at a time.
+ *     Items are committed 500 at a time without streaming.</li>
+ *     <li>{@code --pipeline=<commits>} queues up to 2 or the given number of commits per processor for its writer thread while diffing continues, 0 writes on the diffing thread.</li>
+ *     <li>{@code --daemon[=<seconds>]} keeps running, polling the resources every 600 or the given number of seconds.</li>
+ *     <li>{@code --jitter=<seconds>} randomly shifts each daemon poll by up to 30 or the given number of seconds.</li>
+ *     <li>{@code --proxy[=<port>]} serves Mojang profiles on port 8000 or the given port, running until shut down.</li>
+ *     <li>{@code --serve[=<port>]} serves the updated data on port 8080 or the given port, running until shut down.</li>
+ *     <li>{@code --coordinate[=<instance>]} takes database leases before processing, so only one instance processes each resource. The instance id defaults to the host name and process id.</li>
+ *     <li>{@code --shard} partitions items across every coordinated instance, implies {@code --coordinate}.</li>
+ *     <li>{@code --lease=<seconds>} holds leases for 60 or the given number of seconds without renewal.</li>
+ *     <li>{@code --metrics=<file>} writes the run metrics to the given Prometheus text file, {@code updater.prom} in the data directory by default.</li>
+ * </ul>
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class UpdaterOptions {
+
+    private final int parallelism;
+    private final boolean force;
+    private final boolean streaming;
+    private final int chunkSize;
+    private final int pipelineDepth;
+    private final @Nullable Path metricsFile;
+    private final boolean daemon;
+    private final @NotNull Duration interval;
+    private final @NotNull Duration jitter;
+    private final boolean proxy;
+    private final int proxyPort;
+    private final boolean serving;
+    private final int servePort;
+    private final boolean coordinated;
+    private final @Nullable String instance;
+    private final boolean sharded;
+    private final @NotNull Duration leaseDuration;
+
+    public static @NotNull UpdaterOptions parse(@NotNull String[] args) {
+        int parallelism = 1;
+        boolean force = false;
+        boolean streaming = false;
+        int chunkSize = ResourceItemsProcessor.DEFAULT_CHUNK_SIZE;
+        int pipelineDepth = 2;
+        Path metricsFile = null;
+        boolean daemon = false;
+        Duration interval = Duration.ofMinutes(10);
+        Duration jitter = Duration.ofSeconds(30);
+        boolean proxy = false;
+        int proxyPort = 8000;
+        boolean serving = false;
+        int servePort = 8080;
+        boolean coordinated = false;
+        String instance = null;
+        boolean sharded = false;
+        Duration leaseDuration = Duration.ofSeconds(60);
+
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            String value = parts.length == 2 ? parts[1] : "";
+
+            switch (parts[0]) {
+                case "--parallel" -> parallelism = Runtime.getRuntime().availableProcessors();
+                case "--parallelism" -> parallelism = Integer.parseInt(value);
+                case "--force" -> force = true;
+                case "--stream" -> {
+                    streaming = true;
+                    chunkSize = value.isEmpty() ? ResourceItemsProcessor.DEFAULT_CHUNK_SIZE : Integer.parseInt(value);
+                }
+                case "--pipeline" -> pipelineDepth = Integer.parseInt(value);
+                case "--metrics" -> metricsFile = Path.of(value);
+                case "--daemon" -> {
+                    daemon = true;
+
+                    if (!value.isEmpty())
+                        interval = Duration.ofSeconds(Long.parseLong(value));
+                }
+                case "--jitter" -> jitter = Duration.ofSeconds(Long.parseLong(value));
+                case "--proxy" -> {
+                    proxy = true;
+
+                    if (!value.isEmpty())
+                        proxyPort = Integer.parseInt(value);
+                }
+                case "--serve" -> {
+                    serving = true;
+
+                    if (!value.isEmpty())
+                        servePort = Integer.parseInt(value);
+                }
+                case "--coordinate" -> {
+                    coordinated = true;
+
+                    if (!value.isEmpty())
+                        instance = value;
+                }
+                case "--shard" -> {
+                    coordinated = true;
+                    sharded = true;
+                }
+                case "--lease" -> leaseDuration = Duration.ofSeconds(Long.parseLong(value));
+                default -> throw new IllegalArgumentException(String.format("Unknown option '%s'", arg));
+            }
+        }
+
+        return new UpdaterOptions(parallelism, force, streaming, chunkSize, pipelineDepth, metricsFile, daemon, interval, jitter, proxy, proxyPort, serving, servePort, coordinated, instance, sharded, leaseDuration);
+    }
+
+    public @NotNull String getInstance() {
+        if (this.instance != null)
+            return this.instance;
+
+        String host = SystemUtil.getEnv("HOSTNAME").orElseGet(() -> {
+            try {
+                return InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException exception) {
+                return "localhost";
+            }
+        });
+
+        return host + "-" + ProcessHandle.current().pid();
+    }
+
+    public @NotNull Path getMetricsFile() {
+        return this.metricsFile != null ? this.metricsFile : Processor.DATA_DIRECTORY.resolve("updater.prom");
+    }
+
+}
@@ -0,0 +1,127 @@
+package dev.sbs.updater.coordination;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Coordinates the updater instances writing to the same database.
+ */
+public interface Coordinator {
+
+    /**
+     * Coordinator of a single instance, every lease is granted and it owns every entry.
+     */
+    @NotNull Coordinator LOCAL = new Coordinator() {
+
+        @Override
+        public @NotNull Lease tryAcquire(@NotNull String name) {
+            Lease lease = new Lease(this, name, false);
+            lease.renewed(Long.MAX_VALUE);
+            return lease;
+        }
+
+        @Override
+        public void release(@NotNull Lease lease) { }
+
+        @Override
+        public @NotNull Shard getShard() {
+            return Shard.ALL;
+        }
+
+    };
+
+    /**
+     * Acquires a lease, unless held by another instance.
+     *
+     * @param name the unit of work
+     * @return the acquired lease, or null if held by another instance
+     */
+    @Nullable Lease tryAcquire(@NotNull String name);
+
+    /**
+     * Acquires a lease, waiting for other instances to release it.
+     *
+     * @param name the unit of work
+     * @param timeout the longest time to wait
+     * @throws IllegalStateException if the lease was not acquired in time
+     */
+    default @NotNull Lease acquire(@NotNull String name, @NotNull Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        while (true) {
+            Lease lease = this.tryAcquire(name);
+
+            if (lease != null)
+                return lease;
+
+            if (System.nanoTime() > deadline)
+                throw new IllegalStateException(String.format("Timed out waiting for lease '%s'", name));
+
+            pause();
+        }
+    }
+
+    /**
+     * Releases a held lease, letting other instances acquire it.
+     *
+     * @param lease the held lease
+     */
+    void release(@NotNull Lease lease);
+
+    /**
+     * The partition of entries assigned to this instance, among the live instances.
+     */
+    @NotNull Shard getShard();
+
+    /**
+     * Records that this instance wrote every entry of its shard of a resource.
+     *
+     * @param name the sharded unit of work
+     * @param shard the completed shard
+     * @param resourceFingerprint the fingerprint of the processed resource
+     */
+    default void complete(@NotNull String name, @NotNull Shard shard, long resourceFingerprint) { }
+
+    /**
+     * Checks if every shard of a resource was completed, by this or any other instance.
+     *
+     * @param name the sharded unit of work
+     * @param shards the number of shards
+     * @param resourceFingerprint the fingerprint of the processed resource
+     */
+    default boolean isComplete(@NotNull String name, int shards, long resourceFingerprint) {
+        return true;
+    }
+
+    /**
+     * Waits for every shard of a resource to be completed, by this or any other instance.
+     *
+     * @param name the sharded unit of work
+     * @param shards the number of shards
+     * @param resourceFingerprint the fingerprint of the processed resource
+     * @param timeout the longest time to wait
+     * @throws IllegalStateException if a shard was not completed in time
+     */
+    default void awaitComplete(@NotNull String name, int shards, long resourceFingerprint, @NotNull Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        while (!this.isComplete(name, shards, resourceFingerprint)) {
+            if (System.nanoTime() > deadline)
+                throw new IllegalStateException(String.format("Timed out waiting for every shard of '%s'", name));
+
+            pause();
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(250);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package dev.sbs.updater.coordination;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Exclusive right of an updater instance to write the rows of a named unit of work, until released or expired.
+ * <p>
+ * Leases are renewed by their {@link Coordinator} while held, a lease that could not be renewed before it expired is lost.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public final class Lease implements AutoCloseable {
+
+    private final @NotNull Coordinator coordinator;
+    private final @NotNull String name;
+    /**
+     * Whether another instance held this lease last, and may have written rows this instance has not seen.
+     */
+    private final boolean handedOver;
+    private volatile long expiresAt;
+    private volatile boolean lost;
+
+    void renewed(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    void lose() {
+        this.lost = true;
+    }
+
+    /**
+     * Ensures this lease is still held, called before every write.
+     *
+     * @throws IllegalStateException if the lease was lost
+     */
+    public void verify() {
+        if (this.isLost() || System.currentTimeMillis() > this.getExpiresAt())
+            throw new IllegalStateException(String.format("Lease '%s' was lost", this.getName()));
+    }
+
+    @Override
+    public void close() {
+        this.getCoordinator().release(this);
+    }
+
+}
@@ -0,0 +1,47 @@
+package dev.sbs.updater.coordination;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A partition of resource entries, assigned to one of the live updater instances.
+ *
+ * @param index the index of this partition
+ * @param count the number of partitions
+ */
+public record Shard(int index, int count) {
+
+    /**
+     * The single partition owning every entry.
+     */
+    public static final Shard ALL = new Shard(0, 1);
+
+    public boolean isAll() {
+        return this.count() == 1;
+    }
+
+    /**
+     * Checks if an entry belongs to this partition, by the hash of its key.
+     *
+     * @param key the entry key
+     */
+    public boolean owns(@NotNull String key) {
+        return this.isAll() || Math.floorMod(mix(key.hashCode()), this.count()) == this.index();
+    }
+
+    @Override
+    public String toString() {
+        return this.index() + "/" + this.count();
+    }
+
+    /**
+     * Spreads similar keys, such as sequential item ids, evenly over every partition.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+}
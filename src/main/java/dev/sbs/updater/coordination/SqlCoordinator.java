@@ -0,0 +1,331 @@
+package dev.sbs.updater.coordination;
+
+import dev.sbs.api.SimplifiedApi;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jdbc.ReturningWork;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates updater instances through leases stored in the {@value #TABLE} table of the shared database.
+ * <p>
+ * A lease row holds its owner and expiry, and is taken over once expired. Released leases are expired rather than
+ * deleted, so the next holder knows whether another instance held it last. Held leases and the membership row
+ * of this instance are renewed every third of the lease duration. Live members, ordered by instance id,
+ * each own one {@link Shard} of the entries, and record every completed shard in the {@value #SHARDS_TABLE} table.
+ * <p>
+ * Both tables are created with the rest of the database schema, by {@code schema/updater.sql}.
+ * <p>
+ * Expiry uses the clock of each instance, which must be synchronized well within the lease duration.
+ */
+@Log4j2
+public final class SqlCoordinator implements Coordinator, AutoCloseable {
+
+    public static final String TABLE = "updater_leases";
+    public static final String SHARDS_TABLE = "updater_shards";
+    private static final String MEMBER_PREFIX = "member:";
+
+    @Getter
+    private final @NotNull String instance;
+    @Getter
+    private final @NotNull Duration duration;
+    @Getter
+    private final boolean sharded;
+    private final @NotNull Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private final @NotNull ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "updater-lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Joins the live members and starts renewing leases.
+     *
+     * @param instance the unique id of this instance
+     * @param duration the time a lease is held without renewal
+     * @param sharded partition entries across the live members, otherwise this instance owns every entry
+     */
+    public SqlCoordinator(@NotNull String instance, @NotNull Duration duration, boolean sharded) {
+        this.instance = instance;
+        this.duration = duration;
+        this.sharded = sharded;
+        this.join();
+        long period = Math.max(1, duration.toMillis() / 3);
+        this.heartbeat.scheduleAtFixedRate(this::renew, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public @Nullable Lease tryAcquire(@NotNull String name) {
+        long expiresAt = System.currentTimeMillis() + this.duration.toMillis();
+        String previousOwner = this.claim(name, expiresAt);
+
+        if (previousOwner == null)
+            return null;
+
+        Lease lease = new Lease(this, name, !previousOwner.isEmpty() && !previousOwner.equals(this.instance));
+        lease.renewed(expiresAt);
+        this.leases.add(lease);
+        log.debug("Acquired lease {} until {}, previously held by {}", name, expiresAt, previousOwner);
+        return lease;
+    }
+
+    @Override
+    public void release(@NotNull Lease lease) {
+        if (this.leases.remove(lease))
+            this.expire(lease.getName());
+    }
+
+    @Override
+    public @NotNull Shard getShard() {
+        if (!this.isSharded())
+            return Shard.ALL;
+
+        List<String> members = this.transact(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(String.format(
+                "SELECT owner FROM %s WHERE name LIKE ? AND expires_at >= ? ORDER BY owner",
+                TABLE
+            ))) {
+                statement.setString(1, MEMBER_PREFIX + "%");
+                statement.setLong(2, System.currentTimeMillis());
+                List<String> owners = new ArrayList<>();
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next())
+                        owners.add(resultSet.getString(1));
+                }
+
+                return owners;
+            }
+        });
+
+        int index = members.indexOf(this.instance);
+
+        if (index < 0)
+            throw new IllegalStateException(String.format("Instance '%s' is not a live member", this.instance));
+
+        return new Shard(index, members.size());
+    }
+
+    /**
+     * Replaces the completed resource of a shard, shards are only compared to others of the same count.
+     */
+    @Override
+    public void complete(@NotNull String name, @NotNull Shard shard, long resourceFingerprint) {
+        this.transact(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(String.format(
+                "UPDATE %s SET shard_count = ?, resource_fingerprint = ?, completed_at = ? WHERE name = ? AND shard_index = ?",
+                SHARDS_TABLE
+            ))) {
+                statement.setInt(1, shard.count());
+                statement.setLong(2, resourceFingerprint);
+                statement.setLong(3, System.currentTimeMillis());
+                statement.setString(4, name);
+                statement.setInt(5, shard.index());
+
+                if (statement.executeUpdate() > 0)
+                    return 1;
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(String.format(
+                "INSERT INTO %s (name, shard_index, shard_count, resource_fingerprint, completed_at) VALUES (?, ?, ?, ?, ?)",
+                SHARDS_TABLE
+            ))) {
+                statement.setString(1, name);
+                statement.setInt(2, shard.index());
+                statement.setInt(3, shard.count());
+                statement.setLong(4, resourceFingerprint);
+                statement.setLong(5, System.currentTimeMillis());
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public boolean isComplete(@NotNull String name, int shards, long resourceFingerprint) {
+        int completed = this.transact(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(String.format(
+                "SELECT COUNT(*) FROM %s WHERE name = ? AND shard_count = ? AND resource_fingerprint = ?",
+                SHARDS_TABLE
+            ))) {
+                statement.setString(1, name);
+                statement.setInt(2, shards);
+                statement.setLong(3, resourceFingerprint);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getInt(1);
+                }
+            }
+        });
+
+        return completed == shards;
+    }
+
+    /**
+     * Stops renewing leases, releases every held lease and leaves the live members.
+     */
+    @Override
+    public void close() {
+        this.heartbeat.shutdownNow();
+        List.copyOf(this.leases).forEach(this::release);
+        this.expire(MEMBER_PREFIX + this.instance);
+    }
+
+    /**
+     * Extends every held lease and the membership of this instance, losing leases taken over by another instance or expired while the database was unreachable.
+     */
+    private void renew() {
+        for (Lease lease : this.leases) {
+            long expiresAt = System.currentTimeMillis() + this.duration.toMillis();
+
+            try {
+                int updated = this.transact(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(String.format("UPDATE %s SET expires_at = ? WHERE name = ? AND owner = ?", TABLE))) {
+                        statement.setLong(1, expiresAt);
+                        statement.setString(2, lease.getName());
+                        statement.setString(3, this.instance);
+                        return statement.executeUpdate();
+                    }
+                });
+
+                if (updated == 1)
+                    lease.renewed(expiresAt);
+                else
+                    this.lost(lease);
+            } catch (RuntimeException exception) {
+                log.atWarn()
+                    .withThrowable(exception)
+                    .log("Unable to renew lease {}", lease.getName());
+
+                if (System.currentTimeMillis() > lease.getExpiresAt())
+                    this.lost(lease);
+            }
+        }
+
+        this.join();
+    }
+
+    /**
+     * Claims or extends the membership row of this instance, rejoining if it expired.
+     */
+    private void join() {
+        if (this.claim(MEMBER_PREFIX + this.instance, System.currentTimeMillis() + this.duration.toMillis()) == null)
+            log.warn("Unable to join the live members as {}", this.instance);
+    }
+
+    /**
+     * Takes over a lease row that is expired or already owned by this instance, or inserts it if missing.
+     *
+     * @return the owner the row was taken over from, empty if it was missing, or null if owned by another instance
+     */
+    private @Nullable String claim(@NotNull String name, long expiresAt) {
+        long now = System.currentTimeMillis();
+
+        try {
+            return this.transact(connection -> {
+                String previousOwner = "";
+                long previousExpiresAt = 0;
+
+                try (PreparedStatement statement = connection.prepareStatement(String.format("SELECT owner, expires_at FROM %s WHERE name = ? FOR UPDATE", TABLE))) {
+                    statement.setString(1, name);
+
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        if (resultSet.next()) {
+                            previousOwner = resultSet.getString(1);
+                            previousExpiresAt = resultSet.getLong(2);
+                        }
+                    }
+                }
+
+                if (previousOwner.isEmpty()) {
+                    try (PreparedStatement statement = connection.prepareStatement(String.format("INSERT INTO %s (name, owner, expires_at) VALUES (?, ?, ?)", TABLE))) {
+                        statement.setString(1, name);
+                        statement.setString(2, this.instance);
+                        statement.setLong(3, expiresAt);
+                        statement.executeUpdate();
+                        return previousOwner;
+                    }
+                }
+
+                if (!previousOwner.equals(this.instance) && previousExpiresAt >= now)
+                    return null; // Held By Another Instance
+
+                try (PreparedStatement statement = connection.prepareStatement(String.format("UPDATE %s SET owner = ?, expires_at = ? WHERE name = ?", TABLE))) {
+                    statement.setString(1, this.instance);
+                    statement.setLong(2, expiresAt);
+                    statement.setString(3, name);
+                    statement.executeUpdate();
+                    return previousOwner;
+                }
+            });
+        } catch (ConstraintViolationException exception) {
+            log.atDebug()
+                .withThrowable(exception)
+                .log("Unable to claim lease {}", name);
+            return null; // Inserted By Another Instance
+        } catch (RuntimeException exception) {
+            log.atWarn()
+                .withThrowable(exception)
+                .log("Unable to claim lease {}", name);
+            return null;
+        }
+    }
+
+    /**
+     * Expires a lease row owned by this instance, keeping its owner so the next holder knows it changed hands.
+     */
+    private void expire(@NotNull String name) {
+        try {
+            this.transact(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(String.format("UPDATE %s SET expires_at = 0 WHERE name = ? AND owner = ?", TABLE))) {
+                    statement.setString(1, name);
+                    statement.setString(2, this.instance);
+                    return statement.executeUpdate();
+                }
+            });
+        } catch (RuntimeException exception) {
+            log.atWarn()
+                .withThrowable(exception)
+                .log("Unable to release lease {}", name);
+        }
+    }
+
+    private void lost(@NotNull Lease lease) {
+        log.warn("Lost lease {}", lease.getName());
+        lease.lose();
+        this.leases.remove(lease);
+    }
+
+    private <V> V transact(@NotNull ReturningWork<V> work) {
+        try (Session session = SimplifiedApi.getSessionManager().getSession().openSession()) {
+            Transaction transaction = session.beginTransaction();
+
+            try {
+                V value = session.doReturningWork(work);
+                transaction.commit();
+                return value;
+            } catch (RuntimeException exception) {
+                if (transaction.isActive())
+                    transaction.rollback();
+
+                throw exception;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package dev.sbs.updater.journal;
+
+import dev.sbs.updater.metrics.Operation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A row inserted, updated or retired by the updater.
+ *
+ * @param timestamp the time the change was committed, in epoch milliseconds
+ * @param operation the row operation, {@link Operation#INSERT}, {@link Operation#UPDATE}, {@link Operation#RETIRE} or {@link Operation#RESTORE}
+ * @param table the table name
+ * @param key the resource key of the row, such as an item id
+ * @param fields the changed fields of updated rows and the cleared flag of retired rows, empty for inserted rows
+ */
+public record Change(long timestamp, @NotNull Operation operation, @NotNull String table, @NotNull String key, @NotNull List<FieldChange> fields) {
+}
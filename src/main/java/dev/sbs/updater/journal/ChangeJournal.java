@@ -0,0 +1,463 @@
+package dev.sbs.updater.journal;
+
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.updater.metrics.Operation;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import dev.sbs.updater.processor.Processor;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.Hibernate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Append-only binary journal of every row inserted, updated, retired or restored by the updater.
+ * <p>
+ * Processors collect their changes in a {@link Batch} and append it once the rows are committed,
+ * so the journal never lists a change that was rolled back. Each record is length prefixed,
+ * a record torn by a crash ends the journal when read, and is truncated once the journal is opened for appending.
+ * <p>
+ * The journal file stays open between appends, until {@link #close() closed} or rotated.
+ * <p>
+ * A journal reaching {@link #MAX_SIZE}, unless opened with another size, is moved to a single rotated generation, replacing the previous one,
+ * so the latest changes are kept in bounded space and read as a stream.
+ * <pre>
+ * record := length:int timestamp:long operation:byte table:str key:str count:short (name:str old:str new:str)*
+ * str    := length:int utf8:byte[length] | -1 for null
+ * </pre>
+ */
+@Log4j2
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ChangeJournal {
+
+    private static final int MAGIC = 0x53424A31; // SBJ1
+
+    /**
+     * Size at which the journal is rotated.
+     */
+    public static final long MAX_SIZE = 64L * 1024 * 1024;
+    private static final @NotNull ChangeJournal instance = of(Processor.DATA_DIRECTORY.resolve("changes.journal"));
+
+    @Getter
+    private final @NotNull Path path;
+    private final long maxSize;
+    private @Nullable FileChannel channel;
+
+    public static @NotNull ChangeJournal getInstance() {
+        return instance;
+    }
+
+    public static @NotNull ChangeJournal of(@NotNull Path path) {
+        return of(path, MAX_SIZE);
+    }
+
+    /**
+     * Opens a journal rotated at the given size.
+     *
+     * @param path the journal file
+     * @param maxSize the size at which the journal is rotated, in bytes
+     */
+    public static @NotNull ChangeJournal of(@NotNull Path path, long maxSize) {
+        return new ChangeJournal(path, maxSize);
+    }
+
+    /**
+     * Appends every change in the batch, stamped with the current time, and clears the batch.
+     * <p>
+     * A journal that would grow past its maximum size is rotated first.
+     *
+     * @param batch the changes to append
+     */
+    public synchronized void append(@NotNull Batch batch) {
+        byte[] records = batch.drain(System.currentTimeMillis());
+
+        if (records.length == 0)
+            return;
+
+        try {
+            FileChannel channel = this.open();
+
+            if (channel.size() > Integer.BYTES && channel.size() + records.length > this.maxSize) {
+                this.close();
+                Files.move(this.getPath(), this.getRotatedPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel = this.open();
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(records);
+
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        } catch (IOException exception) {
+            this.close(); // Reopened And Truncated By The Next Append
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Closes the journal file, it is opened again by the next append.
+     */
+    public synchronized void close() {
+        if (this.channel == null)
+            return;
+
+        try {
+            this.channel.close();
+        } catch (IOException exception) {
+            log.atWarn()
+                .withThrowable(exception)
+                .log("Unable to close change journal {}", this.getPath());
+        } finally {
+            this.channel = null;
+        }
+    }
+
+    /**
+     * Opens the journal file for appending, truncating a record torn by a crash so new records follow the last valid one.
+     */
+    private @NotNull FileChannel open() throws IOException {
+        if (this.channel != null)
+            return this.channel;
+
+        Files.createDirectories(this.getPath().toAbsolutePath().getParent());
+        long valid = read(this.getPath(), change -> false, new ArrayList<>());
+        FileChannel channel = FileChannel.open(this.getPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            if (valid < channel.size()) {
+                log.warn("Truncating {} bytes after the last valid record of {}", channel.size() - valid, this.getPath());
+                channel.truncate(valid);
+            }
+
+            if (valid == 0)
+                channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, MAGIC), 0);
+
+            channel.position(channel.size());
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+
+        this.channel = channel;
+        return channel;
+    }
+
+    /**
+     * The previous generation of the journal, replaced on every rotation.
+     */
+    public @NotNull Path getRotatedPath() {
+        return this.getPath().resolveSibling(this.getPath().getFileName() + ".1");
+    }
+
+    /**
+     * Reads every change matching the filter, in journal order, including the rotated journal.
+     *
+     * @param filter the changes to keep
+     */
+    public synchronized @NotNull List<Change> read(@NotNull Predicate<Change> filter) {
+        List<Change> changes = new ArrayList<>();
+        read(this.getRotatedPath(), filter, changes);
+        read(this.getPath(), filter, changes);
+        return changes;
+    }
+
+    /**
+     * Reads the valid records of a journal file.
+     *
+     * @return the length of the file up to the end of its last valid record, 0 if it is missing or unrecognized
+     */
+    private static long read(@NotNull Path path, @NotNull Predicate<Change> filter, @NotNull List<Change> changes) {
+        if (!Files.exists(path))
+            return 0;
+
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            long size = Files.size(path);
+
+            if (size < Integer.BYTES || inputStream.readInt() != MAGIC) {
+                log.warn("Ignoring unrecognized change journal {}", path);
+                return 0;
+            }
+
+            long valid = Integer.BYTES;
+
+            while (size - valid >= Integer.BYTES) {
+                int length = inputStream.readInt();
+                Change change = length >= 0 && length <= size - valid - Integer.BYTES ? readChange(ByteBuffer.wrap(inputStream.readNBytes(length))) : null;
+
+                if (change == null) {
+                    log.warn("Ignoring torn record at the end of {}", path);
+                    return valid;
+                }
+
+                valid += Integer.BYTES + length;
+
+                if (filter.test(change))
+                    changes.add(change);
+            }
+
+            return valid;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Reads every change committed at or after the given time.
+     *
+     * @param since the earliest commit time, in epoch milliseconds
+     */
+    public @NotNull List<Change> readSince(long since) {
+        return this.read(change -> change.timestamp() >= since);
+    }
+
+    /**
+     * Collects the keys of every row changed at or after the given time, per table.
+     *
+     * @param since the earliest commit time, in epoch milliseconds
+     */
+    public @NotNull Map<String, Set<String>> getChangedKeys(long since) {
+        Map<String, Set<String>> changedKeys = new LinkedHashMap<>();
+        this.readSince(since).forEach(change -> changedKeys.computeIfAbsent(change.table(), __ -> new LinkedHashSet<>()).add(change.key()));
+        return changedKeys;
+    }
+
+    /**
+     * Describes a field value for the journal, rows are referenced by table and id instead of being serialized.
+     *
+     * @param value the field value
+     */
+    public static @Nullable String describe(@Nullable Object value) {
+        if (value == null)
+            return null;
+
+        if (value instanceof SqlModel model)
+            return UpdaterMetrics.getTableName(Hibernate.getClass(model)) + "#" + model.getId();
+
+        if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean || value instanceof Enum<?>)
+            return value.toString();
+
+        return SimplifiedApi.getGson().toJson(value);
+    }
+
+    /**
+     * Decodes a record, or returns null if it is malformed.
+     */
+    private static @Nullable Change readChange(@NotNull ByteBuffer buffer) {
+        try {
+            long timestamp = buffer.getLong();
+            int ordinal = buffer.get();
+
+            if (ordinal < 0 || ordinal >= Operation.values().length)
+                return null;
+
+            Operation operation = Operation.values()[ordinal];
+            String table = readString(buffer);
+            String key = readString(buffer);
+            int count = buffer.getShort() & 0xFFFF;
+            List<FieldChange> fields = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                String name = readString(buffer);
+
+                if (name == null)
+                    return null;
+
+                fields.add(new FieldChange(name, readString(buffer), readString(buffer)));
+            }
+
+            return table != null && key != null ? new Change(timestamp, operation, table, key, Collections.unmodifiableList(fields)) : null;
+        } catch (BufferUnderflowException exception) {
+            return null;
+        }
+    }
+
+    private static String readString(@NotNull ByteBuffer buffer) {
+        int length = buffer.getInt();
+
+        if (length < 0)
+            return null;
+
+        if (length > buffer.remaining())
+            throw new BufferUnderflowException();
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Changes of a processor waiting for their rows to be committed.
+     * <p>
+     * Changes are encoded when drained, once their rows are written, so referenced rows inserted by the same commit have an id.
+     */
+    public static final class Batch {
+
+        private final @NotNull List<Record> records = new ArrayList<>();
+
+        /**
+         * Adds an inserted row.
+         *
+         * @param model the inserted row
+         * @param key the resource key of the row
+         */
+        public void inserted(@NotNull SqlModel model, @NotNull String key) {
+            this.add(Operation.INSERT, model, key, Collections.emptyList());
+        }
+
+        /**
+         * Adds an updated row, rows without changed fields are skipped.
+         *
+         * @param model the updated row
+         * @param key the resource key of the row
+         * @param fields the changed fields
+         */
+        public void updated(@NotNull SqlModel model, @NotNull String key, @NotNull List<FieldDiff> fields) {
+            if (!fields.isEmpty())
+                this.add(Operation.UPDATE, model, key, fields);
+        }
+
+        /**
+         * Adds a retired row, no longer in the resource.
+         *
+         * @param model the retired row
+         * @param key the resource key of the row
+         */
+        public void retired(@NotNull SqlModel model, @NotNull String key) {
+            this.add(Operation.RETIRE, model, key, Collections.emptyList());
+        }
+
+        /**
+         * Adds a restored row, retired and back in the resource.
+         *
+         * @param model the restored row
+         * @param key the resource key of the row
+         */
+        public void restored(@NotNull SqlModel model, @NotNull String key) {
+            this.add(Operation.RESTORE, model, key, Collections.emptyList());
+        }
+
+        public synchronized int size() {
+            return this.records.size();
+        }
+
+        public synchronized void clear() {
+            this.records.clear();
+        }
+
+        /**
+         * Moves every change into a new batch, leaving this batch empty.
+         */
+        public @NotNull Batch detach() {
+            return this.detach(UnaryOperator.identity());
+        }
+
+        /**
+         * Moves every change into a new batch, leaving this batch empty.
+         *
+         * @param rows maps the rows referenced by changed fields to the rows described once committed
+         */
+        public synchronized @NotNull Batch detach(@NotNull UnaryOperator<SqlModel> rows) {
+            Batch batch = new Batch();
+
+            for (Record record : this.records) {
+                List<FieldDiff> fields = record.fields()
+                    .stream()
+                    .map(field -> new FieldDiff(field.name(), map(field.oldValue(), rows), map(field.newValue(), rows)))
+                    .toList();
+
+                batch.records.add(new Record(record.operation(), record.table(), record.key(), fields));
+            }
+
+            this.clear();
+            return batch;
+        }
+
+        private static @Nullable Object map(@Nullable Object value, @NotNull UnaryOperator<SqlModel> rows) {
+            return value instanceof SqlModel model ? rows.apply(model) : value;
+        }
+
+        private synchronized void add(@NotNull Operation operation, @NotNull SqlModel model, @NotNull String key, @NotNull List<FieldDiff> fields) {
+            this.records.add(new Record(operation, UpdaterMetrics.getTableName(Hibernate.getClass(model)), key, fields));
+        }
+
+        private synchronized byte[] drain(long timestamp) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream outputStream = new DataOutputStream(bytes);
+
+            try {
+                for (Record record : this.records) {
+                    byte[] encoded = record.encode(timestamp);
+                    outputStream.writeInt(encoded.length);
+                    outputStream.write(encoded);
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+
+            this.clear();
+            return bytes.toByteArray();
+        }
+
+    }
+
+    private record Record(@NotNull Operation operation, @NotNull String table, @NotNull String key, @NotNull List<FieldDiff> fields) {
+
+        private byte[] encode(long timestamp) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream outputStream = new DataOutputStream(bytes);
+            outputStream.writeLong(timestamp);
+            outputStream.writeByte(this.operation().ordinal());
+            writeString(outputStream, this.table());
+            writeString(outputStream, this.key());
+            outputStream.writeShort(this.fields().size());
+
+            for (FieldDiff diff : this.fields()) {
+                FieldChange field = diff.describe();
+                writeString(outputStream, field.name());
+                writeString(outputStream, field.oldValue());
+                writeString(outputStream, field.newValue());
+            }
+
+            return bytes.toByteArray();
+        }
+
+        private static void writeString(@NotNull DataOutputStream outputStream, @Nullable String value) throws IOException {
+            if (value == null) {
+                outputStream.writeInt(-1);
+                return;
+            }
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            outputStream.writeInt(bytes.length);
+            outputStream.write(bytes);
+        }
+
+    }
+
+}
@@ -0,0 +1,14 @@
+package dev.sbs.updater.journal;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A single changed column of a row.
+ *
+ * @param name the field name
+ * @param oldValue the previous value, null if it was null
+ * @param newValue the new value, null if it is null
+ */
+public record FieldChange(@NotNull String name, @Nullable String oldValue, @Nullable String newValue) {
+}
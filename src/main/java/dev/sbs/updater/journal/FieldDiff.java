@@ -0,0 +1,34 @@
+package dev.sbs.updater.journal;
+
+import dev.sbs.api.data.model.SqlModel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A changed field of a row not yet committed.
+ * <p>
+ * Values are described when the diff is taken, except referenced rows, which are kept until committed
+ * since a row inserted in the same commit has no id before it is written.
+ *
+ * @param name the field name
+ * @param oldValue the previous value, a description or a referenced row
+ * @param newValue the new value, a description or a referenced row
+ */
+public record FieldDiff(@NotNull String name, @Nullable Object oldValue, @Nullable Object newValue) {
+
+    public static @NotNull FieldDiff of(@NotNull String name, @Nullable Object oldValue, @Nullable Object newValue) {
+        return new FieldDiff(name, pending(oldValue), pending(newValue));
+    }
+
+    /**
+     * Describes the change once its row is committed.
+     */
+    public @NotNull FieldChange describe() {
+        return new FieldChange(this.name(), ChangeJournal.describe(this.oldValue()), ChangeJournal.describe(this.newValue()));
+    }
+
+    private static @Nullable Object pending(@Nullable Object value) {
+        return value instanceof SqlModel ? value : ChangeJournal.describe(value);
+    }
+
+}
@@ -0,0 +1,76 @@
+package dev.sbs.updater.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed buckets, in the layout of a Prometheus histogram.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Upper bounds of the buckets in seconds, the last bucket is unbounded.
+     */
+    public static final double[] BUCKETS = { 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5 };
+    private static final long[] BUCKET_NANOS = new long[BUCKETS.length];
+
+    static {
+        for (int i = 0; i < BUCKETS.length; i++)
+            BUCKET_NANOS[i] = (long) (BUCKETS[i] * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private final @NotNull LongAdder[] buckets = new LongAdder[BUCKETS.length + 1];
+    private final @NotNull LongAdder sum = new LongAdder();
+    private final @NotNull LongAdder count = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < this.buckets.length; i++)
+            this.buckets[i] = new LongAdder();
+    }
+
+    /**
+     * Records the same latency a number of times.
+     *
+     * @param nanos the latency in nanoseconds
+     * @param times the number of observations
+     */
+    public void observe(long nanos, long times) {
+        int bucket = 0;
+
+        while (bucket < BUCKET_NANOS.length && nanos > BUCKET_NANOS[bucket])
+            bucket++;
+
+        this.buckets[bucket].add(times);
+        this.sum.add(nanos * times);
+        this.count.add(times);
+    }
+
+    /**
+     * The number of observations at or below each bucket bound, the last entry counts every observation.
+     */
+    public long @NotNull [] getCumulativeCounts() {
+        long[] counts = new long[this.buckets.length];
+        long total = 0;
+
+        for (int i = 0; i < this.buckets.length; i++)
+            counts[i] = total += this.buckets[i].sum();
+
+        return counts;
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public double getSumSeconds() {
+        return this.sum.sum() / 1e9;
+    }
+
+    public double getMeanSeconds() {
+        long count = this.getCount();
+        return count == 0 ? 0 : this.getSumSeconds() / count;
+    }
+
+}
@@ -0,0 +1,20 @@
+package dev.sbs.updater.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The outcome of looking up a single profile in the proxy cache.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Lookup {
+
+    HIT("hit"),
+    MISS("miss"),
+    COALESCED("coalesced");
+
+    private final @NotNull String label;
+
+}
@@ -0,0 +1,22 @@
+package dev.sbs.updater.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The outcome of diffing a single entry against its row, or of the row no longer having an entry or having one again.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Operation {
+
+    INSERT("insert"),
+    UPDATE("update"),
+    UNCHANGED("unchanged"),
+    RETIRE("retire"),
+    RESTORE("restore");
+
+    private final @NotNull String label;
+
+}
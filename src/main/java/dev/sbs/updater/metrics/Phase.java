@@ -0,0 +1,29 @@
+package dev.sbs.updater.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The stages a processor spends its time in.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Phase {
+
+    /**
+     * Fetching the resource, only the opening of streamed resources.
+     */
+    FETCH("fetch"),
+    /**
+     * Comparing resource entries against the cached rows.
+     */
+    DIFF("diff"),
+    /**
+     * Flushing changed rows to the database.
+     */
+    WRITE("write");
+
+    private final @NotNull String label;
+
+}
@@ -0,0 +1,119 @@
+package dev.sbs.updater.metrics;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Phase timings, entity counts and the last outcome of a single processor.
+ */
+@Getter
+public final class ProcessorMetrics {
+
+    private final @NotNull String name;
+    private final @NotNull Map<Phase, LongAdder> phases = new EnumMap<>(Phase.class);
+    private final @NotNull Map<Phase, LongAdder> stalls = new EnumMap<>(Phase.class);
+    private final @NotNull LongAdder entities = new LongAdder();
+    private volatile @Nullable String status;
+    private volatile long duration;
+    private volatile int deadLetters;
+    private volatile int queueDepth;
+
+    ProcessorMetrics(@NotNull String name) {
+        this.name = name;
+
+        for (Phase phase : Phase.values()) {
+            this.phases.put(phase, new LongAdder());
+            this.stalls.put(phase, new LongAdder());
+        }
+    }
+
+    /**
+     * Adds time spent in a phase.
+     *
+     * @param phase the phase
+     * @param nanos the time spent in nanoseconds
+     */
+    public void record(@NotNull Phase phase, long nanos) {
+        this.phases.get(phase).add(nanos);
+    }
+
+    /**
+     * Adds time a pipelined stage spent waiting on the other, the diff stage on a full write queue and the write stage on an empty one.
+     *
+     * @param stage the waiting stage
+     * @param nanos the time spent waiting in nanoseconds
+     */
+    public void recordStall(@NotNull Phase stage, long nanos) {
+        this.stalls.get(stage).add(nanos);
+    }
+
+    /**
+     * Counts a diffed entry of this processor and the row operation it caused.
+     *
+     * @param table the model class of the row
+     * @param operation the row operation
+     */
+    public void record(@NotNull Class<?> table, @NotNull Operation operation) {
+        this.entities.increment();
+        UpdaterMetrics.recordRow(table, operation);
+    }
+
+    /**
+     * Sets the outcome of the last run.
+     *
+     * @param status the run status
+     * @param duration the run duration in milliseconds
+     */
+    public void complete(@NotNull String status, long duration) {
+        this.status = status;
+        this.duration = duration;
+    }
+
+    /**
+     * Sets the number of entries that failed the last run.
+     *
+     * @param deadLetters the failed entries
+     */
+    public void setDeadLetters(int deadLetters) {
+        this.deadLetters = deadLetters;
+    }
+
+    /**
+     * Sets the peak number of commits queued or being written behind the diff stage during the last run.
+     *
+     * @param queueDepth the peak queue depth
+     */
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public double getStallSeconds(@NotNull Phase stage) {
+        return this.stalls.get(stage).sum() / 1e9;
+    }
+
+    public long getNanos(@NotNull Phase phase) {
+        return this.phases.get(phase).sum();
+    }
+
+    public double getSeconds(@NotNull Phase phase) {
+        return this.getNanos(phase) / 1e9;
+    }
+
+    public long getEntityCount() {
+        return this.entities.sum();
+    }
+
+    /**
+     * Entities diffed per second spent diffing and writing.
+     */
+    public double getEntitiesPerSecond() {
+        double seconds = this.getSeconds(Phase.DIFF) + this.getSeconds(Phase.WRITE);
+        return seconds == 0 ? 0 : this.getEntityCount() / seconds;
+    }
+
+}
@@ -0,0 +1,333 @@
+package dev.sbs.updater.metrics;
+
+import dev.sbs.api.collection.concurrent.Concurrent;
+import dev.sbs.api.collection.concurrent.ConcurrentMap;
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Metrics of every processor, shared for the lifetime of the updater.
+ * <p>
+ * Exposed over JMX through {@link #registerMBean()} and as a Prometheus text file through {@link #writePrometheus(Path)}.
+ */
+public final class UpdaterMetrics {
+
+    public static final String OBJECT_NAME = "dev.sbs.updater:type=Metrics";
+
+    private static final ConcurrentMap<String, ProcessorMetrics> processors = Concurrent.newMap();
+    private static final ConcurrentMap<String, Map<Operation, LongAdder>> rows = Concurrent.newMap();
+    private static final ConcurrentMap<String, LatencyHistogram> statements = Concurrent.newMap();
+    private static final ConcurrentMap<String, Long> cacheLoads = Concurrent.newMap();
+    private static final Map<Lookup, LongAdder> lookups = new EnumMap<>(Lookup.class);
+    private static final LongAdder upstreamFailures = new LongAdder();
+
+    static {
+        for (Lookup lookup : Lookup.values())
+            lookups.put(lookup, new LongAdder());
+    }
+
+    private UpdaterMetrics() { }
+
+    public static @NotNull ProcessorMetrics of(@NotNull String processor) {
+        return processors.computeIfAbsent(processor, ProcessorMetrics::new);
+    }
+
+    /**
+     * Counts a row operation.
+     *
+     * @param table the model class of the row
+     * @param operation the row operation
+     */
+    public static void recordRow(@NotNull Class<?> table, @NotNull Operation operation) {
+        rows.computeIfAbsent(getTableName(table), __ -> {
+            Map<Operation, LongAdder> counters = new EnumMap<>(Operation.class);
+
+            for (Operation value : Operation.values())
+                counters.put(value, new LongAdder());
+
+            return counters;
+        }).get(operation).increment();
+    }
+
+    /**
+     * Records the latency of a batch of statements, spread evenly over every statement in it.
+     *
+     * @param table the model class of the written rows
+     * @param nanos the time taken by the batch
+     * @param count the number of statements in the batch
+     */
+    public static void recordStatements(@NotNull Class<?> table, long nanos, int count) {
+        if (count > 0)
+            statements.computeIfAbsent(getTableName(table), __ -> new LatencyHistogram()).observe(nanos / count, count);
+    }
+
+    /**
+     * Records the time taken to load the cache of a table.
+     *
+     * @param table the cached model class
+     * @param nanos the load time
+     */
+    public static void recordCacheLoad(@NotNull Class<?> table, long nanos) {
+        cacheLoads.put(getTableName(table), nanos);
+    }
+
+    /**
+     * Counts a profile lookup of the proxy.
+     *
+     * @param lookup the lookup outcome
+     */
+    public static void recordLookup(@NotNull Lookup lookup) {
+        lookups.get(lookup).increment();
+    }
+
+    /**
+     * Counts a profile request to the upstream that failed.
+     */
+    public static void recordUpstreamFailure() {
+        upstreamFailures.increment();
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, if not already registered.
+     */
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            if (!server.isRegistered(name))
+                server.registerMBean(new MBean(), name);
+        } catch (JMException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Writes every metric to a Prometheus text file, replacing it atomically so collectors never read a partial file.
+     *
+     * @param file the file to write
+     */
+    public static void writePrometheus(@NotNull Path file) {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temporary, toPrometheus(), StandardCharsets.UTF_8);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public static @NotNull String toPrometheus() {
+        StringBuilder builder = new StringBuilder();
+        Map<String, ProcessorMetrics> processors = new TreeMap<>(UpdaterMetrics.processors);
+
+        family(builder, "updater_phase_seconds_total", "counter", "Time spent per processor phase.");
+        processors.forEach((name, metrics) -> {
+            for (Phase phase : Phase.values())
+                sample(builder, "updater_phase_seconds_total", metrics.getSeconds(phase), "processor", name, "phase", phase.getLabel());
+        });
+
+        family(builder, "updater_entities_total", "counter", "Entities diffed per processor.");
+        processors.forEach((name, metrics) -> sample(builder, "updater_entities_total", metrics.getEntityCount(), "processor", name));
+
+        family(builder, "updater_entities_per_second", "gauge", "Entities diffed per second spent diffing and writing.");
+        processors.forEach((name, metrics) -> sample(builder, "updater_entities_per_second", metrics.getEntitiesPerSecond(), "processor", name));
+
+        family(builder, "updater_processor_duration_seconds", "gauge", "Duration of the last run of each processor.");
+        processors.forEach((name, metrics) -> sample(builder, "updater_processor_duration_seconds", metrics.getDuration() / 1e3, "processor", name));
+
+        family(builder, "updater_processor_status", "gauge", "Status of the last run of each processor.");
+        processors.forEach((name, metrics) -> {
+            if (metrics.getStatus() != null)
+                sample(builder, "updater_processor_status", 1, "processor", name, "status", metrics.getStatus().toLowerCase(Locale.ROOT));
+        });
+
+        family(builder, "updater_dead_letters", "gauge", "Entries that failed the last run of each processor.");
+        processors.forEach((name, metrics) -> sample(builder, "updater_dead_letters", metrics.getDeadLetters(), "processor", name));
+
+        family(builder, "updater_pipeline_stall_seconds_total", "counter", "Time each pipelined stage waited on the other, diff on a full write queue and write on an empty one.");
+        processors.forEach((name, metrics) -> {
+            sample(builder, "updater_pipeline_stall_seconds_total", metrics.getStallSeconds(Phase.DIFF), "processor", name, "stage", Phase.DIFF.getLabel());
+            sample(builder, "updater_pipeline_stall_seconds_total", metrics.getStallSeconds(Phase.WRITE), "processor", name, "stage", Phase.WRITE.getLabel());
+        });
+
+        family(builder, "updater_pipeline_queue_depth", "gauge", "Peak number of commits queued or being written behind the diff stage during the last run.");
+        processors.forEach((name, metrics) -> sample(builder, "updater_pipeline_queue_depth", metrics.getQueueDepth(), "processor", name));
+
+        family(builder, "updater_rows_total", "counter", "Rows inserted, updated or left unchanged per table.");
+        new TreeMap<>(rows).forEach((table, counters) -> counters.forEach((operation, counter) ->
+            sample(builder, "updater_rows_total", counter.sum(), "table", table, "operation", operation.getLabel())
+        ));
+
+        family(builder, "updater_statement_seconds", "histogram", "Latency of a single statement per table.");
+        new TreeMap<>(statements).forEach((table, histogram) -> {
+            long[] counts = histogram.getCumulativeCounts();
+
+            for (int i = 0; i < counts.length; i++) {
+                String bound = i < LatencyHistogram.BUCKETS.length ? Double.toString(LatencyHistogram.BUCKETS[i]) : "+Inf";
+                sample(builder, "updater_statement_seconds_bucket", counts[i], "table", table, "le", bound);
+            }
+
+            sample(builder, "updater_statement_seconds_sum", histogram.getSumSeconds(), "table", table);
+            sample(builder, "updater_statement_seconds_count", counts[counts.length - 1], "table", table);
+        });
+
+        family(builder, "updater_cache_load_seconds", "gauge", "Time taken to load the cache of each table.");
+        new TreeMap<>(cacheLoads).forEach((table, nanos) -> sample(builder, "updater_cache_load_seconds", nanos / 1e9, "table", table));
+
+        family(builder, "updater_profile_lookups_total", "counter", "Profile lookups of the proxy by cache outcome.");
+        lookups.forEach((lookup, counter) -> sample(builder, "updater_profile_lookups_total", counter.sum(), "result", lookup.getLabel()));
+
+        family(builder, "updater_profile_upstream_failures_total", "counter", "Profile requests to the upstream that failed.");
+        sample(builder, "updater_profile_upstream_failures_total", upstreamFailures.sum());
+
+        family(builder, "updater_last_run_timestamp_seconds", "gauge", "Time the metrics were last written.");
+        sample(builder, "updater_last_run_timestamp_seconds", System.currentTimeMillis() / 1e3);
+
+        return builder.toString();
+    }
+
+    private static void family(@NotNull StringBuilder builder, @NotNull String name, @NotNull String type, @NotNull String help) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(@NotNull StringBuilder builder, @NotNull String name, double value, @NotNull String... labels) {
+        builder.append(name);
+
+        if (labels.length > 0) {
+            builder.append('{');
+
+            for (int i = 0; i < labels.length; i += 2) {
+                if (i > 0)
+                    builder.append(',');
+
+                builder.append(labels[i]).append("=\"").append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            }
+
+            builder.append('}');
+        }
+
+        builder.append(' ');
+
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            builder.append((long) value);
+        else
+            builder.append(value);
+
+        builder.append('\n');
+    }
+
+    public static @NotNull String getTableName(@NotNull Class<?> table) {
+        return table.getSimpleName().replaceFirst("SqlModel$", "");
+    }
+
+    private static <V, R> @NotNull Map<String, R> view(@NotNull Map<String, V> values, @NotNull Function<V, R> mapper) {
+        Map<String, R> view = new TreeMap<>();
+        values.forEach((key, value) -> view.put(key, mapper.apply(value)));
+        return view;
+    }
+
+    private static final class MBean implements UpdaterMetricsMXBean {
+
+        @Override
+        public Map<String, Double> getPhaseSeconds() {
+            Map<String, Double> phases = new TreeMap<>();
+            processors.forEach((name, metrics) -> {
+                for (Phase phase : Phase.values())
+                    phases.put(name + "." + phase.getLabel(), metrics.getSeconds(phase));
+            });
+            return phases;
+        }
+
+        @Override
+        public Map<String, Long> getRows() {
+            Map<String, Long> values = new TreeMap<>();
+            rows.forEach((table, counters) -> counters.forEach((operation, counter) -> values.put(table + "." + operation.getLabel(), counter.sum())));
+            return values;
+        }
+
+        @Override
+        public Map<String, Long> getEntities() {
+            return view(processors, ProcessorMetrics::getEntityCount);
+        }
+
+        @Override
+        public Map<String, Double> getEntitiesPerSecond() {
+            return view(processors, ProcessorMetrics::getEntitiesPerSecond);
+        }
+
+        @Override
+        public Map<String, Double> getStatementLatencyMillis() {
+            return view(statements, histogram -> histogram.getMeanSeconds() * 1e3);
+        }
+
+        @Override
+        public Map<String, Double> getCacheLoadSeconds() {
+            return view(cacheLoads, nanos -> nanos / 1e9);
+        }
+
+        @Override
+        public Map<String, String> getStatuses() {
+            Map<String, String> statuses = new TreeMap<>();
+            processors.forEach((name, metrics) -> {
+                if (metrics.getStatus() != null)
+                    statuses.put(name, metrics.getStatus());
+            });
+            return statuses;
+        }
+
+        @Override
+        public Map<String, Integer> getDeadLetters() {
+            return view(processors, ProcessorMetrics::getDeadLetters);
+        }
+
+        @Override
+        public Map<String, Double> getPipelineStallSeconds() {
+            Map<String, Double> stalls = new TreeMap<>();
+            processors.forEach((name, metrics) -> {
+                stalls.put(name + "." + Phase.DIFF.getLabel(), metrics.getStallSeconds(Phase.DIFF));
+                stalls.put(name + "." + Phase.WRITE.getLabel(), metrics.getStallSeconds(Phase.WRITE));
+            });
+            return stalls;
+        }
+
+        @Override
+        public Map<String, Integer> getPipelineQueueDepth() {
+            return view(processors, ProcessorMetrics::getQueueDepth);
+        }
+
+        @Override
+        public Map<String, Long> getProfileLookups() {
+            Map<String, Long> values = new TreeMap<>();
+            lookups.forEach((lookup, counter) -> values.put(lookup.getLabel(), counter.sum()));
+            values.put("upstream_failure", upstreamFailures.sum());
+            return values;
+        }
+
+        @Override
+        public String getPrometheusText() {
+            return toPrometheus();
+        }
+
+    }
+
+}
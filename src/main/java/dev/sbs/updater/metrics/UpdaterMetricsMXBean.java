@@ -0,0 +1,67 @@
+package dev.sbs.updater.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the {@link UpdaterMetrics}, registered as {@value UpdaterMetrics#OBJECT_NAME}.
+ */
+public interface UpdaterMetricsMXBean {
+
+    /**
+     * Seconds spent per {@code processor.phase}.
+     */
+    Map<String, Double> getPhaseSeconds();
+
+    /**
+     * Rows per {@code table.operation}.
+     */
+    Map<String, Long> getRows();
+
+    /**
+     * Entities diffed per processor.
+     */
+    Map<String, Long> getEntities();
+
+    Map<String, Double> getEntitiesPerSecond();
+
+    /**
+     * Mean statement latency in milliseconds per table.
+     */
+    Map<String, Double> getStatementLatencyMillis();
+
+    /**
+     * Seconds spent loading the cache of each table.
+     */
+    Map<String, Double> getCacheLoadSeconds();
+
+    /**
+     * Last run status per processor.
+     */
+    Map<String, String> getStatuses();
+
+    /**
+     * Entries that failed the last run per processor.
+     */
+    Map<String, Integer> getDeadLetters();
+
+    /**
+     * Seconds each pipelined stage waited on the other per {@code processor.stage}.
+     */
+    Map<String, Double> getPipelineStallSeconds();
+
+    /**
+     * Peak number of commits queued or being written behind the diff stage during the last run per processor.
+     */
+    Map<String, Integer> getPipelineQueueDepth();
+
+    /**
+     * Profile lookups of the proxy per cache outcome, including failed upstream requests.
+     */
+    Map<String, Long> getProfileLookups();
+
+    /**
+     * Every metric in the Prometheus text format.
+     */
+    String getPrometheusText();
+
+}
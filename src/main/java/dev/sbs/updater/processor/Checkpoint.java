@@ -0,0 +1,128 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.updater.coordination.Shard;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Number of chunks a processor committed of a resource, letting a failed run resume after its last committed chunk.
+ * <p>
+ * A checkpoint only applies to the resource, shard and chunk size it was saved for, and is cleared once a run completes.
+ */
+@Log4j2
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Checkpoint {
+
+    private static final int VERSION = 2;
+
+    private final @NotNull Path path;
+    private @Nullable Key key;
+    private int chunks;
+
+    /**
+     * Loads the checkpoint stored under the given name, or an empty checkpoint if missing or outdated.
+     *
+     * @param name the checkpoint name
+     */
+    public static @NotNull Checkpoint load(@NotNull String name) {
+        return load(Processor.DATA_DIRECTORY.resolve(name + ".checkpoint"));
+    }
+
+    static @NotNull Checkpoint load(@NotNull Path path) {
+        Checkpoint checkpoint = new Checkpoint(path);
+
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint.path)))) {
+            if (inputStream.readInt() == VERSION) {
+                Key key = new Key(inputStream.readLong(), new Shard(inputStream.readInt(), inputStream.readInt()), inputStream.readInt());
+                checkpoint.chunks = inputStream.readInt();
+                checkpoint.key = key;
+            }
+        } catch (NoSuchFileException ignore) {
+        } catch (IOException exception) {
+            log.atWarn()
+                .withThrowable(exception)
+                .log("Unable to read checkpoint from {}", checkpoint.path);
+            checkpoint.key = null;
+            checkpoint.chunks = 0;
+        }
+
+        return checkpoint;
+    }
+
+    /**
+     * Gets the number of chunks already committed of a resource.
+     *
+     * @param key the resource, shard and chunk size being processed
+     * @return the committed chunks, or 0 if the checkpoint belongs to another resource, shard or chunk size
+     */
+    public synchronized int getChunks(@NotNull Key key) {
+        return key.equals(this.key) ? this.chunks : 0;
+    }
+
+    /**
+     * Atomically replaces the checkpoint file.
+     *
+     * @param key the resource, shard and chunk size being processed
+     * @param chunks the number of committed chunks
+     */
+    public synchronized void save(@NotNull Key key, int chunks) {
+        this.key = key;
+        this.chunks = chunks;
+
+        try {
+            Files.createDirectories(this.path.toAbsolutePath().getParent());
+            Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                outputStream.writeInt(VERSION);
+                outputStream.writeLong(key.resourceFingerprint());
+                outputStream.writeInt(key.shard().index());
+                outputStream.writeInt(key.shard().count());
+                outputStream.writeInt(key.chunkSize());
+                outputStream.writeInt(chunks);
+            }
+
+            Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Deletes the checkpoint, the next run starts from the first chunk.
+     */
+    public synchronized void clear() {
+        this.key = null;
+        this.chunks = 0;
+
+        try {
+            Files.deleteIfExists(this.path);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * What a checkpoint was saved for, it is only resumed by runs of the same resource and shard, with chunks covering the same entries.
+     *
+     * @param resourceFingerprint the fingerprint of the resource being processed
+     * @param shard the entries being processed
+     * @param chunkSize the number of entries per chunk
+     */
+    public record Key(long resourceFingerprint, @NotNull Shard shard, int chunkSize) { }
+
+}
@@ -0,0 +1,299 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.updater.journal.ChangeJournal;
+import dev.sbs.updater.metrics.Phase;
+import dev.sbs.updater.metrics.ProcessorMetrics;
+import dev.sbs.updater.processor.fingerprint.FingerprintStore;
+import org.hibernate.Hibernate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Commits the pending rows, changes and fingerprints of a {@link Processor}, through its {@link WritePipeline} while it runs.
+ * <p>
+ * Committed rows are copied and the writer thread only writes the copies, so the diffing thread keeps reading and modifying the rows
+ * while they are written. Rows referenced by a copy are replaced by their latest copy, so rows inserted by an earlier commit are written
+ * with the id the writer assigned. Once written, the identifiers, versions and generated columns of every copy are set on its row
+ * by the diffing thread, when it commits or waits for the writer. A row committed again while its previous copy is being written
+ * waits for it first, so it is copied with its id and version.
+ * <p>
+ * Time spent blocked on the writer thread is counted by {@link #getWaited()}, so it can be excluded from the diff phase.
+ */
+final class Committer {
+
+    private final @NotNull ProcessorMetrics metrics;
+    private final @NotNull WriteBehind writeBehind;
+    private final @NotNull ChangeJournal.Batch changes;
+    private final @NotNull FingerprintStore fingerprints;
+    private final @NotNull LongAdder waited = new LongAdder();
+    private final @NotNull Map<SqlModel, SqlModel> copies = new IdentityHashMap<>();
+    private final @NotNull Deque<Snapshot> snapshots = new ArrayDeque<>();
+    private @Nullable WritePipeline pipeline;
+
+    Committer(@NotNull ProcessorMetrics metrics, @NotNull WriteBehind writeBehind, @NotNull ChangeJournal.Batch changes, @NotNull FingerprintStore fingerprints) {
+        this.metrics = metrics;
+        this.writeBehind = writeBehind;
+        this.changes = changes;
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * Starts a run, writing commits on a writer thread.
+     *
+     * @param name the processor name
+     * @param depth the queued commits before committing blocks, 0 writes every commit on the committing thread
+     */
+    void open(@NotNull String name, int depth) {
+        this.waited.reset();
+        this.pipeline = depth > 0 ? new WritePipeline(name, this.metrics, depth) : null;
+    }
+
+    /**
+     * Detaches the pending rows, changes and fingerprints, and queues the write of a copy of the rows.
+     * <p>
+     * A failure to journal the written changes fails the write, the next run diffs the entries again as their fingerprints are not saved.
+     *
+     * @param verify run before writing, failing the write if it throws
+     * @param written run once written
+     */
+    void commit(@NotNull Runnable verify, @NotNull Runnable written) {
+        this.apply();
+        List<WriteBehind.Table> tables = this.writeBehind.drain();
+        List<SqlModel> rows = new ArrayList<>();
+        tables.forEach(table -> rows.addAll(table.rows()));
+
+        for (SqlModel row : rows) {
+            if (this.copies.containsKey(row)) {
+                this.awaitWritten(row); // Copied With Its Id
+                this.apply();
+            }
+        }
+
+        Snapshot snapshot = new Snapshot(rows, this.copies);
+        List<WriteBehind.Table> copied = tables.stream().map(table -> snapshot.copy(table, this.copies)).toList();
+        ChangeJournal.Batch changes = this.changes.detach(row -> this.copies.getOrDefault(row, row));
+        Map<String, Long> fingerprints = this.fingerprints.stage();
+        this.snapshots.add(snapshot);
+
+        try {
+            this.enqueue(rows, () -> {
+                try {
+                    verify.run();
+                    long start = System.nanoTime();
+                    this.writeBehind.write(copied, tables);
+                    this.metrics.record(Phase.WRITE, System.nanoTime() - start);
+                    ChangeJournal.getInstance().append(changes);
+                    this.fingerprints.save(fingerprints);
+                    written.run();
+                } finally {
+                    snapshot.written = true;
+                }
+            });
+        } finally {
+            this.apply(); // Written On This Thread
+        }
+    }
+
+    /**
+     * Waits for every committed write.
+     *
+     * @throws WritePipeline.WriteFailedException if a write failed
+     */
+    void awaitWrites() {
+        long start = System.nanoTime();
+
+        try {
+            if (this.pipeline != null)
+                this.pipeline.await();
+        } finally {
+            this.waited.add(System.nanoTime() - start);
+            this.apply();
+        }
+    }
+
+    /**
+     * Waits until the copies of a committed row are written.
+     *
+     * @param model the row
+     * @throws WritePipeline.WriteFailedException if a write failed
+     */
+    private void awaitWritten(@NotNull SqlModel model) {
+        if (this.pipeline == null)
+            return;
+
+        long start = System.nanoTime();
+
+        try {
+            this.pipeline.awaitWritten(model);
+        } finally {
+            this.waited.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Completes every committed write and stops the writer thread, failures are left to {@link #awaitWrites()}.
+     */
+    void close() {
+        if (this.pipeline != null)
+            this.pipeline.close(); // Writes Committed Chunks
+
+        this.pipeline = null;
+        this.apply();
+        this.copies.clear();
+        this.snapshots.clear();
+    }
+
+    /**
+     * The nanoseconds spent blocked on the writer thread since opened.
+     */
+    long getWaited() {
+        return this.waited.sum();
+    }
+
+    /**
+     * Sets what the writer set on the copies of every written snapshot on their rows, in commit order.
+     */
+    private void apply() {
+        while (!this.snapshots.isEmpty() && this.snapshots.peek().written)
+            this.snapshots.poll().apply(this.copies);
+    }
+
+    /**
+     * Runs a write on the writer thread, or on this thread if not pipelined.
+     *
+     * @param rows the rows whose copies are written
+     * @param write the write of the rows
+     */
+    private void enqueue(@NotNull List<SqlModel> rows, @NotNull Runnable write) {
+        long start = System.nanoTime();
+
+        try {
+            if (this.pipeline != null)
+                this.pipeline.submit(write, rows);
+            else
+                write.run();
+        } finally {
+            this.waited.add(System.nanoTime() - start);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @NotNull ModelFields<SqlModel> fields(@NotNull SqlModel model) {
+        return (ModelFields<SqlModel>) ModelFields.of(Hibernate.getClass(model));
+    }
+
+    /**
+     * The copies of the rows of a commit, only read and written by the writer thread until {@link #written} is set.
+     */
+    private static final class Snapshot {
+
+        private final @NotNull List<SqlModel> rows;
+        private final @NotNull List<SqlModel> copies = new ArrayList<>();
+        private final @NotNull List<Object[]> captured = new ArrayList<>();
+        private volatile boolean written;
+
+        /**
+         * Copies rows, registering every copy as the latest copy of its row before copying fields, so copies reference each other.
+         *
+         * @param rows the committed rows
+         * @param latest the latest copy of every row
+         */
+        private Snapshot(@NotNull List<SqlModel> rows, @NotNull Map<SqlModel, SqlModel> latest) {
+            this.rows = rows;
+
+            for (SqlModel row : rows) {
+                SqlModel copy = fields(row).newInstance();
+                this.copies.add(copy);
+                latest.put(row, copy);
+            }
+
+            for (int i = 0; i < rows.size(); i++) {
+                ModelFields<SqlModel> fields = fields(rows.get(i));
+                fields.copy(rows.get(i), this.copies.get(i), value -> copyValue(value, latest));
+                this.captured.add(fields.capture(this.copies.get(i)));
+            }
+        }
+
+        /**
+         * Replaces the rows of a drained table by their copies.
+         */
+        private @NotNull WriteBehind.Table copy(@NotNull WriteBehind.Table table, @NotNull Map<SqlModel, SqlModel> latest) {
+            return new WriteBehind.Table(
+                table.modelClass(),
+                table.inserts().stream().map(latest::get).toList(),
+                table.updates().stream().map(update -> new WriteBehind.Update(latest.get(update.model()), update.fields())).toList(),
+                table.retired().stream().map(latest::get).toList(),
+                table.restored().stream().map(latest::get).toList()
+            );
+        }
+
+        /**
+         * Sets the values the writer set on every copy on its row, such as identifiers and versions, leaving referenced rows and collections.
+         *
+         * @param latest the latest copy of every row, no longer holding the copies of this snapshot
+         */
+        private void apply(@NotNull Map<SqlModel, SqlModel> latest) {
+            for (int i = 0; i < this.rows.size(); i++) {
+                SqlModel row = this.rows.get(i);
+                SqlModel copy = this.copies.get(i);
+                ModelFields<SqlModel> fields = fields(row);
+
+                for (int field = 0; field < fields.size(); field++) {
+                    Object value = fields.get(field, copy);
+
+                    if (!Objects.equals(this.captured.get(i)[field], value) && !(value instanceof SqlModel || value instanceof Collection<?> || value instanceof Map<?, ?>))
+                        fields.set(field, row, value);
+                }
+
+                latest.remove(row, copy);
+            }
+        }
+
+        /**
+         * Copies a field value, replacing rows by their latest copy and copying initialized collections into mutable collections.
+         */
+        private static @Nullable Object copyValue(@Nullable Object value, @NotNull Map<SqlModel, SqlModel> latest) {
+            if (value instanceof SqlModel model)
+                return latest.getOrDefault(model, model);
+
+            if (!Hibernate.isInitialized(value))
+                return value; // Loaded By The Session
+
+            if (value instanceof List<?> list) {
+                List<Object> copy = new ArrayList<>(list.size());
+                list.forEach(element -> copy.add(copyValue(element, latest)));
+                return copy;
+            }
+
+            if (value instanceof Set<?> set) {
+                Set<Object> copy = new LinkedHashSet<>();
+                set.forEach(element -> copy.add(copyValue(element, latest)));
+                return copy;
+            }
+
+            if (value instanceof Map<?, ?> map) {
+                Map<Object, Object> copy = new LinkedHashMap<>();
+                map.forEach((key, element) -> copy.put(key, copyValue(element, latest)));
+                return copy;
+            }
+
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,178 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.collection.concurrent.Concurrent;
+import dev.sbs.api.collection.concurrent.ConcurrentMap;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resource entries a processor failed to process, stored as JSON lines so they can be inspected.
+ * <p>
+ * Failed entries keep no fingerprint and are retried by every following run. An entry that failed
+ * {@value #MAX_ATTEMPTS} runs in a row is dead, it is still retried but no longer holds back the resource.
+ * <p>
+ * A resumed run skips the chunks of some failed entries, those are carried over until processed successfully.
+ */
+@Log4j2
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DeadLetters {
+
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final @NotNull Path path;
+    private final @NotNull Map<String, Entry> previous;
+    private final @NotNull ConcurrentMap<String, Entry> current = Concurrent.newMap();
+    private final @NotNull Set<String> resolved = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Loads the entries that failed the previous run under the given name.
+     *
+     * @param name the dead letter name
+     */
+    public static @NotNull DeadLetters load(@NotNull String name) {
+        return load(Processor.DATA_DIRECTORY.resolve(name + ".deadletters"));
+    }
+
+    static @NotNull DeadLetters load(@NotNull Path path) {
+        Map<String, Entry> previous = new LinkedHashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                Entry entry = SimplifiedApi.getGson().fromJson(line, Entry.class);
+                previous.put(entry.key(), entry);
+            }
+        } catch (NoSuchFileException ignore) {
+        } catch (IOException | RuntimeException exception) {
+            log.atWarn()
+                .withThrowable(exception)
+                .log("Unable to read dead letters from {}", path);
+            previous.clear();
+        }
+
+        return new DeadLetters(path, previous);
+    }
+
+    /**
+     * Records a failed entry, counting the runs it failed in a row.
+     *
+     * @param key the entry key
+     * @param exception the failure
+     */
+    public void add(@NotNull String key, @NotNull Exception exception) {
+        Entry previous = this.previous.get(key);
+        this.current.put(key, new Entry(
+            key,
+            previous != null ? previous.attempts() + 1 : 1,
+            exception.toString(),
+            System.currentTimeMillis()
+        ));
+    }
+
+    /**
+     * Records an entry processed successfully, it is no longer carried over from the previous run.
+     *
+     * @param key the entry key
+     */
+    public void resolve(@NotNull String key) {
+        if (this.previous.containsKey(key))
+            this.resolved.add(key);
+    }
+
+    public @NotNull Collection<Entry> getEntries() {
+        return this.current.values();
+    }
+
+    public int size() {
+        return this.current.size();
+    }
+
+    /**
+     * Checks if any failed entry is still being retried, rather than dead.
+     *
+     * @param resumed include the unresolved entries of the previous run, as the chunks they belong to were skipped
+     */
+    public boolean isRetrying(boolean resumed) {
+        return this.getFailed(resumed).values().stream().anyMatch(entry -> !entry.isDead());
+    }
+
+    /**
+     * Atomically replaces the dead letter file with the failed entries, deleting it if none failed.
+     *
+     * @param resumed keep the unresolved entries of the previous run, as the chunks they belong to were skipped
+     */
+    public synchronized void save(boolean resumed) {
+        Map<String, Entry> entries = this.getFailed(resumed);
+
+        try {
+            if (entries.isEmpty()) {
+                Files.deleteIfExists(this.path);
+                return;
+            }
+
+            Files.createDirectories(this.path.toAbsolutePath().getParent());
+            Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary)) {
+                for (Entry entry : entries.values()) {
+                    writer.write(SimplifiedApi.getGson().toJson(entry));
+                    writer.newLine();
+                }
+            }
+
+            Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * The entries failed this run, following the unresolved entries of the previous run if resumed.
+     */
+    private @NotNull Map<String, Entry> getFailed(boolean resumed) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+
+        if (resumed) {
+            entries.putAll(this.previous);
+            entries.keySet().removeAll(this.resolved);
+        }
+
+        entries.putAll(this.current);
+        return entries;
+    }
+
+    /**
+     * A failed entry.
+     *
+     * @param key the entry key
+     * @param attempts the number of runs in a row the entry failed
+     * @param error the last failure
+     * @param failedAt the time of the last failure, in epoch milliseconds
+     */
+    public record Entry(@NotNull String key, int attempts, @NotNull String error, long failedAt) {
+
+        public boolean isDead() {
+            return this.attempts() >= MAX_ATTEMPTS;
+        }
+
+    }
+
+}
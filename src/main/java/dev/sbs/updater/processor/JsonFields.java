@@ -0,0 +1,180 @@
+package dev.sbs.updater.processor;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import dev.sbs.api.SimplifiedApi;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How a class is written by the api {@link Gson}, and the fields it writes, read through cached method handles.
+ * <p>
+ * The kind of a class is taken from the type adapter Gson resolves for it, so classes with custom adapters are never walked.
+ * Fields follow the default Gson exclusions, skipping static, transient and synthetic fields, and are named by
+ * {@link SerializedName} or the configured naming strategy.
+ */
+public final class JsonFields {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final String ADAPTERS = "com.google.gson.internal.bind.";
+    private static final ClassValue<JsonFields> cache = new ClassValue<>() {
+        @Override
+        protected JsonFields computeValue(@NotNull Class<?> type) {
+            return new JsonFields(type);
+        }
+    };
+
+    private final @NotNull Kind kind;
+    private final @NotNull String[] names;
+    private final @NotNull MethodHandle[] getters;
+    private final @NotNull Map<Object, Object> constants;
+
+    private JsonFields(@NotNull Class<?> type) {
+        Gson gson = SimplifiedApi.getGson();
+        this.kind = Kind.of(gson, type);
+        List<String> names = new ArrayList<>();
+        List<MethodHandle> getters = new ArrayList<>();
+        Map<Object, Object> constants = Collections.emptyMap();
+
+        if (this.kind == Kind.OBJECT) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()) || field.isSynthetic())
+                        continue;
+
+                    try {
+                        field.setAccessible(true);
+                        SerializedName serializedName = field.getAnnotation(SerializedName.class);
+                        names.add(serializedName != null ? serializedName.value() : gson.fieldNamingStrategy().translateName(field));
+                        getters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+                    } catch (IllegalAccessException exception) {
+                        throw new IllegalStateException(exception);
+                    }
+                }
+            }
+        } else if (this.kind == Kind.ENUM) {
+            constants = new IdentityHashMap<>();
+
+            for (Object constant : (type.isEnum() ? type : type.getSuperclass()).getEnumConstants())
+                constants.put(constant, gson.fromJson(gson.toJson(constant), Object.class));
+        }
+
+        this.names = names.toArray(String[]::new);
+        this.getters = getters.toArray(MethodHandle[]::new);
+        this.constants = constants;
+    }
+
+    public static @NotNull JsonFields of(@NotNull Class<?> type) {
+        return cache.get(type);
+    }
+
+    public @NotNull Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * The number of written fields of an {@link Kind#OBJECT}.
+     */
+    public int size() {
+        return this.names.length;
+    }
+
+    /**
+     * Gets the json name of a field.
+     *
+     * @param index the field index
+     */
+    public @NotNull String getName(int index) {
+        return this.names[index];
+    }
+
+    /**
+     * Gets the current value of a field.
+     *
+     * @param index the field index
+     * @param value the object to read
+     */
+    public Object get(int index, @NotNull Object value) {
+        try {
+            return this.getters[index].invokeExact(value);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    /**
+     * Gets an {@link Kind#ENUM} constant as read back from its json.
+     *
+     * @param constant the enum constant
+     */
+    public Object getConstant(@NotNull Object constant) {
+        return this.constants.get(constant);
+    }
+
+    /**
+     * Checks if Gson reads json numbers of untyped values as doubles, which the walked kinds assume.
+     */
+    private static boolean isDoubleNumbers(@NotNull Gson gson) {
+        return gson.fromJson("1", Object.class) instanceof Double;
+    }
+
+    public enum Kind {
+
+        STRING,
+        BOOLEAN,
+        CHARACTER,
+        NUMBER,
+        ENUM,
+        ARRAY,
+        COLLECTION,
+        MAP,
+        OBJECT,
+        /**
+         * Written by a custom type adapter, only handled through Gson itself.
+         */
+        OTHER;
+
+        private static @NotNull Kind of(@NotNull Gson gson, @NotNull Class<?> type) {
+            if (type.isEnum() || (type.getSuperclass() != null && type.getSuperclass().isEnum()))
+                return ENUM;
+
+            if (type.getName().startsWith("java.")) {
+                if (type == String.class)
+                    return STRING;
+                else if (type == Boolean.class)
+                    return BOOLEAN;
+                else if (type == Character.class)
+                    return CHARACTER;
+                else if (Number.class.isAssignableFrom(type))
+                    return isDoubleNumbers(gson) ? NUMBER : OTHER;
+            }
+
+            String adapter = gson.getAdapter(type).getClass().getName();
+
+            if (adapter.startsWith(ADAPTERS + "ArrayTypeAdapter"))
+                return ARRAY;
+            else if (adapter.startsWith(ADAPTERS + "CollectionTypeAdapterFactory"))
+                return COLLECTION;
+            else if (adapter.startsWith(ADAPTERS + "MapTypeAdapterFactory"))
+                return MAP;
+            else if (adapter.startsWith(ADAPTERS + "ReflectiveTypeAdapterFactory"))
+                return OBJECT;
+            else
+                return OTHER;
+        }
+
+    }
+
+}
@@ -0,0 +1,233 @@
+package dev.sbs.updater.processor;
+
+import com.google.gson.Gson;
+import dev.sbs.api.SimplifiedApi;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Converts response structures into the plain {@code List}/{@code Map} shapes stored in json columns,
+ * producing the same values as a {@link Gson} {@code toJson}/{@code fromJson} round-trip without any json.
+ * <p>
+ * Values are walked through their {@link JsonFields}, creating lists, maps, strings, booleans and doubles directly.
+ * Only values written by a custom type adapter go through the api {@link Gson}.
+ * <p>
+ * A stored column is first compared against the response with {@link #matches(Object, Object)}, which builds no lists or maps,
+ * so unchanged columns are never converted.
+ */
+public final class JsonNormalizer {
+
+    private JsonNormalizer() { }
+
+    /**
+     * Normalizes a list, wrapping null values in an empty list.
+     *
+     * @param value the response list
+     * @param <T> the normalized element type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> @NotNull List<T> toList(@Nullable Object value) {
+        Object normalized = normalize(value);
+        return normalized instanceof List ? (List<T>) normalized : new ArrayList<>();
+    }
+
+    /**
+     * Normalizes a list, unless the current column already holds the same value.
+     *
+     * @param value the response list
+     * @param current the stored column
+     * @param <T> the normalized element type
+     * @return the current column if it matches, otherwise the normalized list
+     */
+    public static <T> @NotNull List<T> toList(@Nullable Object value, @Nullable List<T> current) {
+        if (current != null && (value == null ? current.isEmpty() : matches(value, current)))
+            return current;
+
+        return toList(value);
+    }
+
+    public static @Nullable Object normalize(@Nullable Object value) {
+        if (value == null)
+            return null;
+
+        Gson gson = SimplifiedApi.getGson();
+        JsonFields fields = JsonFields.of(value.getClass());
+
+        switch (fields.getKind()) {
+            case STRING, BOOLEAN -> {
+                return value;
+            }
+            case CHARACTER -> {
+                return String.valueOf(value);
+            }
+            case NUMBER -> {
+                return toDouble((Number) value);
+            }
+            case ENUM -> {
+                return fields.getConstant(value);
+            }
+            case ARRAY -> {
+                int length = Array.getLength(value);
+                List<Object> list = new ArrayList<>(length);
+
+                for (int i = 0; i < length; i++)
+                    list.add(normalize(Array.get(value, i)));
+
+                return list;
+            }
+            case COLLECTION -> {
+                Collection<?> collection = (Collection<?>) value;
+                List<Object> list = new ArrayList<>(collection.size());
+
+                for (Object element : collection)
+                    list.add(normalize(element));
+
+                return list;
+            }
+            case MAP -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    if (entry.getValue() != null || gson.serializeNulls())
+                        map.put(String.valueOf(entry.getKey()), normalize(entry.getValue()));
+                }
+
+                return map;
+            }
+            case OBJECT -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+
+                for (int i = 0; i < fields.size(); i++) {
+                    Object fieldValue = fields.get(i, value);
+
+                    if (fieldValue != null || gson.serializeNulls())
+                        map.put(fields.getName(i), normalize(fieldValue));
+                }
+
+                return map;
+            }
+            default -> {
+                return gson.fromJson(gson.toJson(value), Object.class);
+            }
+        }
+    }
+
+    /**
+     * Checks if a response value normalizes to a stored value, without normalizing it.
+     *
+     * @param value the response value
+     * @param normalized the stored value
+     */
+    public static boolean matches(@Nullable Object value, @Nullable Object normalized) {
+        if (value == null || normalized == null)
+            return value == normalized;
+
+        Gson gson = SimplifiedApi.getGson();
+        JsonFields fields = JsonFields.of(value.getClass());
+
+        switch (fields.getKind()) {
+            case STRING, BOOLEAN -> {
+                return value.equals(normalized);
+            }
+            case CHARACTER -> {
+                return normalized instanceof String string && string.length() == 1 && string.charAt(0) == (Character) value;
+            }
+            case NUMBER -> {
+                return normalized instanceof Number number && number.doubleValue() == toDouble((Number) value); // Stored Columns May Hold Integers
+            }
+            case ENUM -> {
+                return Objects.equals(fields.getConstant(value), normalized);
+            }
+            case ARRAY -> {
+                if (!(normalized instanceof List<?> list) || list.size() != Array.getLength(value))
+                    return false;
+
+                for (int i = 0; i < list.size(); i++) {
+                    if (!matches(Array.get(value, i), list.get(i)))
+                        return false;
+                }
+
+                return true;
+            }
+            case COLLECTION -> {
+                Collection<?> collection = (Collection<?>) value;
+
+                if (!(normalized instanceof List<?> list) || list.size() != collection.size())
+                    return false;
+
+                Iterator<?> iterator = list.iterator();
+
+                for (Object element : collection) {
+                    if (!matches(element, iterator.next()))
+                        return false;
+                }
+
+                return true;
+            }
+            case MAP -> {
+                if (!(normalized instanceof Map<?, ?> map))
+                    return false;
+
+                int size = 0;
+
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    if (entry.getValue() == null && !gson.serializeNulls())
+                        continue;
+
+                    String key = String.valueOf(entry.getKey());
+
+                    if (!map.containsKey(key) || !matches(entry.getValue(), map.get(key)))
+                        return false;
+
+                    size++;
+                }
+
+                return map.size() == size;
+            }
+            case OBJECT -> {
+                if (!(normalized instanceof Map<?, ?> map))
+                    return false;
+
+                int size = 0;
+
+                for (int i = 0; i < fields.size(); i++) {
+                    Object fieldValue = fields.get(i, value);
+
+                    if (fieldValue == null && !gson.serializeNulls())
+                        continue;
+
+                    if (!map.containsKey(fields.getName(i)) || !matches(fieldValue, map.get(fields.getName(i))))
+                        return false;
+
+                    size++;
+                }
+
+                return map.size() == size;
+            }
+            default -> {
+                return Objects.equals(normalize(value), normalized);
+            }
+        }
+    }
+
+    /**
+     * Converts a number as written to json and read back, integral values and doubles convert exactly,
+     * other numbers through their json text.
+     */
+    public static double toDouble(@NotNull Number number) {
+        if (number instanceof Double || number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte)
+            return number.doubleValue();
+
+        return Double.parseDouble(number.toString());
+    }
+
+}
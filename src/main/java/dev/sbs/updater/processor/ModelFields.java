@@ -0,0 +1,220 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.collection.concurrent.Concurrent;
+import dev.sbs.api.collection.concurrent.ConcurrentMap;
+import dev.sbs.updater.journal.FieldDiff;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * The persistent fields of a model class, read through cached method handles.
+ * <p>
+ * Used to capture the state of a row before it is modified and list the fields that changed afterwards,
+ * and to copy committed rows for the writer thread.
+ *
+ * @param <T> the model type
+ */
+public final class ModelFields<T> {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final ConcurrentMap<Class<?>, ModelFields<?>> cache = Concurrent.newMap();
+
+    private final @NotNull Class<T> modelClass;
+    private final @NotNull String[] names;
+    private final @NotNull Field[] fields;
+    private final @NotNull MethodHandle[] getters;
+    private final @NotNull MethodHandle[] setters;
+
+    private ModelFields(@NotNull Class<T> modelClass) {
+        List<Field> fields = new ArrayList<>();
+        List<MethodHandle> getters = new ArrayList<>();
+        List<MethodHandle> setters = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        this.modelClass = modelClass;
+
+        for (Class<?> type = modelClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()) || field.isSynthetic())
+                    continue;
+
+                try {
+                    field.setAccessible(true);
+                    fields.add(field);
+                    getters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+                    setters.add(Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field).asType(SETTER_TYPE));
+                } catch (IllegalAccessException exception) {
+                    throw new IllegalStateException(exception);
+                }
+            }
+        }
+
+        this.fields = fields.toArray(Field[]::new);
+        this.names = fields.stream().map(Field::getName).toArray(String[]::new);
+        this.getters = getters.toArray(MethodHandle[]::new);
+        this.setters = setters.toArray(MethodHandle[]::new);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> @NotNull ModelFields<T> of(@NotNull Class<T> modelClass) {
+        return (ModelFields<T>) cache.computeIfAbsent(modelClass, __ -> new ModelFields<>(modelClass));
+    }
+
+    /**
+     * Captures the current value of every field.
+     *
+     * @param model the model to capture
+     */
+    public @NotNull Object[] capture(@NotNull T model) {
+        Object[] values = new Object[this.getters.length];
+
+        for (int i = 0; i < values.length; i++)
+            values[i] = this.get(i, model);
+
+        return values;
+    }
+
+    /**
+     * Lists the fields whose value differs from the captured state.
+     *
+     * @param captured the state captured before the model was modified
+     * @param model the modified model
+     */
+    public @NotNull List<FieldDiff> diff(@NotNull Object[] captured, @NotNull T model) {
+        List<FieldDiff> changes = null;
+
+        for (int i = 0; i < captured.length; i++) {
+            Object value = this.get(i, model);
+
+            if (!Objects.equals(captured[i], value)) {
+                if (changes == null)
+                    changes = new ArrayList<>();
+
+                changes.add(FieldDiff.of(this.names[i], captured[i], value));
+            }
+        }
+
+        return changes != null ? changes : Collections.emptyList();
+    }
+
+    /**
+     * Sets every field back to its captured value, skipping final fields.
+     *
+     * @param captured the state captured before the model was modified
+     * @param model the modified model
+     */
+    public void restore(@NotNull Object[] captured, @NotNull T model) {
+        for (int i = 0; i < captured.length; i++) {
+            if (this.setters[i] != null)
+                this.set(i, model, captured[i]);
+        }
+    }
+
+    /**
+     * Creates an instance through the no-argument constructor.
+     */
+    public @NotNull T newInstance() {
+        try {
+            Constructor<T> constructor = this.modelClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Copies every field into another instance, skipping final fields.
+     * <p>
+     * Values are mapped before being copied, mapped values the field cannot hold are copied as is.
+     *
+     * @param model the model to copy
+     * @param copy the instance to copy into
+     * @param values maps every copied value
+     */
+    public void copy(@NotNull T model, @NotNull T copy, @NotNull UnaryOperator<Object> values) {
+        for (int i = 0; i < this.fields.length; i++) {
+            if (this.setters[i] == null)
+                continue;
+
+            Object value = this.get(i, model);
+            Object mapped = values.apply(value);
+            this.set(i, copy, mapped == null || this.fields[i].getType().isInstance(mapped) ? mapped : value);
+        }
+    }
+
+    /**
+     * Gets the current value of a field.
+     *
+     * @param name the field name
+     * @param model the model to read
+     */
+    public Object get(@NotNull String name, @NotNull T model) {
+        int index = this.indexOf(name);
+
+        if (index < 0)
+            throw new IllegalArgumentException(String.format("Unknown field '%s'", name));
+
+        return this.get(index, model);
+    }
+
+    /**
+     * Gets the declared type of a field, or null if the model has no such field.
+     *
+     * @param name the field name
+     */
+    public @Nullable Class<?> getType(@NotNull String name) {
+        int index = this.indexOf(name);
+        return index >= 0 ? this.fields[index].getType() : null;
+    }
+
+    public int size() {
+        return this.fields.length;
+    }
+
+    /**
+     * Gets the index of a field, or -1 if the model has no such field.
+     *
+     * @param name the field name
+     */
+    public int indexOf(@NotNull String name) {
+        for (int i = 0; i < this.names.length; i++) {
+            if (this.names[i].equals(name))
+                return i;
+        }
+
+        return -1;
+    }
+
+    public Object get(int index, @NotNull T model) {
+        try {
+            return this.getters[index].invokeExact((Object) model);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    public void set(int index, @NotNull T model, Object value) {
+        if (this.setters[index] == null)
+            throw new IllegalStateException(String.format("Field '%s' is final", this.names[index]));
+
+        try {
+            this.setters[index].invokeExact((Object) model, value);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+}
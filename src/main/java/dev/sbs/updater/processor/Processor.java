@@ -1,17 +1,81 @@
 package dev.sbs.updater.processor;
 
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.api.util.SystemUtil;
+import dev.sbs.updater.coordination.Coordinator;
+import dev.sbs.updater.coordination.Lease;
+import dev.sbs.updater.coordination.Shard;
+import dev.sbs.updater.journal.ChangeJournal;
+import dev.sbs.updater.journal.FieldDiff;
+import dev.sbs.updater.metrics.Operation;
+import dev.sbs.updater.metrics.Phase;
+import dev.sbs.updater.metrics.ProcessorMetrics;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import dev.sbs.updater.processor.cache.IndexedCache;
+import dev.sbs.updater.processor.fingerprint.Fingerprint;
+import dev.sbs.updater.processor.fingerprint.FingerprintStore;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.config.Configurator;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @Getter
 @Log4j2
-public abstract class Processor<R> {
+public abstract class Processor<R> implements AutoCloseable {
+
+    /**
+     * Directory holding the local state of processors, set with the {@code updater.data.dir}
+     * system property or the {@code UPDATER_DATA_DIR} environment variable.
+     */
+    public static final Path DATA_DIRECTORY = Path.of(System.getProperty("updater.data.dir", SystemUtil.getEnv("UPDATER_DATA_DIR").orElse("data")));
+
+    /**
+     * Fingerprints of the last committed resource of each processor, per lease so every shard is fingerprinted separately.
+     */
+    private static final FingerprintStore resourceFingerprints = FingerprintStore.load("resources");
+
+    /**
+     * Longest wait for a lease shared by every shard, see {@link #exclusively(String, Runnable)}.
+     */
+    private static final Duration EXCLUSIVE_TIMEOUT = Duration.ofMinutes(2);
+
+    /**
+     * Commits queued for the writer thread of each processor before diffing blocks, 0 writes on the diffing thread.
+     */
+    private static int pipelineDepth = WritePipeline.DEFAULT_DEPTH;
 
     private final @NotNull R resourceResponse;
+    private final @NotNull ProcessorMetrics metrics = UpdaterMetrics.of(this.getClass().getSimpleName());
+    private final @NotNull WriteBehind writeBehind = new WriteBehind(this.metrics);
+    private final @NotNull FingerprintStore fingerprints = FingerprintStore.load(this.getClass().getSimpleName());
+    private final @NotNull Progress progress = new Progress(this.getClass().getSimpleName(), log);
+    private final @NotNull ChangeJournal.Batch changes = new ChangeJournal.Batch();
+    @Getter(AccessLevel.NONE)
+    private final @NotNull RunState runState = RunState.load(this.getClass().getSimpleName(), log);
+    @Getter(AccessLevel.NONE)
+    private final @NotNull Committer committer = new Committer(this.metrics, this.writeBehind, this.changes, this.fingerprints);
+    @Getter(AccessLevel.NONE)
+    private final @NotNull Retirer retirer = new Retirer(this.getClass().getSimpleName(), log, this.fingerprints, this.changes, this.writeBehind);
+    private long resourceFingerprint;
+    private @Nullable Lease lease;
+    private @NotNull Shard shard = Shard.ALL;
 
     public Processor(@NotNull R resourceResponse) {
         this.resourceResponse = resourceResponse;
@@ -22,8 +86,335 @@ public abstract class Processor<R> {
         return log;
     }
 
+    /**
+     * The processors whose results this processor reads, they are always run before it.
+     */
+    public @NotNull Set<Class<? extends Processor<?>>> getDependencies() {
+        return Set.of();
+    }
+
+    /**
+     * The number of entries processed and committed at a time, a checkpoint is only resumed with chunks of the same size.
+     * <p>
+     * Processors committing every entry at once, the default, are not checkpointed, a failed run starts over.
+     */
+    public int getChunkSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Checks if the entries of this processor can be partitioned across instances by {@link Shard}.
+     */
+    public boolean isShardable() {
+        return false;
+    }
+
+    /**
+     * Processes the resource, unless it is unchanged since the last successful run.
+     * <p>
+     * A lease last held by another instance compares every entry, as the fingerprints of this instance may be outdated.
+     * The resource is fingerprinted per lease, so a shard newly assigned to this instance is processed even if the resource is unchanged.
+     *
+     * @param force process the resource and every entry in it even if unchanged
+     * @param lease the held lease of this processor, verified before every commit
+     * @param shard the entries to process
+     * @return true if the resource was processed
+     */
+    public final boolean run(boolean force, @NotNull Lease lease, @NotNull Shard shard) {
+        try {
+            String name = this.getClass().getSimpleName();
+            this.lease = lease;
+            this.shard = shard;
+            this.resourceFingerprint = this.getResourceFingerprint();
+
+            boolean restart = force || lease.isHandedOver();
+
+            if (restart)
+                this.getFingerprints().clear();
+            else if (resourceFingerprints.matches(lease.getName(), this.resourceFingerprint)) { // Shard Completed By This Instance
+                this.complete(lease);
+                return false;
+            }
+
+            this.runState.start(this.getCheckpointKey(), restart);
+            long start = System.nanoTime();
+            this.committer.open(name, pipelineDepth);
+            this.getProgress().start();
+
+            try {
+                this.process();
+                this.committer.awaitWrites();
+                this.reconcile(); // Every Entry Seen
+            } finally {
+                this.committer.close();
+                this.runState.stop(this.getMetrics());
+            }
+
+            this.getMetrics().record(Phase.DIFF, System.nanoTime() - start - this.committer.getWaited());
+
+            if (this.runState.complete()) {
+                resourceFingerprints.put(lease.getName(), this.resourceFingerprint);
+                resourceFingerprints.save();
+            }
+
+            this.complete(lease);
+            return true;
+        } finally {
+            this.getProgress().stop();
+            this.getChanges().clear(); // Never Committed
+        }
+    }
+
+    /**
+     * Records the shard of this instance as complete, once every owned entry was written.
+     */
+    private void complete(@NotNull Lease lease) {
+        if (!this.getShard().isAll())
+            lease.getCoordinator().complete(this.getClass().getSimpleName(), this.getShard(), this.resourceFingerprint);
+    }
+
+    /**
+     * Waits for every instance to complete its shard of the resource this processor last ran, so processors depending on it
+     * read the rows written by every shard.
+     *
+     * @param coordinator the coordinator of the shards
+     * @param timeout the longest time to wait
+     * @throws IllegalStateException if a shard was not completed in time, or by an instance processing another resource
+     */
+    final void awaitShards(@NotNull Coordinator coordinator, @NotNull Duration timeout) {
+        if (!this.getShard().isAll())
+            coordinator.awaitComplete(this.getClass().getSimpleName(), this.getShard().count(), this.resourceFingerprint, timeout);
+    }
+
+    /**
+     * A fingerprint of the whole resource, used to skip unchanged resources.
+     */
+    protected long getResourceFingerprint() {
+        return Fingerprint.of(this.getResourceResponse());
+    }
+
     public abstract void process();
 
+    /**
+     * Retires the rows of entries no longer in the resource, once every entry was processed and written.
+     * <p>
+     * Not called if processing fails, so rows are only retired after a complete run.
+     *
+     * @see #retire(Sweep, Predicate)
+     */
+    protected void reconcile() { }
+
+    /**
+     * Releases the resource, called by the {@link ProcessorScheduler} once the processor has run, was skipped or was leased.
+     */
+    @Override
+    public void close() { }
+
+    /**
+     * Sets the number of commits queued for the writer thread of each processor, while the next chunk is diffed.
+     *
+     * @param depth the queued commits before diffing blocks, 0 writes every commit on the diffing thread
+     */
+    public static void setPipelineDepth(int depth) {
+        pipelineDepth = Math.max(0, depth);
+    }
+
+    /**
+     * Writes every pending row, then journals the changes, saves the fingerprints of the written entries and checkpoints the chunk.
+     * <p>
+     * The rows are copied and the copies handed to the writer thread, diffing continues while they are written, see {@link Committer}.
+     * A failed write is thrown by the next commit or once the processor completes.
+     *
+     * @throws IllegalStateException if the lease was lost or the shard reassigned, nothing more is written
+     */
+    protected final void commit() {
+        int chunks = this.runState.commit();
+        this.committer.commit(this::verifyLease, () -> this.runState.checkpoint(chunks));
+    }
+
+    private void verifyLease() {
+        if (this.lease != null) {
+            this.lease.verify();
+
+            if (!this.getShard().isAll() && !this.getShard().equals(this.lease.getCoordinator().getShard()))
+                throw new IllegalStateException(String.format("Shard %s was reassigned", this.getShard()));
+        }
+    }
+
+    /**
+     * The resource, shard and chunk size of the run, so a checkpoint is never resumed by another shard or with chunks covering other entries.
+     *
+     * @return the checkpoint key, or null if the processor commits every entry at once and has nothing to resume
+     */
+    private @Nullable Checkpoint.Key getCheckpointKey() {
+        if (this.getChunkSize() == Integer.MAX_VALUE)
+            return null;
+
+        return new Checkpoint.Key(this.resourceFingerprint, this.getShard(), this.getChunkSize());
+    }
+
+    /**
+     * Checks if other instances write to the same database.
+     */
+    protected final boolean isCoordinated() {
+        return this.lease != null && this.lease.getCoordinator() != Coordinator.LOCAL;
+    }
+
+    /**
+     * Runs work under a lease shared by every shard of this processor, writing its rows before the lease is released.
+     * <p>
+     * Used for rows shared by entries of different shards, which must be looked up before being inserted.
+     *
+     * @param name the unit of work
+     * @param work queues the shared rows
+     */
+    protected final void exclusively(@NotNull String name, @NotNull Runnable work) {
+        Coordinator coordinator = this.lease != null ? this.lease.getCoordinator() : Coordinator.LOCAL;
+
+        try (Lease exclusiveLease = coordinator.acquire(this.getClass().getSimpleName() + ":" + name, EXCLUSIVE_TIMEOUT)) {
+            work.run();
+            this.committer.commit(exclusiveLease::verify, () -> { });
+            this.committer.awaitWrites(); // Written Before Release
+        }
+    }
+
+    /**
+     * Adds the rows written by other instances to the cache with a single query, if coordinated.
+     *
+     * @param cache the cache of the model
+     * @param modelClass the model class
+     * @param field the unique field of the rows
+     * @param values the field values missing from the cache
+     */
+    protected final <T extends SqlModel> void fetchStored(@NotNull IndexedCache<T> cache, @NotNull Class<T> modelClass, @NotNull String field, @NotNull Collection<?> values) {
+        if (!this.isCoordinated() || values.isEmpty())
+            return;
+
+        try (Session session = SimplifiedApi.getSessionManager().getSession().openSession()) {
+            session.createQuery(String.format("from %s model where model.%s in (:values)", modelClass.getSimpleName(), field), modelClass)
+                .setParameterList("values", values)
+                .getResultList()
+                .forEach(cache::add);
+        }
+    }
+
+    /**
+     * Checks if a chunk was committed by a previous run of the same resource, and can be skipped.
+     *
+     * @param chunk the index of the chunk
+     */
+    protected final boolean isCommitted(int chunk) {
+        return this.runState.isCommitted(chunk);
+    }
+
+    /**
+     * Processes a single resource entry, recording it as a dead letter if it fails instead of failing the run.
+     * <p>
+     * The fingerprint of a failed entry is discarded, so the next run retries it. An entry that succeeds is no longer carried over as failed.
+     * A failed write of the run is no failure of the entry, it is rethrown and fails the run instead.
+     *
+     * @param key the resource key of the entry, matching its fingerprint key
+     * @param entry processes the entry
+     * @return the result of the entry, or null if it failed
+     * @throws WritePipeline.WriteFailedException if a committed write failed
+     */
+    protected final <V> @Nullable V isolate(@NotNull String key, @NotNull Supplier<V> entry) {
+        try {
+            V result = entry.get();
+            this.runState.getDeadLetters().resolve(key);
+            return result;
+        } catch (WritePipeline.WriteFailedException exception) {
+            throw exception; // Every Later Entry Would Fail
+        } catch (RuntimeException exception) {
+            log.atDebug()
+                .withThrowable(exception)
+                .log("Failed to process {} entry {}", this.getClass().getSimpleName(), key);
+            this.getFingerprints().discard(key);
+            this.runState.getDeadLetters().add(key, exception);
+            return null;
+        }
+    }
+
+    /**
+     * Queues a new row for insertion, journaled once committed.
+     *
+     * @param model the unsaved row
+     * @param key the resource key of the row
+     * @return the same row
+     */
+    protected final <T extends SqlModel> @NotNull T insert(@NotNull T model, @NotNull String key) {
+        this.getChanges().inserted(model, key);
+        return this.getWriteBehind().save(model);
+    }
+
+    /**
+     * Modifies an existing row and queues an update of only its changed fields, which are journaled once committed.
+     * <p>
+     * Rows left unchanged by the modifications are counted as unchanged and not written.
+     *
+     * @param model the existing row
+     * @param key the resource key of the row
+     * @param changes the modifications
+     * @return the same row
+     */
+    @SuppressWarnings("unchecked")
+    protected final <T extends SqlModel> @NotNull T update(@NotNull T model, @NotNull String key, @NotNull Consumer<T> changes) {
+        ModelFields<T> fields = ModelFields.of((Class<T>) Hibernate.getClass(model));
+        Object[] captured = fields.capture(model);
+
+        try {
+            changes.accept(model);
+        } catch (RuntimeException exception) {
+            fields.restore(captured, model); // Cached Row Matches Database
+            throw exception;
+        }
+
+        List<FieldDiff> changedFields = fields.diff(captured, model);
+
+        if (changedFields.isEmpty())
+            return this.unchanged(model);
+
+        Set<String> names = new LinkedHashSet<>();
+        changedFields.forEach(field -> names.add(field.name()));
+        log.debug("Updating existing {} {} : {}", Hibernate.getClass(model).getSimpleName(), key, names);
+        this.getChanges().updated(model, key, changedFields);
+        return this.getWriteBehind().update(model, names);
+    }
+
+    /**
+     * Retires every unmarked row of a sweep and restores every retired row it marked, written in batched statements.
+     * <p>
+     * Retired rows stay in their table and cache, they are journaled and their fingerprints forgotten. Nothing is retired if more than
+     * a tenth of the considered rows are unmarked.
+     *
+     * @param sweep the marked rows
+     * @param filter the rows to consider, excluding rows of other shards
+     * @return the number of retired rows
+     * @see Retirer
+     */
+    protected final <T extends SqlModel> int retire(@NotNull Sweep<T> sweep, @NotNull Predicate<T> filter) {
+        this.committer.awaitWrites(); // Ids Of Written Rows
+        int retired = this.retirer.queue(sweep, filter).size();
+
+        if (this.getWriteBehind().size() > 0) {
+            this.committer.commit(this::verifyLease, () -> { });
+            this.committer.awaitWrites();
+        }
+
+        return retired;
+    }
+
+    /**
+     * Counts an entry whose row was left unchanged.
+     *
+     * @param model the unchanged row
+     * @return the same row
+     */
+    protected final <T extends SqlModel> @NotNull T unchanged(@NotNull T model) {
+        this.getMetrics().record(Hibernate.getClass(model), Operation.UNCHANGED);
+        return model;
+    }
+
     protected static boolean equalsWithNull(Object a, Object b) {
         if (a == b) return true;
         if (a == null || b == null) return false;
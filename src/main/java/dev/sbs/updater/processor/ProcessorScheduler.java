@@ -0,0 +1,193 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.collection.concurrent.Concurrent;
+import dev.sbs.api.collection.concurrent.ConcurrentList;
+import dev.sbs.updater.coordination.Coordinator;
+import dev.sbs.updater.coordination.Lease;
+import dev.sbs.updater.coordination.Shard;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs processors concurrently while respecting their {@link Processor#getDependencies() dependencies}.
+ * <p>
+ * A processor starts as soon as every processor it depends on has succeeded, and is skipped
+ * if any of them failed or was leased by another instance. Failures never affect processors outside their dependency chain.
+ * <p>
+ * Processors whose resource is unchanged since their last run are not processed, unless forced.
+ * <p>
+ * Each processor runs under a lease of the {@link Coordinator}, and is not run if another instance holds it.
+ * Shardable processors run under the lease of the shard assigned to this instance instead, and processors depending on them
+ * wait for every other instance to complete its shard, failing if one does not in time.
+ * <p>
+ * Every processor is {@link Processor#close() closed} once it completes, whatever its status.
+ */
+@Log4j2
+public final class ProcessorScheduler {
+
+    /**
+     * Longest wait for other instances to complete their shard of a dependency.
+     */
+    private static final Duration SHARD_TIMEOUT = Duration.ofMinutes(10);
+
+    private final @NotNull Coordinator coordinator;
+    private final boolean force;
+    private final @NotNull Map<Class<?>, Processor<?>> processors = new LinkedHashMap<>();
+    private @NotNull Shard shard = Shard.ALL;
+
+    public ProcessorScheduler(boolean force, @NotNull Processor<?>... processors) {
+        this(Coordinator.LOCAL, force, processors);
+    }
+
+    public ProcessorScheduler(@NotNull Coordinator coordinator, boolean force, @NotNull Processor<?>... processors) {
+        this.coordinator = coordinator;
+        this.force = force;
+        Arrays.stream(processors).forEach(processor -> this.processors.put(processor.getClass(), processor));
+    }
+
+    /**
+     * Runs every processor and waits for all of them to complete.
+     *
+     * @return the outcome of each processor, in the order they were given
+     * @throws IllegalStateException if a dependency is missing or dependencies are cyclic
+     */
+    public @NotNull ConcurrentList<Result> run() {
+        Map<Class<?>, CompletableFuture<Result>> futures = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, this.processors.size()));
+
+        if (this.processors.values().stream().anyMatch(Processor::isShardable))
+            this.shard = this.coordinator.getShard();
+
+        try {
+            try {
+                this.processors.keySet().forEach(processorClass -> this.schedule(processorClass, futures, executor, new LinkedHashMap<>()));
+            } catch (IllegalStateException exception) {
+                this.processors.forEach((processorClass, processor) -> {
+                    if (!futures.containsKey(processorClass))
+                        close(processor); // Never Scheduled
+                });
+
+                throw exception;
+            }
+
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        ConcurrentList<Result> results = Concurrent.newList();
+        this.processors.keySet().forEach(processorClass -> results.add(futures.get(processorClass).join()));
+        return results;
+    }
+
+    private @NotNull CompletableFuture<Result> schedule(@NotNull Class<?> processorClass, @NotNull Map<Class<?>, CompletableFuture<Result>> futures, @NotNull ExecutorService executor, @NotNull Map<Class<?>, Boolean> visiting) {
+        CompletableFuture<Result> future = futures.get(processorClass);
+
+        if (future != null)
+            return future;
+
+        Processor<?> processor = this.processors.get(processorClass);
+
+        if (processor == null)
+            throw new IllegalStateException(String.format("Missing dependency '%s'", processorClass.getSimpleName()));
+
+        if (visiting.put(processorClass, true) != null)
+            throw new IllegalStateException(String.format("Cyclic dependency on '%s'", processorClass.getSimpleName()));
+
+        CompletableFuture<?>[] dependencies = processor.getDependencies()
+            .stream()
+            .map(dependency -> this.schedule(dependency, futures, executor, visiting))
+            .toArray(CompletableFuture[]::new);
+
+        visiting.remove(processorClass);
+        future = CompletableFuture.allOf(dependencies).thenApplyAsync(__ -> {
+            Optional<Result> failedDependency = Arrays.stream(dependencies)
+                .map(dependency -> (Result) dependency.join())
+                .filter(result -> result.getStatus() == Status.FAILED || result.getStatus() == Status.SKIPPED || result.getStatus() == Status.LEASED)
+                .findFirst();
+
+            Result result;
+
+            try {
+                result = failedDependency.isPresent() ? new Result(processor, Status.SKIPPED, 0, null) : this.execute(processor);
+            } finally {
+                close(processor);
+            }
+
+            processor.getMetrics().complete(result.getStatus().name(), result.getDuration());
+            return result;
+        }, executor);
+
+        futures.put(processorClass, future);
+        return future;
+    }
+
+    private @NotNull Result execute(@NotNull Processor<?> processor) {
+        long start = System.currentTimeMillis();
+        Shard shard = processor.isShardable() ? this.shard : Shard.ALL;
+        String leaseName = processor.getClass().getSimpleName() + (shard.isAll() ? "" : "#" + shard);
+
+        try {
+            for (Class<? extends Processor<?>> dependency : processor.getDependencies())
+                this.processors.get(dependency).awaitShards(this.coordinator, SHARD_TIMEOUT); // Rows Written By Every Instance
+
+            try (Lease lease = this.coordinator.tryAcquire(leaseName)) {
+                if (lease == null)
+                    return new Result(processor, Status.LEASED, System.currentTimeMillis() - start, null);
+
+                Status status = processor.run(this.force, lease, shard) ? Status.SUCCESS : Status.UNCHANGED;
+                return new Result(processor, status, System.currentTimeMillis() - start, null);
+            }
+        } catch (Exception exception) {
+            return new Result(processor, Status.FAILED, System.currentTimeMillis() - start, exception);
+        }
+    }
+
+    private static void close(@NotNull Processor<?> processor) {
+        try {
+            processor.close();
+        } catch (RuntimeException exception) {
+            log.atWarn()
+                .withThrowable(exception)
+                .log("Unable to close {}", processor.getClass().getSimpleName());
+        }
+    }
+
+    public enum Status {
+
+        SUCCESS,
+        UNCHANGED,
+        FAILED,
+        SKIPPED,
+        LEASED
+
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Result {
+
+        private final @NotNull Processor<?> processor;
+        private final @NotNull Status status;
+        private final long duration;
+        private final @Nullable Exception exception;
+
+        public @NotNull String getName() {
+            return this.getProcessor().getClass().getSimpleName();
+        }
+
+    }
+
+}
@@ -0,0 +1,137 @@
+package dev.sbs.updater.processor;
+
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of a running {@link Processor}.
+ * <p>
+ * Entries are counted with a {@link LongAdder} on the hot path, while a single shared reporter thread
+ * logs a summary with throughput and estimated time remaining every {@value #INTERVAL_SECONDS} seconds.
+ */
+public final class Progress {
+
+    private static final long INTERVAL_SECONDS = 5;
+    private static final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "updater-progress");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final @NotNull String name;
+    private final @NotNull Logger log;
+    private final @NotNull LongAdder completed = new LongAdder();
+    private final @NotNull AtomicLong total = new AtomicLong();
+    private volatile long startedAt;
+    private @Nullable ScheduledFuture<?> report;
+
+    Progress(@NotNull String name, @NotNull Logger log) {
+        this.name = name;
+        this.log = log;
+    }
+
+    /**
+     * Resets the counts and starts reporting.
+     */
+    synchronized void start() {
+        this.completed.reset();
+        this.total.set(0);
+        this.startedAt = System.nanoTime();
+        this.report = reporter.scheduleAtFixedRate(this::report, INTERVAL_SECONDS, INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops reporting and logs the final summary.
+     */
+    synchronized void stop() {
+        if (this.report == null)
+            return;
+
+        this.report.cancel(false);
+        this.report = null;
+        long completed = this.getCompleted();
+
+        if (completed > 0)
+            this.log.info("{} processed {} entries in {}ms, {}/s", this.name, completed, this.getElapsed().toMillis(), (long) this.getRate());
+    }
+
+    /**
+     * Adds entries to the expected total, may be called again as entries are discovered.
+     *
+     * @param count the number of additional entries
+     */
+    public void expect(long count) {
+        this.total.addAndGet(count);
+    }
+
+    /**
+     * Counts a processed entry.
+     */
+    public void step() {
+        this.completed.increment();
+    }
+
+    /**
+     * Counts processed entries.
+     *
+     * @param count the number of entries
+     */
+    public void step(long count) {
+        this.completed.add(count);
+    }
+
+    public long getCompleted() {
+        return this.completed.sum();
+    }
+
+    public long getTotal() {
+        return this.total.get();
+    }
+
+    public @NotNull Duration getElapsed() {
+        return Duration.ofNanos(System.nanoTime() - this.startedAt);
+    }
+
+    /**
+     * Entries processed per second since the start.
+     */
+    public double getRate() {
+        double seconds = (System.nanoTime() - this.startedAt) / 1e9;
+        return seconds > 0 ? this.getCompleted() / seconds : 0;
+    }
+
+    /**
+     * Estimated time until every expected entry is processed, or null if unknown.
+     */
+    public @Nullable Duration getRemaining() {
+        long remaining = this.getTotal() - this.getCompleted();
+        double rate = this.getRate();
+        return remaining > 0 && rate > 0 ? Duration.ofSeconds((long) Math.ceil(remaining / rate)) : null;
+    }
+
+    private void report() {
+        long completed = this.getCompleted();
+        long total = Math.max(completed, this.getTotal());
+        Duration remaining = this.getRemaining();
+
+        this.log.info(
+            "{} {}/{} ({}%), {}/s, ETA {}",
+            this.name,
+            completed,
+            total,
+            total > 0 ? completed * 100 / total : 0,
+            (long) this.getRate(),
+            remaining != null ? remaining.toSeconds() + "s" : "unknown"
+        );
+    }
+
+}
@@ -0,0 +1,86 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.updater.journal.ChangeJournal;
+import dev.sbs.updater.processor.fingerprint.FingerprintStore;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Hibernate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Queues the retirement of the rows a {@link Sweep} left unmarked, and the restoration of retired rows it marked.
+ * <p>
+ * Retired rows stay in their table and cache, and are listed by the {@link WriteBehind.Target#getRetired(Class) target}.
+ * Retired and restored rows are journaled, and the fingerprints of retired rows forgotten.
+ */
+final class Retirer {
+
+    /**
+     * Largest fraction of the considered rows retired by a single sweep, larger sweeps suggest a truncated resource.
+     */
+    static final double MAX_RETIRED_FRACTION = 0.1;
+
+    private final @NotNull String name;
+    private final @NotNull Logger log;
+    private final @NotNull FingerprintStore fingerprints;
+    private final @NotNull ChangeJournal.Batch changes;
+    private final @NotNull WriteBehind writeBehind;
+
+    Retirer(@NotNull String name, @NotNull Logger log, @NotNull FingerprintStore fingerprints, @NotNull ChangeJournal.Batch changes, @NotNull WriteBehind writeBehind) {
+        this.name = name;
+        this.log = log;
+        this.fingerprints = fingerprints;
+        this.changes = changes;
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * Queues every retired row the sweep marked for restoration, then every unmarked row not yet retired for retirement,
+     * unless more than {@link #MAX_RETIRED_FRACTION} of the considered rows are unmarked.
+     *
+     * @param sweep the marked rows
+     * @param filter the rows to consider
+     * @return the rows queued for retirement
+     */
+    <T extends SqlModel> @NotNull List<T> queue(@NotNull Sweep<T> sweep, @NotNull Predicate<T> filter) {
+        Set<Long> retired = WriteBehind.getTarget().getRetired(sweep.getModelClass());
+        Predicate<T> isRetired = model -> model.getId() != null && retired.contains(model.getId());
+
+        for (T model : sweep.getSeen(filter.and(isRetired))) {
+            this.log.debug("Restoring {} {}", Hibernate.getClass(model).getSimpleName(), sweep.getKey(model));
+            this.changes.restored(model, sweep.getKey(model));
+            this.writeBehind.restore(model);
+        }
+
+        Sweep.Unseen<T> unseen = sweep.getUnseen(filter.and(isRetired.negate()));
+        List<T> rows = unseen.rows();
+
+        if (rows.isEmpty())
+            return rows;
+
+        if (rows.size() > unseen.considered() * MAX_RETIRED_FRACTION) {
+            this.log.warn(
+                "{} skipped retiring {} of {} rows, too many entries are missing from the resource",
+                this.name,
+                rows.size(),
+                unseen.considered()
+            );
+            return List.of();
+        }
+
+        this.fingerprints.forget(rows.stream().map(sweep::getKey).toList()); // Compared Again If Added Back
+
+        for (T model : rows) {
+            this.log.debug("Retiring {} {}", Hibernate.getClass(model).getSimpleName(), sweep.getKey(model));
+            this.changes.retired(model, sweep.getKey(model));
+            this.writeBehind.retire(model);
+        }
+
+        return rows;
+    }
+
+}
@@ -0,0 +1,125 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.updater.metrics.ProcessorMetrics;
+import lombok.Getter;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The chunks a run of a {@link Processor} committed and the entries it failed, kept across runs of the same resource.
+ * <p>
+ * A run resumes after the chunks committed by a failed run, and keeps the dead letters of the chunks it skips.
+ */
+final class RunState {
+
+    private final @NotNull String name;
+    private final @NotNull Logger log;
+    @Getter
+    private final @NotNull Checkpoint checkpoint;
+    @Getter
+    private final @NotNull DeadLetters deadLetters;
+    private @Nullable Checkpoint.Key checkpointKey;
+    @Getter
+    private int resumedChunks;
+    private int committedChunks;
+
+    RunState(@NotNull String name, @NotNull Logger log, @NotNull Checkpoint checkpoint, @NotNull DeadLetters deadLetters) {
+        this.name = name;
+        this.log = log;
+        this.checkpoint = checkpoint;
+        this.deadLetters = deadLetters;
+    }
+
+    /**
+     * Loads the checkpoint and dead letters stored under the given name.
+     *
+     * @param name the processor name
+     * @param log the processor log
+     */
+    static @NotNull RunState load(@NotNull String name, @NotNull Logger log) {
+        return new RunState(name, log, Checkpoint.load(name), DeadLetters.load(name));
+    }
+
+    /**
+     * Starts a run, resuming after the chunks a previous run committed of the same resource.
+     *
+     * @param checkpointKey the resource being processed, or null if the run is not checkpointed
+     * @param restart start from the first chunk
+     */
+    void start(@Nullable Checkpoint.Key checkpointKey, boolean restart) {
+        if (restart || checkpointKey == null)
+            this.checkpoint.clear();
+
+        this.checkpointKey = checkpointKey;
+        this.resumedChunks = this.committedChunks = checkpointKey != null ? this.checkpoint.getChunks(checkpointKey) : 0;
+
+        if (this.resumedChunks > 0)
+            this.log.info("{} resuming after {} committed chunks", this.name, this.resumedChunks);
+    }
+
+    /**
+     * Checks if a chunk was committed by a previous run of the same resource, and can be skipped.
+     *
+     * @param chunk the index of the chunk
+     */
+    boolean isCommitted(int chunk) {
+        return chunk < this.resumedChunks;
+    }
+
+    /**
+     * Counts a committed chunk, checkpointed by {@link #checkpoint(int)} once written.
+     *
+     * @return the number of committed chunks
+     */
+    int commit() {
+        return ++this.committedChunks;
+    }
+
+    /**
+     * Saves the number of written chunks, called by the writer thread, unless the run is not checkpointed.
+     *
+     * @param chunks the committed chunks returned by {@link #commit()}
+     */
+    void checkpoint(int chunks) {
+        if (this.checkpointKey != null)
+            this.checkpoint.save(this.checkpointKey, chunks);
+    }
+
+    /**
+     * Saves the entries failed by the run, whether or not it completed.
+     *
+     * @param metrics the metrics of the processor
+     */
+    void stop(@NotNull ProcessorMetrics metrics) {
+        this.deadLetters.save(this.isResumed());
+        metrics.setDeadLetters(this.deadLetters.size());
+    }
+
+    /**
+     * Completes the run, the next run starts from the first chunk.
+     *
+     * @return true if no failed entry is still retried, and the resource can be fingerprinted
+     */
+    boolean complete() {
+        this.checkpoint.clear();
+        this.deadLetters.getEntries().forEach(entry -> this.log.warn(
+            "{} {} entry {} failed {} runs in a row: {}",
+            this.name,
+            entry.isDead() ? "dead" : "retrying",
+            entry.key(),
+            entry.attempts(),
+            entry.error()
+        ));
+
+        return !this.deadLetters.isRetrying(this.isResumed()); // Reprocessed until every failed entry succeeds or is dead
+    }
+
+    /**
+     * Checks if the run skipped chunks committed by a previous run.
+     */
+    boolean isResumed() {
+        return this.resumedChunks > 0;
+    }
+
+}
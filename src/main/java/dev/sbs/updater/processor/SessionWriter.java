@@ -0,0 +1,259 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import dev.sbs.updater.processor.cache.ChangeFeed;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Writes the rows of a {@link WriteBehind} through a session, committing every {@code transactionSize} rows and recording
+ * the latency of every batch per table.
+ * <p>
+ * Rows are written in batches of {@code batchSize} rows, every batch is flushed and cleared on its own, so the session
+ * sends the statements of a batch as JDBC batches of a single table, as {@code hibernate.order_inserts} and
+ * {@code hibernate.order_updates} would.
+ * <ul>
+ *     <li>Inserts are persisted.</li>
+ *     <li>Updates are merged, after loading every row of the batch with a single query, so versions are checked and incremented,
+ *     generated columns are generated and the second-level cache is updated like any other session write. Which columns are written
+ *     is decided by the entity mapping, the changed fields of a partial update are not used.</li>
+ *     <li>Retired rows are recorded in the {@code updater_retired} table and restored rows removed from it,
+ *     as JDBC batches of plain statements, the rows themselves are left as they are.</li>
+ * </ul>
+ * Inserted and updated rows are listed in the {@link ChangeFeed} of a coordinated instance, in the same transaction.
+ * Rows inserted by a transaction that is rolled back have their identifier cleared, so a later write inserts them again,
+ * and rows it updated get their version back.
+ * Queued inserts that already have an identifier were committed by an earlier write, and are written as updates.
+ */
+final class SessionWriter {
+
+    static final String SELECT_RETIRED = "select row_id from updater_retired where table_name = :table";
+    private static final String INSERT_RETIRED = "insert into updater_retired (table_name, row_id, retired_at) values (?, ?, ?)";
+    private static final String DELETE_RETIRED = "delete from updater_retired where table_name = ? and row_id = ?";
+
+    private final @NotNull Session session;
+    private final int batchSize;
+    private final int transactionSize;
+    private final @NotNull List<SqlModel> inserted = new ArrayList<>();
+    private final @NotNull Map<SqlModel, Object> versions = new IdentityHashMap<>();
+    private @NotNull Transaction transaction;
+    private int written;
+
+    SessionWriter(@NotNull Session session, int batchSize, int transactionSize) {
+        this.session = session;
+        this.batchSize = Math.max(1, batchSize);
+        this.transactionSize = transactionSize;
+        this.transaction = session.beginTransaction();
+    }
+
+    /**
+     * Writes every pending row of a table.
+     *
+     * @param table the pending rows
+     */
+    void write(@NotNull WriteBehind.Table table) {
+        Class<?> modelClass = table.modelClass();
+        List<SqlModel> inserts = new ArrayList<>();
+        List<SqlModel> updates = new ArrayList<>();
+
+        for (SqlModel model : table.inserts())
+            (model.getId() != null ? updates : inserts).add(model); // Committed By An Earlier Write
+
+        table.updates().forEach(update -> updates.add(update.model()));
+        this.batches(modelClass, inserts, batch -> {
+            batch.forEach(this::insert);
+            this.list(modelClass, batch);
+        });
+        this.batches(modelClass, updates, batch -> {
+            this.update(modelClass, batch);
+            this.list(modelClass, batch);
+        });
+        this.batches(modelClass, withIds(table.retired()), batch -> this.track(modelClass, batch, INSERT_RETIRED));
+        this.batches(modelClass, withIds(table.restored()), batch -> this.track(modelClass, batch, DELETE_RETIRED));
+    }
+
+    void commit() {
+        this.transaction.commit();
+        this.inserted.clear();
+        this.versions.clear();
+    }
+
+    /**
+     * Rolls back the current transaction, clearing the identifier of every row it inserted and restoring the version of every row it updated.
+     */
+    void rollback() {
+        if (this.transaction.isActive())
+            this.transaction.rollback();
+
+        for (SqlModel model : this.inserted)
+            this.set(model, SingularAttribute::isId, null);
+
+        this.versions.forEach((model, version) -> this.set(model, SingularAttribute::isVersion, version));
+        this.inserted.clear();
+        this.versions.clear();
+    }
+
+    /**
+     * Writes rows in batches, flushing and clearing the session after every batch.
+     */
+    private void batches(@NotNull Class<?> table, @NotNull List<SqlModel> rows, @NotNull Consumer<List<SqlModel>> writer) {
+        for (int from = 0; from < rows.size(); from += this.batchSize) {
+            List<SqlModel> batch = rows.subList(from, Math.min(rows.size(), from + this.batchSize));
+            long start = System.nanoTime();
+            writer.accept(batch);
+            this.session.flush();
+            this.session.clear();
+            UpdaterMetrics.recordStatements(table, System.nanoTime() - start, batch.size());
+            this.written(batch.size());
+        }
+    }
+
+    private void insert(@NotNull SqlModel model) {
+        this.session.persist(model);
+        this.inserted.add(model);
+    }
+
+    /**
+     * Merges rows loaded by a single query, then copies the incremented version of every merged row back to the queued row.
+     */
+    private void update(@NotNull Class<?> table, @NotNull List<SqlModel> models) {
+        this.load(table, models);
+        List<Object> merged = models.stream().map(this.session::merge).map(Object.class::cast).toList();
+        this.session.flush();
+        String version = this.getAttribute(table, SingularAttribute::isVersion);
+
+        if (version != null) {
+            ModelFields<Object> fields = fields(table);
+            int index = fields.indexOf(version);
+
+            for (int i = 0; i < models.size(); i++) {
+                this.versions.putIfAbsent(models.get(i), fields.get(index, models.get(i)));
+                fields.set(index, models.get(i), fields.get(index, merged.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Loads the stored rows of the given rows into the session, with a single query.
+     */
+    private void load(@NotNull Class<?> table, @NotNull List<SqlModel> models) {
+        List<Object> ids = models.stream().map(SqlModel::getId).map(Object.class::cast).toList();
+        this.session.byMultipleIds(table).multiLoad(ids);
+    }
+
+    /**
+     * Records or clears the retirement of rows with a single JDBC batch.
+     *
+     * @param statement the statement run for every row
+     */
+    private void track(@NotNull Class<?> table, @NotNull List<SqlModel> models, @NotNull String statement) {
+        String tableName = UpdaterMetrics.getTableName(table);
+        Timestamp retiredAt = Timestamp.from(Instant.now());
+
+        this.session.doWork(connection -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(statement)) {
+                for (SqlModel model : models) {
+                    preparedStatement.setString(1, tableName);
+                    preparedStatement.setLong(2, model.getId());
+
+                    if (statement.equals(INSERT_RETIRED))
+                        preparedStatement.setTimestamp(3, retiredAt);
+
+                    preparedStatement.addBatch();
+                }
+
+                preparedStatement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Lists written rows in the {@link ChangeFeed} with a single JDBC batch, if this instance is coordinated.
+     */
+    private void list(@NotNull Class<?> table, @NotNull List<SqlModel> models) {
+        ChangeFeed changeFeed = ChangeFeed.getInstance();
+
+        if (changeFeed == null)
+            return;
+
+        String tableName = UpdaterMetrics.getTableName(table);
+        long recordedAt = System.currentTimeMillis();
+
+        this.session.doWork(connection -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(ChangeFeed.INSERT)) {
+                for (SqlModel model : models) {
+                    preparedStatement.setString(1, tableName);
+                    preparedStatement.setLong(2, model.getId());
+                    preparedStatement.setString(3, changeFeed.getInstance());
+                    preparedStatement.setLong(4, recordedAt);
+                    preparedStatement.addBatch();
+                }
+
+                preparedStatement.executeBatch();
+            }
+        });
+    }
+
+    private static @NotNull List<SqlModel> withIds(@NotNull List<SqlModel> models) {
+        return models.stream()
+            .filter(model -> model.getId() != null)
+            .toList();
+    }
+
+    private void written(int rows) {
+        int before = this.written;
+        this.written += rows;
+
+        if (before / this.transactionSize != this.written / this.transactionSize) {
+            this.commit();
+            this.transaction = this.session.beginTransaction();
+        }
+    }
+
+    /**
+     * Gets the name of the identifier or version attribute of an entity, through the persistence metamodel.
+     *
+     * @return the attribute name, or null if the entity has no such attribute
+     */
+    private @Nullable String getAttribute(@NotNull Class<?> modelClass, @NotNull Predicate<SingularAttribute<?, ?>> attribute) {
+        EntityType<?> entity = this.session.getSessionFactory().getMetamodel().entity(modelClass);
+
+        for (SingularAttribute<?, ?> singularAttribute : entity.getSingularAttributes()) {
+            if (attribute.test(singularAttribute))
+                return singularAttribute.getName();
+        }
+
+        return null;
+    }
+
+    private void set(@NotNull SqlModel model, @NotNull Predicate<SingularAttribute<?, ?>> attribute, @Nullable Object value) {
+        String name = this.getAttribute(Hibernate.getClass(model), attribute);
+
+        if (name != null) {
+            ModelFields<Object> fields = fields(Hibernate.getClass(model));
+            fields.set(fields.indexOf(name), model, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @NotNull ModelFields<Object> fields(@NotNull Class<?> modelClass) {
+        return (ModelFields<Object>) ModelFields.of(modelClass);
+    }
+
+}
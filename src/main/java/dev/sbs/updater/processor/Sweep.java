@@ -0,0 +1,101 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.updater.processor.cache.IndexedCache;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Marks the rows of a cache seen in a resource, so the unseen rows can be swept once the whole resource was processed.
+ * <p>
+ * Rows are marked by their resource key, the same key their entries are fingerprinted and journaled under,
+ * so entries can be marked from parallel chunks, skipped chunks and before their row is cached.
+ *
+ * @param <T> the cached model type
+ */
+@Getter
+public final class Sweep<T extends SqlModel> {
+
+    private final @NotNull Class<T> modelClass;
+    private final @NotNull IndexedCache<T> cache;
+    private final @NotNull Function<T, String> keyFunction;
+    private final @NotNull Set<String> marked = ConcurrentHashMap.newKeySet();
+
+    public Sweep(@NotNull Class<T> modelClass, @NotNull IndexedCache<T> cache, @NotNull Function<T, String> keyFunction) {
+        this.modelClass = modelClass;
+        this.cache = cache;
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Marks the row of a resource entry as seen.
+     *
+     * @param key the resource key of the entry
+     */
+    public void mark(@NotNull String key) {
+        this.marked.add(key);
+    }
+
+    /**
+     * Gets the key of a cached row.
+     *
+     * @param model the cached row
+     */
+    public @NotNull String getKey(@NotNull T model) {
+        return this.keyFunction.apply(model);
+    }
+
+    /**
+     * Gets every unmarked row matching the filter, in a single pass over the cache.
+     *
+     * @param filter the rows to consider
+     */
+    public @NotNull Unseen<T> getUnseen(@NotNull Predicate<T> filter) {
+        List<T> rows = new ArrayList<>();
+        int considered = 0;
+
+        for (T model : this.cache.getValues()) {
+            if (!filter.test(model))
+                continue;
+
+            considered++;
+
+            if (!this.marked.contains(this.getKey(model)))
+                rows.add(model);
+        }
+
+        return new Unseen<>(rows, considered);
+    }
+
+    /**
+     * Gets every marked row matching the filter, in a single pass over the cache.
+     *
+     * @param filter the rows to consider
+     */
+    public @NotNull List<T> getSeen(@NotNull Predicate<T> filter) {
+        List<T> rows = new ArrayList<>();
+
+        for (T model : this.cache.getValues()) {
+            if (filter.test(model) && this.marked.contains(this.getKey(model)))
+                rows.add(model);
+        }
+
+        return rows;
+    }
+
+    /**
+     * The unmarked rows of a sweep.
+     *
+     * @param rows the unmarked rows
+     * @param considered the number of rows matching the filter
+     */
+    public record Unseen<T>(@NotNull List<T> rows, int considered) { }
+
+}
@@ -0,0 +1,470 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.api.data.model.skyblock.accessory_data.accessories.AccessorySqlModel;
+import dev.sbs.api.data.model.skyblock.collection_data.collection_item_tiers.CollectionItemTierSqlModel;
+import dev.sbs.api.data.model.skyblock.collection_data.collection_items.CollectionItemSqlModel;
+import dev.sbs.api.data.model.skyblock.collection_data.collections.CollectionSqlModel;
+import dev.sbs.api.data.model.skyblock.item_types.ItemTypeSqlModel;
+import dev.sbs.api.data.model.skyblock.items.ItemSqlModel;
+import dev.sbs.api.data.model.skyblock.minion_data.minion_tiers.MinionTierSqlModel;
+import dev.sbs.api.data.model.skyblock.minion_data.minions.MinionSqlModel;
+import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
+import dev.sbs.api.data.model.skyblock.skill_levels.SkillLevelSqlModel;
+import dev.sbs.api.data.model.skyblock.skills.SkillSqlModel;
+import dev.sbs.updater.metrics.Operation;
+import dev.sbs.updater.metrics.ProcessorMetrics;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import lombok.Getter;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit of work collecting the inserts and updates of a processor and writing them in bulk.
+ * <p>
+ * Pending rows are written per table in foreign key order, as JDBC batches of {@link #getBatchSize()}
+ * statements, committing every {@link #getTransactionSize()} rows instead of once per row.
+ * <p>
+ * Updates are queued with their changed fields, which are journaled and counted, the session decides which columns are written.
+ * <p>
+ * Retired rows are kept, and recorded in the {@code updater_retired} table of {@code schema/updater.sql}, rows back in the resource
+ * are restored by removing them from it. Retiring never modifies a row, so nothing written for the entry of a row undoes it.
+ * <p>
+ * Queued rows are counted as inserts and updates of the owning processor, and the latency of every
+ * batch is recorded per table.
+ * <p>
+ * Rows stay queued until written, a failed write queues them again so the next flush retries them.
+ */
+@Getter
+public final class WriteBehind {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int DEFAULT_TRANSACTION_SIZE = 2_500;
+
+    /**
+     * Tables are flushed in this order, every table after the tables it references, unlisted tables are flushed last.
+     * <p>
+     * Minions reference their collection and minion tiers their minion and item, so both follow the collection tables.
+     */
+    private static final List<Class<?>> FLUSH_ORDER = List.of(
+        RaritySqlModel.class,
+        ItemTypeSqlModel.class,
+        ItemSqlModel.class,
+        AccessorySqlModel.class,
+        SkillSqlModel.class,
+        SkillLevelSqlModel.class,
+        CollectionSqlModel.class,
+        CollectionItemSqlModel.class,
+        CollectionItemTierSqlModel.class,
+        MinionSqlModel.class,
+        MinionTierSqlModel.class
+    );
+
+    private static @NotNull Target target = new Target() {
+
+        @Override
+        public void write(@NotNull List<Table> tables, int batchSize, int transactionSize) {
+            writeSession(tables, batchSize, transactionSize);
+        }
+
+        @Override
+        public @NotNull Set<Long> getRetired(@NotNull Class<?> modelClass) {
+            return readRetired(modelClass);
+        }
+
+    };
+
+    private final @NotNull ProcessorMetrics metrics;
+    private final int batchSize;
+    private final int transactionSize;
+    private final @NotNull Map<Class<?>, Pending> pending = new LinkedHashMap<>();
+
+    public WriteBehind(@NotNull ProcessorMetrics metrics) {
+        this(metrics, DEFAULT_BATCH_SIZE, DEFAULT_TRANSACTION_SIZE);
+    }
+
+    public WriteBehind(@NotNull ProcessorMetrics metrics, int batchSize, int transactionSize) {
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.transactionSize = Math.max(batchSize, transactionSize);
+    }
+
+    /**
+     * Queues a new row for insertion.
+     *
+     * @param model the unsaved model
+     * @return the same model
+     */
+    public synchronized <T extends SqlModel> @NotNull T save(@NotNull T model) {
+        Pending pending = this.getPending(model);
+
+        if (pending.queued.add(model)) {
+            pending.inserts.add(model);
+            this.getMetrics().record(Hibernate.getClass(model), Operation.INSERT);
+        }
+
+        return model;
+    }
+
+    /**
+     * Queues an existing row for update, rows already queued are written once with their latest state.
+     *
+     * @param model the modified model
+     * @return the same model
+     */
+    public synchronized <T extends SqlModel> @NotNull T update(@NotNull T model) {
+        return this.update(model, null);
+    }
+
+    /**
+     * Queues an existing row for update of the given fields, rows already queued are written once with the union of their fields.
+     *
+     * @param model the modified model
+     * @param fields the changed fields, or null to write every column
+     * @return the same model
+     */
+    public synchronized <T extends SqlModel> @NotNull T update(@NotNull T model, @Nullable Set<String> fields) {
+        if (this.getPending(model).queueUpdate(model, fields))
+            this.getMetrics().record(Hibernate.getClass(model), Operation.UPDATE);
+
+        return model;
+    }
+
+    /**
+     * Queues an existing row for retirement.
+     *
+     * @param model the retired row
+     * @return the same model
+     */
+    public synchronized <T extends SqlModel> @NotNull T retire(@NotNull T model) {
+        Pending pending = this.getPending(model);
+
+        if (pending.queued.add(model)) {
+            pending.retired.add(model);
+            this.getMetrics().record(Hibernate.getClass(model), Operation.RETIRE);
+        }
+
+        return model;
+    }
+
+    /**
+     * Queues a retired row for restoration.
+     *
+     * @param model the restored row
+     * @return the same model
+     */
+    public synchronized <T extends SqlModel> @NotNull T restore(@NotNull T model) {
+        Pending pending = this.getPending(model);
+
+        if (pending.queued.add(model)) {
+            pending.restored.add(model);
+            this.getMetrics().record(Hibernate.getClass(model), Operation.RESTORE);
+        }
+
+        return model;
+    }
+
+    public synchronized int size() {
+        return this.pending.values().stream().mapToInt(Pending::size).sum();
+    }
+
+    /**
+     * Writes every pending row through the {@link #setTarget(Target) target}, removing them from the queue once written.
+     * <p>
+     * If a transaction fails it is rolled back and every row is queued again, see {@link #write(List)}.
+     */
+    public synchronized void flush() {
+        this.write(this.drain());
+    }
+
+    /**
+     * Removes every pending row from the queue, in foreign key order, to be written later by {@link #write(List)}.
+     */
+    public synchronized @NotNull List<Table> drain() {
+        List<Table> tables = this.pending.entrySet()
+            .stream()
+            .sorted(Comparator.comparingInt(entry -> getFlushOrder(entry.getKey())))
+            .map(entry -> new Table(
+                entry.getKey(),
+                entry.getValue().inserts,
+                entry.getValue().updates.stream().map(model -> new Update(model, entry.getValue().fields.get(model))).toList(),
+                entry.getValue().retired,
+                entry.getValue().restored
+            ))
+            .toList();
+
+        this.pending.clear();
+        return tables;
+    }
+
+    /**
+     * Writes drained rows through the {@link #setTarget(Target) target}, rows can be queued while they are written.
+     * <p>
+     * If a transaction fails it is rolled back and the drained rows are queued again, ahead of rows queued since, then the failure
+     * is rethrown. Rows written by previously committed transactions remain written, and are written again as updates.
+     *
+     * @param tables the drained rows
+     */
+    public void write(@NotNull List<Table> tables) {
+        this.write(tables, tables);
+    }
+
+    /**
+     * Writes copies of drained rows through the {@link #setTarget(Target) target}, queuing the drained rows again if it fails.
+     *
+     * @param copies the copied rows, in the same tables as the drained rows
+     * @param tables the drained rows
+     * @see #write(List)
+     */
+    public void write(@NotNull List<Table> copies, @NotNull List<Table> tables) {
+        if (copies.isEmpty())
+            return;
+
+        try {
+            target.write(copies, this.getBatchSize(), this.getTransactionSize());
+        } catch (RuntimeException | Error exception) {
+            this.requeue(tables);
+            throw exception;
+        }
+    }
+
+    /**
+     * Queues drained rows again without counting them, merging them with rows queued since they were drained.
+     */
+    private synchronized void requeue(@NotNull List<Table> tables) {
+        Map<Class<?>, Pending> queued = new LinkedHashMap<>(this.pending);
+        this.pending.clear();
+
+        for (Table table : tables) {
+            Pending pending = this.pending.computeIfAbsent(table.modelClass(), __ -> new Pending());
+
+            for (SqlModel model : table.inserts()) {
+                if (pending.queued.add(model))
+                    pending.inserts.add(model);
+            }
+
+            for (Update update : table.updates())
+                pending.queueUpdate(update.model(), update.fields());
+
+            for (SqlModel model : table.retired()) {
+                if (pending.queued.add(model))
+                    pending.retired.add(model);
+            }
+
+            for (SqlModel model : table.restored()) {
+                if (pending.queued.add(model))
+                    pending.restored.add(model);
+            }
+        }
+
+        queued.forEach((modelClass, later) -> {
+            Pending pending = this.pending.computeIfAbsent(modelClass, __ -> new Pending());
+
+            for (SqlModel model : later.inserts) {
+                if (pending.queued.add(model))
+                    pending.inserts.add(model);
+            }
+
+            for (SqlModel model : later.updates)
+                pending.queueUpdate(model, later.fields.get(model));
+
+            for (SqlModel model : later.retired) {
+                pending.replace(model);
+                pending.retired.add(model); // Retired Since Drained
+            }
+
+            for (SqlModel model : later.restored) {
+                pending.replace(model);
+                pending.restored.add(model); // Restored Since Drained
+            }
+        });
+    }
+
+    /**
+     * Gets where every write-behind queue writes to.
+     */
+    public static @NotNull Target getTarget() {
+        return target;
+    }
+
+    /**
+     * Sets where every write-behind queue writes to, the database session by default.
+     *
+     * @param target the write target
+     */
+    public static void setTarget(@NotNull Target target) {
+        WriteBehind.target = target;
+    }
+
+    private static void writeSession(@NotNull List<Table> tables, int batchSize, int transactionSize) {
+        try (Session session = SimplifiedApi.getSessionManager().getSession().openSession()) {
+            session.setJdbcBatchSize(batchSize);
+            SessionWriter writer = new SessionWriter(session, batchSize, transactionSize);
+
+            try {
+                tables.forEach(writer::write);
+                writer.commit();
+            } catch (RuntimeException exception) {
+                writer.rollback();
+                throw exception;
+            }
+        }
+    }
+
+    private static @NotNull Set<Long> readRetired(@NotNull Class<?> modelClass) {
+        try (Session session = SimplifiedApi.getSessionManager().getSession().openSession()) {
+            return new HashSet<>(
+                session.createNativeQuery(SessionWriter.SELECT_RETIRED, Long.class)
+                    .setParameter("table", UpdaterMetrics.getTableName(modelClass))
+                    .getResultList()
+            );
+        }
+    }
+
+    private @NotNull Pending getPending(@NotNull SqlModel model) {
+        return this.pending.computeIfAbsent(Hibernate.getClass(model), __ -> new Pending());
+    }
+
+    private static int getFlushOrder(@NotNull Class<?> modelClass) {
+        int index = FLUSH_ORDER.indexOf(modelClass);
+        return index == -1 ? FLUSH_ORDER.size() : index;
+    }
+
+    /**
+     * Writes flushed rows and reads retired rows, replaced to run processors without a database.
+     */
+    @FunctionalInterface
+    public interface Target {
+
+        /**
+         * Writes the pending rows of every table.
+         *
+         * @param tables the tables with pending rows, in foreign key order
+         * @param batchSize the maximum number of statements per batch
+         * @param transactionSize the maximum number of rows per transaction
+         */
+        void write(@NotNull List<Table> tables, int batchSize, int transactionSize);
+
+        /**
+         * Reads the ids of the retired rows of a table, none unless overridden.
+         *
+         * @param modelClass the model class of the table
+         */
+        default @NotNull Set<Long> getRetired(@NotNull Class<?> modelClass) {
+            return Set.of();
+        }
+
+    }
+
+    /**
+     * The pending rows of a single table.
+     *
+     * @param modelClass the model class of the table
+     * @param inserts the rows to insert
+     * @param updates the rows to update
+     * @param retired the rows to retire
+     * @param restored the retired rows to restore
+     */
+    public record Table(@NotNull Class<?> modelClass, @NotNull List<SqlModel> inserts, @NotNull List<Update> updates, @NotNull List<SqlModel> retired, @NotNull List<SqlModel> restored) {
+
+        public int size() {
+            return this.inserts().size() + this.updates().size() + this.retired().size() + this.restored().size();
+        }
+
+        /**
+         * Every pending row of the table, inserted, updated, retired or restored.
+         */
+        public @NotNull List<SqlModel> rows() {
+            List<SqlModel> rows = new ArrayList<>(this.size());
+            rows.addAll(this.inserts());
+            this.updates().forEach(update -> rows.add(update.model()));
+            rows.addAll(this.retired());
+            rows.addAll(this.restored());
+            return rows;
+        }
+
+    }
+
+    /**
+     * A pending update of a single row.
+     *
+     * @param model the modified row
+     * @param fields the changed fields, or null to write every column
+     */
+    public record Update(@NotNull SqlModel model, @Nullable Set<String> fields) {
+
+        public boolean isPartial() {
+            return this.fields() != null;
+        }
+
+    }
+
+    private static final class Pending {
+
+        private final List<SqlModel> inserts = new ArrayList<>();
+        private final List<SqlModel> updates = new ArrayList<>();
+        private final List<SqlModel> retired = new ArrayList<>();
+        private final List<SqlModel> restored = new ArrayList<>();
+        private final Map<SqlModel, Set<String>> fields = new IdentityHashMap<>();
+        private final Set<SqlModel> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * Queues an update, rows already queued are written once with the union of their fields.
+         *
+         * @return true if the row was not queued
+         */
+        private boolean queueUpdate(@NotNull SqlModel model, @Nullable Set<String> fields) {
+            if (this.queued.add(model)) {
+                this.updates.add(model);
+
+                if (fields != null)
+                    this.fields.put(model, new LinkedHashSet<>(fields));
+
+                return true;
+            }
+
+            if (this.fields.containsKey(model)) {
+                if (fields != null)
+                    this.fields.get(model).addAll(fields);
+                else
+                    this.fields.remove(model); // Every Column
+            }
+
+            return false;
+        }
+
+        /**
+         * Discards the queued operation of a row, keeping the row queued for the operation replacing it.
+         */
+        private void replace(@NotNull SqlModel model) {
+            if (this.queued.add(model))
+                return;
+
+            this.inserts.removeIf(drained -> drained == model);
+            this.updates.removeIf(drained -> drained == model);
+            this.fields.remove(model);
+            this.retired.removeIf(drained -> drained == model);
+            this.restored.removeIf(drained -> drained == model);
+        }
+
+        private int size() {
+            return this.queued.size();
+        }
+
+    }
+
+}
@@ -0,0 +1,246 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.updater.metrics.Phase;
+import dev.sbs.updater.metrics.ProcessorMetrics;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue between the diff stage of a processor and its writer thread, so database writes overlap with diffing.
+ * <p>
+ * Writes run strictly in the order they were submitted. Once {@link #getDepth()} writes are queued, submitting
+ * blocks until the writer catches up. The time the diff stage spends blocked on a full queue, and the writer spends
+ * waiting on an empty one, is recorded as a stall of each stage.
+ * <p>
+ * A failed write is thrown as a {@link WriteFailedException} by the next {@link #submit(Runnable, Collection)}, {@link #await()} or
+ * {@link #awaitWritten(Object)}, every write queued behind it is discarded.
+ * A writer thread that died is noticed by both, and by {@link #close()}, instead of blocking on it forever.
+ * <p>
+ * Every write is submitted with the rows it writes, {@link #awaitWritten(Object)} blocks until no submitted write holds a row,
+ * so a row is written again only once its previous write completed. Completing a write synchronizes on the pipeline,
+ * so everything the writer did is visible to the diff stage once it stops waiting.
+ */
+final class WritePipeline implements AutoCloseable {
+
+    public static final int DEFAULT_DEPTH = 2;
+    private static final Write STOP = new Write(() -> { }, List.of());
+
+    /**
+     * How long blocking on the writer lasts before checking it is still alive.
+     */
+    private static final Duration LIVENESS_CHECK = Duration.ofSeconds(1);
+
+    @Getter
+    private final @NotNull ProcessorMetrics metrics;
+    @Getter
+    private final int depth;
+    private final @NotNull BlockingQueue<Write> queue;
+    private final @NotNull Thread writer;
+    private final @NotNull Map<Object, Integer> inFlight = new IdentityHashMap<>();
+    private int peakDepth;
+    private long submitted;
+    private long completed;
+    private volatile @Nullable Throwable failure;
+
+    WritePipeline(@NotNull String name, @NotNull ProcessorMetrics metrics, int depth) {
+        this.metrics = metrics;
+        this.depth = depth;
+        this.queue = new ArrayBlockingQueue<>(depth);
+        this.writer = new Thread(this::run, name + "-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a write behind every previously submitted write, blocking while the queue is full.
+     *
+     * @param write the write
+     * @param rows the rows held by the write until it completes
+     * @throws WriteFailedException if a previous write failed
+     */
+    public void submit(@NotNull Runnable write, @NotNull Collection<?> rows) {
+        this.rethrow();
+        Write owned = new Write(write, rows);
+
+        synchronized (this) {
+            this.submitted++;
+            rows.forEach(row -> this.inFlight.merge(row, 1, Integer::sum));
+        }
+
+        if (!this.queue.offer(owned)) {
+            long start = System.nanoTime();
+
+            if (!this.put(owned))
+                this.rethrow();
+
+            this.getMetrics().recordStall(Phase.DIFF, System.nanoTime() - start);
+        }
+
+        synchronized (this) {
+            this.peakDepth = (int) Math.max(this.peakDepth, this.submitted - this.completed); // Including the write in progress
+        }
+    }
+
+    /**
+     * Waits for every submitted write to complete.
+     *
+     * @throws WriteFailedException if a write failed
+     */
+    public void await() {
+        synchronized (this) {
+            while (this.completed < this.submitted && this.isWriting())
+                this.waitForWriter();
+        }
+
+        this.rethrow();
+    }
+
+    /**
+     * Waits until no submitted write holds the given row.
+     *
+     * @param row the row
+     * @throws WriteFailedException if a write failed
+     */
+    public void awaitWritten(@NotNull Object row) {
+        synchronized (this) {
+            while (this.inFlight.containsKey(row) && this.isWriting())
+                this.waitForWriter();
+        }
+
+        this.rethrow();
+    }
+
+    /**
+     * Completes every submitted write, then stops the writer and records the peak queue depth.
+     * <p>
+     * Failures are left to {@link #await()}, closing never throws them.
+     */
+    @Override
+    public void close() {
+        try {
+            while (!this.queue.offer(STOP, LIVENESS_CHECK.toMillis(), TimeUnit.MILLISECONDS)) {
+                if (!this.writer.isAlive())
+                    break; // Nothing Left To Stop
+            }
+
+            this.writer.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            this.getMetrics().setQueueDepth(this.peakDepth);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            long start = System.nanoTime();
+            Write write;
+
+            try {
+                write = this.queue.take();
+            } catch (InterruptedException exception) {
+                return;
+            }
+
+            if (write == STOP)
+                return;
+
+            try {
+                this.getMetrics().recordStall(Phase.WRITE, System.nanoTime() - start);
+
+                if (this.failure == null)
+                    write.write().run();
+            } catch (Throwable throwable) {
+                this.failure = throwable; // Later writes depend on this one
+            } finally {
+                synchronized (this) {
+                    write.rows().forEach(row -> this.inFlight.computeIfPresent(row, (__, count) -> count > 1 ? count - 1 : null));
+                    this.completed++;
+                    this.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the writer is alive, recording its death as a failure otherwise.
+     */
+    private boolean isWriting() {
+        if (this.writer.isAlive())
+            return true;
+
+        if (this.failure == null)
+            this.failure = new IllegalStateException(String.format("%s stopped", this.writer.getName()));
+
+        return false;
+    }
+
+    /**
+     * Waits on the pipeline until notified by the writer, or until its liveness should be checked again.
+     */
+    private void waitForWriter() {
+        try {
+            this.wait(LIVENESS_CHECK.toMillis());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Queues a write, blocking while the queue is full and the writer is alive.
+     *
+     * @return false if the writer died
+     */
+    private boolean put(@NotNull Write write) {
+        try {
+            while (!this.queue.offer(write, LIVENESS_CHECK.toMillis(), TimeUnit.MILLISECONDS)) {
+                if (!this.isWriting())
+                    return false;
+            }
+
+            return true;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private void rethrow() {
+        Throwable failure = this.failure;
+
+        if (failure != null)
+            throw new WriteFailedException(String.format("%s failed", this.writer.getName()), failure);
+    }
+
+    /**
+     * A submitted write and the rows it holds until it completes.
+     */
+    private record Write(@NotNull Runnable write, @NotNull Collection<?> rows) { }
+
+    /**
+     * A write of the pipeline failed, nothing more is written and the run cannot continue.
+     * <p>
+     * Distinct from the failure of a single entry, so it is never recorded as one.
+     */
+    static final class WriteFailedException extends IllegalStateException {
+
+        WriteFailedException(@NotNull String message, @NotNull Throwable cause) {
+            super(message, cause);
+        }
+
+    }
+
+}
@@ -0,0 +1,19 @@
+package dev.sbs.updater.processor.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A composite key for {@link IndexedCache.Index}, such as (minion, item) or (skill, level).
+ * <p>
+ * Parts are compared by value and may be null.
+ */
+public record CacheKey(@NotNull List<Object> parts) {
+
+    public static @NotNull CacheKey of(Object... parts) {
+        return new CacheKey(Arrays.asList(parts));
+    }
+
+}
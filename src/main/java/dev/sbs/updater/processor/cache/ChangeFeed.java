@@ -0,0 +1,132 @@
+package dev.sbs.updater.processor.cache;
+
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Rows written by the updater instances sharing the database, listed in the {@value #TABLE} table.
+ * <p>
+ * Every coordinated instance lists the rows it inserts and updates, in the transaction writing them. A poll then loads only
+ * the rows other instances listed since the previous poll, and refreshes them in the caches with {@link ModelCache#refresh(Map)}.
+ * <p>
+ * Polls read again the rows listed up to {@link #MARGIN} before the previous poll, catching transactions committed after it.
+ * Listed rows are pruned after {@link #RETENTION}, an instance that did not poll for half of it reloads every cache instead.
+ */
+@Log4j2
+public final class ChangeFeed {
+
+    public static final String TABLE = "updater_changes";
+    public static final String INSERT = "insert into updater_changes (table_name, row_id, instance, recorded_at) values (?, ?, ?, ?)";
+    private static final String SELECT = "select table_name, row_id from updater_changes where recorded_at >= :since and instance <> :instance";
+    private static final String DELETE = "delete from updater_changes where recorded_at < :before";
+    private static final Duration MARGIN = Duration.ofMinutes(10);
+    private static final Duration RETENTION = Duration.ofDays(1);
+    private static volatile @Nullable ChangeFeed feed;
+
+    @Getter
+    private final @NotNull String instance;
+    private long since;
+
+    private ChangeFeed(@NotNull String instance, long loadedAt) {
+        this.instance = instance;
+        this.since = loadedAt - MARGIN.toMillis();
+    }
+
+    /**
+     * Starts listing the rows written by this instance.
+     *
+     * @param instance the unique id of this instance
+     * @param loadedAt the time the caches started loading from the database
+     */
+    public static @NotNull ChangeFeed open(@NotNull String instance, long loadedAt) {
+        ChangeFeed changeFeed = new ChangeFeed(instance, loadedAt);
+        feed = changeFeed;
+        return changeFeed;
+    }
+
+    /**
+     * Gets the open change feed, or null if this instance is not coordinated and no row is listed.
+     */
+    public static @Nullable ChangeFeed getInstance() {
+        return feed;
+    }
+
+    /**
+     * Refreshes the cached rows written by other instances since the previous poll, with a single query per model,
+     * and prunes the rows listed before the retention.
+     */
+    public void refresh() {
+        long start = System.currentTimeMillis();
+
+        if (start - this.since > RETENTION.toMillis() / 2) {
+            log.info("Reloading Caches");
+            ModelCache.reload(); // Listed Rows May Be Pruned
+        } else {
+            try (Session session = SimplifiedApi.getSessionManager().getSession().openSession()) {
+                Map<String, Set<Long>> changed = new HashMap<>();
+                session.createNativeQuery(SELECT, Object[].class)
+                    .setParameter("since", this.since)
+                    .setParameter("instance", this.getInstance())
+                    .getResultList()
+                    .forEach(row -> changed.computeIfAbsent((String) row[0], __ -> new HashSet<>()).add(((Number) row[1]).longValue()));
+
+                Map<Class<?>, List<SqlModel>> stored = new HashMap<>();
+
+                for (Class<?> modelClass : ModelCache.getModelClasses()) {
+                    Set<Long> ids = changed.get(UpdaterMetrics.getTableName(modelClass));
+
+                    if (ids != null) {
+                        List<SqlModel> rows = new ArrayList<>();
+                        session.byMultipleIds(modelClass)
+                            .multiLoad(List.copyOf(ids))
+                            .stream()
+                            .filter(Objects::nonNull)
+                            .forEach(row -> rows.add((SqlModel) row));
+                        stored.put(modelClass, rows);
+                    }
+                }
+
+                ModelCache.refresh(stored);
+                log.info("Refreshed {} Rows Written By Other Instances in {}ms", stored.values().stream().mapToInt(List::size).sum(), System.currentTimeMillis() - start);
+                this.prune(session, start - RETENTION.toMillis());
+            }
+        }
+
+        this.since = start - MARGIN.toMillis();
+    }
+
+    private void prune(@NotNull Session session, long before) {
+        Transaction transaction = session.beginTransaction();
+
+        try {
+            session.createNativeMutationQuery(DELETE)
+                .setParameter("before", before)
+                .executeUpdate();
+            transaction.commit();
+        } catch (RuntimeException exception) {
+            if (transaction.isActive())
+                transaction.rollback();
+
+            log.atWarn()
+                .withThrowable(exception)
+                .log("Unable to prune {}", TABLE);
+        }
+    }
+
+}
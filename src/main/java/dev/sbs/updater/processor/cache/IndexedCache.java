@@ -0,0 +1,153 @@
+package dev.sbs.updater.processor.cache;
+
+import dev.sbs.api.collection.concurrent.Concurrent;
+import dev.sbs.api.collection.concurrent.ConcurrentList;
+import dev.sbs.api.collection.concurrent.ConcurrentMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A loaded table cache with any number of hash indexes kept in sync with it.
+ * <p>
+ * Values added through {@link #add(Object)} are immediately visible in every index,
+ * so processors never have to fall back to scanning {@link #getValues()}.
+ *
+ * @param <T> the cached model type
+ */
+@Getter
+public final class IndexedCache<T> {
+
+    private final @NotNull ConcurrentList<T> values;
+    @Getter(AccessLevel.NONE)
+    private final @NotNull ConcurrentMap<String, Index<?, T>> indexes = Concurrent.newMap();
+
+    public IndexedCache(@NotNull Collection<T> values) {
+        this.values = Concurrent.newList(values);
+    }
+
+    /**
+     * Adds a value to the cache and every registered index.
+     *
+     * @param value the value to add
+     * @return the added value
+     */
+    public synchronized @NotNull T add(@NotNull T value) {
+        this.values.add(value);
+        this.indexes.values().forEach(index -> index.put(value));
+        return value;
+    }
+
+    /**
+     * Gets the index registered under the given name, building it on first use.
+     * <p>
+     * Indexes are shared by name, processors asking for the same name
+     * receive the same index.
+     *
+     * @param name the unique index name
+     * @param keyFunction the function extracting the key from a value
+     * @param <K> the key type
+     */
+    @SuppressWarnings("unchecked")
+    public <K> @NotNull Index<K, T> index(@NotNull String name, @NotNull Function<T, K> keyFunction) {
+        Index<?, T> index = this.indexes.get(name);
+
+        if (index == null) {
+            synchronized (this) {
+                index = this.indexes.computeIfAbsent(name, __ -> new Index<>(keyFunction, this.values));
+            }
+        }
+
+        return (Index<K, T>) index;
+    }
+
+    /**
+     * Replaces every cached value and rebuilds every index.
+     *
+     * @param values the new values
+     */
+    public synchronized void reset(@NotNull Collection<T> values) {
+        this.values.clear();
+        this.values.addAll(values);
+        this.reindex();
+    }
+
+    /**
+     * Removes the given values from the cache, in a single pass, and rebuilds every index.
+     *
+     * @param values the values to remove, compared by identity
+     */
+    public synchronized void removeAll(@NotNull Collection<T> values) {
+        if (values.isEmpty())
+            return;
+
+        Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(values);
+        this.values.removeIf(removed::contains);
+        this.reindex();
+    }
+
+    /**
+     * Rebuilds every index, required only if a key of a cached value was modified in place.
+     */
+    public synchronized void reindex() {
+        this.indexes.values().forEach(index -> index.rebuild(this.values));
+    }
+
+    public int size() {
+        return this.values.size();
+    }
+
+    /**
+     * A single hash index over an {@link IndexedCache}.
+     * <p>
+     * Like {@link ConcurrentList#findFirstOrNull}, the first value for a key wins.
+     *
+     * @param <K> the key type, use {@link CacheKey} for composite keys
+     * @param <T> the cached model type
+     */
+    public static final class Index<K, T> {
+
+        private final @NotNull Function<T, K> keyFunction;
+        private final @NotNull ConcurrentMap<K, T> entries = Concurrent.newMap();
+
+        private Index(@NotNull Function<T, K> keyFunction, @NotNull Collection<T> values) {
+            this.keyFunction = keyFunction;
+            values.forEach(this::put);
+        }
+
+        public @Nullable T get(@Nullable K key) {
+            return key == null ? null : this.entries.get(key);
+        }
+
+        public @NotNull Optional<T> find(@Nullable K key) {
+            return Optional.ofNullable(this.get(key));
+        }
+
+        public boolean contains(@Nullable K key) {
+            return key != null && this.entries.containsKey(key);
+        }
+
+        private void put(@NotNull T value) {
+            K key = this.keyFunction.apply(value);
+
+            if (key != null)
+                this.entries.putIfAbsent(key, value);
+        }
+
+        private void rebuild(@NotNull Collection<T> values) {
+            this.entries.clear();
+            values.forEach(this::put);
+        }
+
+    }
+
+}
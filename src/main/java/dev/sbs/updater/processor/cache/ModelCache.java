@@ -0,0 +1,179 @@
+package dev.sbs.updater.processor.cache;
+
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.collection.concurrent.Concurrent;
+import dev.sbs.api.collection.concurrent.ConcurrentMap;
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.api.data.model.skyblock.accessory_data.accessories.AccessorySqlModel;
+import dev.sbs.api.data.model.skyblock.items.ItemSqlModel;
+import dev.sbs.api.data.sql.SqlRepository;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import dev.sbs.updater.processor.ModelFields;
+import dev.sbs.updater.processor.stat.StatBlock;
+import dev.sbs.updater.processor.stat.TieredStatBlock;
+import org.hibernate.Hibernate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Table caches shared by every processor, each table is loaded from its repository exactly once.
+ * <p>
+ * Stats of cached items and accessories are immutable {@link StatBlock stat blocks}, processors write copies of cached rows
+ * holding mutable maps instead, so nothing writing a row modifies its stats in place.
+ */
+public final class ModelCache {
+
+    private static final ConcurrentMap<Class<?>, IndexedCache<?>> caches = Concurrent.newMap();
+    private static final ConcurrentMap<Class<?>, Consumer<?>> normalizers = Concurrent.newMap();
+
+    static {
+        // Cached rows share compact stat blocks instead of holding their own maps
+        normalize(ItemSqlModel.class, item -> {
+            item.setStats(StatBlock.of(item.getStats()));
+            item.setTieredStats(TieredStatBlock.of(item.getTieredStats()));
+        });
+        normalize(AccessorySqlModel.class, accessory -> accessory.setEffects(StatBlock.of(accessory.getEffects())));
+    }
+
+    private ModelCache() { }
+
+    /**
+     * Registers a normalizer applied to every row of a model as its cache is loaded, reloaded or registered,
+     * used to share equal values between cached rows.
+     *
+     * @param modelClass the cached model
+     * @param normalizer the normalizer of a single row
+     */
+    public static <T extends SqlModel> void normalize(@NotNull Class<T> modelClass, @NotNull Consumer<T> normalizer) {
+        normalizers.put(modelClass, normalizer);
+    }
+
+    /**
+     * Loads the given values into the cache of a model instead of its repository, used to run processors without a database.
+     *
+     * @param modelClass the cached model
+     * @param values the values to cache
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends SqlModel> void register(@NotNull Class<T> modelClass, @NotNull Collection<T> values) {
+        ((IndexedCache<T>) caches.computeIfAbsent(modelClass, __ -> new IndexedCache<>(List.of()))).reset(normalized(modelClass, values));
+    }
+
+    /**
+     * Reloads every loaded cache from its repository in place, discarding rows that were never written.
+     */
+    @SuppressWarnings("unchecked")
+    public static void reload() {
+        caches.forEach((modelClass, cache) -> {
+            long start = System.nanoTime();
+            ((IndexedCache<SqlModel>) cache).reset(normalized(modelClass, ((SqlRepository<SqlModel>) SimplifiedApi.getRepositoryOf((Class<SqlModel>) modelClass)).findAll()));
+            UpdaterMetrics.recordCacheLoad(modelClass, System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * Replaces cached rows by their stored state and adds the stored rows missing from their cache, rows of models not cached are ignored.
+     * <p>
+     * Cached rows are modified in place, and references to cached rows are relinked to the cached instances,
+     * so processors keep finding and comparing the same instances.
+     *
+     * @param stored the stored rows, per model
+     */
+    @SuppressWarnings("unchecked")
+    public static void refresh(@NotNull Map<Class<?>, List<SqlModel>> stored) {
+        Map<Class<?>, Map<Long, SqlModel>> cachedById = new HashMap<>();
+        caches.forEach((modelClass, cache) -> {
+            Map<Long, SqlModel> rows = new HashMap<>();
+            ((IndexedCache<SqlModel>) cache).getValues().forEach(row -> rows.putIfAbsent(row.getId(), row));
+            cachedById.put(modelClass, rows);
+        });
+
+        Map<Class<?>, List<SqlModel>> added = new HashMap<>();
+        stored.forEach((modelClass, rows) -> {
+            Map<Long, SqlModel> cached = cachedById.get(modelClass);
+
+            if (cached != null) {
+                rows.stream()
+                    .filter(row -> cached.putIfAbsent(row.getId(), row) == null) // Referenced By Other Stored Rows
+                    .forEach(row -> added.computeIfAbsent(modelClass, __ -> new ArrayList<>()).add(row));
+            }
+        });
+
+        UnaryOperator<Object> relink = value -> relink(value, cachedById);
+        stored.forEach((modelClass, rows) -> {
+            IndexedCache<SqlModel> cache = (IndexedCache<SqlModel>) caches.get(modelClass);
+
+            if (cache == null)
+                return;
+
+            ModelFields<SqlModel> fields = (ModelFields<SqlModel>) ModelFields.of(modelClass);
+            List<SqlModel> refreshed = rows.stream().map(row -> cachedById.get(modelClass).get(row.getId())).toList();
+
+            for (int i = 0; i < rows.size(); i++)
+                fields.copy(rows.get(i), refreshed.get(i), relink);
+
+            normalized(modelClass, refreshed);
+            cache.reindex();
+            added.getOrDefault(modelClass, List.of()).forEach(cache::add);
+        });
+    }
+
+    /**
+     * Gets the models whose cache is loaded.
+     */
+    public static @NotNull Set<Class<?>> getModelClasses() {
+        return Set.copyOf(caches.keySet());
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends SqlModel> @NotNull IndexedCache<T> of(@NotNull Class<T> modelClass) {
+        return (IndexedCache<T>) caches.computeIfAbsent(modelClass, __ -> {
+            long start = System.nanoTime();
+            IndexedCache<T> cache = new IndexedCache<>(normalized(modelClass, ((SqlRepository<T>) SimplifiedApi.getRepositoryOf(modelClass)).findAll()));
+            UpdaterMetrics.recordCacheLoad(modelClass, System.nanoTime() - start);
+            return cache;
+        });
+    }
+
+    /**
+     * Replaces a stored row by its cached instance, and the stored rows of a loaded collection by theirs.
+     */
+    private static Object relink(Object value, @NotNull Map<Class<?>, Map<Long, SqlModel>> cachedById) {
+        if (value instanceof SqlModel model) {
+            Map<Long, SqlModel> cached = cachedById.get(Hibernate.getClass(model));
+            return cached != null ? cached.getOrDefault(model.getId(), model) : model;
+        }
+
+        if (!Hibernate.isInitialized(value))
+            return value; // Never Loaded By The Cache Either
+
+        if (value instanceof List<?> list)
+            return list.stream().map(element -> relink(element, cachedById)).collect(Collectors.toCollection(ArrayList::new));
+
+        if (value instanceof Set<?> set)
+            return set.stream().map(element -> relink(element, cachedById)).collect(Collectors.toCollection(LinkedHashSet::new));
+
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> @NotNull Collection<T> normalized(@NotNull Class<?> modelClass, @NotNull Collection<T> values) {
+        Consumer<T> normalizer = (Consumer<T>) normalizers.get(modelClass);
+
+        if (normalizer != null)
+            values.forEach(normalizer);
+
+        return values;
+    }
+
+}
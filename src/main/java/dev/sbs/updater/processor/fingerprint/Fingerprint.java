@@ -0,0 +1,138 @@
+package dev.sbs.updater.processor.fingerprint;
+
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.updater.processor.JsonFields;
+import dev.sbs.updater.processor.JsonNormalizer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Stable content hashes of resource entries.
+ * <p>
+ * The fields of the entry are read directly through their {@link JsonFields}, so two entries have the same fingerprint
+ * if they are written to the same json, and mixed into a 64-bit hash without serializing the entry.
+ * Only values written by a custom type adapter are serialized, with the api {@link com.google.gson.Gson}.
+ */
+public final class Fingerprint {
+
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    // Structure Tags
+    private static final long NULL = 1;
+    private static final long TRUE = 2;
+    private static final long FALSE = 3;
+    private static final long STRING = 4;
+    private static final long NUMBER = 5;
+    private static final long LIST = 6;
+    private static final long MAP = 7;
+    private static final long END = 8;
+
+    private long hash;
+
+    private Fingerprint() { }
+
+    public static long of(@Nullable Object value) {
+        Fingerprint fingerprint = new Fingerprint();
+        fingerprint.value(value);
+        return mix(fingerprint.hash);
+    }
+
+    private void value(@Nullable Object value) {
+        if (value == null) {
+            this.put(NULL);
+            return;
+        }
+
+        JsonFields fields = JsonFields.of(value.getClass());
+
+        switch (fields.getKind()) {
+            case STRING -> this.string((String) value);
+            case BOOLEAN -> this.put((Boolean) value ? TRUE : FALSE);
+            case CHARACTER -> this.string(String.valueOf(value));
+            case NUMBER -> {
+                this.put(NUMBER);
+                this.put(Double.doubleToLongBits(JsonNormalizer.toDouble((Number) value)));
+            }
+            case ENUM -> this.value(fields.getConstant(value));
+            case ARRAY -> {
+                this.put(LIST);
+
+                for (int i = 0, length = Array.getLength(value); i < length; i++)
+                    this.value(Array.get(value, i));
+
+                this.put(END);
+            }
+            case COLLECTION -> {
+                this.put(LIST);
+                ((Collection<?>) value).forEach(this::value);
+                this.put(END);
+            }
+            case MAP -> {
+                this.put(MAP);
+
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    if (entry.getValue() != null || SimplifiedApi.getGson().serializeNulls()) {
+                        this.string(String.valueOf(entry.getKey()));
+                        this.value(entry.getValue());
+                    }
+                }
+
+                this.put(END);
+            }
+            case OBJECT -> {
+                this.put(MAP);
+
+                for (int i = 0; i < fields.size(); i++) {
+                    Object fieldValue = fields.get(i, value);
+
+                    if (fieldValue != null || SimplifiedApi.getGson().serializeNulls()) {
+                        this.string(fields.getName(i));
+                        this.value(fieldValue);
+                    }
+                }
+
+                this.put(END);
+            }
+            default -> this.string(SimplifiedApi.getGson().toJson(value));
+        }
+    }
+
+    private void string(@NotNull String value) {
+        this.put(STRING);
+        this.put(value.length());
+        long packed = 0;
+
+        for (int i = 0; i < value.length(); i++) {
+            packed = packed << 16 | value.charAt(i);
+
+            if ((i & 3) == 3) {
+                this.put(packed);
+                packed = 0;
+            }
+        }
+
+        if ((value.length() & 3) != 0)
+            this.put(packed);
+    }
+
+    private void put(long value) {
+        this.hash = Long.rotateLeft(this.hash ^ mix(value), 29) * MULTIPLIER;
+    }
+
+    /**
+     * The finalizer of the 64-bit MurmurHash3, spreading every input bit over the whole hash.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB93FE53A87C3L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+}
@@ -0,0 +1,166 @@
+package dev.sbs.updater.processor.fingerprint;
+
+import dev.sbs.api.collection.concurrent.Concurrent;
+import dev.sbs.api.collection.concurrent.ConcurrentMap;
+import dev.sbs.updater.processor.Processor;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persisted {@link Fingerprint fingerprints} of the resource entries written by a processor.
+ * <p>
+ * New fingerprints only become visible to {@link #matches(String, long)} once {@link #save() saved},
+ * which processors do after their writes have been committed.
+ */
+@Log4j2
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class FingerprintStore {
+
+    /**
+     * Increment whenever the mapping from resource entries to models or the {@link Fingerprint} hash changes, discarding every stored fingerprint.
+     */
+    private static final int VERSION = 2;
+
+    private final @NotNull Path path;
+    private final @NotNull ConcurrentMap<String, Long> stored;
+    private final @NotNull ConcurrentMap<String, Long> pending = Concurrent.newMap();
+
+    /**
+     * Loads the fingerprints stored under the given name, or none if they are missing or outdated.
+     *
+     * @param name the store name
+     */
+    public static @NotNull FingerprintStore load(@NotNull String name) {
+        Path path = Processor.DATA_DIRECTORY.resolve(name + ".fingerprints");
+        ConcurrentMap<String, Long> stored = Concurrent.newMap();
+
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (inputStream.readInt() == VERSION) {
+                int size = inputStream.readInt();
+
+                for (int i = 0; i < size; i++)
+                    stored.put(inputStream.readUTF(), inputStream.readLong());
+            }
+        } catch (NoSuchFileException ignore) {
+        } catch (IOException exception) {
+            log.atWarn()
+                .withThrowable(exception)
+                .log("Unable to read fingerprints from {}", path);
+            stored.clear();
+        }
+
+        return new FingerprintStore(path, stored);
+    }
+
+    /**
+     * Checks if the saved fingerprint of an entry equals the given fingerprint.
+     *
+     * @param key the entry key
+     * @param fingerprint the current fingerprint of the entry
+     */
+    public boolean matches(@NotNull String key, long fingerprint) {
+        Long storedFingerprint = this.stored.get(key);
+        return storedFingerprint != null && storedFingerprint == fingerprint;
+    }
+
+    public void put(@NotNull String key, long fingerprint) {
+        this.pending.put(key, fingerprint);
+    }
+
+    /**
+     * Drops the pending fingerprint of an entry that failed, so it is not skipped by the next run.
+     *
+     * @param key the entry key
+     */
+    public void discard(@NotNull String key) {
+        this.pending.remove(key);
+    }
+
+    /**
+     * Drops every fingerprint, forcing all entries through the full comparison.
+     */
+    public synchronized void clear() {
+        this.stored.clear();
+        this.pending.clear();
+    }
+
+    /**
+     * Merges the pending fingerprints into the store and atomically replaces the store file.
+     */
+    public synchronized void save() {
+        this.save(this.stage());
+    }
+
+    /**
+     * Removes the pending fingerprints, to be saved by {@link #save(Map)} once their entries are written.
+     */
+    public synchronized @NotNull Map<String, Long> stage() {
+        Map<String, Long> staged = new HashMap<>(this.pending);
+        staged.forEach(this.pending::remove);
+        return staged;
+    }
+
+    /**
+     * Merges staged fingerprints into the store and atomically replaces the store file.
+     *
+     * @param staged the fingerprints of written entries
+     */
+    public synchronized void save(@NotNull Map<String, Long> staged) {
+        if (staged.isEmpty())
+            return;
+
+        this.stored.putAll(staged);
+        this.write();
+    }
+
+    /**
+     * Removes the fingerprints of entries no longer in the resource and atomically replaces the store file,
+     * so an entry added back is compared again.
+     *
+     * @param keys the entry keys
+     */
+    public synchronized void forget(@NotNull Collection<String> keys) {
+        keys.forEach(this.pending::remove);
+
+        if (this.stored.keySet().removeAll(keys))
+            this.write();
+    }
+
+    private void write() {
+        try {
+            Files.createDirectories(this.path.getParent());
+            Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                outputStream.writeInt(VERSION);
+                outputStream.writeInt(this.stored.size());
+
+                for (Map.Entry<String, Long> entry : this.stored.entrySet()) {
+                    outputStream.writeUTF(entry.getKey());
+                    outputStream.writeLong(entry.getValue());
+                }
+            }
+
+            Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+}
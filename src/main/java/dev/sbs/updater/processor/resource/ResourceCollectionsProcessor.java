@@ -1,123 +1,202 @@
 package dev.sbs.updater.processor.resource;
 
-import dev.sbs.api.SimplifiedApi;
 import dev.sbs.api.client.impl.hypixel.response.resource.ResourceCollectionsResponse;
-import dev.sbs.api.collection.concurrent.ConcurrentList;
 import dev.sbs.api.collection.search.SearchFunction;
 import dev.sbs.api.data.model.skyblock.collection_data.collection_item_tiers.CollectionItemTierSqlModel;
 import dev.sbs.api.data.model.skyblock.collection_data.collection_items.CollectionItemSqlModel;
 import dev.sbs.api.data.model.skyblock.collection_data.collections.CollectionSqlModel;
 import dev.sbs.api.data.model.skyblock.items.ItemSqlModel;
 import dev.sbs.api.data.model.skyblock.skills.SkillSqlModel;
-import dev.sbs.api.data.sql.SqlRepository;
-import dev.sbs.api.mutable.pair.Pair;
 import dev.sbs.api.util.StringUtil;
 import dev.sbs.updater.processor.Processor;
+import dev.sbs.updater.processor.Sweep;
+import dev.sbs.updater.processor.cache.CacheKey;
+import dev.sbs.updater.processor.cache.IndexedCache;
+import dev.sbs.updater.processor.cache.ModelCache;
+import dev.sbs.updater.processor.fingerprint.Fingerprint;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @SuppressWarnings("all")
 public class ResourceCollectionsProcessor extends Processor<ResourceCollectionsResponse> {
 
-    // Repositories
-    private static final SqlRepository<CollectionSqlModel> collectionRepository = (SqlRepository<CollectionSqlModel>) SimplifiedApi.getRepositoryOf(CollectionSqlModel.class);
-    private static final SqlRepository<CollectionItemSqlModel> collectionItemRepository = (SqlRepository<CollectionItemSqlModel>) SimplifiedApi.getRepositoryOf(CollectionItemSqlModel.class);
-    private static final SqlRepository<CollectionItemTierSqlModel> collectionItemTierRepository = (SqlRepository<CollectionItemTierSqlModel>) SimplifiedApi.getRepositoryOf(CollectionItemTierSqlModel.class);
-    private static final SqlRepository<SkillSqlModel> skillRepository = (SqlRepository<SkillSqlModel>) SimplifiedApi.getRepositoryOf(SkillSqlModel.class);
-    private static final SqlRepository<ItemSqlModel> itemRepository = (SqlRepository<ItemSqlModel>) SimplifiedApi.getRepositoryOf(ItemSqlModel.class);
-
     // Caches
-    private static final ConcurrentList<CollectionSqlModel> collectionCache = collectionRepository.findAll();
-    private static final ConcurrentList<CollectionItemSqlModel> collectionItemCache = collectionItemRepository.findAll();
-    private static final ConcurrentList<CollectionItemTierSqlModel> collectionItemTierCache = collectionItemTierRepository.findAll();
-    private static final ConcurrentList<SkillSqlModel> skillCache = skillRepository.findAll();
-    private static final ConcurrentList<ItemSqlModel> itemCache = itemRepository.findAll();
+    private static final IndexedCache<CollectionSqlModel> collectionCache = ModelCache.of(CollectionSqlModel.class);
+    private static final IndexedCache<CollectionItemSqlModel> collectionItemCache = ModelCache.of(CollectionItemSqlModel.class);
+    private static final IndexedCache<CollectionItemTierSqlModel> collectionItemTierCache = ModelCache.of(CollectionItemTierSqlModel.class);
+    private static final IndexedCache<SkillSqlModel> skillCache = ModelCache.of(SkillSqlModel.class);
+    private static final IndexedCache<ItemSqlModel> itemCache = ModelCache.of(ItemSqlModel.class);
+
+    // Indexes
+    private static final IndexedCache.Index<String, CollectionSqlModel> collectionsByKey = collectionCache.index("key", CollectionSqlModel::getKey);
+    private static final IndexedCache.Index<String, SkillSqlModel> skillsByKey = skillCache.index("key", SkillSqlModel::getKey);
+    private static final IndexedCache.Index<String, ItemSqlModel> itemsById = itemCache.index("item_id", ItemSqlModel::getItemId);
+    private static final IndexedCache.Index<CacheKey, CollectionItemSqlModel> collectionItemsByCollectionItem = collectionItemCache.index("collection_item", ResourceCollectionsProcessor::getCollectionItemKey);
+    private static final IndexedCache.Index<CacheKey, CollectionItemTierSqlModel> collectionItemTiersByCollectionItemTier = collectionItemTierCache.index("collection_item_tier", collectionItemTier -> CacheKey.of(
+        getCollectionItemKey(collectionItemTier.getCollectionItem()),
+        collectionItemTier.getTier()
+    ));
+
+    private final Sweep<CollectionItemTierSqlModel> collectionTierSweep = new Sweep<>(CollectionItemTierSqlModel.class, collectionItemTierCache, collectionItemTier -> getCollectionTierKey(collectionItemTier.getCollectionItem(), collectionItemTier.getTier()));
 
     public ResourceCollectionsProcessor(ResourceCollectionsResponse resourceResponse) {
         super(resourceResponse);
     }
 
+    @Override
+    public @NotNull Set<Class<? extends Processor<?>>> getDependencies() {
+        return Set.of(ResourceItemsProcessor.class, ResourceSkillsProcessor.class);
+    }
+
     @Override
     public void process() {
+        super.getResourceResponse()
+            .getCollections()
+            .values()
+            .forEach(collection -> collection.getItems()
+                .values()
+                .forEach(collectionItem -> this.getProgress().expect(collectionItem.getTiers().size()))
+            );
+
+        this.fetchStored(itemCache, ItemSqlModel.class, "itemId", super.getResourceResponse() // Written By Other Shards
+            .getCollections()
+            .values()
+            .stream()
+            .flatMap(collection -> collection.getItems().keySet().stream())
+            .filter(key -> !itemsById.contains(key))
+            .collect(Collectors.toSet())
+        );
+
         for (Map.Entry<String, ResourceCollectionsResponse.Collection> collectionEntry : super.getResourceResponse().getCollections().entrySet()) {
-            this.getLog().info("Processing Collection {}", collectionEntry.getKey());
-            CollectionSqlModel collection = this.updateCollection(collectionEntry.getValue(), collectionEntry.getKey()); // Update `collections`
+            this.getLog().debug("Processing Collection {}", collectionEntry.getKey());
+            CollectionSqlModel collection = this.isolate(collectionEntry.getKey(), () -> this.updateCollection(collectionEntry.getValue(), collectionEntry.getKey())); // Update `collections`
 
             for (Map.Entry<String, ResourceCollectionsResponse.CollectionItem> collectionItemEntry : collectionEntry.getValue().getItems().entrySet()) {
-                CollectionItemSqlModel collectionItem = this.updateCollectionItem(collectionItemEntry.getValue(), collectionItemEntry.getKey(), collection); // Update `collectionitems`
-
-                for (ResourceCollectionsResponse.CollectionTier collectionTier : collectionItemEntry.getValue().getTiers())
-                    this.updateCollectionTier(collectionTier, collectionItem); // Update `collectiontiers`
+                String collectionItemKey = collectionEntry.getKey() + ":" + collectionItemEntry.getKey();
+                CollectionItemSqlModel collectionItem = collection == null ? null : this.isolate(
+                    collectionItemKey,
+                    () -> this.updateCollectionItem(collectionItemEntry.getValue(), collectionItemEntry.getKey(), collection) // Update `collectionitems`
+                );
+
+                for (ResourceCollectionsResponse.CollectionTier collectionTier : collectionItemEntry.getValue().getTiers()) {
+                    this.collectionTierSweep.mark(collectionItemKey + ":" + collectionTier.getTier());
+
+                    if (collectionItem != null) {
+                        this.isolate(collectionItemKey + ":" + collectionTier.getTier(), () -> {
+                            this.updateCollectionTier(collectionTier, collectionItem); // Update `collectiontiers`
+                            return collectionTier;
+                        });
+                    }
+
+                    this.getProgress().step();
+                }
             }
         }
+
+        this.commit();
+    }
+
+    /**
+     * Retires the collection tiers no longer in the resource, they are restored once added back.
+     */
+    @Override
+    protected void reconcile() {
+        int retired = this.retire(this.collectionTierSweep, collectionItemTier -> true);
+
+        if (retired > 0)
+            this.getLog().info("Retired {} removed collection tiers", retired);
     }
 
     private CollectionSqlModel updateCollection(ResourceCollectionsResponse.Collection collection, String key) {
-        CollectionSqlModel existingCollection = collectionCache.findFirstOrNull(CollectionSqlModel::getKey, key);
+        CollectionSqlModel existingCollection = collectionsByKey.get(key);
 
         if (existingCollection == null) {
             CollectionSqlModel newCollection = new CollectionSqlModel();
-            SkillSqlModel skill = skillCache.findFirstOrNull(SkillSqlModel::getKey, key);
+            SkillSqlModel skill = skillsByKey.get(key);
             newCollection.setKey(key);
             newCollection.setName(StringUtil.capitalizeFully(key.replace("_", " ")));
-            this.getLog().info("Adding new collection {}", key);
-            collectionCache.add(newCollection.save());
+            this.getLog().debug("Adding new collection {}", key);
+            collectionCache.add(this.insert(newCollection, key));
             return newCollection;
         }
 
-        return existingCollection;
+        return this.unchanged(existingCollection);
     }
 
     private CollectionItemSqlModel updateCollectionItem(ResourceCollectionsResponse.CollectionItem collectionItem, String key, CollectionSqlModel collection) {
-        CollectionItemSqlModel existingCollectionItem = collectionItemRepository.findFirstOrNull(
-                Pair.of(CollectionItemSqlModel::getCollection, collection),
-                Pair.of(SearchFunction.combine(CollectionItemSqlModel::getItem, ItemSqlModel::getItemId), key)
-        );
+        CollectionItemSqlModel existingCollectionItem = collectionItemsByCollectionItem.get(CacheKey.of(collection.getKey(), key));
 
         if (existingCollectionItem != null) {
             if (!(existingCollectionItem.getMaxTiers() == collectionItem.getMaxTiers())) {
-                existingCollectionItem.setMaxTiers(collectionItem.getMaxTiers());
-                this.getLog().info("Updating existing collection item {} in {}", existingCollectionItem.getItem().getItemId(), existingCollectionItem.getCollection().getKey());
-                existingCollectionItem.update();
-            }
+                this.update(existingCollectionItem, collection.getKey() + ":" + key, collectionItemModel -> collectionItemModel.setMaxTiers(collectionItem.getMaxTiers()));
+            } else
+                this.unchanged(existingCollectionItem);
 
             return existingCollectionItem;
         } else {
             CollectionItemSqlModel newCollectionItem = new CollectionItemSqlModel();
-            ItemSqlModel item = itemCache.findFirstOrNull(ItemSqlModel::getItemId, key);
+            ItemSqlModel item = itemsById.get(key);
+
+            if (item == null)
+                throw new IllegalStateException(String.format("Missing item %s", key)); // Retried Once Written
+
             newCollectionItem.setCollection(collection);
             newCollectionItem.setItem(item);
             newCollectionItem.setMaxTiers(collectionItem.getMaxTiers());
-            this.getLog().info("Adding new collection item {} in {}", newCollectionItem.getItem().getItemId(), newCollectionItem.getCollection().getKey());
-            collectionItemCache.add(newCollectionItem.save());
+            this.getLog().debug("Adding new collection item {} in {}", newCollectionItem.getItem().getItemId(), newCollectionItem.getCollection().getKey());
+            collectionItemCache.add(this.insert(newCollectionItem, collection.getKey() + ":" + key));
             return newCollectionItem;
         }
     }
 
     private void updateCollectionTier(ResourceCollectionsResponse.CollectionTier collectionTier, CollectionItemSqlModel collectionItem) {
-        CollectionItemTierSqlModel existingCollectionTier = collectionItemTierRepository.findFirstOrNull(
-                Pair.of(CollectionItemTierSqlModel::getCollectionItem, collectionItem),
-                Pair.of(CollectionItemTierSqlModel::getTier, collectionTier.getTier())
-        );
+        CollectionItemTierSqlModel existingCollectionTier = collectionItemTiersByCollectionItemTier.get(CacheKey.of(getCollectionItemKey(collectionItem), collectionTier.getTier()));
+        String fingerprintKey = getCollectionTierKey(collectionItem, collectionTier.getTier());
+        long fingerprint = Fingerprint.of(collectionTier);
+        this.getFingerprints().put(fingerprintKey, fingerprint);
 
         if (existingCollectionTier != null) {
+            if (this.getFingerprints().matches(fingerprintKey, fingerprint)) {
+                this.unchanged(existingCollectionTier);
+                return; // Unchanged Since Last Run
+            }
+
             if (!(equalsWithNull(existingCollectionTier.getUnlocks(), collectionTier.getUnlocks())
                     && existingCollectionTier.getAmountRequired() == collectionTier.getAmountRequired()
             )) {
-                existingCollectionTier.setUnlocks(collectionTier.getUnlocks());
-                existingCollectionTier.setAmountRequired(collectionTier.getAmountRequired());
-                this.getLog().info("Updating existing collection tier {} in {}", existingCollectionTier.getTier(), existingCollectionTier.getCollectionItem().getItem().getItemId());
-                existingCollectionTier.update();
-            }
+                this.update(existingCollectionTier, fingerprintKey, collectionTierModel -> {
+                    collectionTierModel.setUnlocks(collectionTier.getUnlocks());
+                    collectionTierModel.setAmountRequired(collectionTier.getAmountRequired());
+                });
+            } else
+                this.unchanged(existingCollectionTier);
         } else {
             CollectionItemTierSqlModel newCollectionTier = new CollectionItemTierSqlModel();
             newCollectionTier.setCollectionItem(collectionItem);
             newCollectionTier.setTier(collectionTier.getTier());
             newCollectionTier.setUnlocks(collectionTier.getUnlocks());
             newCollectionTier.setAmountRequired(collectionTier.getAmountRequired());
-            this.getLog().info("Adding new collection tier {} in {}", newCollectionTier.getTier(), newCollectionTier.getCollectionItem().getItem().getItemId());
-            collectionItemTierCache.add(newCollectionTier.save());
+            this.getLog().debug("Adding new collection tier {}", fingerprintKey);
+            collectionItemTierCache.add(this.insert(newCollectionTier, fingerprintKey));
         }
     }
 
+    /**
+     * The resource key of a collection tier, matching its fingerprint key, rows missing their item never match a resource entry.
+     */
+    private static String getCollectionTierKey(CollectionItemSqlModel collectionItem, Object tier) {
+        ItemSqlModel item = collectionItem.getItem();
+        return collectionItem.getCollection().getKey() + ":" + (item != null ? item.getItemId() : "") + ":" + tier;
+    }
+
+    private static CacheKey getCollectionItemKey(CollectionItemSqlModel collectionItem) {
+        return CacheKey.of(
+            SearchFunction.combine(CollectionItemSqlModel::getCollection, CollectionSqlModel::getKey).apply(collectionItem),
+            SearchFunction.combine(CollectionItemSqlModel::getItem, ItemSqlModel::getItemId).apply(collectionItem)
+        );
+    }
+
 }
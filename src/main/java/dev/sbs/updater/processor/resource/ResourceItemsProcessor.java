@@ -1,9 +1,6 @@
 package dev.sbs.updater.processor.resource;
 
-import dev.sbs.api.SimplifiedApi;
 import dev.sbs.api.client.impl.hypixel.response.resource.ResourceItemsResponse;
-import dev.sbs.api.collection.concurrent.Concurrent;
-import dev.sbs.api.collection.concurrent.ConcurrentList;
 import dev.sbs.api.collection.search.SearchFunction;
 import dev.sbs.api.data.model.skyblock.accessory_data.accessories.AccessorySqlModel;
 import dev.sbs.api.data.model.skyblock.item_types.ItemTypeSqlModel;
@@ -11,77 +8,225 @@ import dev.sbs.api.data.model.skyblock.items.ItemSqlModel;
 import dev.sbs.api.data.model.skyblock.minion_data.minion_tiers.MinionTierSqlModel;
 import dev.sbs.api.data.model.skyblock.minion_data.minions.MinionSqlModel;
 import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
-import dev.sbs.api.data.sql.SqlRepository;
-import dev.sbs.api.mutable.pair.Pair;
 import dev.sbs.api.util.StringUtil;
+import dev.sbs.updater.processor.JsonNormalizer;
 import dev.sbs.updater.processor.Processor;
+import dev.sbs.updater.processor.Sweep;
+import dev.sbs.updater.processor.cache.CacheKey;
+import dev.sbs.updater.processor.cache.IndexedCache;
+import dev.sbs.updater.processor.cache.ModelCache;
+import dev.sbs.updater.processor.fingerprint.Fingerprint;
+import dev.sbs.updater.processor.stat.StatBlock;
+import dev.sbs.updater.processor.stat.TieredStatBlock;
+import lombok.Getter;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @SuppressWarnings("all")
-public class ResourceItemsProcessor extends Processor<ResourceItemsResponse> {
-
-    // Repositories
-    private static final SqlRepository<RaritySqlModel> rarityRepository = (SqlRepository<RaritySqlModel>) SimplifiedApi.getRepositoryOf(RaritySqlModel.class);
-    private static final SqlRepository<ItemTypeSqlModel> itemTypeRepository = (SqlRepository<ItemTypeSqlModel>) SimplifiedApi.getRepositoryOf(ItemTypeSqlModel.class);
-    private static final SqlRepository<ItemSqlModel> itemRepository = (SqlRepository<ItemSqlModel>) SimplifiedApi.getRepositoryOf(ItemSqlModel.class);
-    private static final SqlRepository<AccessorySqlModel> accessoryRepository = (SqlRepository<AccessorySqlModel>) SimplifiedApi.getRepositoryOf(AccessorySqlModel.class);
-    private static final SqlRepository<MinionSqlModel> minionRepository = (SqlRepository<MinionSqlModel>) SimplifiedApi.getRepositoryOf(MinionSqlModel.class);
-    private static final SqlRepository<MinionTierSqlModel> minionTierRepository = (SqlRepository<MinionTierSqlModel>) SimplifiedApi.getRepositoryOf(MinionTierSqlModel.class);
+public class ResourceItemsProcessor extends Processor<ResourceItemsSource> {
 
     // Caches
-    private static final ConcurrentList<RaritySqlModel> rarityCache = Concurrent.newList(rarityRepository.findAll());
-    private static final ConcurrentList<ItemTypeSqlModel> itemTypeCache = Concurrent.newList(itemTypeRepository.findAll());
-    private static final ConcurrentList<ItemSqlModel> itemCache = Concurrent.newList(itemRepository.findAll());
-    private static final ConcurrentList<AccessorySqlModel> accessoryCache = Concurrent.newList(accessoryRepository.findAll());
-    private static final ConcurrentList<MinionSqlModel> minionCache = Concurrent.newList(minionRepository.findAll());
-    private static final ConcurrentList<MinionTierSqlModel> minionTierCache = Concurrent.newList(minionTierRepository.findAll());
+    private static final IndexedCache<RaritySqlModel> rarityCache = ModelCache.of(RaritySqlModel.class);
+    private static final IndexedCache<ItemTypeSqlModel> itemTypeCache = ModelCache.of(ItemTypeSqlModel.class);
+    private static final IndexedCache<ItemSqlModel> itemCache = ModelCache.of(ItemSqlModel.class);
+    private static final IndexedCache<AccessorySqlModel> accessoryCache = ModelCache.of(AccessorySqlModel.class);
+    private static final IndexedCache<MinionSqlModel> minionCache = ModelCache.of(MinionSqlModel.class);
+    private static final IndexedCache<MinionTierSqlModel> minionTierCache = ModelCache.of(MinionTierSqlModel.class);
+
+    // Indexes
+    private static final IndexedCache.Index<String, RaritySqlModel> raritiesByKey = rarityCache.index("key", RaritySqlModel::getKey);
+    private static final IndexedCache.Index<String, ItemTypeSqlModel> itemTypesByKey = itemTypeCache.index("key", ItemTypeSqlModel::getKey);
+    private static final IndexedCache.Index<String, ItemSqlModel> itemsById = itemCache.index("item_id", ItemSqlModel::getItemId);
+    private static final IndexedCache.Index<String, AccessorySqlModel> accessoriesByItemId = accessoryCache.index("item_id", SearchFunction.combine(AccessorySqlModel::getItem, ItemSqlModel::getItemId));
+    private static final IndexedCache.Index<String, MinionSqlModel> minionsByKey = minionCache.index("key", MinionSqlModel::getKey);
+    private static final IndexedCache.Index<CacheKey, MinionTierSqlModel> minionTiersByMinionItem = minionTierCache.index("minion_item", minionTier -> CacheKey.of(
+        SearchFunction.combine(MinionTierSqlModel::getMinion, MinionSqlModel::getKey).apply(minionTier),
+        SearchFunction.combine(MinionTierSqlModel::getItem, ItemSqlModel::getItemId).apply(minionTier)
+    ));
+
+    /**
+     * Items processed and committed at a time unless configured, each committed chunk is checkpointed.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    @Getter
+    private final int parallelism;
+    @Getter
+    private final int chunkSize;
+    private final Sweep<ItemSqlModel> itemSweep = new Sweep<>(ItemSqlModel.class, itemCache, ItemSqlModel::getItemId);
 
     public ResourceItemsProcessor(ResourceItemsResponse resourceItemsResponse) {
-        super(resourceItemsResponse);
+        this(ResourceItemsSource.of(resourceItemsResponse), 1, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param resourceItemsSource the items resource
+     * @param parallelism the number of threads used to diff items, 1 processes items sequentially
+     * @param chunkSize the number of items processed and committed at a time
+     */
+    public ResourceItemsProcessor(ResourceItemsSource resourceItemsSource, int parallelism, int chunkSize) {
+        super(resourceItemsSource);
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    protected long getResourceFingerprint() {
+        return this.getResourceResponse().getFingerprint();
+    }
+
+    @Override
+    public boolean isShardable() {
+        return true;
     }
 
     @Override
     public void process() {
-        ConcurrentList<ResourceItemsResponse.Item> items = this.getResourceResponse().getItems();
+        ForkJoinPool pool = new ForkJoinPool(this.getParallelism());
+        long itemCount = this.getResourceResponse().getItemCount();
 
-        items.forEach(itemEntry -> {
-            this.getLog().info("Processing {} : {}/{}", itemEntry.getId(), items.indexOf(itemEntry), items.size());
-            this.updateRarity(itemEntry); // Update `rarities`
-            this.updateItemType(itemEntry); // Update `item_types`
+        if (itemCount >= 0)
+            this.getProgress().expect(itemCount);
 
-            ItemSqlModel itemModel = this.updateItem(itemEntry); // Update `items`
+        try {
+            AtomicInteger chunk = new AtomicInteger();
+            this.getResourceResponse().forEachChunk(this.getChunkSize(), items -> {
+                if (itemCount < 0)
+                    this.getProgress().expect(items.size());
 
-            if (itemModel.getType() != null && itemModel.getType().getKey().equals("ACCESSORY"))
-                this.updateAccessory(itemModel); // Update `accessories`
+                items.forEach(item -> this.itemSweep.mark(item.getId())); // Including Other Shards
 
-            if (StringUtil.isNotEmpty(itemModel.getGenerator())) {
-                MinionSqlModel minion = this.updateMinion(itemModel); // Update `minions`
-                MinionTierSqlModel minionTier = this.updateMinionTier(minion, itemModel); // Update `minion_tiers`
-            }
+                if (this.isCommitted(chunk.getAndIncrement())) {
+                    this.getProgress().step(items.size()); // Committed By Failed Run
+                    return;
+                }
+
+                this.processItems(items, pool);
+                this.commit();
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Retires the owned items no longer in the resource, they are restored once added back.
+     */
+    @Override
+    protected void reconcile() {
+        int retired = this.retire(this.itemSweep, item -> this.getShard().owns(getShardKey(item)));
+
+        if (retired > 0)
+            this.getLog().info("Retired {} removed items", retired);
+    }
+
+    @Override
+    public void close() {
+        this.getResourceResponse().close();
+    }
+
+    /**
+     * Processes the items owned by the shard of this instance in dependency order, skipping the children of failed entries.
+     * <ol>
+     *     <li>Rarities and item types, sequentially as they are shared by many items. When sharded, they are shared by every shard and resolved
+     *     under a lease shared by every shard, with a single query per chunk for the rows missing from the cache.</li>
+     *     <li>Items, in parallel as each item only depends on its rarity and item type.</li>
+     *     <li>Accessories per item and minions per generator in parallel, followed by their minion tiers.</li>
+     * </ol>
+     */
+    private void processItems(List<ResourceItemsResponse.Item> chunk, ForkJoinPool pool) {
+        List<ResourceItemsResponse.Item> items = chunk.stream()
+            .filter(itemEntry -> this.getShard().owns(getShardKey(itemEntry)))
+            .toList();
+        this.getProgress().step(chunk.size() - items.size()); // Owned By Other Shards
+
+        List<ResourceItemsResponse.Item> sharedItems = new ArrayList<>();
+        Runnable sharedRows = () -> items.forEach(itemEntry -> {
+            ResourceItemsResponse.Item sharedItem = this.isolate(itemEntry.getId(), () -> {
+                this.updateRarity(itemEntry); // Update `rarities`
+                this.updateItemType(itemEntry); // Update `item_types`
+                return itemEntry;
+            });
+
+            if (sharedItem != null)
+                sharedItems.add(sharedItem);
         });
+
+        if (this.getShard().isAll())
+            sharedRows.run();
+        else {
+            this.exclusively("shared", () -> { // Rarities and item types are shared by every shard
+                this.fetchStored(rarityCache, RaritySqlModel.class, "key", items.stream()
+                    .map(ResourceItemsResponse.Item::getRarity)
+                    .filter(StringUtil::isNotEmpty)
+                    .filter(key -> !raritiesByKey.contains(key))
+                    .collect(Collectors.toSet())
+                );
+                this.fetchStored(itemTypeCache, ItemTypeSqlModel.class, "key", items.stream()
+                    .map(ResourceItemsResponse.Item::getItemType)
+                    .filter(key -> StringUtil.isNotEmpty(key) && !key.equals("NONE"))
+                    .filter(key -> !itemTypesByKey.contains(key))
+                    .collect(Collectors.toSet())
+                );
+                sharedRows.run();
+            });
+        }
+
+        this.getProgress().step(items.size() - sharedItems.size()); // Missing Rarity Or Item Type
+
+        List<ItemSqlModel> itemModels = pool.submit(() -> sharedItems.parallelStream()
+            .map(itemEntry -> {
+                ItemSqlModel itemModel = this.isolate(itemEntry.getId(), () -> this.updateItem(itemEntry)); // Update `items`
+                this.getProgress().step();
+                return itemModel;
+            })
+            .filter(Objects::nonNull)
+            .toList()
+        ).join();
+
+        pool.submit(() -> itemModels.parallelStream()
+            .filter(itemModel -> itemModel.getType() != null && itemModel.getType().getKey().equals("ACCESSORY"))
+            .forEach(itemModel -> this.isolate(itemModel.getItemId(), () -> this.updateAccessory(itemModel))) // Update `accessories`
+        ).join();
+
+        Map<String, List<ItemSqlModel>> generatorItems = itemModels.stream()
+            .filter(itemModel -> StringUtil.isNotEmpty(itemModel.getGenerator()))
+            .collect(Collectors.groupingBy(ItemSqlModel::getGenerator, LinkedHashMap::new, Collectors.toList()));
+
+        pool.submit(() -> generatorItems.values().parallelStream().forEach(generatorItemModels -> {
+            MinionSqlModel minion = this.isolate(generatorItemModels.get(0).getGenerator(), () -> this.updateMinion(generatorItemModels.get(0))); // Update `minions`
+
+            if (minion != null)
+                generatorItemModels.forEach(itemModel -> this.isolate(minion.getKey() + ":" + itemModel.getItemId(), () -> this.updateMinionTier(minion, itemModel))); // Update `minion_tiers`
+        })).join();
     }
 
     private AccessorySqlModel updateAccessory(ItemSqlModel item) {
-        AccessorySqlModel existingAccessory = accessoryCache.findFirstOrNull(SearchFunction.combine(AccessorySqlModel::getItem, ItemSqlModel::getItemId), item.getItemId());
-        Map<String, Double> stats = Concurrent.newMap(item.getStats());
+        AccessorySqlModel existingAccessory = accessoriesByItemId.get(item.getItemId());
+        Map<String, Double> effects = item.getStats(); // Shared stat block, never copied
 
         if (existingAccessory != null) {
-            if (!equalsWithNull(item.getStats(), stats)
+            if (!equalsWithNull(effects, existingAccessory.getEffects())
                 || !equalsWithNull(item, existingAccessory.getItem())
                 || !equalsWithNull(item.getRarity(), existingAccessory.getRarity())
                 || !equalsWithNull(item.getName(), existingAccessory.getName())
             ) {
-                existingAccessory.setItem(item);
-                existingAccessory.setRarity(item.getRarity());
-                existingAccessory.setName(item.getName());
-                existingAccessory.setEffects(item.getStats());
-                this.getLog().info("Updating existing accessory {}", existingAccessory.getItem().getItemId());
-                existingAccessory.update();
-            }
+                this.update(existingAccessory, item.getItemId(), accessory -> {
+                    accessory.setItem(item);
+                    accessory.setRarity(item.getRarity());
+                    accessory.setName(item.getName());
+                    accessory.setEffects(effects);
+                });
+            } else
+                this.unchanged(existingAccessory);
 
             return existingAccessory;
         } else {
@@ -90,23 +235,22 @@ public class ResourceItemsProcessor extends Processor<ResourceItemsResponse> {
             newAccessory.setName(item.getName());
             newAccessory.setRarity(item.getRarity());
             newAccessory.setFamilyRank(-1);
-            newAccessory.setEffects(stats);
-            this.getLog().info("Adding new accessory {}", newAccessory.getItem().getItemId());
-            accessoryCache.add(newAccessory.save());
+            newAccessory.setEffects(effects);
+            this.getLog().debug("Adding new accessory {}", newAccessory.getItem().getItemId());
+            accessoryCache.add(this.insert(newAccessory, item.getItemId()));
             return newAccessory;
         }
     }
 
     private MinionSqlModel updateMinion(ItemSqlModel item) {
-        MinionSqlModel existingMinion = minionCache.findFirstOrNull(MinionSqlModel::getKey, item.getGenerator());
+        MinionSqlModel existingMinion = minionsByKey.get(item.getGenerator());
         String minionName = StringUtil.capitalizeFully(item.getGenerator().replace("_", " "));
 
         if (existingMinion != null) {
             if (!equalsWithNull(existingMinion.getName(), minionName)) {
-                existingMinion.setName(minionName);
-                this.getLog().info("Updating existing minion {} : {}", existingMinion.getKey(), minionName);
-                existingMinion.update();
-            }
+                this.update(existingMinion, existingMinion.getKey(), minion -> minion.setName(minionName));
+            } else
+                this.unchanged(existingMinion);
 
             return existingMinion;
         } else {
@@ -114,27 +258,25 @@ public class ResourceItemsProcessor extends Processor<ResourceItemsResponse> {
             newMinion.setKey(item.getGenerator());
             newMinion.setName(minionName);
             newMinion.setCollection(null);
-            this.getLog().info("Adding new minion {}", newMinion.getKey());
-            minionCache.add(newMinion.save());
+            this.getLog().debug("Adding new minion {}", newMinion.getKey());
+            minionCache.add(this.insert(newMinion, newMinion.getKey()));
             return newMinion;
         }
     }
 
     private MinionTierSqlModel updateMinionTier(MinionSqlModel minion, ItemSqlModel item) {
-        MinionTierSqlModel existingMinionTier = minionTierCache.findFirstOrNull(
-            Pair.of(MinionTierSqlModel::getMinion, minion),
-            Pair.of(MinionTierSqlModel::getItem, item)
-        );
+        MinionTierSqlModel existingMinionTier = minionTiersByMinionItem.get(CacheKey.of(minion.getKey(), item.getItemId()));
 
         if (existingMinionTier != null) {
             if (!equalsWithNull(existingMinionTier.getMinion(), minion)
                 || !equalsWithNull(existingMinionTier.getItem(), item)
             ) {
-                existingMinionTier.setMinion(minion);
-                existingMinionTier.setItem(item);
-                this.getLog().info("Updating existing minion tier {}", existingMinionTier.getItem().getItemId());
-                existingMinionTier.update();
-            }
+                this.update(existingMinionTier, minion.getKey() + ":" + item.getItemId(), minionTier -> {
+                    minionTier.setMinion(minion);
+                    minionTier.setItem(item);
+                });
+            } else
+                this.unchanged(existingMinionTier);
 
             return existingMinionTier;
         } else {
@@ -142,166 +284,119 @@ public class ResourceItemsProcessor extends Processor<ResourceItemsResponse> {
             newMinionTier.setMinion(minion);
             newMinionTier.setItem(item);
             newMinionTier.setSpeed(-1);
-            this.getLog().info("Adding new minion tier {}", newMinionTier.getItem().getItemId());
-            minionTierCache.add(newMinionTier.save());
+            this.getLog().debug("Adding new minion tier {}", newMinionTier.getItem().getItemId());
+            minionTierCache.add(this.insert(newMinionTier, minion.getKey() + ":" + item.getItemId()));
             return newMinionTier;
         }
     }
 
-    private void updateRarity(ResourceItemsResponse.Item item) {
-        if (StringUtil.isNotEmpty(item.getRarity())) {
-            Optional<RaritySqlModel> existingRarity = rarityCache.findFirst(Pair.of(RaritySqlModel::getKey, item.getRarity()));
+    /**
+     * Items of the same generator share a minion, so they are owned by the same shard.
+     */
+    private static String getShardKey(ResourceItemsResponse.Item item) {
+        return StringUtil.isNotEmpty(item.getGenerator()) ? item.getGenerator() : item.getId();
+    }
+
+    private static String getShardKey(ItemSqlModel item) {
+        return StringUtil.isNotEmpty(item.getGenerator()) ? item.getGenerator() : item.getItemId();
+    }
 
-            if (existingRarity.isEmpty()) {
+    void updateRarity(ResourceItemsResponse.Item item) {
+        if (StringUtil.isNotEmpty(item.getRarity())) {
+            if (!raritiesByKey.contains(item.getRarity())) {
                 RaritySqlModel newRarity = new RaritySqlModel();
                 newRarity.setKey(item.getRarity());
                 newRarity.setName(StringUtil.capitalize(item.getRarity()));
                 newRarity.setOrdinal(
-                    rarityCache.stream()
+                    rarityCache.getValues()
+                        .stream()
                         .mapToInt(RaritySqlModel::getOrdinal)
                         .max()
                         .orElseThrow() + 1
                 );
                 newRarity.setEnrichable(false);
                 newRarity.setMagicPowerMultiplier(0);
-                this.getLog().info("Adding new rarity {}", newRarity.getKey());
-                rarityCache.add(newRarity.save());
+                this.getLog().debug("Adding new rarity {}", newRarity.getKey());
+                rarityCache.add(this.insert(newRarity, newRarity.getKey()));
             }
         }
     }
 
-    private void updateItemType(ResourceItemsResponse.Item item) {
+    void updateItemType(ResourceItemsResponse.Item item) {
         if (StringUtil.isNotEmpty(item.getItemType()) && !item.getItemType().equals("NONE")) {
-            Optional<ItemTypeSqlModel> existingItemType = itemTypeCache.findFirst(Pair.of(ItemTypeSqlModel::getKey, item.getItemType()));
-
-            if (existingItemType.isEmpty()) {
+            if (!itemTypesByKey.contains(item.getItemType())) {
                 ItemTypeSqlModel newItemType = new ItemTypeSqlModel();
                 newItemType.setKey(item.getItemType().toUpperCase());
                 newItemType.setName(StringUtil.capitalizeFully(item.getItemType().replace("_", " ")));
-                this.getLog().info("Adding new item type {}", newItemType.getKey());
-                itemTypeCache.add(newItemType.save());
+                this.getLog().debug("Adding new item type {}", newItemType.getKey());
+                itemTypeCache.add(this.insert(newItemType, newItemType.getKey()));
             }
         }
     }
 
-    private ItemSqlModel updateItem(ResourceItemsResponse.Item item) {
-        ItemSqlModel updateItem = itemCache.findFirstOrNull(ItemSqlModel::getItemId, item.getId());
-        RaritySqlModel rarity = rarityCache.findFirstOrNull(RaritySqlModel::getKey, StringUtil.defaultIfEmpty(item.getRarity(), "COMMON").toUpperCase());
-        ItemTypeSqlModel itemType = itemTypeCache.findFirstOrNull(ItemTypeSqlModel::getKey, item.getItemType());
-        boolean updating = false;
-        boolean isNew = false;
-
-        // Wrap Null Values
-        List<Map<String, Object>> requirements = Concurrent.newList(SimplifiedApi.getGson().fromJson(SimplifiedApi.getGson().toJson(item.getRequirements()), List.class));
-        List<Map<String, Object>> catacombsRequirements = Concurrent.newList(SimplifiedApi.getGson().fromJson(SimplifiedApi.getGson().toJson(item.getCatacombsRequirements()), List.class));
-        List<List<Map<String, Object>>> upgradeCosts = Concurrent.newList(SimplifiedApi.getGson().fromJson(SimplifiedApi.getGson().toJson(item.getUpgradeCosts()), List.class));
-        List<Map<String, Object>> gemstoneSlots = Concurrent.newList(SimplifiedApi.getGson().fromJson(SimplifiedApi.getGson().toJson(item.getGemstoneSlots()), List.class));
-        List<Map<String, Object>> salvages = Concurrent.newList(SimplifiedApi.getGson().fromJson(SimplifiedApi.getGson().toJson(item.getSalvages()), List.class));
-
-        if (Objects.isNull(updateItem)) {
-            updateItem = new ItemSqlModel();
-            updating = true;
-            isNew = true;
-            this.getLog().info("Adding new item {}", item.getId());
-        } else if (!equalsWithNull(updateItem.getItemId(), item.getId()) // Always true
-            || !equalsWithNull(updateItem.getName(), item.getName())
-            || !equalsWithNull(updateItem.getMaterial(), item.getMaterial())
-            || updateItem.getDurability() != item.getDurability()
-            || !equalsWithNull(updateItem.getDescription(), item.getDescription())
-            || !equalsWithNull(updateItem.getRarity(), rarity)
-            || !equalsWithNull(updateItem.getType(), itemType)
-            || !equalsWithNull(updateItem.getColor(), item.getColor())
-            || (rarity.getKey().equals("UNOBTAINABLE") && updateItem.isObtainable())
-            || updateItem.isGlowing() != item.isGlowing()
-            || updateItem.isUnstackable() != item.isUnstackable()
-            || updateItem.isInSpecialMuseum() != item.isMuseum()
-            || updateItem.isDungeonItem() != item.isDungeonItem()
-            || updateItem.isAttributable() != item.isAttributable()
-            || updateItem.isHiddenFromViewrecipe() != item.isHiddenFromViewrecipe()
-            || updateItem.isSalvageableFromRecipe() != item.isSalvageableFromRecipe()
-            || updateItem.isNotReforgeable() != item.isNotReforgeable()
-            || updateItem.isRiftTransferrable() != item.isRiftTransferrable()
-            || updateItem.isRiftLoseMotesValueOnTransfer() != item.isRiftLoseMotesValueOnTransfer()
-            || updateItem.getRiftMotesSellPrice() != item.getRiftMotesSellPrice()
-            || updateItem.getNpcSellPrice() != item.getNpcSellPrice()
-            || updateItem.getGearScore() != item.getGearScore()
-            || !equalsWithNull(updateItem.getGenerator(), item.getGenerator())
-            || updateItem.getGeneratorTier() != item.getGeneratorTier()
-            || updateItem.getAbilityDamageScaling() != item.getAbilityDamageScaling()
-            || !equalsWithNull(updateItem.getOrigin(), item.getOrigin())
-            || !equalsWithNull(updateItem.getSoulbound(), item.getSoulbound())
-            || !equalsWithNull(updateItem.getFurniture(), item.getFurniture())
-            || !equalsWithNull(updateItem.getSwordType(), item.getSwordType())
-            || !equalsWithNull(updateItem.getSkin(), item.getSkin())
-            || !equalsWithNull(updateItem.getCrystal(), item.getCrystal())
-            || !equalsWithNull(updateItem.getPrivateIsland(), item.getPrivateIsland())
-            || !equalsWithNull(updateItem.getStats(), item.getStats())
-            || !equalsWithNull(updateItem.getTieredStats(), item.getTieredStats())
-            || !equalsWithNull(updateItem.getRequirements(), requirements)
-            || !equalsWithNull(updateItem.getCatacombsRequirements(), catacombsRequirements)
-            || !equalsWithNull(updateItem.getUpgradeCosts(), upgradeCosts)
-            || !equalsWithNull(updateItem.getGemstoneSlots(), gemstoneSlots)
-            || !equalsWithNull(updateItem.getEnchantments(), item.getEnchantments())
-            || !equalsWithNull(updateItem.getDungeonItemConversionCost(), item.getDungeonItemConversionCost())
-            || !equalsWithNull(updateItem.getPrestige(), item.getPrestige())
-            || !equalsWithNull(updateItem.getItemSpecific(), item.getItemSpecific())
-            || !equalsWithNull(updateItem.getSalvages(), salvages)
-        ) {
-            updating = true;
-            this.getLog().info("Updating existing item {}", updateItem.getItemId());
-        }
+    ItemSqlModel updateItem(ResourceItemsResponse.Item item) {
+        ItemSqlModel updateItem = itemsById.get(item.getId());
+        long fingerprint = Fingerprint.of(item);
+        this.getFingerprints().put(item.getId(), fingerprint);
 
-        if (updating) {
-            updateItem.setItemId(item.getId());
-            updateItem.setName(item.getName());
-            updateItem.setMaterial(item.getMaterial());
-            updateItem.setDurability(item.getDurability());
-            updateItem.setDescription(item.getDescription());
-            updateItem.setRarity(rarity);
-            updateItem.setType(itemType);
-            updateItem.setColor(item.getColor());
-            updateItem.setObtainable(!rarity.getKey().equals("UNOBTAINABLE"));
-            updateItem.setGlowing(item.isGlowing());
-            updateItem.setUnstackable(item.isUnstackable());
-            updateItem.setInSpecialMuseum(item.isMuseum());
-            updateItem.setDungeonItem(item.isDungeonItem());
-            updateItem.setAttributable(item.isAttributable());
-            updateItem.setHiddenFromViewrecipe(item.isHiddenFromViewrecipe());
-            updateItem.setSalvageableFromRecipe(item.isSalvageableFromRecipe());
-            updateItem.setNotReforgeable(item.isNotReforgeable());
-            updateItem.setRiftTransferrable(item.isRiftTransferrable());
-            updateItem.setRiftLoseMotesValueOnTransfer(item.isRiftLoseMotesValueOnTransfer());
-            updateItem.setRiftMotesSellPrice(item.getRiftMotesSellPrice());
-            updateItem.setNpcSellPrice(item.getNpcSellPrice());
-            updateItem.setGearScore(item.getGearScore());
-            updateItem.setGenerator(item.getGenerator());
-            updateItem.setGeneratorTier(item.getGeneratorTier());
-            updateItem.setAbilityDamageScaling(item.getAbilityDamageScaling());
-            updateItem.setOrigin(item.getOrigin());
-            updateItem.setSoulbound(item.getSoulbound());
-            updateItem.setFurniture(item.getFurniture());
-            updateItem.setSwordType(item.getSwordType());
-            updateItem.setSkin(item.getSkin());
-            updateItem.setCrystal(item.getCrystal());
-            updateItem.setPrivateIsland(item.getPrivateIsland());
-            updateItem.setStats(item.getStats());
-            updateItem.setTieredStats(item.getTieredStats());
-            updateItem.setRequirements(requirements);
-            updateItem.setCatacombsRequirements(catacombsRequirements);
-            updateItem.setUpgradeCosts(upgradeCosts);
-            updateItem.setGemstoneSlots(gemstoneSlots);
-            updateItem.setEnchantments(item.getEnchantments());
-            updateItem.setDungeonItemConversionCost(item.getDungeonItemConversionCost());
-            updateItem.setPrestige(item.getPrestige());
-            updateItem.setItemSpecific(item.getItemSpecific());
-            updateItem.setSalvages(salvages);
-
-            if (isNew) {
-                updateItem = updateItem.save();
-                itemCache.add(updateItem);
-            } else
-                updateItem = updateItem.update();
-        }
+        if (updateItem != null && this.getFingerprints().matches(item.getId(), fingerprint))
+            return this.unchanged(updateItem); // Unchanged Since Last Run
+
+        RaritySqlModel rarity = raritiesByKey.get(StringUtil.defaultIfEmpty(item.getRarity(), "COMMON").toUpperCase());
+        ItemTypeSqlModel itemType = itemTypesByKey.get(item.getItemType());
+        Consumer<ItemSqlModel> changes = model -> {
+            model.setItemId(item.getId());
+            model.setName(item.getName());
+            model.setMaterial(item.getMaterial());
+            model.setDurability(item.getDurability());
+            model.setDescription(item.getDescription());
+            model.setRarity(rarity);
+            model.setType(itemType);
+            model.setColor(item.getColor());
+            model.setObtainable(!rarity.getKey().equals("UNOBTAINABLE"));
+            model.setGlowing(item.isGlowing());
+            model.setUnstackable(item.isUnstackable());
+            model.setInSpecialMuseum(item.isMuseum());
+            model.setDungeonItem(item.isDungeonItem());
+            model.setAttributable(item.isAttributable());
+            model.setHiddenFromViewrecipe(item.isHiddenFromViewrecipe());
+            model.setSalvageableFromRecipe(item.isSalvageableFromRecipe());
+            model.setNotReforgeable(item.isNotReforgeable());
+            model.setRiftTransferrable(item.isRiftTransferrable());
+            model.setRiftLoseMotesValueOnTransfer(item.isRiftLoseMotesValueOnTransfer());
+            model.setRiftMotesSellPrice(item.getRiftMotesSellPrice());
+            model.setNpcSellPrice(item.getNpcSellPrice());
+            model.setGearScore(item.getGearScore());
+            model.setGenerator(item.getGenerator());
+            model.setGeneratorTier(item.getGeneratorTier());
+            model.setAbilityDamageScaling(item.getAbilityDamageScaling());
+            model.setOrigin(item.getOrigin());
+            model.setSoulbound(item.getSoulbound());
+            model.setFurniture(item.getFurniture());
+            model.setSwordType(item.getSwordType());
+            model.setSkin(item.getSkin());
+            model.setCrystal(item.getCrystal());
+            model.setPrivateIsland(item.getPrivateIsland());
+            model.setStats(StatBlock.of(item.getStats()));
+            model.setTieredStats(TieredStatBlock.of(item.getTieredStats()));
+            model.setRequirements(JsonNormalizer.toList(item.getRequirements(), model.getRequirements())); // Converted Only If Changed
+            model.setCatacombsRequirements(JsonNormalizer.toList(item.getCatacombsRequirements(), model.getCatacombsRequirements()));
+            model.setUpgradeCosts(JsonNormalizer.toList(item.getUpgradeCosts(), model.getUpgradeCosts()));
+            model.setGemstoneSlots(JsonNormalizer.toList(item.getGemstoneSlots(), model.getGemstoneSlots()));
+            model.setEnchantments(item.getEnchantments());
+            model.setDungeonItemConversionCost(item.getDungeonItemConversionCost());
+            model.setPrestige(item.getPrestige());
+            model.setItemSpecific(item.getItemSpecific());
+            model.setSalvages(JsonNormalizer.toList(item.getSalvages(), model.getSalvages()));
+        };
+
+        if (updateItem == null) {
+            updateItem = new ItemSqlModel();
+            changes.accept(updateItem);
+            this.getLog().debug("Adding new item {}", item.getId());
+            itemCache.add(this.insert(updateItem, item.getId()));
+        } else
+            updateItem = this.update(updateItem, item.getId(), changes); // Written Only If Changed
 
         return updateItem;
     }
@@ -0,0 +1,67 @@
+package dev.sbs.updater.processor.resource;
+
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceItemsResponse;
+import dev.sbs.updater.processor.fingerprint.Fingerprint;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The items consumed by a {@link ResourceItemsProcessor}, either fully materialized or streamed.
+ */
+public interface ResourceItemsSource extends AutoCloseable {
+
+    /**
+     * A fingerprint of the whole items resource, used to detect unchanged resources.
+     */
+    long getFingerprint();
+
+    /**
+     * The number of items, or -1 if unknown until every item has been read.
+     */
+    default long getItemCount() {
+        return -1;
+    }
+
+    /**
+     * Feeds every item to the consumer in chunks of at most the given size.
+     *
+     * @param chunkSize the maximum number of items per chunk
+     * @param consumer the chunk consumer
+     */
+    void forEachChunk(int chunkSize, @NotNull Consumer<List<ResourceItemsResponse.Item>> consumer);
+
+    /**
+     * Releases the underlying resource, even if the items were never consumed.
+     */
+    @Override
+    default void close() { }
+
+    static @NotNull ResourceItemsSource of(@NotNull ResourceItemsResponse resourceItemsResponse) {
+        return new ResourceItemsSource() {
+
+            @Override
+            public long getFingerprint() {
+                return Fingerprint.of(resourceItemsResponse);
+            }
+
+            @Override
+            public long getItemCount() {
+                return resourceItemsResponse.getItems().size();
+            }
+
+            @Override
+            public void forEachChunk(int chunkSize, @NotNull Consumer<List<ResourceItemsResponse.Item>> consumer) {
+                List<ResourceItemsResponse.Item> items = resourceItemsResponse.getItems();
+
+                for (int from = 0, to; from < items.size(); from = to) {
+                    to = (int) Math.min(items.size(), (long) from + chunkSize);
+                    consumer.accept(items.subList(from, to));
+                }
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,231 @@
+package dev.sbs.updater.processor.resource;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.client.impl.hypixel.request.HypixelRequest;
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceItemsResponse;
+import dev.sbs.api.util.SystemUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the items resource incrementally with a pull parser, so only one chunk of items is held at a time.
+ * <p>
+ * The stream is opened and read up to the {@code items} array on creation, which makes {@code lastUpdated}
+ * available as the resource fingerprint before any item is read. Items can only be consumed once.
+ * <p>
+ * The {@link HypixelRequest} client decodes whole responses, so the stream sends the same request itself,
+ * to the same base url and with the same api key. {@link dev.sbs.updater.StartupPipeline} falls back to the client if it cannot be opened.
+ */
+public final class ResourceItemsStream implements ResourceItemsSource {
+
+    /**
+     * Base url of the hypixel api, set with the {@code HYPIXEL_API_URL} environment variable.
+     */
+    public static final String API_URL = SystemUtil.getEnv("HYPIXEL_API_URL").orElse("https://api.hypixel.net/v2");
+    private static final String ITEMS_PATH = "/resources/skyblock/items";
+    private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
+
+    private final @NotNull Body body;
+    private final @NotNull JsonReader reader;
+    private final long fingerprint;
+    private boolean consumed;
+
+    private ResourceItemsStream(@NotNull InputStream inputStream) throws IOException {
+        this.body = new Body(inputStream);
+        this.reader = SimplifiedApi.getGson().newJsonReader(new InputStreamReader(this.body, StandardCharsets.UTF_8));
+        Long lastUpdated = null;
+        this.reader.beginObject();
+
+        while (this.reader.hasNext()) {
+            String name = this.reader.nextName();
+
+            if (name.equals("items"))
+                break;
+
+            switch (name) {
+                case "lastUpdated" -> lastUpdated = this.reader.nextLong();
+                case "success" -> {
+                    if (!this.reader.nextBoolean())
+                        throw new IllegalStateException("Items resource request was unsuccessful");
+                }
+                default -> this.reader.skipValue();
+            }
+        }
+
+        if (this.reader.peek() != JsonToken.BEGIN_ARRAY)
+            throw new IllegalStateException("Items resource is missing the items array");
+
+        this.fingerprint = lastUpdated != null ? lastUpdated : this.body.spool();
+    }
+
+    /**
+     * Opens the items resource of the hypixel api at {@link #API_URL}.
+     */
+    public static @NotNull ResourceItemsStream open() {
+        return open(URI.create(API_URL + ITEMS_PATH));
+    }
+
+    public static @NotNull ResourceItemsStream open(@NotNull URI uri) {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET();
+            SystemUtil.getEnv("HYPIXEL_API_KEY").ifPresent(key -> builder.header("API-Key", key));
+            HttpResponse<InputStream> response = HTTP_CLIENT.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+            if (response.statusCode() != 200) {
+                response.body().close();
+                throw new IllegalStateException(String.format("Items resource returned status %s", response.statusCode()));
+            }
+
+            boolean gzip = response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent();
+
+            try {
+                return new ResourceItemsStream(gzip ? new GZIPInputStream(response.body()) : response.body());
+            } catch (IOException | RuntimeException exception) {
+                response.body().close();
+                throw exception;
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * The {@code lastUpdated} value of the resource, or a digest of its content if it has none.
+     */
+    @Override
+    public long getFingerprint() {
+        return this.fingerprint;
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.reader.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public synchronized void forEachChunk(int chunkSize, @NotNull Consumer<List<ResourceItemsResponse.Item>> consumer) {
+        if (this.consumed)
+            throw new IllegalStateException("Items stream has already been consumed");
+
+        this.consumed = true;
+        Gson gson = SimplifiedApi.getGson();
+        List<ResourceItemsResponse.Item> chunk = new ArrayList<>(Math.min(chunkSize, 1_000));
+
+        try (this.reader) {
+            this.reader.beginArray();
+
+            while (this.reader.hasNext()) {
+                chunk.add(gson.fromJson(this.reader, ResourceItemsResponse.Item.class));
+
+                if (chunk.size() == chunkSize) {
+                    consumer.accept(chunk);
+                    chunk = new ArrayList<>(chunk.size());
+                }
+            }
+
+            if (!chunk.isEmpty())
+                consumer.accept(chunk);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * The response body, digested while read.
+     * <p>
+     * A resource without {@code lastUpdated} is fingerprinted by the digest of its whole content, so the rest of the body is spooled
+     * to a temporary file, read by the parser in place of the response.
+     */
+    private static final class Body extends InputStream {
+
+        private final @NotNull InputStream response;
+        private final @NotNull MessageDigest digest;
+        private @NotNull InputStream source;
+
+        private Body(@NotNull InputStream response) {
+            try {
+                this.response = response;
+                this.digest = MessageDigest.getInstance("SHA-256");
+                this.source = new DigestInputStream(response, this.digest);
+            } catch (NoSuchAlgorithmException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+
+        /**
+         * Reads the rest of the response into a temporary file, deleted once closed.
+         *
+         * @return the SHA-256 digest of the whole response, truncated to 64 bits
+         */
+        private long spool() throws IOException {
+            Path file = Files.createTempFile("items", ".json");
+
+            try {
+                try (OutputStream outputStream = Files.newOutputStream(file)) {
+                    this.source.transferTo(outputStream);
+                }
+
+                this.response.close();
+                this.source = Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException exception) {
+                Files.deleteIfExists(file);
+                throw exception;
+            }
+
+            return ByteBuffer.wrap(this.digest.digest()).getLong();
+        }
+
+        @Override
+        public int read() throws IOException {
+            return this.source.read();
+        }
+
+        @Override
+        public int read(byte @NotNull [] bytes, int offset, int length) throws IOException {
+            return this.source.read(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (this.response) {
+                this.source.close();
+            }
+        }
+
+    }
+
+}
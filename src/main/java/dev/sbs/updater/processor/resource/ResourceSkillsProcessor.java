@@ -1,26 +1,33 @@
 package dev.sbs.updater.processor.resource;
 
-import dev.sbs.api.SimplifiedApi;
 import dev.sbs.api.client.impl.hypixel.response.resource.ResourceSkillsResponse;
-import dev.sbs.api.collection.concurrent.ConcurrentList;
+import dev.sbs.api.collection.search.SearchFunction;
 import dev.sbs.api.data.model.skyblock.skill_levels.SkillLevelSqlModel;
 import dev.sbs.api.data.model.skyblock.skills.SkillSqlModel;
-import dev.sbs.api.data.sql.SqlRepository;
-import dev.sbs.api.mutable.pair.Pair;
 import dev.sbs.updater.processor.Processor;
+import dev.sbs.updater.processor.Sweep;
+import dev.sbs.updater.processor.cache.CacheKey;
+import dev.sbs.updater.processor.cache.IndexedCache;
+import dev.sbs.updater.processor.cache.ModelCache;
+import dev.sbs.updater.processor.fingerprint.Fingerprint;
 
 import java.util.Map;
 
 @SuppressWarnings("all")
 public class ResourceSkillsProcessor extends Processor<ResourceSkillsResponse> {
 
-    // Repositories
-    private static final SqlRepository<SkillSqlModel> skillRepository = (SqlRepository<SkillSqlModel>) SimplifiedApi.getRepositoryOf(SkillSqlModel.class);
-    private static final SqlRepository<SkillLevelSqlModel> skillLevelRepository = (SqlRepository<SkillLevelSqlModel>) SimplifiedApi.getRepositoryOf(SkillLevelSqlModel.class);
-
     // Caches
-    private static ConcurrentList<SkillSqlModel> skillCache = skillRepository.findAll();
-    private static ConcurrentList<SkillLevelSqlModel> skillLevelCache = skillLevelRepository.findAll();
+    private static final IndexedCache<SkillSqlModel> skillCache = ModelCache.of(SkillSqlModel.class);
+    private static final IndexedCache<SkillLevelSqlModel> skillLevelCache = ModelCache.of(SkillLevelSqlModel.class);
+
+    // Indexes
+    private static final IndexedCache.Index<String, SkillSqlModel> skillsByKey = skillCache.index("key", SkillSqlModel::getKey);
+    private static final IndexedCache.Index<CacheKey, SkillLevelSqlModel> skillLevelsBySkillLevel = skillLevelCache.index("skill_level", skillLevel -> CacheKey.of(
+        SearchFunction.combine(SkillLevelSqlModel::getSkill, SkillSqlModel::getKey).apply(skillLevel),
+        skillLevel.getLevel()
+    ));
+
+    private final Sweep<SkillLevelSqlModel> skillLevelSweep = new Sweep<>(SkillLevelSqlModel.class, skillLevelCache, skillLevel -> skillLevel.getSkill().getKey() + ":" + skillLevel.getLevel());
 
     public ResourceSkillsProcessor(ResourceSkillsResponse resourceResponse) {
         super(resourceResponse);
@@ -28,31 +35,54 @@ public class ResourceSkillsProcessor extends Processor<ResourceSkillsResponse> {
 
     @Override
     public void process() {
+        super.getResourceResponse()
+            .getSkills()
+            .values()
+            .forEach(skill -> this.getProgress().expect(skill.getLevels().size()));
+
         for (Map.Entry<String, ResourceSkillsResponse.Skill> skillEntry : super.getResourceResponse().getSkills().entrySet()) {
-            this.getLog().info("Processing {} Skill", skillEntry.getKey());
-            SkillSqlModel skill = this.updateSkill(skillEntry.getValue(), skillEntry.getKey()); // Update `skills`
+            this.getLog().debug("Processing {} Skill", skillEntry.getKey());
+            SkillSqlModel skill = this.isolate(skillEntry.getKey(), () -> this.updateSkill(skillEntry.getValue(), skillEntry.getKey())); // Update `skills`
 
             for (ResourceSkillsResponse.SkillLevel skillLevel : skillEntry.getValue().getLevels()) {
-                this.getLog().info("Processing {} Skill: Level {}", skillEntry.getKey(), skillLevel.getLevel());
-                this.updateSkillLevel(skillLevel, skill); // Update `skilllevels`
+                this.skillLevelSweep.mark(skillEntry.getKey() + ":" + skillLevel.getLevel());
+
+                if (skill != null)
+                    this.isolate(skillEntry.getKey() + ":" + skillLevel.getLevel(), () -> this.updateSkillLevel(skillLevel, skill)); // Update `skilllevels`
+
+                this.getProgress().step();
             }
         }
+
+        this.commit();
+    }
+
+    /**
+     * Retires the skill levels no longer in the resource, they are restored once added back.
+     */
+    @Override
+    protected void reconcile() {
+        int retired = this.retire(this.skillLevelSweep, skillLevel -> true);
+
+        if (retired > 0)
+            this.getLog().info("Retired {} removed skill levels", retired);
     }
 
     private SkillSqlModel updateSkill(ResourceSkillsResponse.Skill skill, String key) {
-        SkillSqlModel existingSkill = skillCache.findFirstOrNull(SkillSqlModel::getKey, key);
+        SkillSqlModel existingSkill = skillsByKey.get(key);
 
         if (existingSkill != null) {
             if (!equalsWithNull(existingSkill.getName(), skill.getName())
                     || !equalsWithNull(existingSkill.getDescription(), skill.getDescription())
                     || existingSkill.getMaxLevel() != skill.getMaxLevel()
             ) {
-                existingSkill.setName(skill.getName());
-                existingSkill.setDescription(skill.getDescription());
-                existingSkill.setMaxLevel(skill.getMaxLevel());
-                this.getLog().info("Updating existing skill {}", existingSkill.getKey());
-                existingSkill.update();
-            }
+                this.update(existingSkill, key, skillModel -> {
+                    skillModel.setName(skill.getName());
+                    skillModel.setDescription(skill.getDescription());
+                    skillModel.setMaxLevel(skill.getMaxLevel());
+                });
+            } else
+                this.unchanged(existingSkill);
 
             return existingSkill;
         } else {
@@ -61,25 +91,29 @@ public class ResourceSkillsProcessor extends Processor<ResourceSkillsResponse> {
             newSkill.setName(skill.getName());
             newSkill.setDescription(skill.getDescription());
             newSkill.setMaxLevel(skill.getMaxLevel());
-            this.getLog().info("Adding new skill {}", newSkill.getKey());
-            skillCache.add(newSkill.save());
+            this.getLog().debug("Adding new skill {}", newSkill.getKey());
+            skillCache.add(this.insert(newSkill, key));
             return newSkill;
         }
     }
 
     private SkillLevelSqlModel updateSkillLevel(ResourceSkillsResponse.SkillLevel skillLevel, SkillSqlModel skill) {
-        SkillLevelSqlModel existingSkillLevel = skillLevelCache.findFirstOrNull(
-                Pair.of(SkillLevelSqlModel::getSkill, skill),
-                Pair.of(SkillLevelSqlModel::getLevel, skillLevel.getLevel())
-        );
+        SkillLevelSqlModel existingSkillLevel = skillLevelsBySkillLevel.get(CacheKey.of(skill.getKey(), skillLevel.getLevel()));
+        String fingerprintKey = skill.getKey() + ":" + skillLevel.getLevel();
+        long fingerprint = Fingerprint.of(skillLevel);
+        this.getFingerprints().put(fingerprintKey, fingerprint);
 
         if (existingSkillLevel != null) {
+            if (this.getFingerprints().matches(fingerprintKey, fingerprint))
+                return this.unchanged(existingSkillLevel); // Unchanged Since Last Run
+
             if (!equalsWithNull(existingSkillLevel.getUnlocks(), skillLevel.getUnlocks()) || existingSkillLevel.getTotalExpRequired() != skillLevel.getTotalExpRequired()) {
-                existingSkillLevel.setUnlocks(skillLevel.getUnlocks());
-                existingSkillLevel.setTotalExpRequired(skillLevel.getTotalExpRequired());
-                this.getLog().info("Updating existing skill level {} for {}", existingSkillLevel.getLevel(), existingSkillLevel.getSkill().getKey());
-                existingSkillLevel.update();
-            }
+                this.update(existingSkillLevel, fingerprintKey, skillLevelModel -> {
+                    skillLevelModel.setUnlocks(skillLevel.getUnlocks());
+                    skillLevelModel.setTotalExpRequired(skillLevel.getTotalExpRequired());
+                });
+            } else
+                this.unchanged(existingSkillLevel);
 
             return existingSkillLevel;
         } else {
@@ -88,8 +122,8 @@ public class ResourceSkillsProcessor extends Processor<ResourceSkillsResponse> {
             newSkillLevel.setLevel(skillLevel.getLevel());
             newSkillLevel.setUnlocks(skillLevel.getUnlocks());
             newSkillLevel.setTotalExpRequired(skillLevel.getTotalExpRequired());
-            this.getLog().info("Adding new skill level {} for {}", newSkillLevel.getLevel(), newSkillLevel.getSkill().getKey());
-            skillLevelCache.add(newSkillLevel.save());
+            this.getLog().debug("Adding new skill level {} for {}", newSkillLevel.getLevel(), newSkillLevel.getSkill().getKey());
+            skillLevelCache.add(this.insert(newSkillLevel, fingerprintKey));
             return newSkillLevel;
         }
     }
@@ -0,0 +1,50 @@
+package dev.sbs.updater.processor.stat;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Weakly interns equal values into a single shared instance, values are released once nothing else references them.
+ *
+ * @param <T> the interned type
+ */
+final class Interner<T> {
+
+    private final @NotNull Map<Object, WeakReference<T>> values = new WeakHashMap<>();
+    private final @NotNull Function<T, Object> identity;
+
+    Interner() {
+        this(value -> value);
+    }
+
+    /**
+     * Interns values by an identity other than their own equality.
+     *
+     * @param identity the identity of a value, which must hold on to it for as long as the value is reachable
+     */
+    Interner(@NotNull Function<T, Object> identity) {
+        this.identity = identity;
+    }
+
+    /**
+     * Returns the shared instance equal to the given value, the value itself becomes the shared instance if there is none.
+     *
+     * @param value the value to intern
+     */
+    public synchronized @NotNull T intern(@NotNull T value) {
+        Object identity = this.identity.apply(value);
+        WeakReference<T> reference = this.values.get(identity);
+        T interned = reference != null ? reference.get() : null;
+
+        if (interned != null)
+            return interned;
+
+        this.values.put(identity, new WeakReference<>(value));
+        return value;
+    }
+
+}
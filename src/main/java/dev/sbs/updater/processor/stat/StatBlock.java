@@ -0,0 +1,152 @@
+package dev.sbs.updater.processor.stat;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable stat map backed by interned {@link StatKeys} and a primitive array, keeping the order of its stats.
+ * <p>
+ * Blocks with equal stats in the same order are shared. Blocks with the same keys compare through their arrays,
+ * and to any other map, or a block in another order, through the {@link Map} contract.
+ */
+public final class StatBlock extends AbstractMap<String, Double> {
+
+    private static final Interner<StatBlock> BLOCKS = new Interner<>(block -> block.identity);
+
+    private final @NotNull StatKeys keys;
+    private final double[] values;
+    private final int hash;
+    private final @NotNull Identity identity = new Identity();
+
+    private StatBlock(@NotNull StatKeys keys, double[] values) {
+        this.keys = keys;
+        this.values = values;
+        int hash = 0;
+
+        for (int i = 0; i < values.length; i++)
+            hash += keys.get(i).hashCode() ^ Double.hashCode(values[i]);
+
+        this.hash = hash;
+    }
+
+    /**
+     * Returns the shared block equal to the given stats.
+     * <p>
+     * Null stats, blocks and stats with null names or values are returned as is.
+     *
+     * @param stats the stats to compact
+     */
+    public static @Nullable Map<String, Double> of(@Nullable Map<String, Double> stats) {
+        if (stats == null || stats instanceof StatBlock)
+            return stats;
+
+        for (Map.Entry<String, Double> entry : stats.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null)
+                return stats;
+        }
+
+        StatKeys keys = StatKeys.of(stats.keySet());
+        double[] values = new double[keys.size()];
+
+        for (int i = 0; i < values.length; i++)
+            values[i] = stats.get(keys.get(i));
+
+        return BLOCKS.intern(new StatBlock(keys, values));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.keys.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Double get(Object key) {
+        int index = this.keys.indexOf(key);
+        return index >= 0 ? this.values[index] : null;
+    }
+
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    @Override
+    public @NotNull Set<Map.Entry<String, Double>> entrySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public @NotNull Iterator<Map.Entry<String, Double>> iterator() {
+                return new Iterator<>() {
+
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.index < values.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, Double> next() {
+                        if (!this.hasNext())
+                            throw new NoSuchElementException();
+
+                        int index = this.index++;
+                        return new SimpleImmutableEntry<>(keys.get(index), values[index]);
+                    }
+
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+
+        };
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        else if (obj instanceof StatBlock other && this.keys == other.keys)
+            return Arrays.equals(this.values, other.values);
+        else
+            return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    /**
+     * Equal only to the identity of a block with the same stats in the same order.
+     */
+    private final class Identity {
+
+        private @NotNull StatBlock block() {
+            return StatBlock.this;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Identity other && keys == other.block().keys && Arrays.equals(values, other.block().values);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * keys.hashCode() + Arrays.hashCode(values);
+        }
+
+    }
+
+}
@@ -0,0 +1,71 @@
+package dev.sbs.updater.processor.stat;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An ordered, interned list of stat names shared by every stat block with the same names in the same order.
+ * <p>
+ * Names keep the order of the resource, blocks hold few stats so they are found by a linear scan.
+ */
+final class StatKeys {
+
+    private static final Interner<String> NAMES = new Interner<>();
+    private static final Interner<StatKeys> KEYS = new Interner<>();
+
+    private final @NotNull String[] names;
+    private final int hash;
+
+    private StatKeys(@NotNull String[] names) {
+        this.names = names;
+        this.hash = Arrays.hashCode(names);
+    }
+
+    public static @NotNull StatKeys of(@NotNull Collection<String> names) {
+        String[] ordered = names.toArray(String[]::new);
+
+        for (int i = 0; i < ordered.length; i++)
+            ordered[i] = NAMES.intern(ordered[i]);
+
+        return KEYS.intern(new StatKeys(ordered));
+    }
+
+    public @NotNull String get(int index) {
+        return this.names[index];
+    }
+
+    /**
+     * Finds the index of a stat name, negative if it is not part of these keys.
+     *
+     * @param name the stat name
+     */
+    public int indexOf(@Nullable Object name) {
+        if (!(name instanceof String))
+            return -1;
+
+        for (int i = 0; i < this.names.length; i++) {
+            if (this.names[i].equals(name))
+                return i;
+        }
+
+        return -1;
+    }
+
+    public int size() {
+        return this.names.length;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || (obj instanceof StatKeys other && this.hash == other.hash && Arrays.equals(this.names, other.names));
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+}
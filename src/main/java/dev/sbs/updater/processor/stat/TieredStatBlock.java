@@ -0,0 +1,194 @@
+package dev.sbs.updater.processor.stat;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * An immutable tiered stat map backed by interned {@link StatKeys} and primitive arrays, keeping the order of its stats.
+ * <p>
+ * Blocks with equal stats in the same order are shared, like {@link StatBlock}.
+ * <p>
+ * The tiers of a stat are read through an immutable list view of its array.
+ */
+public final class TieredStatBlock extends AbstractMap<String, List<Double>> {
+
+    private static final Interner<TieredStatBlock> BLOCKS = new Interner<>(block -> block.identity);
+
+    private final @NotNull StatKeys keys;
+    private final double[][] values;
+    private final int hash;
+    private final @NotNull Identity identity = new Identity();
+
+    private TieredStatBlock(@NotNull StatKeys keys, double[][] values) {
+        this.keys = keys;
+        this.values = values;
+        int hash = 0;
+
+        for (int i = 0; i < values.length; i++)
+            hash += keys.get(i).hashCode() ^ Arrays.hashCode(values[i]); // Same as List#hashCode
+
+        this.hash = hash;
+    }
+
+    /**
+     * Returns the shared block equal to the given tiered stats.
+     * <p>
+     * Null stats, blocks and stats with null names, tiers or tier values are returned as is.
+     *
+     * @param tieredStats the tiered stats to compact
+     */
+    public static @Nullable Map<String, List<Double>> of(@Nullable Map<String, List<Double>> tieredStats) {
+        if (tieredStats == null || tieredStats instanceof TieredStatBlock)
+            return tieredStats;
+
+        for (Map.Entry<String, List<Double>> entry : tieredStats.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null)
+                return tieredStats;
+
+            for (Double tier : entry.getValue()) {
+                if (tier == null)
+                    return tieredStats; // Immutable lists reject contains(null)
+            }
+        }
+
+        StatKeys keys = StatKeys.of(tieredStats.keySet());
+        double[][] values = new double[keys.size()][];
+
+        for (int i = 0; i < values.length; i++)
+            values[i] = tieredStats.get(keys.get(i)).stream().mapToDouble(Double::doubleValue).toArray();
+
+        return BLOCKS.intern(new TieredStatBlock(keys, values));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.keys.indexOf(key) >= 0;
+    }
+
+    @Override
+    public List<Double> get(Object key) {
+        int index = this.keys.indexOf(key);
+        return index >= 0 ? new Tiers(this.values[index]) : null;
+    }
+
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    @Override
+    public @NotNull Set<Map.Entry<String, List<Double>>> entrySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public @NotNull Iterator<Map.Entry<String, List<Double>>> iterator() {
+                return new Iterator<>() {
+
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.index < values.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, List<Double>> next() {
+                        if (!this.hasNext())
+                            throw new NoSuchElementException();
+
+                        int index = this.index++;
+                        return new SimpleImmutableEntry<>(keys.get(index), new Tiers(values[index]));
+                    }
+
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+
+        };
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        else if (obj instanceof TieredStatBlock other && this.keys == other.keys)
+            return Arrays.deepEquals(this.values, other.values);
+        else
+            return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    /**
+     * Equal only to the identity of a block with the same tiered stats in the same order.
+     */
+    private final class Identity {
+
+        private @NotNull TieredStatBlock block() {
+            return TieredStatBlock.this;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Identity other && keys == other.block().keys && Arrays.deepEquals(values, other.block().values);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * keys.hashCode() + Arrays.deepHashCode(values);
+        }
+
+    }
+
+    /**
+     * An immutable list view of the tiers of a single stat.
+     */
+    private static final class Tiers extends AbstractList<Double> implements RandomAccess {
+
+        private final double[] values;
+
+        private Tiers(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Double get(int index) {
+            return this.values[index];
+        }
+
+        @Override
+        public int size() {
+            return this.values.length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Tiers other ? Arrays.equals(this.values, other.values) : super.equals(obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(this.values);
+        }
+
+    }
+
+}
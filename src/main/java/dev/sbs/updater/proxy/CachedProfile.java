@@ -0,0 +1,43 @@
+package dev.sbs.updater.proxy;
+
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.client.impl.mojang.response.MojangProfileResponse;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * A profile serialized once, served as is until it expires.
+ *
+ * @param uniqueId the unique id of the user
+ * @param username the username of the user
+ * @param json the serialized profile
+ * @param expiresAt the {@link System#nanoTime()} the profile expires at
+ */
+record CachedProfile(@NotNull UUID uniqueId, @NotNull String username, byte[] json, long expiresAt) {
+
+    static @NotNull CachedProfile of(@NotNull MojangProfileResponse profile, long ttlNanos) {
+        return new CachedProfile(
+            profile.getUniqueId(),
+            profile.getUsername(),
+            SimplifiedApi.getGson().toJson(profile).getBytes(StandardCharsets.UTF_8),
+            System.nanoTime() + ttlNanos
+        );
+    }
+
+    boolean isExpired(long now) {
+        return now - this.expiresAt() >= 0;
+    }
+
+    /**
+     * The cache key of a user, unique ids and case-insensitive usernames never collide.
+     *
+     * @param user the unique id or username of the user
+     */
+    static @NotNull String key(@NotNull String user) {
+        return user.length() > 16 ? user.toLowerCase(Locale.ROOT).replace("-", "") : "@" + user.toLowerCase(Locale.ROOT);
+    }
+
+}
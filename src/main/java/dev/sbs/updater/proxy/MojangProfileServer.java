@@ -0,0 +1,116 @@
+package dev.sbs.updater.proxy;
+
+import dev.sbs.api.collection.concurrent.Concurrent;
+import dev.sbs.api.collection.concurrent.ConcurrentMap;
+import dev.sbs.updater.metrics.Lookup;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Serves Mojang profiles at {@code /mojang/user/{user}}, by unique id or username.
+ * <p>
+ * Profiles are cached serialized for the given time to live, and concurrent requests
+ * for a user missing from the cache share a single upstream request.
+ */
+@Log4j2
+public final class MojangProfileServer {
+
+    private static final Pattern USER = Pattern.compile("[0-9a-fA-F]{8}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{12}|\\w{1,16}");
+
+    private final @NotNull ProfileUpstream upstream;
+    private final @NotNull Duration ttl;
+    private final @NotNull ProfileCache cache;
+    private final @NotNull ConcurrentMap<String, Mono<CachedProfile>> pending = Concurrent.newMap();
+
+    public MojangProfileServer(@NotNull ProfileUpstream upstream, @NotNull Duration ttl, int capacity) {
+        this.upstream = upstream;
+        this.ttl = ttl;
+        this.cache = new ProfileCache(capacity);
+    }
+
+    /**
+     * Binds the server, serving until disposed.
+     *
+     * @param host the host to bind
+     * @param port the port to bind
+     */
+    public @NotNull DisposableServer bind(@NotNull String host, int port) {
+        return HttpServer.create()
+            .host(host)
+            .port(port)
+            .compress(true)
+            .childOption(ChannelOption.SO_KEEPALIVE, true)
+            .route(routes -> routes.get("/mojang/user/{user}", this::handle))
+            .bindNow();
+    }
+
+    private @NotNull Publisher<Void> handle(@NotNull HttpServerRequest request, @NotNull HttpServerResponse response) {
+        String user = request.param("user");
+
+        if (user == null || !USER.matcher(user).matches())
+            return response.status(HttpResponseStatus.BAD_REQUEST).send();
+
+        return this.lookup(user)
+            .map(profile -> response.status(HttpResponseStatus.OK)
+                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .header(HttpHeaderNames.CACHE_CONTROL, "max-age=" + this.ttl.toSeconds())
+                .sendByteArray(Mono.just(profile.json()))
+                .then()
+            )
+            .switchIfEmpty(Mono.fromSupplier(() -> response.status(HttpResponseStatus.NOT_FOUND).send().then()))
+            .onErrorResume(exception -> {
+                log.atWarn()
+                    .withThrowable(exception)
+                    .log("Unable to fetch profile of {}", user);
+
+                return Mono.just(response.status(HttpResponseStatus.BAD_GATEWAY).send().then());
+            })
+            .flatMap(Function.identity());
+    }
+
+    /**
+     * Looks up a profile in the cache, or joins or starts the upstream request for it.
+     *
+     * @param user the unique id or username of the user
+     */
+    @NotNull Mono<CachedProfile> lookup(@NotNull String user) {
+        String key = CachedProfile.key(user);
+        CachedProfile profile = this.cache.get(key);
+
+        if (profile != null) {
+            UpdaterMetrics.recordLookup(Lookup.HIT);
+            return Mono.just(profile);
+        }
+
+        AtomicBoolean started = new AtomicBoolean();
+        Mono<CachedProfile> request = this.pending.computeIfAbsent(key, __ -> {
+            started.set(true);
+
+            return this.upstream.fetch(user)
+                .map(response -> CachedProfile.of(response, this.ttl.toNanos()))
+                .doOnNext(this.cache::put)
+                .doOnError(exception -> UpdaterMetrics.recordUpstreamFailure())
+                .doFinally(signal -> this.pending.remove(key))
+                .cache();
+        });
+
+        UpdaterMetrics.recordLookup(started.get() ? Lookup.MISS : Lookup.COALESCED);
+        return request;
+    }
+
+}
@@ -0,0 +1,47 @@
+package dev.sbs.updater.proxy;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of serialized profiles, keyed by both unique id and username.
+ * <p>
+ * Evicts the least recently used key once full, expired profiles are dropped when looked up.
+ */
+final class ProfileCache {
+
+    private final @NotNull Map<String, CachedProfile> profiles;
+
+    ProfileCache(int capacity) {
+        this.profiles = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedProfile> eldest) {
+                return this.size() > capacity;
+            }
+        };
+    }
+
+    public synchronized @Nullable CachedProfile get(@NotNull String key) {
+        CachedProfile profile = this.profiles.get(key);
+
+        if (profile != null && profile.isExpired(System.nanoTime())) {
+            this.profiles.remove(key);
+            return null;
+        }
+
+        return profile;
+    }
+
+    public synchronized void put(@NotNull CachedProfile profile) {
+        this.profiles.put(CachedProfile.key(profile.uniqueId().toString()), profile);
+        this.profiles.put(CachedProfile.key(profile.username()), profile);
+    }
+
+    public synchronized int size() {
+        return this.profiles.size();
+    }
+
+}
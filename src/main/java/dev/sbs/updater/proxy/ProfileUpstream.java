@@ -0,0 +1,36 @@
+package dev.sbs.updater.proxy;
+
+import dev.sbs.api.client.impl.mojang.MojangProxy;
+import dev.sbs.api.client.impl.mojang.response.MojangProfileResponse;
+import dev.sbs.api.util.StringUtil;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Source of the profiles served by the {@link MojangProfileServer}, replaceable by a local stub.
+ */
+@FunctionalInterface
+public interface ProfileUpstream {
+
+    /**
+     * Fetches a profile, completing empty if the user does not exist.
+     *
+     * @param user the unique id or username of the user
+     */
+    @NotNull Mono<MojangProfileResponse> fetch(@NotNull String user);
+
+    /**
+     * Fetches profiles through the blocking {@link MojangProxy}, off the event loop.
+     *
+     * @param mojangProxy the proxy to fetch through
+     */
+    static @NotNull ProfileUpstream of(@NotNull MojangProxy mojangProxy) {
+        return user -> Mono.fromCallable(() -> StringUtil.isUUID(user) ?
+                mojangProxy.getMojangProfile(StringUtil.toUUID(user)) :
+                mojangProxy.getMojangProfile(user)
+            )
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+}
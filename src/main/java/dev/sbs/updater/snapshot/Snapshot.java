@@ -0,0 +1,146 @@
+package dev.sbs.updater.snapshot;
+
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.api.data.model.skyblock.accessory_data.accessories.AccessorySqlModel;
+import dev.sbs.api.data.model.skyblock.collection_data.collections.CollectionSqlModel;
+import dev.sbs.api.data.model.skyblock.items.ItemSqlModel;
+import dev.sbs.api.data.model.skyblock.minion_data.minions.MinionSqlModel;
+import dev.sbs.api.data.model.skyblock.skills.SkillSqlModel;
+import dev.sbs.updater.processor.cache.ModelCache;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable copy of the cached SkyBlock data, serialized and compressed up front.
+ * <p>
+ * Every resource is held as a whole and per entry, each as plain and gzip compressed json with its ETag,
+ * so serving a request never serializes, compresses or touches the caches.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class Snapshot {
+
+    private static final List<Source<?>> SOURCES = List.of(
+        new Source<>("items", ItemSqlModel.class, ItemSqlModel::getItemId),
+        new Source<>("skills", SkillSqlModel.class, SkillSqlModel::getKey),
+        new Source<>("collections", CollectionSqlModel.class, CollectionSqlModel::getKey),
+        new Source<>("accessories", AccessorySqlModel.class, accessory -> accessory.getItem() != null ? accessory.getItem().getItemId() : null),
+        new Source<>("minions", MinionSqlModel.class, MinionSqlModel::getKey)
+    );
+
+    private final @NotNull Map<String, Resource> resources;
+    private final long createdAt;
+
+    /**
+     * Captures the current contents of the {@link ModelCache}, which must not be modified until this returns.
+     */
+    public static @NotNull Snapshot capture() {
+        Map<String, Resource> resources = new HashMap<>();
+        SOURCES.forEach(source -> resources.put(source.name(), source.capture()));
+        return new Snapshot(Collections.unmodifiableMap(resources), System.currentTimeMillis());
+    }
+
+    public @Nullable Resource getResource(@NotNull String name) {
+        return this.resources.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public int getEntryCount() {
+        return this.resources.values().stream().mapToInt(resource -> resource.getEntries().size()).sum();
+    }
+
+    /**
+     * A single resource, as a whole and per entry key.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Resource {
+
+        private final @NotNull Body all;
+        private final @NotNull Map<String, Body> entries;
+
+        public @Nullable Body getEntry(@NotNull String key) {
+            return this.entries.get(key.toUpperCase(Locale.ROOT));
+        }
+
+    }
+
+    /**
+     * A serialized response body.
+     *
+     * @param plain the json
+     * @param compressed the gzip compressed json
+     * @param etag the quoted strong entity tag of the json
+     */
+    public record Body(byte[] plain, byte[] compressed, @NotNull String etag) {
+
+        private static @NotNull Body of(byte[] plain) {
+            return new Body(plain, compress(plain), '"' + Long.toHexString(hash(plain)) + '"');
+        }
+
+    }
+
+    private record Source<T extends SqlModel>(@NotNull String name, @NotNull Class<T> modelClass, @NotNull Function<T, String> keyFunction) {
+
+        private @NotNull Resource capture() {
+            Map<String, Body> entries = new HashMap<>();
+            ByteArrayOutputStream all = new ByteArrayOutputStream();
+            all.write('[');
+
+            for (T model : ModelCache.of(this.modelClass()).getValues()) {
+                String key = this.keyFunction().apply(model);
+                byte[] json = SimplifiedApi.getGson().toJson(model).getBytes(StandardCharsets.UTF_8);
+
+                if (all.size() > 1)
+                    all.write(',');
+
+                all.writeBytes(json);
+
+                if (key != null)
+                    entries.putIfAbsent(key.toUpperCase(Locale.ROOT), Body.of(json));
+            }
+
+            all.write(']');
+            return new Resource(Body.of(all.toByteArray()), Collections.unmodifiableMap(entries));
+        }
+
+    }
+
+    private static byte[] compress(byte[] plain) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(32, plain.length / 4));
+
+        try (GZIPOutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(plain);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        return compressed.toByteArray();
+    }
+
+    private static long hash(byte[] plain) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(plain)).getLong();
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+}
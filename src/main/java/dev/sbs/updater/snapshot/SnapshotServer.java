@@ -0,0 +1,106 @@
+package dev.sbs.updater.snapshot;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves the latest published {@link Snapshot} at {@code /skyblock/{resource}} and {@code /skyblock/{resource}/{key}}.
+ * <p>
+ * Snapshots are swapped atomically, a request is answered entirely from the snapshot current when it arrived.
+ * Bodies are sent gzip compressed when accepted, and {@code If-None-Match} is answered with {@code 304 Not Modified}.
+ */
+public final class SnapshotServer {
+
+    private final @NotNull AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Replaces the served snapshot.
+     *
+     * @param snapshot the snapshot to serve
+     */
+    public void publish(@NotNull Snapshot snapshot) {
+        this.snapshot.set(snapshot);
+    }
+
+    public @Nullable Snapshot getSnapshot() {
+        return this.snapshot.get();
+    }
+
+    /**
+     * Binds the server, serving until disposed.
+     *
+     * @param host the host to bind
+     * @param port the port to bind
+     */
+    public @NotNull DisposableServer bind(@NotNull String host, int port) {
+        return HttpServer.create()
+            .host(host)
+            .port(port)
+            .childOption(ChannelOption.SO_KEEPALIVE, true)
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .route(routes -> routes
+                .get("/skyblock/{resource}", (request, response) -> this.handle(request, response, false))
+                .get("/skyblock/{resource}/{key}", (request, response) -> this.handle(request, response, true))
+            )
+            .bindNow();
+    }
+
+    private @NotNull Publisher<Void> handle(@NotNull HttpServerRequest request, @NotNull HttpServerResponse response, boolean entry) {
+        Snapshot snapshot = this.snapshot.get();
+
+        if (snapshot == null)
+            return response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send();
+
+        Snapshot.Resource resource = snapshot.getResource(request.param("resource"));
+        Snapshot.Body body = resource == null ? null : (entry ? resource.getEntry(request.param("key")) : resource.getAll());
+
+        if (body == null)
+            return response.status(HttpResponseStatus.NOT_FOUND).send();
+
+        response.header(HttpHeaderNames.ETAG, body.etag())
+            .header(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+
+        if (matches(request.requestHeaders().get(HttpHeaderNames.IF_NONE_MATCH), body.etag()))
+            return response.status(HttpResponseStatus.NOT_MODIFIED).send();
+
+        String acceptEncoding = request.requestHeaders().get(HttpHeaderNames.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] bytes = gzip ? body.compressed() : body.plain();
+
+        if (gzip)
+            response.header(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.GZIP);
+
+        return response.status(HttpResponseStatus.OK)
+            .header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+            .header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(bytes.length))
+            .send(Mono.just(Unpooled.wrappedBuffer(bytes)));
+    }
+
+    private static boolean matches(@Nullable String ifNoneMatch, @NotNull String etag) {
+        if (ifNoneMatch == null)
+            return false;
+
+        for (String value : ifNoneMatch.split(",")) {
+            String tag = value.trim();
+
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag))
+                return true;
+        }
+
+        return false;
+    }
+
+}
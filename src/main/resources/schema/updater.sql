@@ -0,0 +1,39 @@
+-- Tables owned by the updater, applied with the rest of the database schema before the updater starts.
+
+-- Rows no longer in their resource, kept in their table and listed here until they are back in the resource.
+-- table_name is the model name used by the change journal, row_id the id of the retired row.
+CREATE TABLE IF NOT EXISTS updater_retired (
+    table_name VARCHAR(255) NOT NULL,
+    row_id BIGINT NOT NULL,
+    retired_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (table_name, row_id)
+);
+
+-- Leases and live members of the updater instances sharing the database, see SqlCoordinator.
+-- A lease row is taken over once expires_at, in epoch milliseconds, has passed.
+CREATE TABLE IF NOT EXISTS updater_leases (
+    name VARCHAR(255) NOT NULL PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    expires_at BIGINT NOT NULL
+);
+
+-- The resource last completed by each shard of a sharded processor, dependents wait for every shard of the same resource.
+CREATE TABLE IF NOT EXISTS updater_shards (
+    name VARCHAR(255) NOT NULL,
+    shard_index INT NOT NULL,
+    shard_count INT NOT NULL,
+    resource_fingerprint BIGINT NOT NULL,
+    completed_at BIGINT NOT NULL,
+    PRIMARY KEY (name, shard_index)
+);
+
+-- Rows inserted or updated by each coordinated instance, listed in the transaction writing them, see ChangeFeed.
+-- Other instances refresh only the listed rows in their caches, rows are pruned a day after recorded_at, in epoch milliseconds.
+CREATE TABLE IF NOT EXISTS updater_changes (
+    table_name VARCHAR(255) NOT NULL,
+    row_id BIGINT NOT NULL,
+    instance VARCHAR(255) NOT NULL,
+    recorded_at BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS updater_changes_recorded_at ON updater_changes (recorded_at);
@@ -0,0 +1,55 @@
+package dev.sbs.updater.coordination;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coordinator of an instance assigned a single shard, every lease is granted.
+ *
+ * @param shard the shard of this instance
+ * @param completed the indexes of the completed shards, including those completed by other instances
+ */
+public record ShardedCoordinator(@NotNull Shard shard, @NotNull Set<Integer> completed) implements Coordinator {
+
+    public ShardedCoordinator(@NotNull Shard shard) {
+        this(shard, ConcurrentHashMap.newKeySet());
+    }
+
+    @Override
+    public @NotNull Lease tryAcquire(@NotNull String name) {
+        Lease lease = new Lease(this, name, false);
+        lease.renewed(Long.MAX_VALUE);
+        return lease;
+    }
+
+    @Override
+    public void release(@NotNull Lease lease) { }
+
+    @Override
+    public @NotNull Shard getShard() {
+        return this.shard();
+    }
+
+    @Override
+    public void complete(@NotNull String name, @NotNull Shard shard, long resourceFingerprint) {
+        this.completed().add(shard.index());
+    }
+
+    @Override
+    public boolean isComplete(@NotNull String name, int shards, long resourceFingerprint) {
+        return this.completed().size() == shards;
+    }
+
+    /**
+     * Fails at once if a shard is missing, no other instance completes it while waiting.
+     */
+    @Override
+    public void awaitComplete(@NotNull String name, int shards, long resourceFingerprint, @NotNull Duration timeout) {
+        if (!this.isComplete(name, shards, resourceFingerprint))
+            throw new IllegalStateException(String.format("Timed out waiting for every shard of '%s'", name));
+    }
+
+}
@@ -0,0 +1,165 @@
+package dev.sbs.updater.journal;
+
+import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
+import dev.sbs.updater.metrics.Operation;
+import dev.sbs.updater.processor.ModelFields;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class ChangeJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void changesRoundTrip() {
+        ChangeJournal journal = ChangeJournal.of(this.directory.resolve("changes.journal"));
+        ChangeJournal.Batch batch = new ChangeJournal.Batch();
+        batch.inserted(rarity("COMMON", 1L), "COMMON");
+        batch.updated(rarity("RARE", 2L), "RARE", List.of(FieldDiff.of("name", "Rare", null), FieldDiff.of("ordinal", 1, 2)));
+        batch.updated(rarity("EPIC", 3L), "EPIC", List.of());
+        batch.retired(rarity("LEGACY", 4L), "LEGACY");
+        batch.restored(rarity("UNCOMMON", 5L), "UNCOMMON");
+        long before = System.currentTimeMillis();
+        journal.append(batch);
+
+        List<Change> changes = journal.read(change -> true);
+        assertThat(batch.size(), is(0));
+        assertThat(changes.stream().map(Change::key).toList(), contains("COMMON", "RARE", "LEGACY", "UNCOMMON"));
+        assertThat(changes.stream().map(Change::operation).toList(), contains(Operation.INSERT, Operation.UPDATE, Operation.RETIRE, Operation.RESTORE));
+        assertThat(changes.get(0).table(), is("Rarity"));
+        assertThat(changes.get(0).timestamp(), is(greaterThan(before - 1)));
+        assertThat(changes.get(1).fields(), contains(new FieldChange("name", "Rare", null), new FieldChange("ordinal", "1", "2")));
+        assertThat(changes.get(2).fields(), is(empty()));
+        assertThat(journal.getChangedKeys(before).get("Rarity"), contains("COMMON", "RARE", "LEGACY", "UNCOMMON"));
+        assertThat(journal.readSince(Long.MAX_VALUE), is(empty()));
+    }
+
+    @Test
+    public void referencedRowsAreDescribedOnceCommitted() {
+        ChangeJournal journal = ChangeJournal.of(this.directory.resolve("changes.journal"));
+        ChangeJournal.Batch batch = new ChangeJournal.Batch();
+        RaritySqlModel inserted = rarity("MYTHIC", null);
+        batch.updated(rarity("RARE", 2L), "RARE", List.of(FieldDiff.of("next", null, inserted)));
+        setId(inserted, 7L); // Written Before Appended
+        journal.append(batch);
+
+        assertThat(journal.read(change -> true).get(0).fields(), contains(new FieldChange("next", null, "Rarity#7")));
+    }
+
+    @Test
+    public void tornTailIsIgnored() throws IOException {
+        Path path = this.directory.resolve("changes.journal");
+        ChangeJournal journal = ChangeJournal.of(path);
+        journal.append(batch("FIRST"));
+        journal.append(batch("SECOND"));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        assertThat(journal.read(change -> true).stream().map(Change::key).toList(), contains("FIRST"));
+    }
+
+    @Test
+    public void unknownOperationEndsJournal() throws IOException {
+        Path path = this.directory.resolve("changes.journal");
+        ChangeJournal journal = ChangeJournal.of(path);
+        journal.append(batch("FIRST"));
+        journal.close();
+
+        try (DataOutputStream outputStream = new DataOutputStream(Files.newOutputStream(path, StandardOpenOption.APPEND))) {
+            outputStream.writeInt(Long.BYTES + 1);
+            outputStream.writeLong(0);
+            outputStream.writeByte(Operation.values().length);
+        }
+
+        assertThat(journal.read(change -> true).stream().map(Change::key).toList(), contains("FIRST"));
+    }
+
+    @Test
+    public void tornRecordIsTruncatedBeforeAppending() throws IOException {
+        Path path = this.directory.resolve("changes.journal");
+        ChangeJournal journal = ChangeJournal.of(path);
+        journal.append(batch("FIRST"));
+        journal.close(); // Crashed While Appending
+        long size = Files.size(path);
+
+        try (DataOutputStream outputStream = new DataOutputStream(Files.newOutputStream(path, StandardOpenOption.APPEND))) {
+            outputStream.writeInt(64);
+            outputStream.writeLong(0);
+        }
+
+        ChangeJournal reopened = ChangeJournal.of(path);
+        reopened.append(batch("SECOND"));
+        reopened.close();
+
+        assertThat(reopened.read(change -> true).stream().map(Change::key).toList(), contains("FIRST", "SECOND"));
+        assertThat(Files.size(path), is(greaterThan(size)));
+    }
+
+    @Test
+    public void journalStaysOpenBetweenAppends() {
+        Path path = this.directory.resolve("changes.journal");
+        ChangeJournal journal = ChangeJournal.of(path);
+        journal.append(batch("FIRST"));
+        journal.append(batch("SECOND"));
+
+        assertThat(journal.read(change -> true).stream().map(Change::key).toList(), contains("FIRST", "SECOND"));
+
+        journal.close();
+        journal.append(batch("THIRD"));
+
+        assertThat(journal.read(change -> true).stream().map(Change::key).toList(), contains("FIRST", "SECOND", "THIRD"));
+    }
+
+    @Test
+    public void oversizedJournalIsRotated() {
+        Path path = this.directory.resolve("changes.journal");
+        ChangeJournal journal = ChangeJournal.of(path, 64);
+        journal.append(batch("FIRST"));
+        journal.append(batch("SECOND"));
+        journal.append(batch("THIRD"));
+
+        assertThat(Files.exists(journal.getRotatedPath()), is(true));
+        assertThat(journal.read(change -> true).stream().map(Change::key).toList(), contains("SECOND", "THIRD"));
+    }
+
+    @Test
+    public void missingJournalIsEmpty() {
+        assertThat(ChangeJournal.of(this.directory.resolve("missing.journal")).read(change -> true), is(empty()));
+    }
+
+    private static ChangeJournal.Batch batch(String key) {
+        ChangeJournal.Batch batch = new ChangeJournal.Batch();
+        batch.inserted(rarity(key, 1L), key);
+        return batch;
+    }
+
+    private static RaritySqlModel rarity(String key, Long id) {
+        RaritySqlModel rarity = new RaritySqlModel();
+        rarity.setKey(key);
+        setId(rarity, id);
+        return rarity;
+    }
+
+    private static void setId(RaritySqlModel rarity, Long id) {
+        ModelFields<RaritySqlModel> fields = ModelFields.of(RaritySqlModel.class);
+        fields.set(fields.indexOf("id"), rarity, id);
+    }
+
+}
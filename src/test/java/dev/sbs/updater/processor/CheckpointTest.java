@@ -0,0 +1,87 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.updater.coordination.Shard;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CheckpointTest {
+
+    private static final Checkpoint.Key KEY = new Checkpoint.Key(42L, new Shard(1, 3), 500);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void savedChunksAreLoaded() {
+        Path path = this.directory.resolve("items.checkpoint");
+        Checkpoint.load(path).save(KEY, 7);
+        Checkpoint checkpoint = Checkpoint.load(path);
+
+        assertThat(checkpoint.getChunks(KEY), is(7));
+        assertThat(checkpoint.getChunks(new Checkpoint.Key(43L, new Shard(1, 3), 500)), is(0));
+    }
+
+    @Test
+    public void otherShardOrChunkSizeIsEmpty() {
+        Path path = this.directory.resolve("items.checkpoint");
+        Checkpoint.load(path).save(KEY, 7);
+        Checkpoint checkpoint = Checkpoint.load(path);
+
+        assertThat(checkpoint.getChunks(new Checkpoint.Key(42L, new Shard(2, 3), 500)), is(0));
+        assertThat(checkpoint.getChunks(new Checkpoint.Key(42L, new Shard(1, 4), 500)), is(0));
+        assertThat(checkpoint.getChunks(new Checkpoint.Key(42L, new Shard(1, 3), 250)), is(0));
+    }
+
+    @Test
+    public void clearedCheckpointIsEmpty() {
+        Path path = this.directory.resolve("items.checkpoint");
+        Checkpoint checkpoint = Checkpoint.load(path);
+        checkpoint.save(KEY, 7);
+        checkpoint.clear();
+
+        assertThat(checkpoint.getChunks(KEY), is(0));
+        assertThat(Files.exists(path), is(false));
+        assertThat(Checkpoint.load(path).getChunks(KEY), is(0));
+    }
+
+    @Test
+    public void missingCheckpointIsEmpty() {
+        assertThat(Checkpoint.load(this.directory.resolve("missing.checkpoint")).getChunks(KEY), is(0));
+    }
+
+    @Test
+    public void outdatedCheckpointIsEmpty() throws IOException {
+        Path path = this.directory.resolve("items.checkpoint");
+
+        try (DataOutputStream outputStream = new DataOutputStream(Files.newOutputStream(path))) {
+            outputStream.writeInt(1);
+            outputStream.writeLong(42L);
+            outputStream.writeInt(7);
+        }
+
+        assertThat(Checkpoint.load(path).getChunks(KEY), is(0));
+    }
+
+    @Test
+    public void truncatedCheckpointIsEmpty() throws IOException {
+        Path path = this.directory.resolve("items.checkpoint");
+        Checkpoint.load(path).save(KEY, 7);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 2);
+        }
+
+        assertThat(Checkpoint.load(path).getChunks(KEY), is(0));
+    }
+
+}
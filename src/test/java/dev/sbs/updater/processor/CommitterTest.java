@@ -0,0 +1,153 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.data.model.skyblock.accessory_data.accessories.AccessorySqlModel;
+import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
+import dev.sbs.updater.journal.ChangeJournal;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import dev.sbs.updater.processor.fingerprint.FingerprintStore;
+import dev.sbs.updater.processor.stat.StatBlock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CommitterTest {
+
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private final WriteBehind writeBehind = new WriteBehind(UpdaterMetrics.of("CommitterTest"));
+    private final FingerprintStore fingerprints = FingerprintStore.load("CommitterTest");
+    private final Committer committer = new Committer(UpdaterMetrics.of("CommitterTest"), this.writeBehind, new ChangeJournal.Batch(), this.fingerprints);
+    private WriteBehind.Target target;
+
+    @BeforeEach
+    public void replaceTarget() {
+        this.target = WriteBehind.getTarget();
+        WriteBehind.setTarget((tables, batchSize, transactionSize) -> tables.forEach(table -> table.rows().forEach(row -> this.events.add("write " + ((RaritySqlModel) row).getKey()))));
+        this.fingerprints.clear();
+    }
+
+    @AfterEach
+    public void restoreTarget() {
+        this.committer.close();
+        WriteBehind.setTarget(this.target);
+    }
+
+    @Test
+    public void commitsAreWrittenInOrder() {
+        this.committer.open("CommitterTest", 2);
+        this.committer.commit(() -> this.events.add("verify"), () -> this.events.add("written"));
+        this.save("FIRST");
+        this.fingerprints.put("FIRST", 1L);
+        this.committer.commit(() -> this.events.add("verify"), () -> this.events.add("written"));
+        this.committer.awaitWrites();
+
+        assertThat(this.events, contains("verify", "written", "verify", "write FIRST", "written"));
+        assertThat(this.writeBehind.size(), is(0));
+        assertThat(this.fingerprints.matches("FIRST", 1L), is(true));
+    }
+
+    @Test
+    public void failedVerifyDiscardsWrite() {
+        this.committer.open("CommitterTest", 2);
+        this.save("FIRST");
+        this.fingerprints.put("FIRST", 1L);
+        this.committer.commit(() -> { throw new IllegalStateException("Lease lost"); }, () -> this.events.add("written"));
+
+        assertThrows(WritePipeline.WriteFailedException.class, this.committer::awaitWrites);
+        assertThat(this.events, is(empty()));
+        assertThat(this.fingerprints.matches("FIRST", 1L), is(false));
+    }
+
+    @Test
+    public void unpipelinedCommitsWriteImmediately() {
+        this.committer.open("CommitterTest", 0);
+        this.save("FIRST");
+        this.committer.commit(() -> this.events.add("verify"), () -> this.events.add("written"));
+
+        assertThat(this.events, contains("verify", "write FIRST", "written"));
+    }
+
+    @Test
+    public void copiesAreWrittenWhileRowsAreModified() throws InterruptedException {
+        CountDownLatch modified = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+        ModelFields<RaritySqlModel> fields = ModelFields.of(RaritySqlModel.class);
+        WriteBehind.setTarget((tables, batchSize, transactionSize) -> tables.forEach(table -> table.rows().forEach(row -> {
+            try {
+                modified.await();
+            } catch (InterruptedException exception) {
+                throw new IllegalStateException(exception);
+            }
+
+            written.add(((RaritySqlModel) row).getName());
+            fields.set(fields.indexOf("id"), (RaritySqlModel) row, 1L); // Assigned By Writer
+        })));
+
+        this.committer.open("CommitterTest", 2);
+        RaritySqlModel rarity = this.save("FIRST");
+        rarity.setName("First");
+        this.committer.commit(() -> { }, () -> { });
+        rarity.setName("Changed");
+        modified.countDown();
+        this.committer.awaitWrites();
+
+        assertThat(written, contains("First"));
+        assertThat(rarity.getName(), is("Changed"));
+        assertThat(rarity.getId(), is(1L));
+    }
+
+    @Test
+    public void rowsCommittedAgainAreWrittenWithTheirId() {
+        List<Long> ids = new CopyOnWriteArrayList<>();
+        ModelFields<RaritySqlModel> fields = ModelFields.of(RaritySqlModel.class);
+        WriteBehind.setTarget((tables, batchSize, transactionSize) -> tables.forEach(table -> table.rows().forEach(row -> {
+            ids.add(row.getId());
+            fields.set(fields.indexOf("id"), (RaritySqlModel) row, 1L);
+        })));
+
+        this.committer.open("CommitterTest", 2);
+        RaritySqlModel rarity = this.save("FIRST");
+        this.committer.commit(() -> { }, () -> { });
+        this.writeBehind.update(rarity);
+        this.committer.commit(() -> { }, () -> { });
+        this.committer.awaitWrites();
+
+        assertThat(ids, contains(null, 1L));
+    }
+
+    @Test
+    public void statBlocksAreWrittenAsMutableMaps() {
+        AccessorySqlModel accessory = new AccessorySqlModel();
+        accessory.setEffects(StatBlock.of(Map.of("STRENGTH", 10.0)));
+        WriteBehind.setTarget((tables, batchSize, transactionSize) -> tables.forEach(table -> table.rows().forEach(row -> {
+            ((AccessorySqlModel) row).getEffects().put("STRENGTH", 20.0); // Replaced By Hibernate
+            this.events.add("write " + ((AccessorySqlModel) row).getEffects().get("STRENGTH"));
+        })));
+
+        this.committer.open("CommitterTest", 0);
+        this.writeBehind.save(accessory);
+        this.committer.commit(() -> { }, () -> { });
+
+        assertThat(this.events, contains("write 20.0"));
+        assertThat(accessory.getEffects(), is(instanceOf(StatBlock.class)));
+        assertThat(accessory.getEffects().get("STRENGTH"), is(10.0));
+    }
+
+    private RaritySqlModel save(String key) {
+        RaritySqlModel rarity = new RaritySqlModel();
+        rarity.setKey(key);
+        return this.writeBehind.save(rarity);
+    }
+
+}
@@ -0,0 +1,128 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.SimplifiedApi;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class DeadLettersTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void failedEntriesAreLoaded() {
+        Path path = this.directory.resolve("items.deadletters");
+        DeadLetters deadLetters = DeadLetters.load(path);
+        deadLetters.add("ASPECT_OF_THE_END", new IllegalStateException("Missing rarity"));
+        deadLetters.save(false);
+
+        DeadLetters loaded = DeadLetters.load(path);
+        loaded.add("ASPECT_OF_THE_END", new IllegalStateException("Missing rarity"));
+        DeadLetters.Entry entry = loaded.getEntries().iterator().next();
+
+        assertThat(entry.key(), is("ASPECT_OF_THE_END"));
+        assertThat(entry.attempts(), is(2));
+        assertThat(entry.error(), is("java.lang.IllegalStateException: Missing rarity"));
+        assertThat(loaded.isRetrying(false), is(true));
+    }
+
+    @Test
+    public void entriesDieAfterMaxAttempts() {
+        Path path = this.directory.resolve("items.deadletters");
+
+        for (int i = 0; i < DeadLetters.MAX_ATTEMPTS; i++) {
+            DeadLetters deadLetters = DeadLetters.load(path);
+            deadLetters.add("HYPERION", new IllegalStateException("Failed"));
+            deadLetters.save(false);
+        }
+
+        DeadLetters deadLetters = DeadLetters.load(path);
+        deadLetters.add("HYPERION", new IllegalStateException("Failed"));
+
+        assertThat(deadLetters.getEntries().iterator().next().attempts(), is(DeadLetters.MAX_ATTEMPTS + 1));
+        assertThat(deadLetters.getEntries().iterator().next().isDead(), is(true));
+        assertThat(deadLetters.isRetrying(false), is(false));
+    }
+
+    @Test
+    public void resumedRunKeepsPreviousEntries() throws IOException {
+        Path path = this.directory.resolve("items.deadletters");
+        DeadLetters deadLetters = DeadLetters.load(path);
+        deadLetters.add("FIRST", new IllegalStateException("Failed"));
+        deadLetters.save(false);
+
+        DeadLetters resumed = DeadLetters.load(path);
+        resumed.add("SECOND", new IllegalStateException("Failed"));
+        resumed.save(true);
+
+        assertThat(keys(path), containsInAnyOrder("FIRST", "SECOND"));
+
+        DeadLetters restarted = DeadLetters.load(path);
+        restarted.add("SECOND", new IllegalStateException("Failed"));
+        restarted.save(false);
+
+        assertThat(keys(path), contains("SECOND"));
+    }
+
+    @Test
+    public void resumedRunRetriesUnresolvedEntries() throws IOException {
+        Path path = this.directory.resolve("items.deadletters");
+        DeadLetters deadLetters = DeadLetters.load(path);
+        deadLetters.add("FIRST", new IllegalStateException("Failed"));
+        deadLetters.add("SECOND", new IllegalStateException("Failed"));
+        deadLetters.save(false);
+
+        DeadLetters resumed = DeadLetters.load(path);
+        resumed.resolve("FIRST");
+
+        assertThat(resumed.isRetrying(false), is(false));
+        assertThat(resumed.isRetrying(true), is(true));
+
+        resumed.resolve("SECOND");
+        resumed.save(true);
+
+        assertThat(resumed.isRetrying(true), is(false));
+        assertThat(Files.exists(path), is(false));
+    }
+
+    @Test
+    public void emptyRunDeletesFile() {
+        Path path = this.directory.resolve("items.deadletters");
+        DeadLetters deadLetters = DeadLetters.load(path);
+        deadLetters.add("FIRST", new IllegalStateException("Failed"));
+        deadLetters.save(false);
+        DeadLetters.load(path).save(false);
+
+        assertThat(Files.exists(path), is(false));
+    }
+
+    @Test
+    public void unreadableFileIsEmpty() throws IOException {
+        Path path = this.directory.resolve("items.deadletters");
+        Files.writeString(path, "{\"key\":\"FIRST\",\"attempts\":1,\"error\":\"Failed\",\"failedAt\":0}\nnot json\n");
+        DeadLetters deadLetters = DeadLetters.load(path);
+        deadLetters.add("FIRST", new IllegalStateException("Failed"));
+
+        assertThat(deadLetters.getEntries().iterator().next().attempts(), is(1));
+        assertThat(DeadLetters.load(this.directory.resolve("missing.deadletters")).getEntries(), is(empty()));
+    }
+
+    private static List<String> keys(Path path) throws IOException {
+        return Files.readAllLines(path)
+            .stream()
+            .map(line -> SimplifiedApi.getGson().fromJson(line, DeadLetters.Entry.class).key())
+            .toList();
+    }
+
+}
@@ -0,0 +1,126 @@
+package dev.sbs.updater.processor;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import dev.sbs.api.SimplifiedApi;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class JsonNormalizerTest {
+
+    @Test
+    public void everyInstanceMatchesRoundTrip() {
+        List<Object> values = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++)
+            values.add(requirement(i));
+
+        values.add(new Requirement());
+        values.forEach(JsonNormalizerTest::assertRoundTrip);
+        assertRoundTrip(values);
+    }
+
+    @Test
+    public void primitivesMatchRoundTrip() {
+        assertRoundTrip("text");
+        assertRoundTrip(true);
+        assertRoundTrip(7);
+        assertRoundTrip(7L);
+        assertRoundTrip(1.5f);
+        assertRoundTrip('c');
+        assertRoundTrip(Tier.ONE);
+        assertRoundTrip(new int[] { 1, 2, 3 });
+        assertRoundTrip(new String[] { "a", null });
+    }
+
+    @Test
+    public void mapsMatchRoundTrip() {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        map.put("present", 1);
+        map.put("absent", null);
+        map.put(2, List.of(Tier.TWO));
+
+        assertRoundTrip(map);
+    }
+
+    @Test
+    public void nullIsNotWrapped() {
+        assertThat(JsonNormalizer.normalize(null), is(nullValue()));
+        assertThat(JsonNormalizer.toList(null), is(empty()));
+        assertThat(JsonNormalizer.toList("text"), is(empty()));
+    }
+
+    @Test
+    public void matchesWithoutNormalizing() {
+        Requirement requirement = requirement(2);
+        Object normalized = JsonNormalizer.normalize(requirement);
+
+        assertThat(JsonNormalizer.matches(requirement, normalized), is(true));
+        assertThat(JsonNormalizer.matches(requirement(4), normalized), is(false));
+        assertThat(JsonNormalizer.matches(7, 7), is(true));
+        assertThat(JsonNormalizer.matches(List.of(), null), is(false));
+    }
+
+    @Test
+    public void unchangedColumnIsKept() {
+        List<Requirement> requirements = List.of(requirement(1), requirement(2));
+        List<Object> current = JsonNormalizer.toList(requirements);
+
+        assertThat(JsonNormalizer.toList(requirements, current) == current, is(true));
+        assertThat(JsonNormalizer.toList(List.of(requirement(3)), current) == current, is(false));
+        assertThat(JsonNormalizer.toList(List.of(requirement(3)), current), is(JsonNormalizer.toList(List.of(requirement(3)))));
+        assertThat(JsonNormalizer.toList(null, current), is(empty()));
+    }
+
+    private static void assertRoundTrip(Object value) {
+        Gson gson = SimplifiedApi.getGson();
+        Object expected = gson.fromJson(gson.toJson(value), Object.class);
+
+        assertThat(JsonNormalizer.normalize(value), is(expected));
+        assertThat(JsonNormalizer.matches(value, expected), is(true));
+    }
+
+    private static Requirement requirement(int index) {
+        Requirement requirement = new Requirement();
+        requirement.type = "SKILL";
+        requirement.level = index;
+        requirement.tier = Tier.values()[index % Tier.values().length];
+        requirement.cached = "excluded";
+        requirement.costs = index % 2 == 0 ? Arrays.asList(new Cost("COINS", index * 1000L), null) : null;
+        requirement.slots = index % 3 == 0 ? new Cost[0] : new Cost[] { new Cost("GEM", index) };
+        return requirement;
+    }
+
+    private enum Tier {
+
+        @SerializedName("first")
+        ONE,
+        TWO
+
+    }
+
+    private static final class Requirement {
+
+        private String type;
+        @SerializedName("minimum_level")
+        private int level;
+        private Tier tier;
+        private transient String cached;
+        private List<Cost> costs;
+        private Cost[] slots;
+
+    }
+
+    private record Cost(String itemId, long amount) { }
+
+}
@@ -0,0 +1,83 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.updater.journal.FieldDiff;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ModelFieldsTest {
+
+    private static final ModelFields<Row> fields = ModelFields.of(Row.class);
+
+    @Test
+    public void inheritedAndDeclaredFieldsAreListed() {
+        assertThat(fields.size(), is(4));
+        assertThat(fields.indexOf("id") >= 0, is(true));
+        assertThat(fields.indexOf("cached"), is(-1));
+        assertThat(fields.getType("name"), is(String.class));
+        assertThat(fields.getType("missing"), is(nullValue()));
+    }
+
+    @Test
+    public void diffListsChangedFields() {
+        Row row = new Row();
+        row.name = "Sword";
+        row.level = 1;
+        Object[] captured = fields.capture(row);
+
+        assertThat(fields.diff(captured, row), is(empty()));
+
+        row.name = "Bow";
+        row.cached = "ignored";
+        List<FieldDiff> diff = fields.diff(captured, row);
+
+        assertThat(diff.stream().map(FieldDiff::name).toList(), contains("name"));
+    }
+
+    @Test
+    public void restoreResetsEveryField() {
+        Row row = new Row();
+        row.name = "Sword";
+        Object[] captured = fields.capture(row);
+        row.name = "Bow";
+        row.level = 5;
+        fields.restore(captured, row);
+
+        assertThat(row.name, is("Sword"));
+        assertThat(row.level, is(0));
+        assertThat(fields.get("name", row), is("Sword"));
+    }
+
+    @Test
+    public void finalFieldsAreNotSet() {
+        Row row = new Row();
+        int index = fields.indexOf("key");
+
+        assertThrows(IllegalStateException.class, () -> fields.set(index, row, "OTHER"));
+        assertThrows(IllegalArgumentException.class, () -> fields.get("missing", row));
+    }
+
+    private static class Base {
+
+        private Long id;
+
+    }
+
+    private static final class Row extends Base {
+
+        private static final String TABLE = "rows";
+        private final String key = "KEY";
+        private String name;
+        private int level;
+        private transient String cached;
+
+    }
+
+}
@@ -0,0 +1,246 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.collection.concurrent.ConcurrentList;
+import dev.sbs.updater.coordination.Coordinator;
+import dev.sbs.updater.coordination.Lease;
+import dev.sbs.updater.coordination.Shard;
+import dev.sbs.updater.coordination.ShardedCoordinator;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProcessorSchedulerTest {
+
+    private static final List<String> processed = new CopyOnWriteArrayList<>();
+    private static final List<String> closed = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void clearProcessed() {
+        processed.clear();
+        closed.clear();
+    }
+
+    @Test
+    public void dependenciesRunFirst() {
+        ConcurrentList<ProcessorScheduler.Result> results = new ProcessorScheduler(true, new Dependent(), new Independent(), new Dependency()).run();
+
+        assertThat(statuses(results), contains(ProcessorScheduler.Status.SUCCESS, ProcessorScheduler.Status.SUCCESS, ProcessorScheduler.Status.SUCCESS));
+        assertThat(processed, containsInAnyOrder("Dependency", "Dependent", "Independent"));
+        assertThat(processed.indexOf("Dependency"), is(lessThan(processed.indexOf("Dependent"))));
+    }
+
+    @Test
+    public void failedDependencySkipsDependents() {
+        ConcurrentList<ProcessorScheduler.Result> results = new ProcessorScheduler(true, new Failing(), new DependsOnFailing(), new Independent()).run();
+
+        assertThat(statuses(results), contains(ProcessorScheduler.Status.FAILED, ProcessorScheduler.Status.SKIPPED, ProcessorScheduler.Status.SUCCESS));
+        assertThat(results.get(0).getException(), is(instanceOf(IllegalStateException.class)));
+        assertThat(processed, contains("Independent"));
+    }
+
+    @Test
+    public void leasedDependencySkipsDependents() {
+        Coordinator coordinator = new HeldCoordinator("Dependency");
+        ConcurrentList<ProcessorScheduler.Result> results = new ProcessorScheduler(coordinator, true, new Dependency(), new Dependent(), new Independent()).run();
+
+        assertThat(statuses(results), contains(ProcessorScheduler.Status.LEASED, ProcessorScheduler.Status.SKIPPED, ProcessorScheduler.Status.SUCCESS));
+        assertThat(processed, contains("Independent"));
+    }
+
+    @Test
+    public void everyProcessorIsClosed() {
+        Coordinator coordinator = new HeldCoordinator("Dependency");
+        ConcurrentList<ProcessorScheduler.Result> results = new ProcessorScheduler(coordinator, true, new Dependency(), new Dependent(), new Failing(), new DependsOnFailing(), new Independent()).run();
+
+        assertThat(statuses(results), contains(
+            ProcessorScheduler.Status.LEASED,
+            ProcessorScheduler.Status.SKIPPED,
+            ProcessorScheduler.Status.FAILED,
+            ProcessorScheduler.Status.SKIPPED,
+            ProcessorScheduler.Status.SUCCESS
+        ));
+        assertThat(closed, containsInAnyOrder("Dependency", "Dependent", "Failing", "DependsOnFailing", "Independent"));
+    }
+
+    @Test
+    public void unchangedResourcesAreNotProcessed() {
+        Independent processor = new Independent();
+
+        assertThat(statuses(new ProcessorScheduler(false, processor).run()), contains(ProcessorScheduler.Status.SUCCESS));
+        assertThat(statuses(new ProcessorScheduler(false, processor).run()), contains(ProcessorScheduler.Status.UNCHANGED));
+        assertThat(statuses(new ProcessorScheduler(true, processor).run()), contains(ProcessorScheduler.Status.SUCCESS));
+        assertThat(processed, contains("Independent", "Independent"));
+        assertThat(closed, contains("Independent", "Independent", "Independent"));
+    }
+
+    @Test
+    public void dependentsWaitForEveryShard() {
+        Set<Integer> completed = ConcurrentHashMap.newKeySet();
+        completed.add(1); // Completed By Another Instance
+        Coordinator coordinator = new ShardedCoordinator(new Shard(0, 2), completed);
+        ConcurrentList<ProcessorScheduler.Result> results = new ProcessorScheduler(coordinator, true, new ShardedDependency(), new DependsOnSharded()).run();
+
+        assertThat(statuses(results), contains(ProcessorScheduler.Status.SUCCESS, ProcessorScheduler.Status.SUCCESS));
+        assertThat(processed, contains("ShardedDependency", "DependsOnSharded"));
+    }
+
+    @Test
+    public void incompleteShardFailsDependents() {
+        Coordinator coordinator = new ShardedCoordinator(new Shard(0, 2));
+        ConcurrentList<ProcessorScheduler.Result> results = new ProcessorScheduler(coordinator, true, new ShardedDependency(), new DependsOnSharded()).run();
+
+        assertThat(statuses(results), contains(ProcessorScheduler.Status.SUCCESS, ProcessorScheduler.Status.FAILED));
+        assertThat(results.get(1).getException(), is(instanceOf(IllegalStateException.class)));
+        assertThat(processed, contains("ShardedDependency"));
+    }
+
+    @Test
+    public void missingDependencyFails() {
+        ProcessorScheduler scheduler = new ProcessorScheduler(true, new Dependent());
+
+        assertThrows(IllegalStateException.class, scheduler::run);
+        assertThat(processed.isEmpty(), is(true));
+        assertThat(closed, contains("Dependent"));
+    }
+
+    @Test
+    public void cyclicDependencyFails() {
+        ProcessorScheduler scheduler = new ProcessorScheduler(true, new CycleStart(), new CycleEnd());
+
+        assertThrows(IllegalStateException.class, scheduler::run);
+        assertThat(processed.isEmpty(), is(true));
+    }
+
+    private static @NotNull List<ProcessorScheduler.Status> statuses(@NotNull ConcurrentList<ProcessorScheduler.Result> results) {
+        return results.stream().map(ProcessorScheduler.Result::getStatus).toList();
+    }
+
+    /**
+     * Records every processed resource, its fingerprint is unique to the instance so a previous test run never leaves it unchanged.
+     */
+    private static abstract class RecordingProcessor extends Processor<String> {
+
+        private final long resourceFingerprint = System.nanoTime();
+
+        RecordingProcessor() {
+            super("resource");
+        }
+
+        @Override
+        protected long getResourceFingerprint() {
+            return this.resourceFingerprint;
+        }
+
+        @Override
+        public void process() {
+            processed.add(this.getClass().getSimpleName());
+        }
+
+        @Override
+        public void close() {
+            closed.add(this.getClass().getSimpleName());
+        }
+
+    }
+
+    private static final class Dependency extends RecordingProcessor { }
+
+    private static final class Dependent extends RecordingProcessor {
+
+        @Override
+        public @NotNull Set<Class<? extends Processor<?>>> getDependencies() {
+            return Set.of(Dependency.class);
+        }
+
+    }
+
+    private static final class Independent extends RecordingProcessor { }
+
+    private static final class Failing extends RecordingProcessor {
+
+        @Override
+        public void process() {
+            throw new IllegalStateException("Failed");
+        }
+
+    }
+
+    private static final class DependsOnFailing extends RecordingProcessor {
+
+        @Override
+        public @NotNull Set<Class<? extends Processor<?>>> getDependencies() {
+            return Set.of(Failing.class);
+        }
+
+    }
+
+    private static final class ShardedDependency extends RecordingProcessor {
+
+        @Override
+        public boolean isShardable() {
+            return true;
+        }
+
+    }
+
+    private static final class DependsOnSharded extends RecordingProcessor {
+
+        @Override
+        public @NotNull Set<Class<? extends Processor<?>>> getDependencies() {
+            return Set.of(ShardedDependency.class);
+        }
+
+    }
+
+    private static final class CycleStart extends RecordingProcessor {
+
+        @Override
+        public @NotNull Set<Class<? extends Processor<?>>> getDependencies() {
+            return Set.of(CycleEnd.class);
+        }
+
+    }
+
+    private static final class CycleEnd extends RecordingProcessor {
+
+        @Override
+        public @NotNull Set<Class<? extends Processor<?>>> getDependencies() {
+            return Set.of(CycleStart.class);
+        }
+
+    }
+
+    /**
+     * Grants every lease except one, held by another instance.
+     */
+    private record HeldCoordinator(@NotNull String held) implements Coordinator {
+
+        @Override
+        public Lease tryAcquire(@NotNull String name) {
+            return name.equals(this.held()) ? null : LOCAL.tryAcquire(name);
+        }
+
+        @Override
+        public void release(@NotNull Lease lease) { }
+
+        @Override
+        public @NotNull Shard getShard() {
+            return Shard.ALL;
+        }
+
+    }
+
+}
@@ -0,0 +1,125 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
+import dev.sbs.updater.journal.ChangeJournal;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import dev.sbs.updater.processor.cache.IndexedCache;
+import dev.sbs.updater.processor.fingerprint.FingerprintStore;
+import org.apache.logging.log4j.LogManager;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class RetirerTest {
+
+    private final ChangeJournal.Batch changes = new ChangeJournal.Batch();
+    private final WriteBehind writeBehind = new WriteBehind(UpdaterMetrics.of("RetirerTest"));
+    private final Retirer retirer = new Retirer("RetirerTest", LogManager.getLogger(RetirerTest.class), FingerprintStore.load("RetirerTest"), this.changes, this.writeBehind);
+    private final Set<Long> retired = new HashSet<>();
+    private WriteBehind.Target target;
+    private IndexedCache<RaritySqlModel> cache;
+    private Sweep<RaritySqlModel> sweep;
+
+    @BeforeEach
+    public void createRows() {
+        List<RaritySqlModel> rows = new ArrayList<>();
+        ModelFields<RaritySqlModel> fields = ModelFields.of(RaritySqlModel.class);
+
+        for (int i = 0; i < 10; i++) {
+            RaritySqlModel rarity = new RaritySqlModel();
+            rarity.setKey("RARITY_" + i);
+            fields.set(fields.indexOf("id"), rarity, (long) i);
+            rows.add(rarity);
+        }
+
+        this.cache = new IndexedCache<>(rows);
+        this.sweep = new Sweep<>(RaritySqlModel.class, this.cache, RaritySqlModel::getKey);
+        this.target = WriteBehind.getTarget();
+        WriteBehind.setTarget(new WriteBehind.Target() {
+
+            @Override
+            public void write(@NotNull List<WriteBehind.Table> tables, int batchSize, int transactionSize) { }
+
+            @Override
+            public @NotNull Set<Long> getRetired(@NotNull Class<?> modelClass) {
+                return RetirerTest.this.retired;
+            }
+
+        });
+    }
+
+    @AfterEach
+    public void restoreTarget() {
+        WriteBehind.setTarget(this.target);
+    }
+
+    @Test
+    public void unmarkedRowsAreRetiredAndKept() {
+        this.mark(9);
+        List<RaritySqlModel> retired = this.retirer.queue(this.sweep, rarity -> true);
+
+        assertThat(retired.stream().map(RaritySqlModel::getKey).toList(), contains("RARITY_9"));
+        assertThat(this.cache.getValues().size(), is(10));
+        assertThat(this.writeBehind.drain().get(0).retired(), contains((SqlModel) retired.get(0)));
+        assertThat(this.changes.size(), is(1));
+    }
+
+    @Test
+    public void retiredRowsAreNotRetiredAgain() {
+        this.retired.add(9L);
+        this.mark(9);
+
+        assertThat(this.retirer.queue(this.sweep, rarity -> true), is(empty()));
+        assertThat(this.writeBehind.size(), is(0));
+    }
+
+    @Test
+    public void markedRetiredRowsAreRestored() {
+        this.retired.add(0L);
+        this.mark(10);
+
+        assertThat(this.retirer.queue(this.sweep, rarity -> true), is(empty()));
+        assertThat(this.writeBehind.drain().get(0).restored().stream().map(row -> ((RaritySqlModel) row).getKey()).toList(), contains("RARITY_0"));
+        assertThat(this.changes.size(), is(1));
+    }
+
+    @Test
+    public void filteredRowsAreKept() {
+        this.mark(9);
+
+        assertThat(this.retirer.queue(this.sweep, rarity -> !rarity.getKey().equals("RARITY_9")), is(empty()));
+        assertThat(this.writeBehind.size(), is(0));
+    }
+
+    @Test
+    public void truncatedResourceRetiresNothing() {
+        this.mark(7);
+
+        assertThat(this.retirer.queue(this.sweep, rarity -> true), is(empty()));
+        assertThat(this.writeBehind.size(), is(0));
+        assertThat(this.changes.size(), is(0));
+    }
+
+    /**
+     * Marks the first rows as seen.
+     *
+     * @param seen the number of seen rows
+     */
+    private void mark(int seen) {
+        for (int i = 0; i < seen; i++)
+            this.sweep.mark("RARITY_" + i);
+    }
+
+}
@@ -0,0 +1,124 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.updater.coordination.Shard;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class RunStateTest {
+
+    private static final Checkpoint.Key KEY = new Checkpoint.Key(7L, Shard.ALL, 500);
+    private static final Checkpoint.Key OTHER_KEY = new Checkpoint.Key(8L, Shard.ALL, 500);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void runResumesAfterCommittedChunks() {
+        RunState failed = this.load();
+        failed.start(KEY, false);
+        failed.commit();
+        failed.checkpoint(failed.commit());
+
+        RunState resumed = this.load();
+        resumed.start(KEY, false);
+
+        assertThat(resumed.getResumedChunks(), is(2));
+        assertThat(resumed.isCommitted(1), is(true));
+        assertThat(resumed.isCommitted(2), is(false));
+        assertThat(resumed.commit(), is(3));
+    }
+
+    @Test
+    public void otherResourceStartsOver() {
+        RunState failed = this.load();
+        failed.start(KEY, false);
+        failed.checkpoint(failed.commit());
+
+        RunState other = this.load();
+        other.start(OTHER_KEY, false);
+
+        assertThat(other.getResumedChunks(), is(0));
+        assertThat(other.isCommitted(0), is(false));
+    }
+
+    @Test
+    public void restartClearsCheckpoint() {
+        RunState failed = this.load();
+        failed.start(KEY, false);
+        failed.checkpoint(failed.commit());
+
+        RunState restarted = this.load();
+        restarted.start(KEY, true);
+
+        assertThat(restarted.getResumedChunks(), is(0));
+        assertThat(Files.exists(this.directory.resolve("test.checkpoint")), is(false));
+    }
+
+    @Test
+    public void uncheckpointedRunStartsOver() {
+        RunState failed = this.load();
+        failed.start(null, false);
+        failed.checkpoint(failed.commit());
+
+        RunState next = this.load();
+        next.start(null, false);
+
+        assertThat(next.getResumedChunks(), is(0));
+        assertThat(Files.exists(this.directory.resolve("test.checkpoint")), is(false));
+    }
+
+    @Test
+    public void retriedEntriesHoldBackCompletion() {
+        RunState state = this.load();
+        state.start(KEY, false);
+        state.checkpoint(state.commit());
+        state.getDeadLetters().add("FIRST", new IllegalStateException("Failed"));
+        state.stop(UpdaterMetrics.of("RunStateTest"));
+
+        assertThat(state.complete(), is(false));
+        assertThat(Files.exists(this.directory.resolve("test.checkpoint")), is(false));
+        assertThat(Files.exists(this.directory.resolve("test.deadletters")), is(true));
+
+        RunState next = this.load();
+        next.start(KEY, false);
+        next.stop(UpdaterMetrics.of("RunStateTest"));
+
+        assertThat(next.complete(), is(true));
+        assertThat(Files.exists(this.directory.resolve("test.deadletters")), is(false));
+    }
+
+    @Test
+    public void resumedRunRetriesCarriedOverEntries() {
+        RunState failed = this.load();
+        failed.start(KEY, false);
+        failed.checkpoint(failed.commit());
+        failed.getDeadLetters().add("FIRST", new IllegalStateException("Failed"));
+        failed.stop(UpdaterMetrics.of("RunStateTest"));
+
+        RunState resumed = this.load();
+        resumed.start(KEY, false);
+        resumed.stop(UpdaterMetrics.of("RunStateTest"));
+
+        assertThat(resumed.isResumed(), is(true));
+        assertThat(resumed.complete(), is(false));
+        assertThat(Files.exists(this.directory.resolve("test.deadletters")), is(true));
+    }
+
+    private RunState load() {
+        return new RunState(
+            "RunStateTest",
+            LogManager.getLogger(RunStateTest.class),
+            Checkpoint.load(this.directory.resolve("test.checkpoint")),
+            DeadLetters.load(this.directory.resolve("test.deadletters"))
+        );
+    }
+
+}
@@ -0,0 +1,213 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.MultiIdentifierLoadAccess;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.jdbc.Work;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SessionWriterTest {
+
+    @Test
+    public void insertsArePersistedInBatches() {
+        RecordingSession session = new RecordingSession(-1);
+        SessionWriter writer = new SessionWriter(session.proxy(), 2, 100);
+        List<RaritySqlModel> rarities = rarities(5);
+        writer.write(table(rarities, List.of(), List.of(), List.of()));
+        writer.commit();
+
+        assertThat(session.count("persist"), is(5));
+        assertThat(session.count("flush"), is(3));
+        assertThat(session.count("commit"), is(1));
+        assertThat(rarities.stream().map(SqlModel::getId).toList(), everyItem(is(notNullValue())));
+    }
+
+    @Test
+    public void insertsWithIdentifiersAreMerged() {
+        RecordingSession session = new RecordingSession(-1);
+        SessionWriter writer = new SessionWriter(session.proxy(), 2, 100);
+        RaritySqlModel committed = rarities(1).get(0);
+        setId(committed, 7L);
+        writer.write(table(List.of(committed), List.of(), List.of(), List.of()));
+
+        assertThat(session.count("persist"), is(0));
+        assertThat(session.count("merge"), is(1));
+        assertThat(session.count("multiLoad"), is(1));
+    }
+
+    @Test
+    public void rollbackClearsIdentifiersOfInsertedRows() {
+        RecordingSession session = new RecordingSession(2);
+        SessionWriter writer = new SessionWriter(session.proxy(), 2, 100);
+        List<RaritySqlModel> rarities = rarities(4);
+
+        assertThrows(IllegalStateException.class, () -> writer.write(table(rarities, List.of(), List.of(), List.of())));
+        writer.rollback();
+
+        assertThat(session.count("rollback"), is(1));
+        assertThat(rarities.stream().map(SqlModel::getId).toList(), everyItem(is(nullValue())));
+    }
+
+    @Test
+    public void committedRowsKeepTheirIdentifiers() {
+        RecordingSession session = new RecordingSession(2);
+        SessionWriter writer = new SessionWriter(session.proxy(), 2, 2);
+        List<RaritySqlModel> rarities = rarities(4);
+
+        assertThrows(IllegalStateException.class, () -> writer.write(table(rarities, List.of(), List.of(), List.of())));
+        writer.rollback();
+
+        assertThat(session.count("commit"), is(1));
+        assertThat(rarities.stream().map(SqlModel::getId).map(id -> id != null).toList(), contains(true, true, false, false));
+    }
+
+    @Test
+    public void retiredRowsAreRecordedInBatches() {
+        RecordingSession session = new RecordingSession(-1);
+        SessionWriter writer = new SessionWriter(session.proxy(), 2, 100);
+        List<RaritySqlModel> rarities = rarities(4);
+        rarities.subList(0, 3).forEach(rarity -> setId(rarity, (long) rarity.getOrdinal() + 1)); // Last Never Written
+        writer.write(table(List.of(), List.of(), rarities, List.of()));
+
+        assertThat(session.count("doWork"), is(2));
+        assertThat(session.count("addBatch"), is(3));
+        assertThat(session.count("executeBatch"), is(2));
+        assertThat(session.count("remove"), is(0));
+        assertThat(session.count("merge"), is(0));
+    }
+
+    @Test
+    public void restoredRowsAreRecordedInBatches() {
+        RecordingSession session = new RecordingSession(-1);
+        SessionWriter writer = new SessionWriter(session.proxy(), 2, 100);
+        List<RaritySqlModel> rarities = rarities(2);
+        rarities.forEach(rarity -> setId(rarity, (long) rarity.getOrdinal() + 1));
+        writer.write(table(List.of(), List.of(), List.of(), rarities));
+
+        assertThat(session.count("addBatch"), is(2));
+        assertThat(session.count("executeBatch"), is(1));
+    }
+
+    private static @NotNull WriteBehind.Table table(@NotNull List<? extends SqlModel> inserts, @NotNull List<? extends SqlModel> updates, @NotNull List<? extends SqlModel> retired, @NotNull List<? extends SqlModel> restored) {
+        return new WriteBehind.Table(
+            RaritySqlModel.class,
+            new ArrayList<>(inserts),
+            updates.stream().map(model -> new WriteBehind.Update(model, Set.of("name"))).toList(),
+            new ArrayList<>(retired),
+            new ArrayList<>(restored)
+        );
+    }
+
+    private static @NotNull List<RaritySqlModel> rarities(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(ordinal -> {
+                RaritySqlModel rarity = new RaritySqlModel();
+                rarity.setKey("RARITY_" + ordinal);
+                rarity.setOrdinal(ordinal);
+                return rarity;
+            })
+            .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void setId(@NotNull SqlModel model, Long id) {
+        ModelFields<Object> fields = (ModelFields<Object>) ModelFields.of(model.getClass());
+        fields.set(fields.indexOf("id"), model, id);
+    }
+
+    /**
+     * Session recording every call, assigning identifiers when persisting and failing a given flush.
+     */
+    private static final class RecordingSession {
+
+        private final List<String> calls = new ArrayList<>();
+        private final int failingFlush;
+        private long nextId = 1;
+
+        private RecordingSession(int failingFlush) {
+            this.failingFlush = failingFlush;
+        }
+
+        private int count(@NotNull String call) {
+            return (int) this.calls.stream().filter(call::equals).count();
+        }
+
+        private @NotNull Session proxy() {
+            return proxy(Session.class, (method, args) -> switch (method) {
+                case "beginTransaction" -> proxy(Transaction.class, (transactionMethod, transactionArgs) -> switch (transactionMethod) {
+                    case "isActive" -> true;
+                    default -> this.record(transactionMethod, null);
+                });
+                case "persist" -> {
+                    setId((SqlModel) args[0], this.nextId++);
+                    yield this.record(method, null);
+                }
+                case "merge" -> this.record(method, args[0]);
+                case "flush" -> {
+                    if (this.count("flush") + 1 == this.failingFlush)
+                        throw new IllegalStateException("Constraint violated");
+
+                    yield this.record(method, null);
+                }
+                case "doWork" -> {
+                    ((Work) args[0]).execute(proxy(Connection.class, (connectionMethod, connectionArgs) -> proxy(PreparedStatement.class, (statementMethod, statementArgs) -> this.record(statementMethod, null))));
+                    yield this.record(method, null);
+                }
+                case "byMultipleIds" -> proxy(MultiIdentifierLoadAccess.class, (loadMethod, loadArgs) -> this.record(loadMethod, new ArrayList<>((List<?>) loadArgs[0])));
+                case "getSessionFactory" -> proxy(SessionFactory.class, (factoryMethod, factoryArgs) -> proxy(Metamodel.class, (metamodelMethod, metamodelArgs) -> proxy(EntityType.class, (entityMethod, entityArgs) -> Set.of(
+                    proxy(SingularAttribute.class, (attributeMethod, attributeArgs) -> switch (attributeMethod) {
+                        case "isId" -> true;
+                        case "isVersion" -> false;
+                        default -> "id";
+                    })
+                ))));
+                default -> this.record(method, null);
+            });
+        }
+
+        private Object record(@NotNull String call, Object result) {
+            this.calls.add(call);
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> @NotNull T proxy(@NotNull Class<T> type, @NotNull Handler handler) {
+            return (T) Proxy.newProxyInstance(
+                SessionWriterTest.class.getClassLoader(),
+                new Class<?>[] { type },
+                (proxy, method, args) -> handler.invoke(method.getName(), args)
+            );
+        }
+
+        private interface Handler {
+
+            Object invoke(@NotNull String method, Object[] args) throws Exception;
+
+        }
+
+    }
+
+}
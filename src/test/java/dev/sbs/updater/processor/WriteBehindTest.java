@@ -0,0 +1,109 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.api.data.model.skyblock.items.ItemSqlModel;
+import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WriteBehindTest {
+
+    private final WriteBehind writeBehind = new WriteBehind(UpdaterMetrics.of("WriteBehindTest"));
+    private WriteBehind.Target target;
+
+    @BeforeEach
+    public void replaceTarget() {
+        this.target = WriteBehind.getTarget();
+    }
+
+    @AfterEach
+    public void restoreTarget() {
+        WriteBehind.setTarget(this.target);
+    }
+
+    @Test
+    public void tablesAreDrainedInFlushOrder() {
+        this.writeBehind.save(new ItemSqlModel());
+        this.writeBehind.save(rarity("COMMON"));
+
+        assertThat(this.writeBehind.drain().stream().map(WriteBehind.Table::modelClass).toList(), contains(RaritySqlModel.class, ItemSqlModel.class));
+        assertThat(this.writeBehind.size(), is(0));
+    }
+
+    @Test
+    public void queuedUpdatesWriteTheUnionOfTheirFields() {
+        RaritySqlModel partial = rarity("COMMON");
+        RaritySqlModel full = rarity("RARE");
+        this.writeBehind.update(partial, Set.of("name"));
+        this.writeBehind.update(partial, Set.of("ordinal"));
+        this.writeBehind.update(full, Set.of("name"));
+        this.writeBehind.update(full);
+
+        List<WriteBehind.Update> updates = this.writeBehind.drain().get(0).updates();
+
+        assertThat(updates.size(), is(2));
+        assertThat(updates.get(0).fields(), containsInAnyOrder("name", "ordinal"));
+        assertThat(updates.get(1).fields(), is(nullValue()));
+    }
+
+    @Test
+    public void failedWriteQueuesRowsAgain() {
+        RaritySqlModel drained = rarity("COMMON");
+        RaritySqlModel later = rarity("RARE");
+        this.writeBehind.save(drained);
+        List<WriteBehind.Table> tables = this.writeBehind.drain();
+        this.writeBehind.save(later);
+        WriteBehind.setTarget((written, batchSize, transactionSize) -> { throw new IllegalStateException("Rolled back"); });
+
+        assertThrows(IllegalStateException.class, () -> this.writeBehind.write(tables));
+        assertThat(this.writeBehind.size(), is(2));
+        assertThat(this.writeBehind.drain().get(0).inserts(), contains((SqlModel) drained, later)); // Ahead Of Later Rows
+    }
+
+    @Test
+    public void rowsRetiredSinceDrainedAreOnlyRetired() {
+        RaritySqlModel rarity = rarity("COMMON");
+        this.writeBehind.update(rarity, Set.of("name"));
+        List<WriteBehind.Table> tables = this.writeBehind.drain();
+        this.writeBehind.retire(rarity);
+        WriteBehind.setTarget((written, batchSize, transactionSize) -> { throw new IllegalStateException("Rolled back"); });
+
+        assertThrows(IllegalStateException.class, () -> this.writeBehind.write(tables));
+
+        WriteBehind.Table table = this.writeBehind.drain().get(0);
+        assertThat(table.updates(), is(empty()));
+        assertThat(table.retired(), contains((SqlModel) rarity));
+    }
+
+    @Test
+    public void writtenRowsAreNotQueuedAgain() {
+        List<SqlModel> written = new java.util.ArrayList<>();
+        WriteBehind.setTarget((tables, batchSize, transactionSize) -> tables.forEach(table -> written.addAll(table.rows())));
+        RaritySqlModel rarity = rarity("COMMON");
+        this.writeBehind.save(rarity);
+        this.writeBehind.flush();
+
+        assertThat(written, contains((SqlModel) rarity));
+        assertThat(this.writeBehind.size(), is(0));
+    }
+
+    private static RaritySqlModel rarity(String key) {
+        RaritySqlModel rarity = new RaritySqlModel();
+        rarity.setKey(key);
+        return rarity;
+    }
+
+}
@@ -0,0 +1,111 @@
+package dev.sbs.updater.processor;
+
+import dev.sbs.updater.metrics.UpdaterMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Timeout(30)
+public class WritePipelineTest {
+
+    @Test
+    public void writesRunInOrder() {
+        List<Integer> written = new CopyOnWriteArrayList<>();
+
+        try (WritePipeline pipeline = pipeline()) {
+            for (int i = 0; i < 10; i++) {
+                int write = i;
+                pipeline.submit(() -> written.add(write), List.of());
+            }
+
+            pipeline.await();
+        }
+
+        assertThat(written, contains(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+    }
+
+    @Test
+    public void failedWriteDiscardsLaterWrites() {
+        List<Integer> written = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (WritePipeline pipeline = pipeline()) {
+            pipeline.submit(() -> {
+                await(release);
+                throw new IllegalStateException("Failed");
+            }, List.of());
+            pipeline.submit(() -> written.add(1), List.of());
+            release.countDown();
+            WritePipeline.WriteFailedException exception = assertThrows(WritePipeline.WriteFailedException.class, pipeline::await);
+
+            assertThat(exception.getCause().getMessage(), is("Failed"));
+            assertThrows(WritePipeline.WriteFailedException.class, () -> pipeline.submit(() -> written.add(2), List.of()));
+        }
+
+        assertThat(written.isEmpty(), is(true));
+    }
+
+    @Test
+    public void errorIsThrownInsteadOfHanging() {
+        Object row = new Object();
+
+        try (WritePipeline pipeline = pipeline()) {
+            pipeline.submit(() -> { throw new StackOverflowError(); }, List.of(row));
+            WritePipeline.WriteFailedException exception = assertThrows(WritePipeline.WriteFailedException.class, pipeline::await);
+
+            assertThat(exception.getCause(), is(instanceOf(StackOverflowError.class)));
+            assertThrows(WritePipeline.WriteFailedException.class, () -> pipeline.awaitWritten(row));
+        }
+    }
+
+    @Test
+    public void rowsAreHandedBackOnceWritten() throws InterruptedException {
+        Object row = new Object();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> events = new CopyOnWriteArrayList<>();
+
+        try (WritePipeline pipeline = pipeline()) {
+            pipeline.awaitWritten(row); // Never Submitted
+
+            pipeline.submit(() -> {
+                started.countDown();
+                await(release);
+                events.add("written");
+            }, List.of(row));
+
+            started.await();
+            Thread releaser = new Thread(() -> {
+                events.add("released");
+                release.countDown();
+            });
+            releaser.start();
+            pipeline.awaitWritten(row);
+            events.add("modified");
+        }
+
+        assertThat(events, contains("released", "written", "modified"));
+    }
+
+    private static WritePipeline pipeline() {
+        return new WritePipeline("WritePipelineTest", UpdaterMetrics.of("WritePipelineTest"), 2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+}
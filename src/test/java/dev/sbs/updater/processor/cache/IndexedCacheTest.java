@@ -0,0 +1,80 @@
+package dev.sbs.updater.processor.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class IndexedCacheTest {
+
+    @Test
+    public void firstValueWins() {
+        Row first = new Row("A", 1);
+        Row second = new Row("A", 2);
+        IndexedCache<Row> cache = new IndexedCache<>(List.of(first, second));
+        IndexedCache.Index<String, Row> byKey = cache.index("key", Row::key);
+
+        assertThat(byKey.get("A"), is(sameInstance(first)));
+        assertThat(cache.add(new Row("A", 3)), is(new Row("A", 3)));
+        assertThat(byKey.get("A"), is(sameInstance(first)));
+    }
+
+    @Test
+    public void addedValuesAreIndexed() {
+        IndexedCache<Row> cache = new IndexedCache<>(List.of());
+        IndexedCache.Index<String, Row> byKey = cache.index("key", Row::key);
+        Row row = cache.add(new Row("B", 1));
+
+        assertThat(byKey.contains("B"), is(true));
+        assertThat(byKey.get("B"), is(sameInstance(row)));
+        assertThat(byKey.get(null), is(nullValue()));
+        assertThat(byKey.contains(null), is(false));
+    }
+
+    @Test
+    public void indexesAreSharedByName() {
+        IndexedCache<Row> cache = new IndexedCache<>(List.of(new Row("A", 1)));
+
+        assertThat(cache.index("key", Row::key), is(sameInstance(cache.index("key", row -> "ignored"))));
+    }
+
+    @Test
+    public void nullKeysAreNotIndexed() {
+        IndexedCache<Row> cache = new IndexedCache<>(List.of(new Row(null, 1)));
+        IndexedCache.Index<String, Row> byKey = cache.index("key", Row::key);
+
+        assertThat(byKey.contains(null), is(false));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void resetRebuildsIndexes() {
+        IndexedCache<Row> cache = new IndexedCache<>(List.of(new Row("A", 1)));
+        IndexedCache.Index<String, Row> byKey = cache.index("key", Row::key);
+        Row replacement = new Row("B", 2);
+        cache.reset(List.of(replacement));
+
+        assertThat(byKey.contains("A"), is(false));
+        assertThat(byKey.get("B"), is(sameInstance(replacement)));
+    }
+
+    @Test
+    public void removeAllComparesByIdentity() {
+        Row first = new Row("A", 1);
+        Row equal = new Row("A", 1);
+        IndexedCache<Row> cache = new IndexedCache<>(List.of(first, equal));
+        IndexedCache.Index<String, Row> byKey = cache.index("key", Row::key);
+        cache.removeAll(List.of(first));
+
+        assertThat(cache.getValues(), contains(sameInstance(equal)));
+        assertThat(byKey.get("A"), is(sameInstance(equal)));
+    }
+
+    private record Row(String key, int value) { }
+
+}
@@ -0,0 +1,71 @@
+package dev.sbs.updater.processor.cache;
+
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.api.data.model.skyblock.accessory_data.accessories.AccessorySqlModel;
+import dev.sbs.api.data.model.skyblock.items.ItemSqlModel;
+import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
+import dev.sbs.updater.processor.ModelFields;
+import dev.sbs.updater.processor.stat.StatBlock;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ModelCacheTest {
+
+    @Test
+    public void registeredRowsShareStatBlocks() {
+        Map<String, Double> effects = new LinkedHashMap<>();
+        effects.put("STRENGTH", 10.0);
+        AccessorySqlModel first = new AccessorySqlModel();
+        first.setEffects(effects);
+        AccessorySqlModel second = new AccessorySqlModel();
+        second.setEffects(new LinkedHashMap<>(effects));
+        ModelCache.register(AccessorySqlModel.class, List.of(first, second));
+
+        assertThat(first.getEffects(), is(instanceOf(StatBlock.class)));
+        assertThat(second.getEffects(), is(sameInstance(first.getEffects())));
+    }
+
+    @Test
+    public void refreshedRowsAreRelinkedToCachedRows() {
+        RaritySqlModel rarity = withId(new RaritySqlModel(), 1L);
+        ItemSqlModel item = item(1L, "FIRST", rarity);
+        ModelCache.register(RaritySqlModel.class, List.of(rarity));
+        ModelCache.register(ItemSqlModel.class, List.of(item));
+        IndexedCache.Index<String, ItemSqlModel> itemsById = ModelCache.of(ItemSqlModel.class).index("item_id", ItemSqlModel::getItemId);
+
+        ItemSqlModel renamed = item(1L, "FIRST", withId(new RaritySqlModel(), 1L)); // Loaded By Another Session
+        renamed.setName("Renamed");
+        ItemSqlModel added = item(2L, "SECOND", withId(new RaritySqlModel(), 1L));
+        ModelCache.refresh(Map.of(ItemSqlModel.class, List.of(renamed, added)));
+
+        assertThat(itemsById.get("FIRST"), is(sameInstance(item)));
+        assertThat(item.getName(), is("Renamed"));
+        assertThat(item.getRarity(), is(sameInstance(rarity)));
+        assertThat(itemsById.get("SECOND"), is(sameInstance(added)));
+        assertThat(added.getRarity(), is(sameInstance(rarity)));
+    }
+
+    private static @NotNull ItemSqlModel item(long id, @NotNull String itemId, @NotNull RaritySqlModel rarity) {
+        ItemSqlModel item = withId(new ItemSqlModel(), id);
+        item.setItemId(itemId);
+        item.setRarity(rarity);
+        return item;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends SqlModel> @NotNull T withId(@NotNull T model, long id) {
+        ModelFields<T> fields = ModelFields.of((Class<T>) model.getClass());
+        fields.set(fields.indexOf("id"), model, id);
+        return model;
+    }
+
+}
@@ -0,0 +1,97 @@
+package dev.sbs.updater.processor.fingerprint;
+
+import dev.sbs.updater.processor.Processor;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class FingerprintStoreTest {
+
+    @Test
+    public void fingerprintsMatchOnceSaved() {
+        String name = name();
+        FingerprintStore store = FingerprintStore.load(name);
+        store.put("FIRST", 1L);
+
+        assertThat(store.matches("FIRST", 1L), is(false));
+
+        store.save();
+
+        assertThat(store.matches("FIRST", 1L), is(true));
+        assertThat(store.matches("FIRST", 2L), is(false));
+        assertThat(FingerprintStore.load(name).matches("FIRST", 1L), is(true));
+    }
+
+    @Test
+    public void discardedFingerprintsAreNotSaved() {
+        FingerprintStore store = FingerprintStore.load(name());
+        store.put("FIRST", 1L);
+        store.put("SECOND", 2L);
+        store.discard("FIRST");
+        store.save();
+
+        assertThat(store.matches("FIRST", 1L), is(false));
+        assertThat(store.matches("SECOND", 2L), is(true));
+    }
+
+    @Test
+    public void stagedFingerprintsAreSavedOnceWritten() {
+        String name = name();
+        FingerprintStore store = FingerprintStore.load(name);
+        store.put("FIRST", 1L);
+        Map<String, Long> staged = store.stage();
+        store.put("SECOND", 2L);
+        store.save(staged);
+
+        assertThat(store.matches("FIRST", 1L), is(true));
+        assertThat(store.matches("SECOND", 2L), is(false));
+        assertThat(FingerprintStore.load(name).matches("FIRST", 1L), is(true));
+    }
+
+    @Test
+    public void forgottenAndClearedFingerprintsNoLongerMatch() {
+        String name = name();
+        FingerprintStore store = FingerprintStore.load(name);
+        store.put("FIRST", 1L);
+        store.put("SECOND", 2L);
+        store.save();
+        store.forget(List.of("FIRST"));
+
+        assertThat(store.matches("FIRST", 1L), is(false));
+        assertThat(FingerprintStore.load(name).matches("FIRST", 1L), is(false));
+        assertThat(FingerprintStore.load(name).matches("SECOND", 2L), is(true));
+
+        store.clear();
+
+        assertThat(store.matches("SECOND", 2L), is(false));
+    }
+
+    @Test
+    public void outdatedStoreIsDiscarded() throws IOException {
+        String name = name();
+        Path path = Processor.DATA_DIRECTORY.resolve(name + ".fingerprints");
+        Files.createDirectories(path.getParent());
+
+        try (DataOutputStream outputStream = new DataOutputStream(Files.newOutputStream(path))) {
+            outputStream.writeInt(1);
+            outputStream.writeInt(1);
+            outputStream.writeUTF("FIRST");
+            outputStream.writeLong(1L);
+        }
+
+        assertThat(FingerprintStore.load(name).matches("FIRST", 1L), is(false));
+    }
+
+    private static String name() {
+        return "FingerprintStoreTest-" + System.nanoTime();
+    }
+
+}
@@ -0,0 +1,79 @@
+package dev.sbs.updater.processor.fingerprint;
+
+import com.google.gson.annotations.SerializedName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class FingerprintTest {
+
+    @Test
+    public void equalEntriesMatch() {
+        assertThat(Fingerprint.of(entry("SWORD", 5)), is(Fingerprint.of(entry("SWORD", 5))));
+        assertThat(Fingerprint.of(List.of(1, 2)), is(Fingerprint.of(new int[] { 1, 2 })));
+        assertThat(Fingerprint.of(7), is(Fingerprint.of(7L)));
+    }
+
+    @Test
+    public void changedEntriesDiffer() {
+        assertThat(Fingerprint.of(entry("SWORD", 5)), is(not(Fingerprint.of(entry("SWORD", 6)))));
+        assertThat(Fingerprint.of(entry("SWORD", 5)), is(not(Fingerprint.of(entry("BOW", 5)))));
+        assertThat(Fingerprint.of(List.of("ab", "c")), is(not(Fingerprint.of(List.of("a", "bc")))));
+        assertThat(Fingerprint.of(List.of(1, 2)), is(not(Fingerprint.of(List.of(2, 1)))));
+        assertThat(Fingerprint.of(""), is(not(Fingerprint.of(null))));
+        assertThat(Fingerprint.of(Arrays.asList((Object) null)), is(not(Fingerprint.of(List.of()))));
+    }
+
+    @Test
+    public void unwrittenFieldsAreIgnored() {
+        Entry cached = entry("SWORD", 5);
+        cached.cached = "cached";
+        Map<String, Object> costs = new HashMap<>();
+        costs.put("coins", 5);
+        costs.put("absent", null);
+
+        assertThat(Fingerprint.of(cached), is(Fingerprint.of(entry("SWORD", 5))));
+        assertThat(Fingerprint.of(costs), is(Fingerprint.of(Map.of("coins", 5))));
+        assertThat(Fingerprint.of(entry(null, 5)), is(not(Fingerprint.of(entry("", 5)))));
+    }
+
+    @Test
+    public void enumsUseTheirJsonName() {
+        assertThat(Fingerprint.of(Tier.ONE), is(Fingerprint.of("first")));
+        assertThat(Fingerprint.of(Tier.TWO), is(Fingerprint.of("TWO")));
+    }
+
+    private static Entry entry(String type, int level) {
+        Entry entry = new Entry();
+        entry.type = type;
+        entry.level = level;
+        entry.tier = Tier.ONE;
+        return entry;
+    }
+
+    private enum Tier {
+
+        @SerializedName("first")
+        ONE,
+        TWO
+
+    }
+
+    private static final class Entry {
+
+        private String type;
+        @SerializedName("minimum_level")
+        private int level;
+        private Tier tier;
+        private transient String cached;
+
+    }
+
+}
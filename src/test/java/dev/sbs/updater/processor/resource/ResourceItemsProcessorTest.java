@@ -0,0 +1,186 @@
+package dev.sbs.updater.processor.resource;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import dev.sbs.api.SimplifiedApi;
+import dev.sbs.api.client.impl.hypixel.response.resource.ResourceItemsResponse;
+import dev.sbs.api.data.model.SqlModel;
+import dev.sbs.api.data.model.skyblock.accessory_data.accessories.AccessorySqlModel;
+import dev.sbs.api.data.model.skyblock.item_types.ItemTypeSqlModel;
+import dev.sbs.api.data.model.skyblock.items.ItemSqlModel;
+import dev.sbs.api.data.model.skyblock.minion_data.minion_tiers.MinionTierSqlModel;
+import dev.sbs.api.data.model.skyblock.minion_data.minions.MinionSqlModel;
+import dev.sbs.api.data.model.skyblock.rarities.RaritySqlModel;
+import dev.sbs.api.util.StringUtil;
+import dev.sbs.updater.coordination.Shard;
+import dev.sbs.updater.coordination.ShardedCoordinator;
+import dev.sbs.updater.processor.WriteBehind;
+import dev.sbs.updater.processor.cache.ModelCache;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ResourceItemsProcessorTest {
+
+    private static final List<String> RARITIES = List.of("COMMON", "RARE", "UNOBTAINABLE");
+    private static final int ITEMS = 120;
+    private static final int GENERATOR_SPACING = 10;
+
+    private final Map<String, Shard> writtenItems = new ConcurrentHashMap<>();
+    private final Map<String, Set<Shard>> writtenMinions = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<SqlModel>> writtenRows = new ConcurrentHashMap<>();
+    private WriteBehind.Target target;
+    private Shard shard;
+    private int killedAfter = -1;
+
+    @BeforeEach
+    public void seed() {
+        this.target = WriteBehind.getTarget();
+        WriteBehind.setTarget((tables, batchSize, transactionSize) -> {
+            if (this.killedAfter >= 0 && this.writtenItems.size() >= this.killedAfter)
+                throw new IllegalStateException("Killed");
+
+            tables.forEach(table -> table.inserts().forEach(row -> {
+                if (row instanceof ItemSqlModel item && this.writtenItems.putIfAbsent(item.getItemId(), this.shard) != null)
+                    throw new IllegalStateException(String.format("Item %s written twice", item.getItemId()));
+
+                if (row instanceof MinionTierSqlModel minionTier)
+                    this.writtenMinions.computeIfAbsent(minionTier.getMinion().getKey(), __ -> ConcurrentHashMap.newKeySet()).add(this.shard);
+
+                this.writtenRows.computeIfAbsent(table.modelClass(), __ -> new CopyOnWriteArrayList<>()).add(row);
+            }));
+        });
+
+        ModelCache.register(RaritySqlModel.class, IntStream.range(0, RARITIES.size())
+            .mapToObj(ordinal -> {
+                RaritySqlModel rarity = new RaritySqlModel();
+                rarity.setKey(RARITIES.get(ordinal));
+                rarity.setName(RARITIES.get(ordinal));
+                rarity.setOrdinal(ordinal);
+                return rarity;
+            })
+            .toList()
+        );
+
+        ItemTypeSqlModel sword = new ItemTypeSqlModel();
+        sword.setKey("SWORD");
+        sword.setName("Sword");
+        ModelCache.register(ItemTypeSqlModel.class, List.of(sword));
+        ModelCache.register(ItemSqlModel.class, Collections.emptyList());
+        ModelCache.register(AccessorySqlModel.class, Collections.emptyList());
+        ModelCache.register(MinionSqlModel.class, Collections.emptyList());
+        ModelCache.register(MinionTierSqlModel.class, Collections.emptyList());
+    }
+
+    @AfterEach
+    public void restoreTarget() {
+        WriteBehind.setTarget(this.target);
+    }
+
+    @Test
+    public void everyItemIsWrittenByOneShard() {
+        ResourceItemsResponse response = response();
+
+        for (int index = 0; index < 2; index++) {
+            this.shard = new Shard(index, 2);
+            ResourceItemsProcessor processor = new ResourceItemsProcessor(ResourceItemsSource.of(response), 2, 25);
+            processor.run(true, new ShardedCoordinator(this.shard).tryAcquire("ResourceItemsProcessor#" + this.shard), this.shard);
+        }
+
+        Map<Shard, Long> itemsPerShard = this.writtenItems.values().stream().collect(Collectors.groupingBy(shard -> shard, Collectors.counting()));
+
+        assertThat(this.writtenItems.size(), is(ITEMS));
+        assertThat(itemsPerShard.size(), is(2));
+        assertThat(this.writtenMinions.size(), is(ITEMS / GENERATOR_SPACING));
+        assertThat(this.writtenMinions.values().stream().allMatch(shards -> shards.size() == 1), is(true)); // Every Tier Of A Minion In One Shard
+    }
+
+    @Test
+    public void ownedItemsAreTheShardItems() {
+        ResourceItemsResponse response = response();
+        this.shard = new Shard(1, 3);
+        ResourceItemsProcessor processor = new ResourceItemsProcessor(ResourceItemsSource.of(response), 1, 25);
+        processor.run(true, new ShardedCoordinator(this.shard).tryAcquire("ResourceItemsProcessor#" + this.shard), this.shard);
+
+        List<String> owned = response.getItems()
+            .stream()
+            .filter(item -> this.shard.owns(StringUtil.isNotEmpty(item.getGenerator()) ? item.getGenerator() : item.getId()))
+            .map(ResourceItemsResponse.Item::getId)
+            .sorted()
+            .toList();
+
+        assertThat(this.writtenItems.keySet().stream().sorted().toList(), is(owned));
+    }
+
+    @Test
+    public void killedRunResumesAfterWrittenChunks() {
+        ResourceItemsResponse response = response();
+        this.shard = Shard.ALL;
+        this.killedAfter = 50; // Killed Writing The Third Chunk
+        ResourceItemsProcessor killed = new ResourceItemsProcessor(ResourceItemsSource.of(response), 1, 25);
+
+        assertThrows(RuntimeException.class, () -> killed.run(true, new ShardedCoordinator(this.shard).tryAcquire("ResourceItemsProcessor"), this.shard));
+        assertThat(this.writtenItems.size(), is(50));
+
+        this.killedAfter = -1;
+        this.reloadWrittenRows();
+        ResourceItemsProcessor resumed = new ResourceItemsProcessor(ResourceItemsSource.of(response), 1, 25);
+        resumed.run(false, new ShardedCoordinator(this.shard).tryAcquire("ResourceItemsProcessor"), this.shard);
+
+        assertThat(this.writtenItems.size(), is(ITEMS)); // Written Chunks Are Skipped, Or Written Twice
+        assertThat(this.writtenMinions.size(), is(ITEMS / GENERATOR_SPACING));
+    }
+
+    /**
+     * Replaces the cached rows with the written rows, as the cache is reloaded from the database after a failed run.
+     */
+    @SuppressWarnings("unchecked")
+    private void reloadWrittenRows() {
+        for (Class<?> modelClass : List.of(ItemSqlModel.class, AccessorySqlModel.class, MinionSqlModel.class, MinionTierSqlModel.class))
+            ModelCache.register((Class<SqlModel>) modelClass, this.writtenRows.getOrDefault(modelClass, List.of()));
+    }
+
+    /**
+     * Builds an items resource, every group of items shares a generator.
+     */
+    private static @NotNull ResourceItemsResponse response() {
+        JsonArray items = new JsonArray();
+
+        IntStream.range(0, ITEMS).forEach(index -> {
+            JsonObject item = new JsonObject();
+            item.addProperty("id", "ITEM_" + index);
+            item.addProperty("material", "STONE");
+            item.addProperty("name", "Item " + index);
+            item.addProperty("tier", RARITIES.get(index % RARITIES.size()));
+            item.addProperty("category", "SWORD");
+
+            if (index % GENERATOR_SPACING < 2) {
+                item.addProperty("generator", "GENERATOR_" + index / GENERATOR_SPACING);
+                item.addProperty("generator_tier", index % GENERATOR_SPACING + 1);
+            }
+
+            items.add(item);
+        });
+
+        JsonObject response = new JsonObject();
+        response.addProperty("success", true);
+        response.addProperty("lastUpdated", System.nanoTime());
+        response.add("items", items);
+        return SimplifiedApi.getGson().fromJson(response, ResourceItemsResponse.class);
+    }
+
+}
@@ -0,0 +1,119 @@
+package dev.sbs.updater.processor.stat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class StatBlockTest {
+
+    @Test
+    public void statsKeepTheirOrder() {
+        Map<String, Double> block = StatBlock.of(stats("STRENGTH", 10.0, "DEFENSE", 5.0, "CRITICAL_DAMAGE", 20.0));
+
+        assertThat(block.keySet(), contains("STRENGTH", "DEFENSE", "CRITICAL_DAMAGE"));
+        assertThat(block.values(), contains(10.0, 5.0, 20.0));
+    }
+
+    @Test
+    public void statsMatchHashMap() {
+        Map<String, Double> stats = stats("STRENGTH", 10.0, "DEFENSE", 5.0, "SPEED", -0.5);
+        Map<String, Double> hashMap = new HashMap<>(stats);
+        Map<String, Double> block = StatBlock.of(stats);
+
+        assertThat(block.equals(hashMap), is(true));
+        assertThat(hashMap.equals(block), is(true));
+        assertThat(block.hashCode(), is(hashMap.hashCode()));
+        assertThat(block.get("DEFENSE"), is(5.0));
+        assertThat(block.get("HEALTH"), is(nullValue()));
+        assertThat(block.get(1), is(nullValue()));
+        assertThat(block.containsKey("SPEED"), is(true));
+        assertThat(block.containsKey("HEALTH"), is(false));
+        assertThat(block.size(), is(3));
+
+        hashMap.put("DEFENSE", 6.0);
+        assertThat(block.equals(hashMap), is(false));
+        assertThat(hashMap.equals(block), is(false));
+    }
+
+    @Test
+    public void blocksAreSharedByOrder() {
+        Map<String, Double> block = StatBlock.of(stats("STRENGTH", 10.0, "DEFENSE", 5.0));
+        Map<String, Double> same = StatBlock.of(stats("STRENGTH", 10.0, "DEFENSE", 5.0));
+        Map<String, Double> reordered = StatBlock.of(stats("DEFENSE", 5.0, "STRENGTH", 10.0));
+
+        assertThat(same, is(sameInstance(block)));
+        assertThat(reordered, is(not(sameInstance(block))));
+        assertThat(reordered.keySet(), contains("DEFENSE", "STRENGTH"));
+        assertThat(reordered.equals(block), is(true));
+        assertThat(block.equals(reordered), is(true));
+        assertThat(reordered.hashCode(), is(block.hashCode()));
+        assertThat(StatBlock.of(stats("STRENGTH", 10.0, "DEFENSE", 6.0)).equals(block), is(false));
+    }
+
+    @Test
+    public void incompleteStatsAreNotCompacted() {
+        Map<String, Double> stats = stats("STRENGTH", null);
+
+        assertThat(StatBlock.of(stats), is(sameInstance(stats)));
+        assertThat(StatBlock.of(null), is(nullValue()));
+    }
+
+    @Test
+    public void tieredStatsMatchHashMap() {
+        Map<String, List<Double>> tieredStats = new LinkedHashMap<>();
+        tieredStats.put("STRENGTH", new ArrayList<>(List.of(1.0, 2.0, 3.0)));
+        tieredStats.put("DEFENSE", new ArrayList<>(List.of(4.0)));
+        Map<String, List<Double>> hashMap = new HashMap<>(tieredStats);
+        Map<String, List<Double>> block = TieredStatBlock.of(tieredStats);
+
+        assertThat(block.keySet(), contains("STRENGTH", "DEFENSE"));
+        assertThat(block.equals(hashMap), is(true));
+        assertThat(hashMap.equals(block), is(true));
+        assertThat(block.hashCode(), is(hashMap.hashCode()));
+        assertThat(block.get("STRENGTH"), is(List.of(1.0, 2.0, 3.0)));
+        assertThat(block.get("STRENGTH").hashCode(), is(List.of(1.0, 2.0, 3.0).hashCode()));
+        assertThat(block.get("HEALTH"), is(nullValue()));
+
+        hashMap.put("DEFENSE", List.of(5.0));
+        assertThat(block.equals(hashMap), is(false));
+        assertThat(hashMap.equals(block), is(false));
+    }
+
+    @Test
+    public void tieredBlocksAreSharedByOrder() {
+        Map<String, List<Double>> first = new LinkedHashMap<>();
+        first.put("STRENGTH", List.of(1.0, 2.0));
+        first.put("DEFENSE", List.of(3.0));
+        Map<String, List<Double>> reversed = new LinkedHashMap<>();
+        reversed.put("DEFENSE", List.of(3.0));
+        reversed.put("STRENGTH", List.of(1.0, 2.0));
+        Map<String, List<Double>> block = TieredStatBlock.of(first);
+
+        assertThat(TieredStatBlock.of(new LinkedHashMap<>(first)), is(sameInstance(block)));
+        assertThat(TieredStatBlock.of(reversed), is(not(sameInstance(block))));
+        assertThat(TieredStatBlock.of(reversed).keySet(), contains("DEFENSE", "STRENGTH"));
+        assertThat(TieredStatBlock.of(reversed), is(block));
+        assertThat(TieredStatBlock.of(reversed).hashCode(), is(block.hashCode()));
+    }
+
+    private static Map<String, Double> stats(Object... entries) {
+        Map<String, Double> stats = new LinkedHashMap<>();
+
+        for (int i = 0; i < entries.length; i += 2)
+            stats.put((String) entries[i], (Double) entries[i + 1]);
+
+        return stats;
+    }
+
+}